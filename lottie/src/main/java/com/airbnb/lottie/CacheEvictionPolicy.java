@@ -0,0 +1,24 @@
+package com.airbnb.lottie;
+
+/**
+ * Controls which composition is evicted from the in memory composition cache when it is full.
+ * Defaults to {@link CacheEvictionPolicy#Lru}.
+ *
+ * @see LottieCompositionFactory#setCacheEvictionPolicy(CacheEvictionPolicy)
+ */
+public enum CacheEvictionPolicy {
+  /**
+   * Evict the composition that was used least recently.
+   */
+  Lru,
+  /**
+   * Evict the composition that was used the fewest times since it was cached.
+   */
+  Lfu,
+  /**
+   * Evict the composition that was used least recently but only cache a new composition if it
+   * has been requested at least as often as the one it would replace. This keeps animations that
+   * are shown all the time cached when many animations are only shown once.
+   */
+  TinyLfu
+}
@@ -0,0 +1,86 @@
+package com.airbnb.lottie;
+
+/**
+ * A snapshot of the in memory composition cache.
+ *
+ * @see LottieCompositionFactory#getCacheStats()
+ */
+public class CompositionCacheStats {
+  private final int size;
+  private final int maxSize;
+  private final long sizeBytes;
+  private final long maxSizeBytes;
+  private final long hitCount;
+  private final long missCount;
+  private final long putCount;
+  private final long evictionCount;
+  private final long rejectionCount;
+
+  public CompositionCacheStats(int size, int maxSize, long sizeBytes, long maxSizeBytes,
+      long hitCount, long missCount, long putCount, long evictionCount, long rejectionCount) {
+    this.size = size;
+    this.maxSize = maxSize;
+    this.sizeBytes = sizeBytes;
+    this.maxSizeBytes = maxSizeBytes;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.putCount = putCount;
+    this.evictionCount = evictionCount;
+    this.rejectionCount = rejectionCount;
+  }
+
+  /**
+   * The number of cached compositions.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * The estimated memory retained by the cached compositions.
+   */
+  public long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  public long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getPutCount() {
+    return putCount;
+  }
+
+  /**
+   * The number of compositions that were removed to make room for others or to trim memory.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * The number of compositions that were not cached because they were larger than the whole
+   * cache or because the eviction policy decided they weren't worth caching.
+   */
+  public long getRejectionCount() {
+    return rejectionCount;
+  }
+
+  @Override public String toString() {
+    return "CompositionCacheStats{size=" + size + "/" + maxSize + ", sizeBytes=" + sizeBytes +
+        "/" + maxSizeBytes + ", hits=" + hitCount + ", misses=" + missCount + ", puts=" +
+        putCount + ", evictions=" + evictionCount + ", rejections=" + rejectionCount + "}";
+  }
+}
@@ -0,0 +1,21 @@
+package com.airbnb.lottie;
+
+/**
+ * Controls when the images of an animation are decoded.
+ * Defaults to {@link ImageLoadingPolicy#Sync}.
+ *
+ * @see LottieDrawable#setImageLoadingPolicy(ImageLoadingPolicy)
+ */
+public enum ImageLoadingPolicy {
+  /**
+   * Decode each image on the main thread the first time that it is drawn. A frame never misses an image but
+   * frames that show an image for the first time may be dropped.
+   */
+  Sync,
+  /**
+   * Start decoding every image on a background thread as soon as the composition is set. Image layers are
+   * skipped until their image is ready. When an image needs to be decoded again at a higher resolution, the
+   * lower resolution one is drawn as a placeholder in the meantime.
+   */
+  Async
+}
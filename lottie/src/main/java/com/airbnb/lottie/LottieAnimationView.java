@@ -256,6 +256,8 @@ import java.util.Set;
       cancelAnimation();
       wasAnimatingWhenDetached = true;
     }
+    // Other views that show the same animation can reuse the images. They're decoded again if this is reattached.
+    lottieDrawable.recycleBitmaps();
     super.onDetachedFromWindow();
   }
 
@@ -656,6 +658,24 @@ import java.util.Set;
     lottieDrawable.setImageAssetDelegate(assetDelegate);
   }
 
+  /**
+   * @see LottieDrawable#setImageLoadingPolicy(ImageLoadingPolicy)
+   */
+  public void setImageLoadingPolicy(ImageLoadingPolicy imageLoadingPolicy) {
+    lottieDrawable.setImageLoadingPolicy(imageLoadingPolicy);
+  }
+
+  /**
+   * @see LottieDrawable#addImagesReadyListener(LottieListener)
+   */
+  public void addImagesReadyListener(LottieListener<LottieComposition> listener) {
+    lottieDrawable.addImagesReadyListener(listener);
+  }
+
+  public void removeImagesReadyListener(LottieListener<LottieComposition> listener) {
+    lottieDrawable.removeImagesReadyListener(listener);
+  }
+
   /**
    * Use this to manually set fonts.
    */
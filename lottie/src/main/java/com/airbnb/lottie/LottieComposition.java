@@ -12,10 +12,14 @@ import androidx.collection.SparseArrayCompat;
 import android.util.JsonReader;
 import android.util.Log;
 
+import com.airbnb.lottie.model.CompositionSizeEstimator;
 import com.airbnb.lottie.model.Font;
 import com.airbnb.lottie.model.FontCharacter;
 import com.airbnb.lottie.model.Marker;
+import com.airbnb.lottie.model.StaticRange;
+import com.airbnb.lottie.model.StaticRangeAnalyzer;
 import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.parser.LazyPrecomp;
 
 import org.json.JSONObject;
 
@@ -23,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +46,8 @@ public class LottieComposition {
   private final PerformanceTracker performanceTracker = new PerformanceTracker();
   private final HashSet<String> warnings = new HashSet<>();
   private Map<String, List<Layer>> precomps;
+  /** Precomps whose layers haven't been parsed yet. */
+  @Nullable private Map<String, LazyPrecomp> lazyPrecomps;
   private Map<String, LottieImageAsset> images;
   /** Map of font names to fonts */
   private Map<String, Font> fonts;
@@ -63,6 +70,8 @@ public class LottieComposition {
    * was only faster until you had ~4 masks after which it would actually become slower.
    */
   private int maskAndMatteCount = 0;
+  @Nullable private volatile List<StaticRange> staticRanges;
+  private boolean staticRangeAnalysisQueued;
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public void init(Rect bounds, float startFrame, float endFrame, float frameRate,
@@ -84,7 +93,12 @@ public class LottieComposition {
   }
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
-  public void addWarning(String warning) {
+  public void setLazyPrecomps(Map<String, LazyPrecomp> lazyPrecomps) {
+    this.lazyPrecomps = lazyPrecomps;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public synchronized void addWarning(String warning) {
     Log.w(L.TAG, warning);
     warnings.add(warning);
   }
@@ -95,7 +109,7 @@ public class LottieComposition {
   }
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
-  public void incrementMatteOrMaskCount(int amount) {
+  public synchronized void incrementMatteOrMaskCount(int amount) {
     maskAndMatteCount += amount;
   }
 
@@ -115,10 +129,75 @@ public class LottieComposition {
     return maskAndMatteCount;
   }
 
-  public ArrayList<String> getWarnings() {
+  public synchronized ArrayList<String> getWarnings() {
     return new ArrayList<>(Arrays.asList(warnings.toArray(new String[warnings.size()])));
   }
 
+  /**
+   * Estimates how much memory this composition retains, including decoded images.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public long estimateSizeBytes() {
+    return CompositionSizeEstimator.estimate(this);
+  }
+
+  /**
+   * Returns the ranges of frames in which nothing that is drawn changes, in order. Frames outside of
+   * them may change. The composition is analyzed the first time this is called which walks every
+   * layer so it shouldn't be called on the main thread.
+   */
+  @WorkerThread
+  public synchronized List<StaticRange> getStaticRanges() {
+    if (staticRanges == null) {
+      staticRanges = StaticRangeAnalyzer.analyze(this);
+    }
+    return staticRanges;
+  }
+
+  /**
+   * Analyzes the static ranges in the background if that hasn't been done yet.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public void analyzeStaticRangesAsync() {
+    synchronized (this) {
+      if (staticRanges != null || staticRangeAnalysisQueued) {
+        return;
+      }
+      staticRangeAnalysisQueued = true;
+    }
+    LottieTask.execute(new Runnable() {
+      @Override public void run() {
+        getStaticRanges();
+      }
+    }, LottieTaskPriority.Prefetch);
+  }
+
+  /**
+   * Returns the static range that contains the frame or null if the frame isn't in one. This never
+   * analyzes the composition so it also returns null until the static ranges have been analyzed.
+   */
+  @Nullable
+  public StaticRange getStaticRangeAt(float frame) {
+    List<StaticRange> staticRanges = this.staticRanges;
+    if (staticRanges == null) {
+      return null;
+    }
+    int low = 0;
+    int high = staticRanges.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (staticRanges.get(mid).startFrame <= frame) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (high >= 0 && staticRanges.get(high).containsFrame(frame)) {
+      return staticRanges.get(high);
+    }
+    return null;
+  }
+
   @SuppressWarnings("WeakerAccess") public void setPerformanceTrackingEnabled(boolean enabled) {
     performanceTracker.setEnabled(enabled);
   }
@@ -161,9 +240,60 @@ public class LottieComposition {
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   @Nullable
   public List<Layer> getPrecomps(String id) {
+    if (lazyPrecomps != null) {
+      LazyPrecomp lazyPrecomp = lazyPrecomps.get(id);
+      if (lazyPrecomp != null) {
+        return lazyPrecomp.getLayers(this);
+      }
+    }
     return precomps.get(id);
   }
 
+  /**
+   * Parses the layers of every lazy precomp if they haven't been already.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public Map<String, List<Layer>> getPrecomps() {
+    if (lazyPrecomps == null) {
+      return precomps;
+    }
+    Map<String, List<Layer>> allPrecomps = new HashMap<>();
+    for (Map.Entry<String, List<Layer>> entry : precomps.entrySet()) {
+      allPrecomps.put(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<String, LazyPrecomp> entry : lazyPrecomps.entrySet()) {
+      allPrecomps.put(entry.getKey(), entry.getValue().getLayers(this));
+    }
+    return allPrecomps;
+  }
+
+  /**
+   * Returns the layers of every precomp that has been parsed. Unlike {@link #getPrecomps()}, this
+   * won't parse lazy precomps.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public List<List<Layer>> getLoadedPrecomps() {
+    List<List<Layer>> loadedPrecomps = new ArrayList<>(precomps.values());
+    if (lazyPrecomps != null) {
+      for (LazyPrecomp lazyPrecomp : lazyPrecomps.values()) {
+        List<Layer> layers = lazyPrecomp.getLoadedLayers();
+        if (layers != null) {
+          loadedPrecomps.add(layers);
+        }
+      }
+    }
+    return loadedPrecomps;
+  }
+
+  /**
+   * Returns true if the precomp was parsed lazily. Layers that reference it should wait to build
+   * their children until they are first visible.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public boolean isLazyPrecomp(String id) {
+    return lazyPrecomps != null && lazyPrecomps.containsKey(id);
+  }
+
   public SparseArrayCompat<FontCharacter> getCharacters() {
     return characters;
   }
@@ -3,27 +3,58 @@ package com.airbnb.lottie;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import androidx.annotation.Nullable;
 import androidx.annotation.RawRes;
+import androidx.annotation.RestrictTo;
 import androidx.annotation.WorkerThread;
 import android.util.JsonReader;
 import android.util.Log;
 
+import com.airbnb.lottie.manager.BitmapPool;
 import com.airbnb.lottie.model.LottieCompositionCache;
+import com.airbnb.lottie.model.LottieCompositionDiskCache;
+import com.airbnb.lottie.network.DefaultLottieNetworkFetcher;
+import com.airbnb.lottie.network.LottieNetworkFetcher;
+import com.airbnb.lottie.network.NetworkDiskCache;
 import com.airbnb.lottie.network.NetworkFetcher;
+import com.airbnb.lottie.parser.BinaryCompositionParser;
+import com.airbnb.lottie.parser.BinaryCompositionWriter;
 import com.airbnb.lottie.parser.LottieCompositionParser;
+import com.airbnb.lottie.utils.BitmapDecoder;
+import com.airbnb.lottie.utils.Utils;
 
 import org.json.JSONObject;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import static com.airbnb.lottie.utils.Utils.closeQuietly;
@@ -41,8 +72,24 @@ public class LottieCompositionFactory {
    * Keep a map of cache keys to in-progress tasks and return them for new requests.
    * Without this, simultaneous requests to parse a composition will trigger multiple parallel
    * parse tasks prior to the cache getting populated.
+   *
+   * Tasks are created while holding one of {@link #taskCacheLocks} so that concurrent requests for the same key
+   * share a single task without serializing requests for other keys.
    */
-  private static final Map<String, LottieTask<LottieComposition>> taskCache = new HashMap<>();
+  private static final ConcurrentMap<String, LottieTask<LottieComposition>> taskCache = new ConcurrentHashMap<>();
+  private static final Object[] taskCacheLocks = new Object[16];
+
+  static {
+    for (int i = 0; i < taskCacheLocks.length; i++) {
+      taskCacheLocks[i] = new Object();
+    }
+  }
+
+  private static volatile boolean diskCacheEnabled = false;
+  /**
+   * HttpURLConnection keeps up to 5 idle connections alive per host so this leaves room for other requests.
+   */
+  private static final int DEFAULT_MAX_BATCH_CONNECTIONS = 4;
 
   private LottieCompositionFactory() {
   }
@@ -55,14 +102,147 @@ public class LottieCompositionFactory {
     LottieCompositionCache.getInstance().resize(size);
   }
 
+  /**
+   * Set the maximum amount of memory that compositions cached in memory may retain. The size of each composition is
+   * estimated from its layers, keyframes, shapes, and decoded images. Defaults to 1/8th of the max heap size.
+   * This must be > 0.
+   */
+  public static void setMaxCacheSizeBytes(long sizeBytes) {
+    LottieCompositionCache.getInstance().resizeBytes(sizeBytes);
+  }
+
+  /**
+   * Set how the in memory cache picks which composition to evict when it is full.
+   */
+  public static void setCacheEvictionPolicy(CacheEvictionPolicy evictionPolicy) {
+    LottieCompositionCache.getInstance().setEvictionPolicy(evictionPolicy);
+  }
+
+  /**
+   * Returns the current size and hit, miss, and eviction counts of the in memory cache.
+   */
+  public static CompositionCacheStats getCacheStats() {
+    return LottieCompositionCache.getInstance().getStats();
+  }
+
+  /**
+   * Call this from {@link android.content.ComponentCallbacks2#onTrimMemory(int)} to release cached compositions
+   * and decoded images when the system is low on memory. Compositions and images that are in use aren't affected.
+   */
+  public static void onTrimMemory(int level) {
+    LottieCompositionCache.getInstance().trimMemory(level);
+    BitmapPool.getInstance().trimMemory(level);
+  }
+
+  /**
+   * Set the maximum amount of memory that decoded images may use. Drawables that show the same composition share
+   * decoded images and images that no drawable shows any more are kept until this is exceeded. Images that are
+   * being shown are never evicted. Defaults to 1/8th of the max heap size.
+   * This must be > 0.
+   */
+  public static void setMaxBitmapPoolSizeBytes(long sizeBytes) {
+    BitmapPool.getInstance().resizeBytes(sizeBytes);
+  }
+
+  /**
+   * Opt in to caching parsed animations on disk. When enabled, animations loaded with {@link #fromUrl(Context, String)},
+   * {@link #fromAsset(Context, String)}, or {@link #fromRawRes(Context, int)} are stored in a compact binary form
+   * that loads considerably faster than json so that they don't have to be parsed again after the app is restarted.
+   * Entries are keyed by the content of the json so an updated animation is always parsed again.
+   *
+   * Animations loaded while {@link #setLazyPrecompsEnabled(boolean) lazy precomps} are enabled aren't written to the
+   * disk cache because that would require every precomp to be loaded.
+   */
+  public static void setDiskCacheEnabled(boolean enabled) {
+    diskCacheEnabled = enabled;
+  }
+
+  /**
+   * Set the maximum size of the disk cache. The least recently used animations are deleted once it grows past this.
+   * Defaults to 10MB. This must be > 0.
+   */
+  @WorkerThread
+  public static void setMaxDiskCacheSizeBytes(Context context, long sizeBytes) {
+    LottieCompositionDiskCache.getInstance(context).resize(sizeBytes);
+  }
+
+  /**
+   * Delete every animation in the disk cache.
+   */
+  @WorkerThread
+  public static void clearDiskCache(Context context) {
+    LottieCompositionDiskCache.getInstance(context).clear();
+  }
+
+  /**
+   * Set the {@link LottieNetworkFetcher} that {@link #fromUrl(Context, String)} downloads animations with. Use this
+   * to load animations with your own http stack. Set it to null to go back to a {@link DefaultLottieNetworkFetcher}.
+   */
+  public static void setNetworkFetcher(@Nullable LottieNetworkFetcher fetcher) {
+    NetworkFetcher.setDefaultFetcher(fetcher == null ? new DefaultLottieNetworkFetcher() : fetcher);
+  }
+
+  /**
+   * Set the maximum size of the animations downloaded by {@link #fromUrl(Context, String)} that are kept on disk.
+   * The least recently used animations are deleted once they grow past this. Defaults to 20MB. This must be > 0.
+   */
+  @WorkerThread
+  public static void setMaxNetworkCacheSizeBytes(Context context, long sizeBytes) {
+    NetworkDiskCache.getInstance(context).resize(sizeBytes);
+  }
+
+  /**
+   * Delete every animation downloaded by {@link #fromUrl(Context, String)}.
+   */
+  @WorkerThread
+  public static void clearNetworkCache(Context context) {
+    NetworkDiskCache.getInstance(context).clear();
+  }
+
+  /**
+   * Opt in to parsing the assets of an animation in parallel. When enabled, every precomp is parsed on its own
+   * background thread while the rest of the animation is parsed. This can significantly reduce the load time of
+   * animations made up of many large precomps but it requires the whole json file to be read into memory before
+   * parsing begins. Animations loaded from a file are always memory mapped so this has no extra cost for them.
+   */
+  public static void setParallelParsingEnabled(boolean enabled) {
+    LottieCompositionParser.setParallelParsingEnabled(enabled);
+  }
+
+  /**
+   * Opt in to loading precomps lazily. When enabled, the layers of a precomp aren't parsed or built until the
+   * first frame in which it is visible. This can significantly reduce the memory usage and time to first frame
+   * of long animations that are made up of many scenes. Like parallel parsing, it requires the whole json file
+   * to be in memory and it will be held onto until every precomp has been loaded.
+   *
+   * Masks, mattes, and dash patterns in a precomp are only taken into account by
+   * {@link RenderMode#Automatic} once the precomp has been loaded.
+   */
+  public static void setLazyPrecompsEnabled(boolean enabled) {
+    LottieCompositionParser.setLazyPrecompsEnabled(enabled);
+  }
+
   /**
    * Fetch an animation from an http url. Once it is downloaded once, Lottie will cache the file to disk for
    * future use. Because of this, you may call `fromUrl` ahead of time to warm the cache if you think you
    * might need an animation in the future.
+   *
+   * The file on disk follows the response's Cache-Control max-age and stale-while-revalidate directives. Once it
+   * is stale, it is revalidated with its ETag or Last-Modified date so an unchanged animation isn't downloaded
+   * again. A response without a max-age is revalidated each time it is loaded from disk if it has either header
+   * and never expires otherwise.
    */
   public static LottieTask<LottieComposition> fromUrl(final Context context, final String url) {
-    String urlCacheKey = "url_" + url;
-    return cache(urlCacheKey, new Callable<LottieResult<LottieComposition>>() {
+    return fromUrl(context, url, LottieTaskPriority.Visible);
+  }
+
+  /**
+   * Like {@link #fromUrl(Context, String)} but the fetch is queued in the given priority lane. If the same url is
+   * already being loaded at a lower priority, that load is moved to the higher priority lane.
+   */
+  public static LottieTask<LottieComposition> fromUrl(final Context context, final String url,
+      LottieTaskPriority priority) {
+    return cache(NetworkFetcher.cacheKeyForUrl(url), priority, new Callable<LottieResult<LottieComposition>>() {
       @Override public LottieResult<LottieComposition> call() {
         return NetworkFetcher.fetchSync(context, url);
       }
@@ -79,6 +259,71 @@ public class LottieCompositionFactory {
     return NetworkFetcher.fetchSync(context, url);
   }
 
+  /**
+   * @see #fromUrls(Context, List, int)
+   */
+  public static Map<String, LottieTask<LottieComposition>> fromUrls(Context context, List<String> urls) {
+    return fromUrls(context, urls, DEFAULT_MAX_BATCH_CONNECTIONS);
+  }
+
+  /**
+   * Load many animations from urls at once, such as the animations for the items of a list.
+   * <ul>
+   *   <li>Each url is only loaded once no matter how many times it is in the list.</li>
+   *   <li>Animations that are already in the network cache are loaded before the ones that have to be downloaded
+   *   so they don't wait behind them.</li>
+   *   <li>No more than maxConnections animations are loaded at the same time so that the connections can be
+   *   kept alive and reused rather than opening one per url. The next one is only queued once one of them is done
+   *   and the ones after the first maxConnections are queued in the {@link LottieTaskPriority#Prefetch} lane.</li>
+   * </ul>
+   *
+   * @return A task for each distinct url in the order that the urls are first in the list. Each task completes as
+   * soon as its own animation is loaded.
+   */
+  public static Map<String, LottieTask<LottieComposition>> fromUrls(Context context, List<String> urls,
+      int maxConnections) {
+    if (maxConnections <= 0) {
+      throw new IllegalArgumentException("maxConnections <= 0");
+    }
+    final Context appContext = context.getApplicationContext();
+    Set<String> distinctUrls = new LinkedHashSet<>(urls);
+    Set<String> cachedUrls = NetworkFetcher.getCachedUrlsIfLoaded(appContext, distinctUrls);
+    List<String> urlsInLoadOrder = new ArrayList<>(distinctUrls.size());
+    for (String url : distinctUrls) {
+      if (cachedUrls.contains(url)) {
+        urlsInLoadOrder.add(url);
+      }
+    }
+    for (String url : distinctUrls) {
+      if (!cachedUrls.contains(url)) {
+        urlsInLoadOrder.add(url);
+      }
+    }
+
+    // The tasks are only started a few at a time so that the ones that are waiting don't take up a thread.
+    LottieTaskBatch batch = new LottieTaskBatch(maxConnections);
+    Map<String, LottieTask<LottieComposition>> tasksByUrl = new HashMap<>();
+    for (int i = 0; i < urlsInLoadOrder.size(); i++) {
+      final String url = urlsInLoadOrder.get(i);
+      // Urls that have to wait for others to finish leave the visible lane free for animations that are on screen.
+      LottieTaskPriority priority = i < maxConnections ? LottieTaskPriority.Visible : LottieTaskPriority.Prefetch;
+      LottieTask<LottieComposition> task = cache(NetworkFetcher.cacheKeyForUrl(url), priority,
+          new Callable<LottieResult<LottieComposition>>() {
+            @Override public LottieResult<LottieComposition> call() {
+              return NetworkFetcher.fetchSync(appContext, url);
+            }
+          }, null, false);
+      tasksByUrl.put(url, task);
+      batch.add(task);
+    }
+    batch.startNext();
+    Map<String, LottieTask<LottieComposition>> tasks = new LinkedHashMap<>();
+    for (String url : distinctUrls) {
+      tasks.put(url, tasksByUrl.get(url));
+    }
+    return tasks;
+  }
+
   /**
    * Parse an animation from src/main/assets. It is recommended to use {@link #fromRawRes(Context, int)} instead.
    * The asset file name will be used as a cache key so future usages won't have to parse the json again.
@@ -87,9 +332,17 @@ public class LottieCompositionFactory {
    * @see #fromZipStream(ZipInputStream, String)
    */
   public static LottieTask<LottieComposition> fromAsset(Context context, final String fileName) {
+    return fromAsset(context, fileName, LottieTaskPriority.Visible);
+  }
+
+  /**
+   * Like {@link #fromAsset(Context, String)} but parsing is queued in the given priority lane.
+   */
+  public static LottieTask<LottieComposition> fromAsset(Context context, final String fileName,
+      LottieTaskPriority priority) {
     // Prevent accidentally leaking an Activity.
     final Context appContext = context.getApplicationContext();
-    return cache(fileName, new Callable<LottieResult<LottieComposition>>() {
+    return cache(assetCacheKey(fileName), priority, new Callable<LottieResult<LottieComposition>>() {
       @Override public LottieResult<LottieComposition> call() {
         return fromAssetSync(appContext, fileName);
       }
@@ -106,11 +359,11 @@ public class LottieCompositionFactory {
   @WorkerThread
   public static LottieResult<LottieComposition> fromAssetSync(Context context, String fileName) {
     try {
-      String cacheKey = "asset_" + fileName;
+      String cacheKey = assetCacheKey(fileName);
       if (fileName.endsWith(".zip")) {
         return fromZipStreamSync(new ZipInputStream(context.getAssets().open(fileName)), cacheKey);
       }
-      return fromJsonInputStreamSync(context.getAssets().open(fileName), cacheKey);
+      return fromJsonInputStreamSync(context, context.getAssets().open(fileName), cacheKey);
     } catch (IOException e) {
       return new LottieResult<>(e);
     }
@@ -122,9 +375,17 @@ public class LottieCompositionFactory {
    * The resource id will be used as a cache key so future usages won't parse the json again.
    */
   public static LottieTask<LottieComposition> fromRawRes(Context context, @RawRes final int rawRes) {
+    return fromRawRes(context, rawRes, LottieTaskPriority.Visible);
+  }
+
+  /**
+   * Like {@link #fromRawRes(Context, int)} but parsing is queued in the given priority lane.
+   */
+  public static LottieTask<LottieComposition> fromRawRes(Context context, @RawRes final int rawRes,
+      LottieTaskPriority priority) {
     // Prevent accidentally leaking an Activity.
     final Context appContext = context.getApplicationContext();
-    return cache(rawResCacheKey(rawRes), new Callable<LottieResult<LottieComposition>>() {
+    return cache(rawResCacheKey(rawRes), priority, new Callable<LottieResult<LottieComposition>>() {
       @Override public LottieResult<LottieComposition> call() {
         return fromRawResSync(appContext, rawRes);
       }
@@ -139,27 +400,172 @@ public class LottieCompositionFactory {
   @WorkerThread
   public static LottieResult<LottieComposition> fromRawResSync(Context context, @RawRes int rawRes) {
     try {
-      return fromJsonInputStreamSync(context.getResources().openRawResource(rawRes), rawResCacheKey(rawRes));
+      return fromJsonInputStreamSync(context, context.getResources().openRawResource(rawRes), rawResCacheKey(rawRes));
     } catch (Resources.NotFoundException e) {
       return new LottieResult<>(e);
     }
   }
 
-  private static String rawResCacheKey(@RawRes int resId) {
+  static String assetCacheKey(String fileName) {
+    return "asset_" + fileName;
+  }
+
+  static String rawResCacheKey(@RawRes int resId) {
     return "rawRes_" + resId;
   }
 
+  /**
+   * Parse an animation from a json or zip file on disk.
+   * The file path will be used as a cache key so future usages won't have to parse the json again.
+   *
+   * @see #fromFileSync(File)
+   */
+  public static LottieTask<LottieComposition> fromFile(final File file) {
+    return cache(fileCacheKey(file), new Callable<LottieResult<LottieComposition>>() {
+      @Override public LottieResult<LottieComposition> call() {
+        return fromFileSync(file);
+      }
+    });
+  }
+
+  /**
+   * Parse an animation from a json or zip file on disk.
+   * The file path will be used as a cache key so future usages won't have to parse the json again.
+   *
+   * Json files are memory mapped and decoded straight out of the mapping which is considerably faster
+   * for large animations than reading them through an InputStream.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromFileSync(File file) {
+    String cacheKey = fileCacheKey(file);
+    if (file.getName().endsWith(".zip")) {
+      return fromZipFileSync(file, cacheKey);
+    }
+    return fromJsonFileSync(file, cacheKey);
+  }
+
+  /**
+   * Return a LottieComposition for a json file on disk. The file is memory mapped rather than read
+   * through an InputStream.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromJsonFileSync(File file, @Nullable String cacheKey) {
+    ByteBuffer buffer;
+    try {
+      buffer = mapFile(file);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    }
+    return fromJsonBufferSyncInternal(buffer, cacheKey);
+  }
+
+  /**
+   * Like {@link #fromJsonFileSync(File, String)} but it will consult the disk cache first if it is enabled.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromJsonFileSync(Context context, File file, @Nullable String cacheKey) {
+    if (!diskCacheEnabled) {
+      return fromJsonFileSync(file, cacheKey);
+    }
+    ByteBuffer buffer;
+    try {
+      buffer = mapFile(file);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    }
+    return fromJsonBufferSyncWithDiskCache(context, buffer, cacheKey);
+  }
+
+  /**
+   * Auto-closes the stream. Consults the disk cache first if it is enabled.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromJsonInputStreamSync(Context context, InputStream stream, @Nullable String cacheKey) {
+    if (!diskCacheEnabled) {
+      return fromJsonInputStreamSync(stream, cacheKey);
+    }
+    try {
+      return fromJsonBufferSyncWithDiskCache(context, ByteBuffer.wrap(readFully(stream)), cacheKey);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    } finally {
+      closeQuietly(stream);
+    }
+  }
+
+  private static LottieResult<LottieComposition> fromJsonBufferSyncWithDiskCache(
+      Context context, ByteBuffer buffer, @Nullable String cacheKey) {
+    final LottieCompositionDiskCache diskCache = LottieCompositionDiskCache.getInstance(context);
+    final String diskCacheKey = LottieCompositionDiskCache.keyFor(buffer);
+    LottieComposition cachedComposition = diskCache.get(diskCacheKey);
+    if (cachedComposition != null) {
+      LottieCompositionCache.getInstance().put(cacheKey, cachedComposition);
+      return new LottieResult<>(cachedComposition);
+    }
+
+    LottieResult<LottieComposition> result = fromJsonBufferSyncInternal(buffer, cacheKey);
+    final LottieComposition composition = result.getValue();
+    if (composition != null && !LottieCompositionParser.isLazyPrecompsEnabled()) {
+      // Don't make the caller wait for the write.
+      LottieTask.EXECUTOR.execute(new Runnable() {
+        @Override public void run() {
+          diskCache.put(diskCacheKey, composition);
+        }
+      });
+    }
+    return result;
+  }
+
+  private static LottieResult<LottieComposition> fromJsonBufferSyncInternal(ByteBuffer buffer, @Nullable String cacheKey) {
+    try {
+      LottieComposition composition = LottieCompositionParser.parse(buffer);
+      LottieCompositionCache.getInstance().put(cacheKey, composition);
+      return new LottieResult<>(composition);
+    } catch (Exception e) {
+      return new LottieResult<>(e);
+    }
+  }
+
+  private static byte[] readFully(InputStream stream) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String fileCacheKey(File file) {
+    return "file_" + file.getAbsolutePath();
+  }
+
+  /**
+   * The mapping remains valid after the file is closed and is released once the buffer is garbage collected.
+   */
+  private static ByteBuffer mapFile(File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      closeQuietly(randomAccessFile);
+    }
+  }
+
   /**
    * Auto-closes the stream.
    *
-   * @see #fromJsonInputStreamSync(InputStream, String, boolean)
+   * @see #fromJsonInputStreamSync(InputStream, String)
    */
   public static LottieTask<LottieComposition> fromJsonInputStream(final InputStream stream, @Nullable final String cacheKey) {
-    return cache(cacheKey, new Callable<LottieResult<LottieComposition>>() {
+    return cache(cacheKey, LottieTaskPriority.Visible, new Callable<LottieResult<LottieComposition>>() {
       @Override public LottieResult<LottieComposition> call() {
         return fromJsonInputStreamSync(stream, cacheKey);
       }
-    });
+    }, stream);
   }
 
   /**
@@ -173,7 +579,13 @@ public class LottieCompositionFactory {
   @WorkerThread
   private static LottieResult<LottieComposition> fromJsonInputStreamSync(InputStream stream, @Nullable String cacheKey, boolean close) {
     try {
+      if (LottieCompositionParser.isParallelParsingEnabled() ||
+          LottieCompositionParser.isLazyPrecompsEnabled()) {
+        return fromJsonBufferSyncInternal(ByteBuffer.wrap(readFully(stream)), cacheKey);
+      }
       return fromJsonReaderSync(new JsonReader(new InputStreamReader(stream)), cacheKey);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
     } finally {
       if (close) {
         closeQuietly(stream);
@@ -226,11 +638,11 @@ public class LottieCompositionFactory {
   }
 
   public static LottieTask<LottieComposition> fromJsonReader(final JsonReader reader, @Nullable final String cacheKey) {
-    return cache(cacheKey, new Callable<LottieResult<LottieComposition>>() {
+    return cache(cacheKey, LottieTaskPriority.Visible, new Callable<LottieResult<LottieComposition>>() {
       @Override public LottieResult<LottieComposition> call() {
         return fromJsonReaderSync(reader, cacheKey);
       }
-    });
+    }, reader);
   }
 
   /**
@@ -256,12 +668,107 @@ public class LottieCompositionFactory {
     }
   }
 
+  /**
+   * Auto-closes the stream.
+   *
+   * @see #fromBinaryStreamSync(InputStream, String)
+   */
+  public static LottieTask<LottieComposition> fromBinaryStream(final InputStream stream, @Nullable final String cacheKey) {
+    return cache(cacheKey, LottieTaskPriority.Visible, new Callable<LottieResult<LottieComposition>>() {
+      @Override public LottieResult<LottieComposition> call() {
+        return fromBinaryStreamSync(stream, cacheKey);
+      }
+    }, stream);
+  }
+
+  /**
+   * Return a LottieComposition for an InputStream to an animation that was converted with
+   * {@link #convertJsonToBinarySync(InputStream, OutputStream)}.
+   * Loading the binary format skips json tokenizing entirely which makes it significantly faster
+   * to load than the equivalent json.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromBinaryStreamSync(InputStream stream, @Nullable String cacheKey) {
+    try {
+      return fromBinaryBufferSyncInternal(ByteBuffer.wrap(readFully(stream)), cacheKey);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    } finally {
+      closeQuietly(stream);
+    }
+  }
+
+  /**
+   * The file path will be used as a cache key so future usages won't have to load the file again.
+   *
+   * @see #fromBinaryFileSync(File)
+   */
+  public static LottieTask<LottieComposition> fromBinaryFile(final File file) {
+    return cache(binaryFileCacheKey(file), new Callable<LottieResult<LottieComposition>>() {
+      @Override public LottieResult<LottieComposition> call() {
+        return fromBinaryFileSync(file);
+      }
+    });
+  }
+
+  /**
+   * Return a LottieComposition for a file written by {@link #convertJsonToBinarySync(InputStream, OutputStream)}.
+   * The file path will be used as a cache key so future usages won't have to load the file again.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromBinaryFileSync(File file) {
+    try {
+      return fromBinaryBufferSyncInternal(mapFile(file), binaryFileCacheKey(file));
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    }
+  }
+
+  private static String binaryFileCacheKey(File file) {
+    return "binary_" + file.getAbsolutePath();
+  }
+
+  private static LottieResult<LottieComposition> fromBinaryBufferSyncInternal(ByteBuffer buffer, @Nullable String cacheKey) {
+    try {
+      LottieComposition composition = BinaryCompositionParser.parse(buffer);
+      LottieCompositionCache.getInstance().put(cacheKey, composition);
+      return new LottieResult<>(composition);
+    } catch (Exception e) {
+      return new LottieResult<>(e);
+    }
+  }
+
+  /**
+   * Parses the json animation from {@code jsonStream} and writes it to {@code binaryStream} in the format
+   * read by {@link #fromBinaryStreamSync(InputStream, String)} and {@link #fromBinaryFileSync(File)}.
+   * This is intended to be run ahead of time, for example at build time or after downloading an animation.
+   *
+   * The binary format stores values that are scaled by the screen density in pixels so it loads fastest on a
+   * device with the same density that it was converted on. It will still load correctly on any other density.
+   *
+   * Auto-closes both streams. Returns the parsed composition or the reason that the conversion failed.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> convertJsonToBinarySync(InputStream jsonStream, OutputStream binaryStream) {
+    try {
+      LottieResult<LottieComposition> result = fromJsonInputStreamSync(jsonStream, null);
+      if (result.getValue() != null) {
+        BinaryCompositionWriter.write(result.getValue(), binaryStream);
+      }
+      return result;
+    } catch (Exception e) {
+      return new LottieResult<>(e);
+    } finally {
+      closeQuietly(binaryStream);
+    }
+  }
+
   public static LottieTask<LottieComposition> fromZipStream(final ZipInputStream inputStream, @Nullable final String cacheKey) {
-    return cache(cacheKey, new Callable<LottieResult<LottieComposition>>() {
+    return cache(cacheKey, LottieTaskPriority.Visible, new Callable<LottieResult<LottieComposition>>() {
       @Override public LottieResult<LottieComposition> call() {
         return fromZipStreamSync(inputStream, cacheKey);
       }
-    });
+    }, inputStream);
   }
 
   /**
@@ -281,45 +788,132 @@ public class LottieCompositionFactory {
   @WorkerThread
   private static LottieResult<LottieComposition> fromZipStreamSyncInternal(ZipInputStream inputStream, @Nullable String cacheKey) {
     LottieComposition composition = null;
-    Map<String, Bitmap> images = new HashMap<>();
+    @Nullable Map<String, List<LottieImageAsset>> assetsByFileName = null;
+    List<ZipImage> images = new ArrayList<>();
+    // Images that come before the json in the zip. They are kept undecoded until it is known whether they are used.
+    Map<String, byte[]> imagesBeforeJson = new HashMap<>();
 
     try {
       ZipEntry entry = inputStream.getNextEntry();
       while (entry != null) {
-        if (entry.getName().contains("__MACOSX")) {
+        Utils.throwIfInterrupted();
+        String fileName = zipEntryFileName(entry);
+        if (entry.isDirectory() || entry.getName().contains("__MACOSX")) {
           inputStream.closeEntry();
-        } else if (entry.getName().contains(".json")) {
+        } else if (composition == null && entry.getName().contains(".json")) {
           JsonReader reader = new JsonReader(new InputStreamReader(inputStream));
           composition = LottieCompositionFactory.fromJsonReaderSyncInternal(reader, null, false).getValue();
-        } else if (entry.getName().contains(".png")) {
-          String[] splitName = entry.getName().split("/");
-          String name = splitName[splitName.length - 1];
-          images.put(name, BitmapFactory.decodeStream(inputStream));
+          if (composition != null) {
+            assetsByFileName = imageAssetsByFileName(composition);
+          }
+        } else if (assetsByFileName == null && isImageFileName(fileName)) {
+          imagesBeforeJson.put(fileName, readFully(inputStream));
+        } else if (assetsByFileName != null && assetsByFileName.containsKey(fileName)) {
+          images.add(ZipImage.fromBytes(fileName, readFully(inputStream)));
         } else {
           inputStream.closeEntry();
         }
 
         entry = inputStream.getNextEntry();
       }
+      // The json parse swallows its own exceptions so make sure that a cancelled load isn't reported as invalid.
+      Utils.throwIfInterrupted();
+
+      if (composition == null || assetsByFileName == null) {
+        return new LottieResult<>(new IllegalArgumentException("Unable to parse composition"));
+      }
+      for (Map.Entry<String, byte[]> image : imagesBeforeJson.entrySet()) {
+        if (assetsByFileName.containsKey(image.getKey())) {
+          images.add(ZipImage.fromBytes(image.getKey(), image.getValue()));
+        }
+      }
+      decodeZipImages(images, assetsByFileName);
     } catch (IOException e) {
       return new LottieResult<>(e);
     }
 
+    return onZipLoaded(composition, cacheKey);
+  }
 
-    if (composition == null) {
-      return new LottieResult<>(new IllegalArgumentException("Unable to parse composition"));
+  /**
+   * Return a LottieComposition for a zip file on disk that contains a json file and its images.
+   *
+   * Unlike {@link #fromZipStreamSync(ZipInputStream, String)}, the zip's central directory is read first so that the
+   * json is parsed before any image is read. Only the images that the animation uses are read and they are decoded
+   * in parallel.
+   */
+  @WorkerThread
+  public static LottieResult<LottieComposition> fromZipFileSync(File file, @Nullable String cacheKey) {
+    ZipFile zipFile;
+    try {
+      zipFile = new ZipFile(file);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
+    }
+    try {
+      return fromZipFileSyncInternal(zipFile, cacheKey);
+    } finally {
+      try {
+        // ZipFile isn't Closeable on every supported api level.
+        zipFile.close();
+      } catch (IOException ignored) {
+      }
     }
+  }
 
-    for (Map.Entry<String, Bitmap> e : images.entrySet()) {
-      LottieImageAsset imageAsset = findImageAssetForFileName(composition, e.getKey());
-      if (imageAsset != null) {
-        imageAsset.setBitmap(e.getValue());
+  @WorkerThread
+  private static LottieResult<LottieComposition> fromZipFileSyncInternal(final ZipFile zipFile, @Nullable String cacheKey) {
+    LottieComposition composition;
+    try {
+      ZipEntry jsonEntry = null;
+      List<ZipEntry> otherEntries = new ArrayList<>();
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        if (entry.isDirectory() || entry.getName().contains("__MACOSX")) {
+          continue;
+        }
+        if (jsonEntry == null && entry.getName().contains(".json")) {
+          jsonEntry = entry;
+        } else {
+          otherEntries.add(entry);
+        }
       }
+      if (jsonEntry == null) {
+        return new LottieResult<>(new IllegalArgumentException("Unable to parse composition"));
+      }
+
+      JsonReader reader = new JsonReader(new InputStreamReader(zipFile.getInputStream(jsonEntry)));
+      composition = fromJsonReaderSyncInternal(reader, null, true).getValue();
+      Utils.throwIfInterrupted();
+      if (composition == null) {
+        return new LottieResult<>(new IllegalArgumentException("Unable to parse composition"));
+      }
+
+      Map<String, List<LottieImageAsset>> assetsByFileName = imageAssetsByFileName(composition);
+      List<ZipImage> images = new ArrayList<>();
+      for (final ZipEntry entry : otherEntries) {
+        String fileName = zipEntryFileName(entry);
+        if (assetsByFileName.containsKey(fileName)) {
+          images.add(new ZipImage(fileName) {
+            @Override InputStream open() throws IOException {
+              return zipFile.getInputStream(entry);
+            }
+          });
+        }
+      }
+      decodeZipImages(images, assetsByFileName);
+    } catch (IOException e) {
+      return new LottieResult<>(e);
     }
 
-    // Ensure that all bitmaps have been set.
+    return onZipLoaded(composition, cacheKey);
+  }
+
+  private static LottieResult<LottieComposition> onZipLoaded(LottieComposition composition, @Nullable String cacheKey) {
+    // Ensure that all bitmaps have been set. Embedded images are decoded when they are drawn.
     for (Map.Entry<String, LottieImageAsset> entry : composition.getImages().entrySet()) {
-      if (entry.getValue().getBitmap() == null) {
+      if (entry.getValue().getBitmap() == null && !entry.getValue().isEmbedded()) {
         return new LottieResult<>(new IllegalStateException("There is no image for " + entry.getValue().getFileName()));
       }
     }
@@ -328,51 +922,218 @@ public class LottieCompositionFactory {
     return new LottieResult<>(composition);
   }
 
+  /**
+   * Decodes the images in parallel. The first one is decoded on this thread.
+   */
+  private static void decodeZipImages(List<ZipImage> images, Map<String, List<LottieImageAsset>> assetsByFileName)
+      throws IOException {
+    List<Future<Bitmap>> bitmaps = new ArrayList<>(images.size());
+    for (int i = 1; i < images.size(); i++) {
+      final ZipImage image = images.get(i);
+      bitmaps.add(LottieCompositionParser.parseExecutor().submit(new Callable<Bitmap>() {
+        @Override public Bitmap call() throws IOException {
+          return image.decode();
+        }
+      }));
+    }
+    try {
+      for (int i = 0; i < images.size(); i++) {
+        Bitmap bitmap = i == 0 ? images.get(0).decode() : getDecodedImage(bitmaps.get(i - 1));
+        //noinspection ConstantConditions
+        for (LottieImageAsset asset : assetsByFileName.get(images.get(i).fileName)) {
+          asset.setBitmap(bitmap);
+        }
+      }
+    } finally {
+      // Only has an effect if decoding failed.
+      for (int i = 0; i < bitmaps.size(); i++) {
+        bitmaps.get(i).cancel(true);
+      }
+    }
+  }
+
   @Nullable
-  private static LottieImageAsset findImageAssetForFileName(LottieComposition composition, String fileName) {
+  private static Bitmap getDecodedImage(Future<Bitmap> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while decoding images.");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Unable to decode image.", cause);
+    }
+  }
+
+  private static Map<String, List<LottieImageAsset>> imageAssetsByFileName(LottieComposition composition) {
+    Map<String, List<LottieImageAsset>> assetsByFileName = new HashMap<>();
     for (LottieImageAsset asset : composition.getImages().values()) {
-      if (asset.getFileName().equals(fileName)) {
-        return asset;
+      if (asset.isEmbedded()) {
+        continue;
+      }
+      List<LottieImageAsset> assets = assetsByFileName.get(asset.getFileName());
+      if (assets == null) {
+        assets = new ArrayList<>(1);
+        assetsByFileName.put(asset.getFileName(), assets);
+      }
+      assets.add(asset);
+    }
+    return assetsByFileName;
+  }
+
+  private static String zipEntryFileName(ZipEntry entry) {
+    String[] splitName = entry.getName().split("/");
+    return splitName[splitName.length - 1];
+  }
+
+  private static boolean isImageFileName(String fileName) {
+    String lowerCaseName = fileName.toLowerCase(Locale.US);
+    return lowerCaseName.endsWith(".png") || lowerCaseName.endsWith(".jpg") || lowerCaseName.endsWith(".jpeg") ||
+        lowerCaseName.endsWith(".webp");
+  }
+
+  /**
+   * An image in a zip that is read and decoded once it is known that the animation uses it.
+   */
+  private abstract static class ZipImage {
+    final String fileName;
+
+    ZipImage(String fileName) {
+      this.fileName = fileName;
+    }
+
+    static ZipImage fromBytes(String fileName, final byte[] bytes) {
+      return new ZipImage(fileName) {
+        @Override InputStream open() {
+          return new ByteArrayInputStream(bytes);
+        }
+      };
+    }
+
+    abstract InputStream open() throws IOException;
+
+    @Nullable
+    Bitmap decode() throws IOException {
+      Utils.throwIfInterrupted();
+      InputStream stream = open();
+      try {
+        // The size that the image is drawn at isn't known yet and the zip can't be read again later.
+        return BitmapDecoder.decode(stream, 1);
+      } finally {
+        closeQuietly(stream);
       }
     }
-    return null;
   }
 
   /**
    * First, check to see if there are any in-progress tasks associated with the cache key and return it if there is.
+   * Then, check to see if the composition has already been loaded and return a completed task if it has.
    * If not, create a new task for the callable.
    * Then, add the new task to the task cache and set up listeners so it gets cleared when done.
    */
   private static LottieTask<LottieComposition> cache(
           @Nullable final String cacheKey, Callable<LottieResult<LottieComposition>> callable) {
-    final LottieComposition cachedComposition = cacheKey == null ? null : LottieCompositionCache.getInstance().get(cacheKey);
-    if (cachedComposition != null) {
-      return new LottieTask<>(new Callable<LottieResult<LottieComposition>>() {
-        @Override
-        public LottieResult<LottieComposition> call() {
-          return new LottieResult<>(cachedComposition);
-        }
-      });
+    return cache(cacheKey, LottieTaskPriority.Visible, callable, null);
+  }
+
+  private static LottieTask<LottieComposition> cache(@Nullable final String cacheKey, LottieTaskPriority priority,
+          Callable<LottieResult<LottieComposition>> callable) {
+    return cache(cacheKey, priority, callable, null);
+  }
+
+  private static LottieTask<LottieComposition> cache(@Nullable final String cacheKey, LottieTaskPriority priority,
+          Callable<LottieResult<LottieComposition>> callable, @Nullable Closeable source) {
+    return cache(cacheKey, priority, callable, source, true);
+  }
+
+  /**
+   * @param source The stream that the callable reads from, if any. It is closed if the new task is cancelled.
+   * @param start Whether to start the task. Otherwise a new task doesn't run until it is started or until a caller
+   *              that doesn't defer it gets it from the cache.
+   */
+  private static LottieTask<LottieComposition> cache(@Nullable final String cacheKey, LottieTaskPriority priority,
+          Callable<LottieResult<LottieComposition>> callable, @Nullable Closeable source, boolean start) {
+    if (cacheKey == null) {
+      LottieTask<LottieComposition> task = new LottieTask<>(callable, priority);
+      if (source != null) {
+        task.closeOnCancel(source);
+      }
+      return task;
     }
-    if (cacheKey != null && taskCache.containsKey(cacheKey)) {
-      return taskCache.get(cacheKey);
+    LottieTask<LottieComposition> task = getCachedTask(cacheKey);
+    if (task != null) {
+      onCachedTask(task, priority, start);
+      return task;
     }
 
-    LottieTask<LottieComposition> task = new LottieTask<>(callable);
-    task.addListener(new LottieListener<LottieComposition>() {
+    synchronized (taskCacheLocks[(cacheKey.hashCode() & 0x7fffffff) % taskCacheLocks.length]) {
+      // Another thread may have started or finished loading this key while we were waiting.
+      task = getCachedTask(cacheKey);
+      if (task != null) {
+        onCachedTask(task, priority, start);
+        return task;
+      }
+      task = new LottieTask<>(callable, priority, start);
+      task.addCaller();
+      taskCache.put(cacheKey, task);
+    }
+    if (source != null) {
+      task.closeOnCancel(source);
+    }
+
+    // The task may already be done in which case these are called synchronously. That call is
+    // ignored so that the task stays shared until its listeners are notified on the main thread.
+    final LottieTask<LottieComposition> newTask = task;
+    final AtomicBoolean registered = new AtomicBoolean();
+    task.addInternalListener(new LottieListener<LottieComposition>() {
       @Override public void onResult(LottieComposition result) {
-        if (cacheKey != null) {
-          LottieCompositionCache.getInstance().put(cacheKey, result);
+        LottieCompositionCache.getInstance().put(cacheKey, result);
+        if (registered.get()) {
+          taskCache.remove(cacheKey, newTask);
         }
-        taskCache.remove(cacheKey);
       }
     });
-    task.addFailureListener(new LottieListener<Throwable>() {
+    task.addInternalFailureListener(new LottieListener<Throwable>() {
       @Override public void onResult(Throwable result) {
-        taskCache.remove(cacheKey);
+        if (registered.get()) {
+          taskCache.remove(cacheKey, newTask);
+        }
       }
     });
-    taskCache.put(cacheKey, task);
+    registered.set(true);
     return task;
   }
+
+  private static void onCachedTask(LottieTask<LottieComposition> task, LottieTaskPriority priority, boolean start) {
+    task.addCaller();
+    task.raisePriority(priority);
+    if (start) {
+      // The task may be waiting in a batch but this caller needs it now.
+      task.start(null);
+    }
+  }
+
+  @Nullable
+  private static LottieTask<LottieComposition> getCachedTask(String cacheKey) {
+    LottieTask<LottieComposition> task = taskCache.get(cacheKey);
+    if (task != null) {
+      LottieResult<LottieComposition> result = task.getResult();
+      if (result == null ||
+          (result.getValue() != null && result.getValue() == LottieCompositionCache.getInstance().get(cacheKey))) {
+        return task;
+      }
+      // The task failed, was cancelled, or finished before its listeners were registered.
+      taskCache.remove(cacheKey, task);
+    }
+    LottieComposition cachedComposition = LottieCompositionCache.getInstance().get(cacheKey);
+    if (cachedComposition != null) {
+      return new LottieTask<>(new LottieResult<>(cachedComposition));
+    }
+    return null;
+  }
 }
@@ -21,15 +21,18 @@ import androidx.annotation.IntRange;
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 
 import com.airbnb.lottie.manager.FontAssetManager;
 import com.airbnb.lottie.manager.ImageAssetManager;
 import com.airbnb.lottie.model.KeyPath;
 import com.airbnb.lottie.model.Marker;
+import com.airbnb.lottie.model.StaticRange;
 import com.airbnb.lottie.model.layer.CompositionLayer;
 import com.airbnb.lottie.parser.LayerParser;
 import com.airbnb.lottie.utils.LottieValueAnimator;
 import com.airbnb.lottie.utils.MiscUtils;
+import com.airbnb.lottie.utils.Utils;
 import com.airbnb.lottie.value.LottieFrameInfo;
 import com.airbnb.lottie.value.LottieValueCallback;
 import com.airbnb.lottie.value.SimpleLottieValueCallback;
@@ -40,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -60,6 +64,8 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   private LottieComposition composition;
   private final LottieValueAnimator animator = new LottieValueAnimator();
   private float scale = 1f;
+  /** How much the canvas was zoomed in on top of {@link #matrix} in the last {@link #draw(Canvas)}. */
+  private float extraScale = 1f;
 
   private final Set<ColorFilterData> colorFilterData = new HashSet<>();
   private final ArrayList<LazyCompositionTask> lazyCompositionTasks = new ArrayList<>();
@@ -69,6 +75,18 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   private String imageAssetsFolder;
   @Nullable
   private ImageAssetDelegate imageAssetDelegate;
+  private ImageLoadingPolicy imageLoadingPolicy = ImageLoadingPolicy.Sync;
+  private final Set<LottieListener<LottieComposition>> imagesReadyListeners = new LinkedHashSet<>();
+  private boolean imagesReady;
+  private final ImageAssetManager.Listener imageLoadListener = new ImageAssetManager.Listener() {
+    @Override public void onImageLoaded() {
+      invalidateSelf();
+    }
+
+    @Override public void onAllImagesLoaded() {
+      notifyImagesReady();
+    }
+  };
   @Nullable
   private FontAssetManager fontAssetManager;
   @Nullable
@@ -86,6 +104,16 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    * many times.
    */
   private boolean isDirty = false;
+  /**
+   * The static range that the layers' progress was last set in. Nothing that is drawn changes until
+   * the frame leaves it so the progress isn't set again until then.
+   */
+  @Nullable private StaticRange staticRange;
+  /**
+   * Value callbacks can return a new value on any frame so static ranges aren't skipped once one
+   * has been added.
+   */
+  private boolean hasValueCallbacks;
 
   @IntDef({RESTART, REVERSE})
   @Retention(RetentionPolicy.SOURCE)
@@ -112,9 +140,15 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
       @Override
       public void onAnimationUpdate(ValueAnimator animation) {
-        if (compositionLayer != null) {
-          compositionLayer.setProgress(animator.getAnimatedValueAbsolute());
+        if (compositionLayer == null) {
+          return;
+        }
+        float frame = animator.getFrame();
+        if (staticRange != null && staticRange.containsFrame(frame)) {
+          return;
         }
+        compositionLayer.setProgress(animator.getAnimatedValueAbsolute());
+        staticRange = hasValueCallbacks ? null : composition.getStaticRangeAt(frame);
       }
     });
   }
@@ -183,7 +217,16 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
    * Sketch or Illustrator to avoid this.
    */
   public void setImagesAssetsFolder(@Nullable String imageAssetsFolder) {
+    if (imageAssetsFolder == null ? this.imageAssetsFolder == null : imageAssetsFolder.equals(this.imageAssetsFolder)) {
+      return;
+    }
     this.imageAssetsFolder = imageAssetsFolder;
+    if (imageAssetManager != null) {
+      // The images were loaded from the old folder.
+      imageAssetManager.releaseBitmaps();
+      imageAssetManager = null;
+      preloadImages();
+    }
   }
 
   @Nullable
@@ -221,6 +264,9 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     lazyCompositionTasks.clear();
 
     composition.setPerformanceTrackingEnabled(performanceTrackingEnabled);
+    preloadImages();
+    // Frames are only skipped once this is done so that the main thread never waits for it.
+    composition.analyzeStaticRangesAsync();
 
     return true;
   }
@@ -241,6 +287,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
   }
 
   private void buildCompositionLayer() {
+    staticRange = null;
     compositionLayer = new CompositionLayer(
         this, LayerParser.parse(composition), composition.getLayers(), composition);
   }
@@ -251,7 +298,10 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     }
     composition = null;
     compositionLayer = null;
+    staticRange = null;
+    recycleBitmaps();
     imageAssetManager = null;
+    imagesReady = false;
     animator.clearComposition();
     invalidateSelf();
   }
@@ -304,6 +354,7 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       extraScale = this.scale / scale;
     }
 
+    this.extraScale = extraScale;
     int saveCount = -1;
     if (extraScale > 1) {
       // This is a bit tricky...
@@ -868,6 +919,8 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
       });
       return;
     }
+    hasValueCallbacks = true;
+    staticRange = null;
     boolean invalidate;
     if (keyPath.getResolvedElement() != null) {
       keyPath.getResolvedElement().addValueCallback(property, callback);
@@ -936,6 +989,108 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     return null;
   }
 
+  /**
+   * Controls whether images are decoded on the main thread when they are first drawn or in the background as soon
+   * as the composition is set. Defaults to {@link ImageLoadingPolicy#Sync} so that a frame never misses an image.
+   */
+  public void setImageLoadingPolicy(ImageLoadingPolicy imageLoadingPolicy) {
+    this.imageLoadingPolicy = imageLoadingPolicy;
+    if (imageAssetManager != null) {
+      imageAssetManager.setLoadingPolicy(imageLoadingPolicy);
+    }
+    preloadImages();
+  }
+
+  public ImageLoadingPolicy getImageLoadingPolicy() {
+    return imageLoadingPolicy;
+  }
+
+  /**
+   * Adds a listener that is called on the main thread once every image of the composition has been loaded or
+   * failed to load. It is called right away if they already have been.
+   */
+  public void addImagesReadyListener(LottieListener<LottieComposition> listener) {
+    imagesReadyListeners.add(listener);
+    if (imagesReady && composition != null) {
+      listener.onResult(composition);
+    }
+  }
+
+  public void removeImagesReadyListener(LottieListener<LottieComposition> listener) {
+    imagesReadyListeners.remove(listener);
+  }
+
+  public boolean areImagesReady() {
+    return imagesReady;
+  }
+
+  private void preloadImages() {
+    if (composition == null) {
+      return;
+    }
+    if (composition.getImages().isEmpty()) {
+      notifyImagesReady();
+      return;
+    }
+    ImageAssetManager bm = getImageAssetManager();
+    if (bm != null) {
+      bm.preload(scale * Utils.dpScale());
+    }
+  }
+
+  private void notifyImagesReady() {
+    if (imagesReady || composition == null) {
+      return;
+    }
+    imagesReady = true;
+    for (LottieListener<LottieComposition> listener : new ArrayList<>(imagesReadyListeners)) {
+      listener.onResult(composition);
+    }
+  }
+
+  /**
+   * Releases the bitmaps that this drawable decoded for images. Other drawables that show the same composition
+   * share them so they are only freed once none of those drawables use them either. They are decoded again if
+   * the animation is drawn after this.
+   */
+  public void recycleBitmaps() {
+    if (imageAssetManager != null) {
+      imageAssetManager.releaseBitmaps();
+    }
+  }
+
+  /**
+   * Returns the bitmap for an image that is drawn at the given scale of its full size. Images that are drawn
+   * smaller than their full size are decoded at a lower resolution.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable
+  public Bitmap getImageAsset(String id, float scale) {
+    ImageAssetManager bm = getImageAssetManager();
+    if (bm != null) {
+      return bm.bitmapForId(id, scale);
+    }
+    return null;
+  }
+
+  /**
+   * The scale that the canvas is zoomed in by on top of the matrix that is passed to the layers. It is only more
+   * than 1 when the scale is too large to draw the composition at directly.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public float getExtraScale() {
+    return extraScale;
+  }
+
+  /**
+   * How many times smaller than the image's full size its bitmap was decoded at.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getImageAssetSampleSize(String id) {
+    ImageAssetManager bm = getImageAssetManager();
+    return bm == null ? 1 : bm.sampleSizeForId(id);
+  }
+
   private ImageAssetManager getImageAssetManager() {
     if (getCallback() == null) {
       // We can't get a bitmap since we can't get a Context from the callback.
@@ -943,12 +1098,15 @@ public class LottieDrawable extends Drawable implements Drawable.Callback, Anima
     }
 
     if (imageAssetManager != null && !imageAssetManager.hasSameContext(getContext())) {
+      imageAssetManager.releaseBitmaps();
       imageAssetManager = null;
     }
 
     if (imageAssetManager == null) {
       imageAssetManager = new ImageAssetManager(getCallback(),
-          imageAssetsFolder, imageAssetDelegate, composition.getImages());
+          imageAssetsFolder, imageAssetDelegate, composition);
+      imageAssetManager.setLoadingPolicy(imageLoadingPolicy);
+      imageAssetManager.setListener(imageLoadListener);
     }
 
     return imageAssetManager;
@@ -1,9 +1,17 @@
 package com.airbnb.lottie;
 
 import android.graphics.Bitmap;
+import android.util.Base64;
+import android.util.Base64InputStream;
+
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
+import com.airbnb.lottie.parser.ByteBufferInputStream;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 /**
  * Data class describing an image asset exported by bodymovin.
  */
@@ -11,8 +19,15 @@ public class LottieImageAsset {
   private final int width;
   private final int height;
   private final String id;
-  private final String fileName;
+  @Nullable private final String fileName;
   private final String dirName;
+  /** The start of a data uri up to and including the comma, such as data:image/png;base64, */
+  @Nullable private final String embeddedImagePrefix;
+  /**
+   * The base64 data of an image that is embedded as a data uri. It is kept as ascii bytes which take half the
+   * memory of a string and it is only decoded when the image is.
+   */
+  @Nullable private final ByteBuffer embeddedImage;
   /** Pre-set a bitmap for this asset */
   @Nullable private Bitmap bitmap;
 
@@ -21,8 +36,50 @@ public class LottieImageAsset {
     this.width = width;
     this.height = height;
     this.id = id;
-    this.fileName = fileName;
     this.dirName = dirName;
+    int dataStart = embeddedImageStart(fileName);
+    if (dataStart < 0) {
+      this.fileName = fileName;
+      embeddedImagePrefix = null;
+      embeddedImage = null;
+    } else {
+      this.fileName = null;
+      embeddedImagePrefix = fileName.substring(0, dataStart);
+      byte[] data = new byte[fileName.length() - dataStart];
+      for (int i = 0; i < data.length; i++) {
+        data[i] = (byte) fileName.charAt(dataStart + i);
+      }
+      embeddedImage = ByteBuffer.wrap(data);
+    }
+  }
+
+  /**
+   * An image that is embedded as a data uri whose base64 data is already in a buffer, such as a memory mapped
+   * file. The buffer is used as is rather than copied.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public LottieImageAsset(int width, int height, String id, String embeddedImagePrefix, ByteBuffer embeddedImage,
+      String dirName) {
+    this.width = width;
+    this.height = height;
+    this.id = id;
+    this.fileName = null;
+    this.dirName = dirName;
+    this.embeddedImagePrefix = embeddedImagePrefix;
+    this.embeddedImage = embeddedImage;
+  }
+
+  /**
+   * Returns where the base64 data starts if the file name is a base64 data uri with the format
+   * data:image/png;base64,&lt;data&gt; or -1 otherwise.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static int embeddedImageStart(String fileName) {
+    if (!fileName.startsWith("data:")) {
+      return -1;
+    }
+    int base64 = fileName.indexOf("base64,");
+    return base64 > 0 ? fileName.indexOf(',') + 1 : -1;
   }
 
   public int getWidth() {
@@ -37,14 +94,66 @@ public class LottieImageAsset {
     return id;
   }
 
+  /**
+   * Returns the file name or, for an image that is embedded in the json, its data uri. The data uri is
+   * rebuilt every time that this is called.
+   */
   public String getFileName() {
-    return fileName;
+    if (embeddedImage == null) {
+      //noinspection ConstantConditions
+      return fileName;
+    }
+    ByteBuffer data = embeddedImage.duplicate();
+    StringBuilder dataUri = new StringBuilder(embeddedImagePrefix.length() + data.remaining());
+    dataUri.append(embeddedImagePrefix);
+    while (data.hasRemaining()) {
+      dataUri.append((char) (data.get() & 0xFF));
+    }
+    return dataUri.toString();
   }
 
-  @SuppressWarnings("unused") public String getDirName() {
+  public String getDirName() {
     return dirName;
   }
 
+  /**
+   * Whether the image is embedded in the json as a base64 data uri rather than a separate file.
+   */
+  public boolean isEmbedded() {
+    return embeddedImage != null;
+  }
+
+  /**
+   * Returns a stream that decodes the base64 data of an embedded image as it is read or null if the image
+   * isn't embedded.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable
+  public InputStream openEmbeddedImage() {
+    if (embeddedImage == null) {
+      return null;
+    }
+    return new Base64InputStream(new ByteBufferInputStream(embeddedImage.duplicate()), Base64.DEFAULT);
+  }
+
+  /**
+   * The start of the data uri of an embedded image up to and including the comma.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable
+  public String getEmbeddedImagePrefix() {
+    return embeddedImagePrefix;
+  }
+
+  /**
+   * The base64 data of an embedded image as ascii.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable
+  public ByteBuffer getEmbeddedImage() {
+    return embeddedImage == null ? null : embeddedImage.duplicate();
+  }
+
   /**
    * Returns the bitmap that has been stored for this image asset if one was explicitly set.
    */
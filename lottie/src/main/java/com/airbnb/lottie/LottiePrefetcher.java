@@ -0,0 +1,256 @@
+package com.airbnb.lottie;
+
+import android.content.Context;
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.RawRes;
+
+import com.airbnb.lottie.network.NetworkFetcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warms the caches with animations that are likely to be shown soon so that they are ready by the time they are
+ * needed. Urls are downloaded to the network cache and every animation is parsed into the in memory cache.
+ *
+ * Animations are loaded from the highest priority to the lowest in the {@link LottieTaskPriority#Prefetch} lane so
+ * they never hold up an animation that is on screen. If a view requests an animation while it is being prefetched,
+ * the view shares the load and it is moved to the {@link LottieTaskPriority#Visible} lane.
+ *
+ * Loading stops once the budget is used up:
+ * <ul>
+ *   <li>{@link #setMaxConcurrentLoads(int)} bounds how many animations are loaded at the same time.</li>
+ *   <li>{@link #setMaxSizeBytes(long)} bounds the estimated memory retained by the warmed animations.</li>
+ *   <li>{@link #setMaxNetworkRequests(int)} bounds how many urls are fetched. A url that was already downloaded to
+ *   the network cache still counts towards this.</li>
+ * </ul>
+ */
+public class LottiePrefetcher {
+  private final Context appContext;
+  private final List<Source> sources = new ArrayList<>();
+  private int maxConcurrentLoads = 1;
+  private long maxSizeBytes = Long.MAX_VALUE;
+  private int maxNetworkRequests = Integer.MAX_VALUE;
+
+  private final Map<Source, LottieTask<LottieComposition>> running = new LinkedHashMap<>();
+  private final List<String> warmed = new ArrayList<>();
+  private final List<String> alreadyCached = new ArrayList<>();
+  private final List<String> skipped = new ArrayList<>();
+  private final List<String> failed = new ArrayList<>();
+  private long sizeBytes;
+  private int networkRequests;
+  private boolean started;
+  private boolean cancelled;
+  private boolean loading;
+  @Nullable private LottieListener<PrefetchResult> listener;
+
+  public LottiePrefetcher(Context context) {
+    // Prevent accidentally leaking an Activity.
+    appContext = context.getApplicationContext();
+  }
+
+  /**
+   * Animations with a higher priority are loaded first. Animations with the same priority are loaded in the order
+   * that they were added.
+   */
+  public LottiePrefetcher addUrl(final String url, int priority) {
+    return add(new Source(NetworkFetcher.cacheKeyForUrl(url), priority, true) {
+      @Override LottieTask<LottieComposition> load(Context context) {
+        return LottieCompositionFactory.fromUrl(context, url, LottieTaskPriority.Prefetch);
+      }
+    });
+  }
+
+  /**
+   * @see #addUrl(String, int)
+   */
+  public LottiePrefetcher addRawRes(@RawRes final int rawRes, int priority) {
+    return add(new Source(LottieCompositionFactory.rawResCacheKey(rawRes), priority, false) {
+      @Override LottieTask<LottieComposition> load(Context context) {
+        return LottieCompositionFactory.fromRawRes(context, rawRes, LottieTaskPriority.Prefetch);
+      }
+    });
+  }
+
+  /**
+   * @see #addUrl(String, int)
+   */
+  public LottiePrefetcher addAsset(final String fileName, int priority) {
+    return add(new Source(LottieCompositionFactory.assetCacheKey(fileName), priority, false) {
+      @Override LottieTask<LottieComposition> load(Context context) {
+        return LottieCompositionFactory.fromAsset(context, fileName, LottieTaskPriority.Prefetch);
+      }
+    });
+  }
+
+  /**
+   * Defaults to 1 so that prefetching never takes up more than one of the loading threads.
+   */
+  public LottiePrefetcher setMaxConcurrentLoads(int maxConcurrentLoads) {
+    if (maxConcurrentLoads <= 0) {
+      throw new IllegalArgumentException("maxConcurrentLoads <= 0");
+    }
+    this.maxConcurrentLoads = maxConcurrentLoads;
+    return this;
+  }
+
+  /**
+   * No more animations are loaded once the warmed animations are estimated to retain this much memory.
+   * Unbounded by default.
+   */
+  public LottiePrefetcher setMaxSizeBytes(long maxSizeBytes) {
+    this.maxSizeBytes = maxSizeBytes;
+    return this;
+  }
+
+  /**
+   * Unbounded by default.
+   */
+  public LottiePrefetcher setMaxNetworkRequests(int maxNetworkRequests) {
+    this.maxNetworkRequests = maxNetworkRequests;
+    return this;
+  }
+
+  /**
+   * Starts loading. A prefetcher can only be started once.
+   *
+   * @param listener Called on the main thread once every animation has been loaded or skipped.
+   */
+  @MainThread
+  public synchronized void start(@Nullable LottieListener<PrefetchResult> listener) {
+    if (started) {
+      throw new IllegalStateException("A prefetcher can only be started once.");
+    }
+    started = true;
+    this.listener = listener;
+    Collections.sort(sources, new Comparator<Source>() {
+      @Override public int compare(Source a, Source b) {
+        if (a.priority != b.priority) {
+          return a.priority > b.priority ? -1 : 1;
+        }
+        return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+      }
+    });
+    loadNext();
+  }
+
+  /**
+   * Stops loading. Animations that are being loaded are cancelled unless something else is waiting for them too.
+   * The listener is called with everything that wasn't loaded yet marked as skipped.
+   */
+  @MainThread
+  public synchronized void cancel() {
+    if (cancelled) {
+      return;
+    }
+    cancelled = true;
+    for (Map.Entry<Source, LottieTask<LottieComposition>> entry : running.entrySet()) {
+      Source source = entry.getKey();
+      entry.getValue()
+          .removeListener(source.loadedListener)
+          .removeFailureListener(source.failureListener);
+      skipped.add(source.cacheKey);
+    }
+    running.clear();
+    for (int i = 0; i < sources.size(); i++) {
+      skipped.add(sources.get(i).cacheKey);
+    }
+    sources.clear();
+    finishIfDone();
+  }
+
+  private LottiePrefetcher add(Source source) {
+    if (started) {
+      throw new IllegalStateException("Animations must be added before the prefetcher is started.");
+    }
+    source.order = sources.size();
+    sources.add(source);
+    return this;
+  }
+
+  private void loadNext() {
+    if (loading) {
+      // A load that completed synchronously called back into this.
+      return;
+    }
+    loading = true;
+    while (!cancelled && running.size() < maxConcurrentLoads && !sources.isEmpty()) {
+      Source source = sources.remove(0);
+      if (sizeBytes >= maxSizeBytes || (source.isNetwork && networkRequests >= maxNetworkRequests)) {
+        skipped.add(source.cacheKey);
+        continue;
+      }
+      LottieTask<LottieComposition> task = source.load(appContext);
+      LottieResult<LottieComposition> result = task.getResult();
+      if (result != null && result.getValue() != null) {
+        alreadyCached.add(source.cacheKey);
+        continue;
+      }
+      if (source.isNetwork) {
+        networkRequests++;
+      }
+      running.put(source, task);
+      task.addListener(source.loadedListener).addFailureListener(source.failureListener);
+    }
+    loading = false;
+    finishIfDone();
+  }
+
+  private synchronized void onLoaded(Source source, LottieComposition composition) {
+    if (running.remove(source) == null) {
+      return;
+    }
+    warmed.add(source.cacheKey);
+    sizeBytes += composition.estimateSizeBytes();
+    loadNext();
+  }
+
+  private synchronized void onFailed(Source source) {
+    if (running.remove(source) == null) {
+      return;
+    }
+    failed.add(source.cacheKey);
+    loadNext();
+  }
+
+  private void finishIfDone() {
+    if (listener == null || loading || !running.isEmpty() || !sources.isEmpty()) {
+      return;
+    }
+    LottieListener<PrefetchResult> listener = this.listener;
+    this.listener = null;
+    listener.onResult(new PrefetchResult(new ArrayList<>(warmed), new ArrayList<>(alreadyCached),
+        new ArrayList<>(skipped), new ArrayList<>(failed), sizeBytes));
+  }
+
+  private abstract class Source {
+    final String cacheKey;
+    final int priority;
+    final boolean isNetwork;
+    int order;
+
+    final LottieListener<LottieComposition> loadedListener = new LottieListener<LottieComposition>() {
+      @Override public void onResult(LottieComposition result) {
+        onLoaded(Source.this, result);
+      }
+    };
+    final LottieListener<Throwable> failureListener = new LottieListener<Throwable>() {
+      @Override public void onResult(Throwable result) {
+        onFailed(Source.this);
+      }
+    };
+
+    Source(String cacheKey, int priority, boolean isNetwork) {
+      this.cacheKey = cacheKey;
+      this.priority = priority;
+      this.isNetwork = isNetwork;
+    }
+
+    abstract LottieTask<LottieComposition> load(Context context);
+  }
+}
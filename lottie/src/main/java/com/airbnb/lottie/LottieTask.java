@@ -6,16 +6,19 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import android.util.Log;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
 
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
 /**
  * Helper to run asynchronous tasks with a result.
  * Results can be obtained with {@link #addListener(LottieListener)}.
@@ -30,9 +33,12 @@ public class LottieTask<T> {
    * fetching happens on.
    *
    * You may change this to run deserialization synchronously for testing.
+   *
+   * Defaults to {@link LottieTaskScheduler#getDefault()}. Task priorities are only taken into account when this is a
+   * {@link LottieTaskScheduler}.
    */
   @SuppressWarnings("WeakerAccess")
-  public static Executor EXECUTOR = Executors.newCachedThreadPool();
+  public static Executor EXECUTOR = LottieTaskScheduler.getDefault();
 
   /* Preserve add order. */
   private final Set<LottieListener<T>> successListeners = new LinkedHashSet<>(1);
@@ -40,10 +46,46 @@ public class LottieTask<T> {
   private final Handler handler = new Handler(Looper.getMainLooper());
 
   @Nullable private volatile LottieResult<T> result = null;
+  @Nullable private LottieFutureTask futureTask;
+  private LottieTaskPriority priority = LottieTaskPriority.Visible;
+  /** Listeners added by Lottie itself. They don't keep the task from being cancelled. */
+  private int internalListenerCount;
+  private boolean observed;
+  /** How many times the task was handed out by the composition cache and how many success listeners it got. */
+  private int callers;
+  private int observers;
+  @Nullable private Closeable closeOnCancel;
+  private boolean started;
+  /** Called on the thread that completes or cancels the task once it is done. */
+  @Nullable private Runnable onDone;
 
   @RestrictTo(RestrictTo.Scope.LIBRARY)
   public LottieTask(Callable<LottieResult<T>> runnable) {
-    this(runnable, false);
+    this(runnable, LottieTaskPriority.Visible);
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public LottieTask(Callable<LottieResult<T>> runnable, LottieTaskPriority priority) {
+    this(runnable, priority, true);
+  }
+
+  /**
+   * @param start Whether to queue the task now. Otherwise it doesn't run until {@link #start(Runnable)} is called.
+   */
+  LottieTask(Callable<LottieResult<T>> runnable, LottieTaskPriority priority, boolean start) {
+    this.priority = priority;
+    futureTask = new LottieFutureTask(runnable);
+    if (start) {
+      start(null);
+    }
+  }
+
+  /**
+   * Creates a task that has already completed with the given result. It never touches the executor.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public LottieTask(LottieResult<T> result) {
+    this.result = result;
   }
 
   /**
@@ -58,7 +100,21 @@ public class LottieTask<T> {
         setResult(new LottieResult<T>(e));
       }
     } else {
-      EXECUTOR.execute(new LottieFutureTask(runnable));
+      futureTask = new LottieFutureTask(runnable);
+      start(null);
+    }
+  }
+
+  /**
+   * Runs work in the same lanes as tasks.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static void execute(Runnable runnable, LottieTaskPriority priority) {
+    Executor executor = EXECUTOR;
+    if (executor instanceof LottieTaskScheduler) {
+      ((LottieTaskScheduler) executor).execute(runnable, priority);
+    } else {
+      executor.execute(runnable);
     }
   }
 
@@ -75,6 +131,21 @@ public class LottieTask<T> {
    * @return the task for call chaining.
    */
   public synchronized LottieTask<T> addListener(LottieListener<T> listener) {
+    observed = true;
+    observers++;
+    return addListenerInternal(listener);
+  }
+
+  /**
+   * Like {@link #addListener(LottieListener)} but the listener doesn't keep the task from being cancelled once every
+   * other listener has been removed.
+   */
+  synchronized LottieTask<T> addInternalListener(LottieListener<T> listener) {
+    internalListenerCount++;
+    return addListenerInternal(listener);
+  }
+
+  private LottieTask<T> addListenerInternal(LottieListener<T> listener) {
     if (result != null && result.getValue() != null) {
       listener.onResult(result.getValue());
     }
@@ -84,12 +155,13 @@ public class LottieTask<T> {
   }
 
   /**
-   * Remove a given task listener. The task will continue to execute so you can re-add
-   * a listener if neccesary.
+   * Remove a given task listener. Once every success and failure listener has been removed, the task is cancelled
+   * and its thread is interrupted if it is still running.
    * @return the task for call chaining.
    */
   public synchronized LottieTask<T> removeListener(LottieListener<T> listener) {
     successListeners.remove(listener);
+    cancelIfUnobserved();
     return this;
   }
 
@@ -99,6 +171,20 @@ public class LottieTask<T> {
    * @return the task for call chaining.
    */
   public synchronized LottieTask<T> addFailureListener(LottieListener<Throwable> listener) {
+    observed = true;
+    return addFailureListenerInternal(listener);
+  }
+
+  /**
+   * Like {@link #addFailureListener(LottieListener)} but the listener doesn't keep the task from being cancelled
+   * once every other listener has been removed.
+   */
+  synchronized LottieTask<T> addInternalFailureListener(LottieListener<Throwable> listener) {
+    internalListenerCount++;
+    return addFailureListenerInternal(listener);
+  }
+
+  private LottieTask<T> addFailureListenerInternal(LottieListener<Throwable> listener) {
     if (result != null && result.getException() != null) {
       listener.onResult(result.getException());
     }
@@ -108,15 +194,91 @@ public class LottieTask<T> {
   }
 
   /**
-   * Remove a given task failure listener. The task will continue to execute so you can re-add
-   * a listener if neccesary.
+   * Remove a given task failure listener. Once every success and failure listener has been removed, the task is
+   * cancelled and its thread is interrupted if it is still running.
    * @return the task for call chaining.
    */
   public synchronized LottieTask<T> removeFailureListener(LottieListener<Throwable> listener) {
     failureListeners.remove(listener);
+    cancelIfUnobserved();
+    return this;
+  }
+
+  /**
+   * Closes the given closeable, usually the stream that the task reads from, if the task is cancelled. This releases
+   * it if the task never got to start and unblocks reads that can't be interrupted if it is running.
+   */
+  synchronized LottieTask<T> closeOnCancel(Closeable closeable) {
+    closeOnCancel = closeable;
     return this;
   }
 
+  /**
+   * Records that the task was returned to one more caller. A caller that never adds a listener, such as one that
+   * warms the cache, keeps the task from being cancelled when the listeners of the other callers are removed.
+   */
+  synchronized void addCaller() {
+    callers++;
+  }
+
+  /**
+   * Queues a task that was created without being started.
+   *
+   * @param onDone Called once the task completes or is cancelled.
+   * @return false if the task had already been started or is done.
+   */
+  synchronized boolean start(@Nullable Runnable onDone) {
+    if (started || result != null || futureTask == null) {
+      return false;
+    }
+    started = true;
+    this.onDone = onDone;
+    execute(futureTask, priority);
+    return true;
+  }
+
+  /**
+   * Moves the task to a higher priority lane if it hasn't started yet.
+   */
+  synchronized void raisePriority(LottieTaskPriority priority) {
+    if (priority.ordinal() >= this.priority.ordinal()) {
+      return;
+    }
+    this.priority = priority;
+    if (futureTask != null && EXECUTOR instanceof LottieTaskScheduler) {
+      ((LottieTaskScheduler) EXECUTOR).setPriority(futureTask, priority);
+    }
+  }
+
+  /**
+   * Tasks that nobody is waiting for anymore are cancelled so that they stop taking up a thread. Tasks that never
+   * had a listener, or that were handed out to more callers than added a listener, always run to completion since
+   * one of the callers started them to warm the cache.
+   */
+  private void cancelIfUnobserved() {
+    if (!observed || callers > observers || result != null || futureTask == null ||
+        successListeners.size() + failureListeners.size() > internalListenerCount) {
+      return;
+    }
+    if (!futureTask.cancel(true)) {
+      // It just finished.
+      return;
+    }
+    if (EXECUTOR instanceof LottieTaskScheduler) {
+      ((LottieTaskScheduler) EXECUTOR).cancel(futureTask);
+    }
+    closeQuietly(closeOnCancel);
+    closeOnCancel = null;
+    setResult(new LottieResult<T>(new CancellationException("Every listener was removed.")));
+  }
+
+  /**
+   * Returns the result if the task has completed or null if it is still running.
+   */
+  @Nullable LottieResult<T> getResult() {
+    return result;
+  }
+
   private void notifyListeners() {
     // Listeners should be called on the main thread.
     handler.post(new Runnable() {
@@ -148,7 +310,7 @@ public class LottieTask<T> {
     // Allows listeners to remove themselves in onResult.
     // Otherwise we risk ConcurrentModificationException.
     List<LottieListener<Throwable>> listenersCopy = new ArrayList<>(failureListeners);
-    if (listenersCopy.isEmpty()) {
+    if (listenersCopy.isEmpty() && !(e instanceof CancellationException)) {
       Log.w(L.TAG, "Lottie encountered an error but no failure listener was added.", e);
       return;
     }
@@ -165,15 +327,17 @@ public class LottieTask<T> {
 
     @Override
     protected void done() {
-      if (isCancelled()) {
+      if (!isCancelled()) {
         // We don't need to notify and listeners if the task is cancelled.
-        return;
+        try {
+          setResult(get());
+        } catch (InterruptedException | ExecutionException e) {
+          setResult(new LottieResult<T>(e));
+        }
       }
-
-      try {
-        setResult(get());
-      } catch (InterruptedException | ExecutionException e) {
-        setResult(new LottieResult<T>(e));
+      Runnable onDone = LottieTask.this.onDone;
+      if (onDone != null) {
+        onDone.run();
       }
     }
   }
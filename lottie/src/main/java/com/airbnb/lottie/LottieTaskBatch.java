@@ -0,0 +1,56 @@
+package com.airbnb.lottie;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Starts tasks that were created without being started, no more than a given number at a time. The next task is
+ * started once a running one completes or is cancelled so that the tasks that are waiting don't hold a thread.
+ *
+ * Tasks that were already started by someone else, such as a view that needed the animation right away, are
+ * skipped.
+ */
+class LottieTaskBatch {
+  private final Queue<LottieTask<?>> pending = new ArrayDeque<>();
+  private final int maxRunning;
+  private int running;
+
+  private final Runnable onTaskDone = new Runnable() {
+    @Override public void run() {
+      synchronized (LottieTaskBatch.this) {
+        running--;
+      }
+      startNext();
+    }
+  };
+
+  LottieTaskBatch(int maxRunning) {
+    this.maxRunning = maxRunning;
+  }
+
+  synchronized void add(LottieTask<?> task) {
+    pending.add(task);
+  }
+
+  /**
+   * Starts waiting tasks until the maximum number are running.
+   */
+  void startNext() {
+    while (true) {
+      LottieTask<?> task;
+      // Tasks are started without holding the lock since they may call back into the batch.
+      synchronized (this) {
+        if (running >= maxRunning || pending.isEmpty()) {
+          return;
+        }
+        task = pending.remove();
+        running++;
+      }
+      if (!task.start(onTaskDone)) {
+        synchronized (this) {
+          running--;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.airbnb.lottie;
+
+/**
+ * The lane that a {@link LottieTask} is queued in by {@link LottieTaskScheduler}. Queued tasks
+ * in a higher priority lane always start before ones in a lower priority lane.
+ */
+public enum LottieTaskPriority {
+  /**
+   * The animation is needed to render something that is on screen now. This is the default.
+   */
+  Visible,
+  /**
+   * The animation may be needed soon. These tasks only run once no visible task is waiting.
+   */
+  Prefetch
+}
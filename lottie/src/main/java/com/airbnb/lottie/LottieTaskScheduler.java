@@ -0,0 +1,182 @@
+package com.airbnb.lottie;
+
+import android.os.Process;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The default {@link LottieTask#EXECUTOR}. It runs tasks on a small, fixed number of background
+ * threads so that a burst of requests can't starve the UI thread. Waiting tasks are started in
+ * {@link LottieTaskPriority} order and in the order they were submitted within each lane.
+ *
+ * Runnables that are submitted through {@link #execute(Runnable)} rather than by a LottieTask are
+ * queued in the {@link LottieTaskPriority#Prefetch} lane.
+ */
+public class LottieTaskScheduler implements Executor {
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private static final LottieTaskScheduler DEFAULT = new LottieTaskScheduler(defaultThreadCount());
+
+  /**
+   * The scheduler that {@link LottieTask#EXECUTOR} is set to by default.
+   */
+  public static LottieTaskScheduler getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * One thread per core while leaving a core for the UI thread. Parsing is cpu bound so more
+   * threads than this only add contention.
+   */
+  private static int defaultThreadCount() {
+    return Math.max(2, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+  }
+
+  private final ThreadPoolExecutor executor;
+  private final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  private long startedCount;
+  private long completedCount;
+  private long cancelledCount;
+  private long totalWaitTimeNanos;
+  private long maxWaitTimeNanos;
+
+  public LottieTaskScheduler(int threadCount) {
+    executor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue,
+        new LottieThreadFactory()) {
+      @Override protected void beforeExecute(Thread t, Runnable r) {
+        onStart((ScheduledRunnable) r);
+      }
+
+      @Override protected void afterExecute(Runnable r, Throwable t) {
+        onComplete();
+      }
+    };
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  @Override public void execute(@NonNull Runnable runnable) {
+    execute(runnable, LottieTaskPriority.Prefetch);
+  }
+
+  public void execute(Runnable runnable, LottieTaskPriority priority) {
+    executor.execute(new ScheduledRunnable(runnable, priority, sequence.getAndIncrement(), System.nanoTime()));
+  }
+
+  /**
+   * Moves a runnable that is still waiting to start into another lane. It keeps its place relative
+   * to the other runnables that were submitted before and after it.
+   */
+  void setPriority(Runnable runnable, LottieTaskPriority priority) {
+    ScheduledRunnable scheduled = find(runnable);
+    if (scheduled == null || scheduled.priority == priority || !queue.remove(scheduled)) {
+      // It already started.
+      return;
+    }
+    executor.execute(new ScheduledRunnable(runnable, priority, scheduled.sequence, scheduled.enqueueTimeNanos));
+  }
+
+  /**
+   * Removes a runnable that is still waiting to start from the queue.
+   */
+  void cancel(Runnable runnable) {
+    ScheduledRunnable scheduled = find(runnable);
+    if (scheduled != null) {
+      queue.remove(scheduled);
+    }
+    synchronized (this) {
+      cancelledCount++;
+    }
+  }
+
+  public TaskSchedulerStats getStats() {
+    int visibleQueueSize = 0;
+    int prefetchQueueSize = 0;
+    for (Runnable runnable : queue) {
+      if (((ScheduledRunnable) runnable).priority == LottieTaskPriority.Visible) {
+        visibleQueueSize++;
+      } else {
+        prefetchQueueSize++;
+      }
+    }
+    synchronized (this) {
+      long averageWaitTimeNanos = startedCount == 0 ? 0 : totalWaitTimeNanos / startedCount;
+      return new TaskSchedulerStats(executor.getMaximumPoolSize(), executor.getActiveCount(), visibleQueueSize,
+          prefetchQueueSize, completedCount, cancelledCount,
+          TimeUnit.NANOSECONDS.toMillis(averageWaitTimeNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitTimeNanos));
+    }
+  }
+
+  @Nullable
+  private ScheduledRunnable find(Runnable runnable) {
+    Iterator<Runnable> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      ScheduledRunnable scheduled = (ScheduledRunnable) iterator.next();
+      if (scheduled.runnable == runnable) {
+        return scheduled;
+      }
+    }
+    return null;
+  }
+
+  private synchronized void onStart(ScheduledRunnable runnable) {
+    long waitTimeNanos = System.nanoTime() - runnable.enqueueTimeNanos;
+    startedCount++;
+    totalWaitTimeNanos += waitTimeNanos;
+    maxWaitTimeNanos = Math.max(maxWaitTimeNanos, waitTimeNanos);
+  }
+
+  private synchronized void onComplete() {
+    completedCount++;
+  }
+
+  private static class ScheduledRunnable implements Runnable, Comparable<ScheduledRunnable> {
+    final Runnable runnable;
+    final LottieTaskPriority priority;
+    final long sequence;
+    final long enqueueTimeNanos;
+
+    ScheduledRunnable(Runnable runnable, LottieTaskPriority priority, long sequence, long enqueueTimeNanos) {
+      this.runnable = runnable;
+      this.priority = priority;
+      this.sequence = sequence;
+      this.enqueueTimeNanos = enqueueTimeNanos;
+    }
+
+    @Override public void run() {
+      runnable.run();
+    }
+
+    @Override public int compareTo(@NonNull ScheduledRunnable other) {
+      if (priority != other.priority) {
+        return priority.ordinal() - other.priority.ordinal();
+      }
+      return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+  }
+
+  private static class LottieThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Override public Thread newThread(@NonNull final Runnable runnable) {
+      Thread thread = new Thread(new Runnable() {
+        @Override public void run() {
+          Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+          runnable.run();
+        }
+      }, "LottieTask-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
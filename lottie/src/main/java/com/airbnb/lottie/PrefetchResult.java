@@ -0,0 +1,62 @@
+package com.airbnb.lottie;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a {@link LottiePrefetcher} did. Each animation is identified by the key that it is cached
+ * under such as "url_https://…", "asset_foo.json", or "rawRes_2131689472".
+ */
+public class PrefetchResult {
+  private final List<String> warmed;
+  private final List<String> alreadyCached;
+  private final List<String> skipped;
+  private final List<String> failed;
+  private final long sizeBytes;
+
+  PrefetchResult(List<String> warmed, List<String> alreadyCached, List<String> skipped,
+      List<String> failed, long sizeBytes) {
+    this.warmed = Collections.unmodifiableList(warmed);
+    this.alreadyCached = Collections.unmodifiableList(alreadyCached);
+    this.skipped = Collections.unmodifiableList(skipped);
+    this.failed = Collections.unmodifiableList(failed);
+    this.sizeBytes = sizeBytes;
+  }
+
+  /**
+   * Animations that were loaded into the caches.
+   */
+  public List<String> getWarmed() {
+    return warmed;
+  }
+
+  /**
+   * Animations that were already in the in memory cache.
+   */
+  public List<String> getAlreadyCached() {
+    return alreadyCached;
+  }
+
+  /**
+   * Animations that weren't loaded because the budget ran out or the prefetcher was cancelled.
+   */
+  public List<String> getSkipped() {
+    return skipped;
+  }
+
+  public List<String> getFailed() {
+    return failed;
+  }
+
+  /**
+   * The estimated memory retained by the warmed animations.
+   */
+  public long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  @Override public String toString() {
+    return "PrefetchResult{warmed=" + warmed + ", alreadyCached=" + alreadyCached + ", skipped=" +
+        skipped + ", failed=" + failed + ", sizeBytes=" + sizeBytes + "}";
+  }
+}
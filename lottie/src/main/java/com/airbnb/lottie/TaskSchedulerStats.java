@@ -0,0 +1,89 @@
+package com.airbnb.lottie;
+
+/**
+ * A snapshot of the queue and wait time metrics of a {@link LottieTaskScheduler}.
+ *
+ * @see LottieTaskScheduler#getStats()
+ */
+public class TaskSchedulerStats {
+  private final int threadCount;
+  private final int activeCount;
+  private final int visibleQueueSize;
+  private final int prefetchQueueSize;
+  private final long completedCount;
+  private final long cancelledCount;
+  private final long averageWaitTimeMs;
+  private final long maxWaitTimeMs;
+
+  public TaskSchedulerStats(int threadCount, int activeCount, int visibleQueueSize, int prefetchQueueSize,
+      long completedCount, long cancelledCount, long averageWaitTimeMs, long maxWaitTimeMs) {
+    this.threadCount = threadCount;
+    this.activeCount = activeCount;
+    this.visibleQueueSize = visibleQueueSize;
+    this.prefetchQueueSize = prefetchQueueSize;
+    this.completedCount = completedCount;
+    this.cancelledCount = cancelledCount;
+    this.averageWaitTimeMs = averageWaitTimeMs;
+    this.maxWaitTimeMs = maxWaitTimeMs;
+  }
+
+  /**
+   * The maximum number of tasks that can run at the same time.
+   */
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  /**
+   * The number of tasks that are running now.
+   */
+  public int getActiveCount() {
+    return activeCount;
+  }
+
+  /**
+   * The number of tasks waiting to start in the given lane.
+   */
+  public int getQueueSize(LottieTaskPriority priority) {
+    return priority == LottieTaskPriority.Visible ? visibleQueueSize : prefetchQueueSize;
+  }
+
+  public int getQueueSize() {
+    return visibleQueueSize + prefetchQueueSize;
+  }
+
+  /**
+   * The number of tasks that have finished running.
+   */
+  public long getCompletedCount() {
+    return completedCount;
+  }
+
+  /**
+   * The number of tasks that were removed from the queue or interrupted because nothing was
+   * listening for their result anymore.
+   */
+  public long getCancelledCount() {
+    return cancelledCount;
+  }
+
+  /**
+   * The average time that a task waited in the queue before it started.
+   */
+  public long getAverageWaitTimeMs() {
+    return averageWaitTimeMs;
+  }
+
+  /**
+   * The longest time that any task waited in the queue before it started.
+   */
+  public long getMaxWaitTimeMs() {
+    return maxWaitTimeMs;
+  }
+
+  @Override public String toString() {
+    return "TaskSchedulerStats{active=" + activeCount + "/" + threadCount + ", queued=" + visibleQueueSize +
+        " visible, " + prefetchQueueSize + " prefetch, completed=" + completedCount + ", cancelled=" +
+        cancelledCount + ", averageWaitMs=" + averageWaitTimeMs + ", maxWaitMs=" + maxWaitTimeMs + "}";
+  }
+}
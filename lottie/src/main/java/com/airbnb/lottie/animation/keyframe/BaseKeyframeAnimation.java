@@ -1,6 +1,7 @@
 package com.airbnb.lottie.animation.keyframe;
 
 import android.util.Log;
+import android.view.animation.Interpolator;
 
 import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.value.LottieValueCallback;
@@ -25,13 +26,14 @@ public abstract class BaseKeyframeAnimation<K, A> {
   final List<AnimationListener> listeners = new ArrayList<>(1);
   private boolean isDiscrete = false;
 
-  private final List<? extends Keyframe<K>> keyframes;
+  private final KeyframeTrack<K> track;
+  @Nullable private List<? extends Keyframe<K>> keyframes;
   private float progress = 0f;
   @Nullable protected LottieValueCallback<A> valueCallback;
 
-  @Nullable private Keyframe<K> cachedKeyframe;
+  private int cachedKeyframeIndex = -1;
 
-  @Nullable private Keyframe<K> cachedGetValueKeyframe;
+  private int cachedGetValueKeyframeIndex = -1;
   private float cachedGetValueProgress = -1f;
   @Nullable private A cachedGetValue = null;
 
@@ -39,7 +41,11 @@ public abstract class BaseKeyframeAnimation<K, A> {
   private float cachedEndProgress = -1f;
 
   BaseKeyframeAnimation(List<? extends Keyframe<K>> keyframes) {
-    this.keyframes = keyframes;
+    this(new KeyframeTrack<>(keyframes));
+  }
+
+  BaseKeyframeAnimation(KeyframeTrack<K> track) {
+    this.track = track;
   }
 
   public void setIsDiscrete() {
@@ -51,12 +57,10 @@ public abstract class BaseKeyframeAnimation<K, A> {
   }
 
   public void setProgress(@FloatRange(from = 0f, to = 1f) float progress) {
-    if (keyframes.isEmpty()) {
+    if (track.isEmpty()) {
       return;
     }
-    // Must use hashCode() since the actual object instance will be returned
-    // from getValue() below with the new values.
-    Keyframe<K> previousKeyframe = getCurrentKeyframe();
+    int previousKeyframeIndex = getCurrentKeyframeIndex();
     if (progress < getStartDelayProgress()) {
       progress = getStartDelayProgress();
     } else if (progress > getEndProgress()) {
@@ -68,9 +72,9 @@ public abstract class BaseKeyframeAnimation<K, A> {
     }
     this.progress = progress;
     // Just trigger a change but don't compute values if there is a value callback.
-    Keyframe<K> newKeyframe = getCurrentKeyframe();
+    int newKeyframeIndex = getCurrentKeyframeIndex();
 
-    if (previousKeyframe != newKeyframe || !newKeyframe.isStatic()) {
+    if (previousKeyframeIndex != newKeyframeIndex || !track.isStatic(newKeyframeIndex)) {
       notifyListeners();
     }
   }
@@ -82,22 +86,19 @@ public abstract class BaseKeyframeAnimation<K, A> {
   }
 
   protected Keyframe<K> getCurrentKeyframe() {
-    if (cachedKeyframe != null && cachedKeyframe.containsProgress(progress)) {
-      return cachedKeyframe;
-    }
+    return getKeyframe(getCurrentKeyframeIndex());
+  }
 
-    Keyframe<K> keyframe = keyframes.get(keyframes.size() - 1);
-    if (progress < keyframe.getStartProgress()) {
-      for (int i = keyframes.size() - 1; i >= 0; i--) {
-        keyframe = keyframes.get(i);
-        if (keyframe.containsProgress(progress)) {
-          break;
-        }
-      }
+  private Keyframe<K> getKeyframe(int index) {
+    if (keyframes == null) {
+      keyframes = track.getKeyframes();
     }
+    return keyframes.get(index);
+  }
 
-    cachedKeyframe = keyframe;
-    return keyframe;
+  int getCurrentKeyframeIndex() {
+    cachedKeyframeIndex = track.indexOf(progress, cachedKeyframeIndex);
+    return cachedKeyframeIndex;
   }
 
   /**
@@ -109,12 +110,12 @@ public abstract class BaseKeyframeAnimation<K, A> {
       return 0f;
     }
 
-    Keyframe<K> keyframe = getCurrentKeyframe();
-    if (keyframe.isStatic()) {
+    int index = getCurrentKeyframeIndex();
+    if (track.isStatic(index)) {
       return 0f;
     }
-    float progressIntoFrame = progress - keyframe.getStartProgress();
-    float keyframeProgress = keyframe.getEndProgress() - keyframe.getStartProgress();
+    float progressIntoFrame = progress - track.getStartProgress(index);
+    float keyframeProgress = track.getEndProgress(index) - track.getStartProgress(index);
     return progressIntoFrame / keyframeProgress;
   }
 
@@ -123,18 +124,17 @@ public abstract class BaseKeyframeAnimation<K, A> {
    * the current keyframe's interpolator.
    */
   protected float getInterpolatedCurrentKeyframeProgress() {
-    Keyframe<K> keyframe = getCurrentKeyframe();
-    if (keyframe.isStatic()) {
+    Interpolator interpolator = track.getInterpolator(getCurrentKeyframeIndex());
+    if (interpolator == null) {
       return 0f;
     }
-    //noinspection ConstantConditions
-    return keyframe.interpolator.getInterpolation(getLinearCurrentKeyframeProgress());
+    return interpolator.getInterpolation(getLinearCurrentKeyframeProgress());
   }
 
   @FloatRange(from = 0f, to = 1f)
   private float getStartDelayProgress() {
       if (cachedStartDelayProgress == -1f) {
-            cachedStartDelayProgress = keyframes.isEmpty() ? 0f : keyframes.get(0).getStartProgress();
+            cachedStartDelayProgress = track.isEmpty() ? 0f : track.getStartProgress(0);
       }
       return cachedStartDelayProgress;
   }
@@ -142,21 +142,22 @@ public abstract class BaseKeyframeAnimation<K, A> {
   @FloatRange(from = 0f, to = 1f)
   float getEndProgress() {
       if (cachedEndProgress == -1f) {
-        cachedEndProgress = keyframes.isEmpty() ? 1f : keyframes.get(keyframes.size() - 1).getEndProgress();
+        cachedEndProgress = track.isEmpty() ? 1f : track.getEndProgress(track.size() - 1);
       }
       return cachedEndProgress;
   }
 
   public A getValue() {
-    Keyframe<K> keyframe = getCurrentKeyframe();
+    int keyframeIndex = getCurrentKeyframeIndex();
     float progress = getInterpolatedCurrentKeyframeProgress();
-    if (valueCallback == null && keyframe == cachedGetValueKeyframe && cachedGetValueProgress == progress) {
+    if (valueCallback == null && keyframeIndex == cachedGetValueKeyframeIndex &&
+        cachedGetValueProgress == progress) {
       return cachedGetValue;
     }
 
-    cachedGetValueKeyframe = keyframe;
+    cachedGetValueKeyframeIndex = keyframeIndex;
     cachedGetValueProgress = progress;
-    A value = getValue(keyframe, progress);
+    A value = getValue(keyframeIndex, progress);
     cachedGetValue = value;
 
     return value;
@@ -176,6 +177,13 @@ public abstract class BaseKeyframeAnimation<K, A> {
     }
   }
 
+  /**
+   * Animations of primitive values override this to evaluate their track without a {@link Keyframe}.
+   */
+  A getValue(int keyframeIndex, float keyframeProgress) {
+    return getValue(getKeyframe(keyframeIndex), keyframeProgress);
+  }
+
   /**
    * keyframeProgress will be [0, 1] unless the interpolator has overshoot in which case, this
    * should be able to handle values outside of that range.
@@ -7,9 +7,15 @@ import com.airbnb.lottie.value.Keyframe;
 import java.util.List;
 
 public class ColorKeyframeAnimation extends KeyframeAnimation<Integer> {
+  private final IntegerKeyframeTrack track;
 
   public ColorKeyframeAnimation(List<Keyframe<Integer>> keyframes) {
-    super(keyframes);
+    this(IntegerKeyframeTrack.fromKeyframes(keyframes));
+  }
+
+  public ColorKeyframeAnimation(IntegerKeyframeTrack track) {
+    super(track);
+    this.track = track;
   }
 
   @Override
@@ -39,10 +45,34 @@ public class ColorKeyframeAnimation extends KeyframeAnimation<Integer> {
     return GammaEvaluator.evaluate(MiscUtils.clamp(keyframeProgress, 0f, 1f), startColor, endColor);
   }
 
+  @Override Integer getValue(int keyframeIndex, float keyframeProgress) {
+    return getIntValue(keyframeIndex, keyframeProgress);
+  }
+
+  /**
+   * Optimization to avoid autoboxing.
+   */
+  int getIntValue(int keyframeIndex, float keyframeProgress) {
+    track.checkValues(keyframeIndex);
+    int startColor = track.getStartInt(keyframeIndex);
+    int endColor = track.getEndInt(keyframeIndex);
+
+    if (valueCallback != null) {
+      Integer value = valueCallback.getValueInternal(track.getStartFrame(keyframeIndex),
+              track.getEndFrame(keyframeIndex), startColor, endColor, keyframeProgress,
+              getLinearCurrentKeyframeProgress(), getProgress());
+      if (value != null) {
+        return value;
+      }
+    }
+
+    return GammaEvaluator.evaluate(MiscUtils.clamp(keyframeProgress, 0f, 1f), startColor, endColor);
+  }
+
   /**
    * Optimization to avoid autoboxing.
    */
   public int getIntValue() {
-    return getIntValue(getCurrentKeyframe(), getInterpolatedCurrentKeyframeProgress());
+    return getIntValue(getCurrentKeyframeIndex(), getInterpolatedCurrentKeyframeProgress());
   }
 }
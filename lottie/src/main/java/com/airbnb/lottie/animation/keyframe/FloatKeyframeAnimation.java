@@ -6,19 +6,18 @@ import com.airbnb.lottie.utils.MiscUtils;
 import java.util.List;
 
 public class FloatKeyframeAnimation extends KeyframeAnimation<Float> {
+  private final FloatKeyframeTrack track;
 
   public FloatKeyframeAnimation(List<Keyframe<Float>> keyframes) {
-    super(keyframes);
+    this(FloatKeyframeTrack.fromKeyframes(keyframes));
   }
 
-  @Override Float getValue(Keyframe<Float> keyframe, float keyframeProgress) {
-    return getFloatValue(keyframe, keyframeProgress);
+  public FloatKeyframeAnimation(FloatKeyframeTrack track) {
+    super(track);
+    this.track = track;
   }
 
-  /**
-   * Optimization to avoid autoboxing.
-   */
-  float getFloatValue(Keyframe<Float> keyframe, float keyframeProgress) {
+  @Override Float getValue(Keyframe<Float> keyframe, float keyframeProgress) {
     if (keyframe.startValue == null || keyframe.endValue == null) {
       throw new IllegalStateException("Missing values for keyframe.");
     }
@@ -36,10 +35,33 @@ public class FloatKeyframeAnimation extends KeyframeAnimation<Float> {
     return MiscUtils.lerp(keyframe.getStartValueFloat(), keyframe.getEndValueFloat(), keyframeProgress);
   }
 
+  @Override Float getValue(int keyframeIndex, float keyframeProgress) {
+    return getFloatValue(keyframeIndex, keyframeProgress);
+  }
+
+  /**
+   * Optimization to avoid autoboxing.
+   */
+  float getFloatValue(int keyframeIndex, float keyframeProgress) {
+    track.checkValues(keyframeIndex);
+
+    if (valueCallback != null) {
+      Float value = valueCallback.getValueInternal(track.getStartFrame(keyframeIndex),
+              track.getEndFrame(keyframeIndex), track.getStartValue(keyframeIndex),
+              track.getEndValue(keyframeIndex), keyframeProgress, getLinearCurrentKeyframeProgress(),
+              getProgress());
+      if (value != null) {
+        return value;
+      }
+    }
+
+    return MiscUtils.lerp(track.getStartFloat(keyframeIndex), track.getEndFloat(keyframeIndex), keyframeProgress);
+  }
+
   /**
    * Optimization to avoid autoboxing.
    */
   public float getFloatValue() {
-    return getFloatValue(getCurrentKeyframe(), getInterpolatedCurrentKeyframeProgress());
+    return getFloatValue(getCurrentKeyframeIndex(), getInterpolatedCurrentKeyframeProgress());
   }
 }
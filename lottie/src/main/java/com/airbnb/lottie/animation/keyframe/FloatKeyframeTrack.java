@@ -0,0 +1,71 @@
+package com.airbnb.lottie.animation.keyframe;
+
+import android.view.animation.Interpolator;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.value.Keyframe;
+
+import java.util.List;
+
+/**
+ * A track of float keyframes. The start and end value of keyframe i are at 2i and 2i + 1 of the values.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class FloatKeyframeTrack extends KeyframeTrack<Float> {
+  private final float[] values;
+
+  public FloatKeyframeTrack(@Nullable LottieComposition composition, float[] startFrames, float[] endFrames,
+      Interpolator[] interpolators, float[] values, @Nullable byte[] missingValues) {
+    super(composition, null, startFrames, endFrames, interpolators, missingValues);
+    this.values = values;
+  }
+
+  private FloatKeyframeTrack(List<? extends Keyframe<Float>> keyframes) {
+    super(null, keyframes, startFramesOf(keyframes), endFramesOf(keyframes), interpolatorsOf(keyframes),
+        missingValuesOf(keyframes));
+    values = new float[2 * keyframes.size()];
+    for (int i = 0; i < keyframes.size(); i++) {
+      Keyframe<Float> keyframe = keyframes.get(i);
+      values[2 * i] = keyframe.startValue == null ? 0f : keyframe.startValue;
+      values[2 * i + 1] = keyframe.endValue == null ? 0f : keyframe.endValue;
+    }
+  }
+
+  /**
+   * A track that keeps the keyframes and takes its timing from them.
+   */
+  public static FloatKeyframeTrack fromKeyframes(List<? extends Keyframe<Float>> keyframes) {
+    return new FloatKeyframeTrack(keyframes);
+  }
+
+  /**
+   * A track with a single value that doesn't change.
+   */
+  public static FloatKeyframeTrack forValue(float value) {
+    return new FloatKeyframeTrack(null, new float[]{Float.MIN_VALUE}, new float[]{Float.MAX_VALUE},
+        new Interpolator[1], new float[]{value, value}, null);
+  }
+
+  public float getStartFloat(int index) {
+    return values[2 * index];
+  }
+
+  public float getEndFloat(int index) {
+    return values[2 * index + 1];
+  }
+
+  @Override public Float getStartValue(int index) {
+    return values[2 * index];
+  }
+
+  @Override public Float getEndValue(int index) {
+    return values[2 * index + 1];
+  }
+
+  @Override boolean endValueIsStartValue(int index) {
+    return Float.floatToIntBits(values[2 * index]) == Float.floatToIntBits(values[2 * index + 1]);
+  }
+}
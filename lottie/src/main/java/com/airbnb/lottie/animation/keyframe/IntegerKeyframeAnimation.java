@@ -6,20 +6,19 @@ import com.airbnb.lottie.utils.MiscUtils;
 import java.util.List;
 
 public class IntegerKeyframeAnimation extends KeyframeAnimation<Integer> {
+  private final IntegerKeyframeTrack track;
 
   public IntegerKeyframeAnimation(List<Keyframe<Integer>> keyframes) {
-    super(keyframes);
+    this(IntegerKeyframeTrack.fromKeyframes(keyframes));
   }
 
-  @Override
-  Integer getValue(Keyframe<Integer> keyframe, float keyframeProgress) {
-    return getIntValue(keyframe, keyframeProgress);
+  public IntegerKeyframeAnimation(IntegerKeyframeTrack track) {
+    super(track);
+    this.track = track;
   }
 
-  /**
-   * Optimization to avoid autoboxing.
-   */
-  int getIntValue(Keyframe<Integer> keyframe, float keyframeProgress) {
+  @Override
+  Integer getValue(Keyframe<Integer> keyframe, float keyframeProgress) {
     if (keyframe.startValue == null || keyframe.endValue == null) {
       throw new IllegalStateException("Missing values for keyframe.");
     }
@@ -37,10 +36,33 @@ public class IntegerKeyframeAnimation extends KeyframeAnimation<Integer> {
     return MiscUtils.lerp(keyframe.getStartValueInt(), keyframe.getEndValueInt(), keyframeProgress);
   }
 
+  @Override Integer getValue(int keyframeIndex, float keyframeProgress) {
+    return getIntValue(keyframeIndex, keyframeProgress);
+  }
+
+  /**
+   * Optimization to avoid autoboxing.
+   */
+  int getIntValue(int keyframeIndex, float keyframeProgress) {
+    track.checkValues(keyframeIndex);
+
+    if (valueCallback != null) {
+      Integer value = valueCallback.getValueInternal(track.getStartFrame(keyframeIndex),
+              track.getEndFrame(keyframeIndex), track.getStartValue(keyframeIndex),
+              track.getEndValue(keyframeIndex), keyframeProgress, getLinearCurrentKeyframeProgress(),
+              getProgress());
+      if (value != null) {
+        return value;
+      }
+    }
+
+    return MiscUtils.lerp(track.getStartInt(keyframeIndex), track.getEndInt(keyframeIndex), keyframeProgress);
+  }
+
   /**
    * Optimization to avoid autoboxing.
    */
   public int getIntValue() {
-    return getIntValue(getCurrentKeyframe(), getInterpolatedCurrentKeyframeProgress());
+    return getIntValue(getCurrentKeyframeIndex(), getInterpolatedCurrentKeyframeProgress());
   }
 }
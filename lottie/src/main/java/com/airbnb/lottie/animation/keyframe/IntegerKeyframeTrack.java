@@ -0,0 +1,72 @@
+package com.airbnb.lottie.animation.keyframe;
+
+import android.view.animation.Interpolator;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.value.Keyframe;
+
+import java.util.List;
+
+/**
+ * A track of integer or color keyframes. The start and end value of keyframe i are at 2i and 2i + 1 of the
+ * values.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class IntegerKeyframeTrack extends KeyframeTrack<Integer> {
+  private final int[] values;
+
+  public IntegerKeyframeTrack(@Nullable LottieComposition composition, float[] startFrames, float[] endFrames,
+      Interpolator[] interpolators, int[] values, @Nullable byte[] missingValues) {
+    super(composition, null, startFrames, endFrames, interpolators, missingValues);
+    this.values = values;
+  }
+
+  private IntegerKeyframeTrack(List<? extends Keyframe<Integer>> keyframes) {
+    super(null, keyframes, startFramesOf(keyframes), endFramesOf(keyframes), interpolatorsOf(keyframes),
+        missingValuesOf(keyframes));
+    values = new int[2 * keyframes.size()];
+    for (int i = 0; i < keyframes.size(); i++) {
+      Keyframe<Integer> keyframe = keyframes.get(i);
+      values[2 * i] = keyframe.startValue == null ? 0 : keyframe.startValue;
+      values[2 * i + 1] = keyframe.endValue == null ? 0 : keyframe.endValue;
+    }
+  }
+
+  /**
+   * A track that keeps the keyframes and takes its timing from them.
+   */
+  public static IntegerKeyframeTrack fromKeyframes(List<? extends Keyframe<Integer>> keyframes) {
+    return new IntegerKeyframeTrack(keyframes);
+  }
+
+  /**
+   * A track with a single value that doesn't change.
+   */
+  public static IntegerKeyframeTrack forValue(int value) {
+    return new IntegerKeyframeTrack(null, new float[]{Float.MIN_VALUE}, new float[]{Float.MAX_VALUE},
+        new Interpolator[1], new int[]{value, value}, null);
+  }
+
+  public int getStartInt(int index) {
+    return values[2 * index];
+  }
+
+  public int getEndInt(int index) {
+    return values[2 * index + 1];
+  }
+
+  @Override public Integer getStartValue(int index) {
+    return values[2 * index];
+  }
+
+  @Override public Integer getEndValue(int index) {
+    return values[2 * index + 1];
+  }
+
+  @Override boolean endValueIsStartValue(int index) {
+    return values[2 * index] == values[2 * index + 1];
+  }
+}
@@ -8,4 +8,8 @@ abstract class KeyframeAnimation<T> extends BaseKeyframeAnimation<T, T> {
   KeyframeAnimation(List<? extends Keyframe<T>> keyframes) {
     super(keyframes);
   }
+
+  KeyframeAnimation(KeyframeTrack<T> track) {
+    super(track);
+  }
 }
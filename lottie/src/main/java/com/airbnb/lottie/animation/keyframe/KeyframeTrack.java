@@ -0,0 +1,322 @@
+package com.airbnb.lottie.animation.keyframe;
+
+import android.view.animation.Interpolator;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.utils.HoldInterpolator;
+import com.airbnb.lottie.value.Keyframe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The keyframes of one property packed into arrays with one entry per keyframe. {@link FloatKeyframeTrack} and
+ * {@link IntegerKeyframeTrack} pack their values too so that evaluating them never touches a {@link Keyframe} or
+ * boxes a value. Other properties wrap their list of keyframes and take their timing from it.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class KeyframeTrack<T> {
+  public static final int MISSING_START_VALUE = 1;
+  public static final int MISSING_END_VALUE = 1 << 1;
+
+  /** Null if the keyframes are static values that span the whole composition. */
+  @Nullable final LottieComposition composition;
+  @Nullable private final List<? extends Keyframe<T>> keyframes;
+  private final float[] startFrames;
+  /** {@link Float#NaN} if the keyframe lasts until the end of the composition. */
+  private final float[] endFrames;
+  /** Null for keyframes whose value doesn't change and {@link HoldInterpolator} for hold keyframes. */
+  private final Interpolator[] interpolators;
+  /** {@link #MISSING_START_VALUE} and {@link #MISSING_END_VALUE} flags or null if every value is set. */
+  @Nullable private final byte[] missingValues;
+  /** The progress at which each keyframe starts. Computed once the composition's duration is known. */
+  @Nullable private float[] startProgress;
+  @Nullable private float[] endProgress;
+  /** Whether the keyframes start in order so that they can be binary searched. */
+  private boolean isSorted;
+
+  public KeyframeTrack(List<? extends Keyframe<T>> keyframes) {
+    this(null, keyframes, startFramesOf(keyframes), endFramesOf(keyframes), interpolatorsOf(keyframes),
+        missingValuesOf(keyframes));
+  }
+
+  KeyframeTrack(@Nullable LottieComposition composition, @Nullable List<? extends Keyframe<T>> keyframes,
+      float[] startFrames, float[] endFrames, Interpolator[] interpolators, @Nullable byte[] missingValues) {
+    this.composition = composition;
+    this.keyframes = keyframes;
+    this.startFrames = startFrames;
+    this.endFrames = endFrames;
+    this.interpolators = interpolators;
+    this.missingValues = missingValues;
+  }
+
+  public int size() {
+    return interpolators.length;
+  }
+
+  public boolean isEmpty() {
+    return interpolators.length == 0;
+  }
+
+  public float getStartFrame(int index) {
+    return startFrames[index];
+  }
+
+  /**
+   * The end frame of the keyframe. The last keyframe may not have one in which case it lasts until the end of
+   * the composition.
+   */
+  public float getEndFrame(int index) {
+    float endFrame = endFrames[index];
+    if (Float.isNaN(endFrame)) {
+      return composition == null ? Float.MAX_VALUE : composition.getEndFrame();
+    }
+    return endFrame;
+  }
+
+  @Nullable public Interpolator getInterpolator(int index) {
+    return interpolators[index];
+  }
+
+  /**
+   * Whether the value doesn't change during the keyframe. This includes hold keyframes.
+   */
+  public boolean isStatic(int index) {
+    return interpolators[index] == null || interpolators[index] == HoldInterpolator.INSTANCE;
+  }
+
+  public boolean hasStartValue(int index) {
+    return missingValues == null || (missingValues[index] & MISSING_START_VALUE) == 0;
+  }
+
+  public boolean hasEndValue(int index) {
+    return missingValues == null || (missingValues[index] & MISSING_END_VALUE) == 0;
+  }
+
+  float getStartProgress(int index) {
+    computeProgress();
+    //noinspection ConstantConditions
+    return startProgress[index];
+  }
+
+  float getEndProgress(int index) {
+    computeProgress();
+    //noinspection ConstantConditions
+    return endProgress[index];
+  }
+
+  boolean containsProgress(int index, float progress) {
+    computeProgress();
+    //noinspection ConstantConditions
+    return progress >= startProgress[index] && progress < endProgress[index];
+  }
+
+  /**
+   * Returns the index of the keyframe at the progress. The last keyframe is used after it starts and the first
+   * keyframe is used if no keyframe contains the progress.
+   *
+   * @param hint the index that was returned for the previous progress or -1. While an animation plays, the
+   *             progress is usually still in the same keyframe or has moved into the next one in the direction
+   *             that it plays in so those are checked before the keyframes are binary searched.
+   */
+  int indexOf(float progress, int hint) {
+    computeProgress();
+    if (hint != -1 && containsProgress(hint, progress)) {
+      return hint;
+    }
+    //noinspection ConstantConditions
+    if (progress >= startProgress[size() - 1]) {
+      return size() - 1;
+    }
+    if (!isSorted) {
+      return linearIndexOf(progress);
+    }
+
+    int index = -1;
+    if (hint != -1) {
+      int next = progress < startProgress[hint] ? hint - 1 : hint + 1;
+      if (next >= 0 && isLastStartedAt(next, progress)) {
+        index = next;
+      }
+    }
+    if (index == -1) {
+      index = lastStartedAt(progress);
+    }
+    if (index == -1) {
+      // No keyframe has started yet.
+      return 0;
+    }
+    if (containsProgress(index, progress)) {
+      return index;
+    }
+    // The keyframes have a gap or overlap here.
+    return linearIndexOf(progress);
+  }
+
+  /**
+   * Whether the keyframe is the last one to start at or before the progress.
+   */
+  private boolean isLastStartedAt(int index, float progress) {
+    //noinspection ConstantConditions
+    return startProgress[index] <= progress && (index == size() - 1 || startProgress[index + 1] > progress);
+  }
+
+  /**
+   * Binary searches for the last keyframe that starts at or before the progress. Returns -1 if there is none.
+   */
+  private int lastStartedAt(float progress) {
+    int low = 0;
+    int high = size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      //noinspection ConstantConditions
+      if (startProgress[mid] <= progress) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Finds the last keyframe that contains the progress the slow way for keyframes that aren't in order.
+   */
+  private int linearIndexOf(float progress) {
+    int index = size() - 1;
+    for (; index > 0; index--) {
+      if (containsProgress(index, progress)) {
+        break;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * @throws IllegalStateException if the keyframe doesn't have both of its values.
+   */
+  void checkValues(int index) {
+    if (!hasStartValue(index) || !hasEndValue(index)) {
+      throw new IllegalStateException("Missing values for keyframe.");
+    }
+  }
+
+  @Nullable public T getStartValue(int index) {
+    //noinspection ConstantConditions
+    return keyframes.get(index).startValue;
+  }
+
+  @Nullable public T getEndValue(int index) {
+    //noinspection ConstantConditions
+    return keyframes.get(index).endValue;
+  }
+
+  /**
+   * The keyframes of the track. Tracks that pack their values create new keyframes every time so this shouldn't
+   * be called while the animation plays.
+   */
+  public List<? extends Keyframe<T>> getKeyframes() {
+    if (keyframes != null) {
+      return keyframes;
+    }
+    List<Keyframe<T>> keyframes = new ArrayList<>(size());
+    for (int i = 0; i < size(); i++) {
+      T startValue = hasStartValue(i) ? getStartValue(i) : null;
+      T endValue = null;
+      if (hasEndValue(i)) {
+        endValue = startValue != null && endValueIsStartValue(i) ? startValue : getEndValue(i);
+      }
+      Float endFrame = Float.isNaN(endFrames[i]) ? null : endFrames[i];
+      Keyframe<T> keyframe;
+      if (composition == null) {
+        keyframe = new Keyframe<>(startValue);
+        keyframe.endValue = endValue;
+        keyframe.endFrame = endFrame;
+      } else {
+        keyframe = new Keyframe<>(composition, startValue, endValue, interpolators[i], startFrames[i], endFrame);
+      }
+      keyframes.add(keyframe);
+    }
+    return keyframes;
+  }
+
+  /**
+   * Whether a packed end value is the same as the start value so that {@link #getKeyframes()} can share one
+   * object for both.
+   */
+  boolean endValueIsStartValue(int index) {
+    return false;
+  }
+
+  private void computeProgress() {
+    if (startProgress != null) {
+      return;
+    }
+    float[] startProgress = new float[size()];
+    float[] endProgress = new float[size()];
+    boolean isSorted = true;
+    for (int i = 0; i < size(); i++) {
+      if (keyframes != null) {
+        startProgress[i] = keyframes.get(i).getStartProgress();
+        endProgress[i] = keyframes.get(i).getEndProgress();
+      } else if (composition == null) {
+        startProgress[i] = 0f;
+        endProgress[i] = 1f;
+      } else {
+        startProgress[i] = (startFrames[i] - composition.getStartFrame()) / composition.getDurationFrames();
+        endProgress[i] = Float.isNaN(endFrames[i]) ? 1f :
+            startProgress[i] + (endFrames[i] - startFrames[i]) / composition.getDurationFrames();
+      }
+      if (i > 0 && startProgress[i] < startProgress[i - 1]) {
+        isSorted = false;
+      }
+    }
+    this.isSorted = isSorted;
+    this.endProgress = endProgress;
+    this.startProgress = startProgress;
+  }
+
+  static float[] startFramesOf(List<? extends Keyframe<?>> keyframes) {
+    float[] startFrames = new float[keyframes.size()];
+    for (int i = 0; i < keyframes.size(); i++) {
+      startFrames[i] = keyframes.get(i).startFrame;
+    }
+    return startFrames;
+  }
+
+  static float[] endFramesOf(List<? extends Keyframe<?>> keyframes) {
+    float[] endFrames = new float[keyframes.size()];
+    for (int i = 0; i < keyframes.size(); i++) {
+      Float endFrame = keyframes.get(i).endFrame;
+      endFrames[i] = endFrame == null ? Float.NaN : endFrame;
+    }
+    return endFrames;
+  }
+
+  static Interpolator[] interpolatorsOf(List<? extends Keyframe<?>> keyframes) {
+    Interpolator[] interpolators = new Interpolator[keyframes.size()];
+    for (int i = 0; i < keyframes.size(); i++) {
+      interpolators[i] = keyframes.get(i).interpolator;
+    }
+    return interpolators;
+  }
+
+  @Nullable static byte[] missingValuesOf(List<? extends Keyframe<?>> keyframes) {
+    byte[] missingValues = null;
+    for (int i = 0; i < keyframes.size(); i++) {
+      Keyframe<?> keyframe = keyframes.get(i);
+      int missing = (keyframe.startValue == null ? MISSING_START_VALUE : 0) |
+          (keyframe.endValue == null ? MISSING_END_VALUE : 0);
+      if (missing != 0) {
+        if (missingValues == null) {
+          missingValues = new byte[keyframes.size()];
+        }
+        missingValues[i] = (byte) missing;
+      }
+    }
+    return missingValues;
+  }
+}
@@ -11,12 +11,11 @@ import com.airbnb.lottie.utils.Utils;
 public class PathKeyframe extends Keyframe<PointF> {
   @Nullable private Path path;
 
-  private final Keyframe<PointF> pointKeyFrame;
-
   public PathKeyframe(LottieComposition composition, Keyframe<PointF> keyframe) {
     super(composition, keyframe.startValue, keyframe.endValue, keyframe.interpolator,
         keyframe.startFrame, keyframe.endFrame);
-    this.pointKeyFrame = keyframe;
+    pathCp1 = keyframe.pathCp1;
+    pathCp2 = keyframe.pathCp2;
     createPath();
   }
 
@@ -27,7 +26,7 @@ public class PathKeyframe extends Keyframe<PointF> {
         startValue.equals(endValue.x, endValue.y);
     //noinspection ConstantConditions
     if (endValue != null && !equals) {
-      path = Utils.createPath(startValue, endValue, pointKeyFrame.pathCp1, pointKeyFrame.pathCp2);
+      path = Utils.createPath(startValue, endValue, pathCp1, pathCp2);
     }
   }
 
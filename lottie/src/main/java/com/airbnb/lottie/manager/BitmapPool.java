@@ -0,0 +1,267 @@
+package com.airbnb.lottie.manager;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+
+import com.airbnb.lottie.LottieComposition;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares the bitmaps that image assets are decoded into between every drawable that shows the same composition.
+ * Bitmaps are reference counted by the drawables that draw them. Once no drawable does, a bitmap is kept until
+ * the pool is full and then its memory is reused to decode another image.
+ *
+ * Compositions are only weakly referenced so that the bitmaps of a composition that is no longer used anywhere
+ * are dropped rather than keeping the whole composition in memory.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class BitmapPool {
+
+  private static final BitmapPool INSTANCE = new BitmapPool();
+
+  public static BitmapPool getInstance() {
+    return INSTANCE;
+  }
+
+  private final Map<Key, Entry> entries = new HashMap<>();
+  /** Entries that no drawable holds, least recently released first. */
+  private final Set<Key> unused = new LinkedHashSet<>();
+  private long maxSizeBytes = Runtime.getRuntime().maxMemory() / 8;
+  private long sizeBytes;
+
+  @VisibleForTesting
+  BitmapPool() {
+  }
+
+  /**
+   * Returns the bitmap for the key and holds a reference to it until it is released.
+   */
+  @Nullable
+  public synchronized Bitmap acquire(Key key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.refCount++ == 0) {
+      unused.remove(key);
+    }
+    return entry.bitmap;
+  }
+
+  /**
+   * Adds a bitmap that was just decoded and holds a reference to it. If a bitmap was added for the same key in the
+   * meantime, that one is held and returned instead.
+   */
+  public synchronized Bitmap put(Key key, Bitmap bitmap) {
+    Bitmap existing = acquire(key);
+    if (existing != null) {
+      return existing;
+    }
+    Entry entry = new Entry(key, bitmap);
+    entries.put(key, entry);
+    sizeBytes += entry.sizeBytes;
+    removeUnreachable();
+    trimToSize(maxSizeBytes);
+    return bitmap;
+  }
+
+  public synchronized void release(Key key) {
+    Entry entry = entries.get(key);
+    if (entry == null || entry.refCount == 0) {
+      return;
+    }
+    if (--entry.refCount == 0) {
+      // Once the composition is collected, only the key that the entry was added with can still find it.
+      unused.add(entry.key);
+      trimToSize(maxSizeBytes);
+    }
+  }
+
+  /**
+   * Keeps the bitmap for the key from ever being decoded into. This is needed once it has been handed out outside
+   * of Lottie since it may still be drawn after every drawable released it.
+   */
+  public synchronized void setNotReusable(Key key) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      entry.reusable = false;
+    }
+  }
+
+  /**
+   * Returns a bitmap that isn't in use for an image of this size to be decoded into, if adding the image would
+   * otherwise evict it anyway. The bitmap is removed from the pool.
+   */
+  @Nullable
+  public synchronized Bitmap getReusable(int width, int height, Bitmap.Config config) {
+    long neededBytes = (long) width * height * bytesPerPixel(config);
+    if (sizeBytes + neededBytes <= maxSizeBytes) {
+      return null;
+    }
+    Iterator<Key> it = unused.iterator();
+    while (it.hasNext()) {
+      Key key = it.next();
+      Entry entry = entries.get(key);
+      if (entry.reusable && canReuse(entry.bitmap, width, height, config, neededBytes)) {
+        it.remove();
+        entries.remove(key);
+        sizeBytes -= entry.sizeBytes;
+        return entry.bitmap;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Set the maximum memory that decoded images may use. Images that are drawn are never evicted so this may be
+   * exceeded while they are.
+   */
+  public synchronized void resizeBytes(long sizeBytes) {
+    if (sizeBytes <= 0) {
+      throw new IllegalArgumentException("maxSizeBytes <= 0");
+    }
+    maxSizeBytes = sizeBytes;
+    trimToSize(maxSizeBytes);
+  }
+
+  /**
+   * @see ComponentCallbacks2#onTrimMemory(int)
+   */
+  public synchronized void trimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      trimToSize(0);
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN ||
+        level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      trimToSize(maxSizeBytes / 2);
+    }
+  }
+
+  @VisibleForTesting
+  synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  /**
+   * Removes the bitmaps of compositions that were garbage collected since they can never be acquired again.
+   */
+  private void removeUnreachable() {
+    Iterator<Key> it = unused.iterator();
+    while (it.hasNext()) {
+      Key key = it.next();
+      if (key.composition.get() == null) {
+        it.remove();
+        sizeBytes -= entries.remove(key).sizeBytes;
+      }
+    }
+  }
+
+  private void trimToSize(long sizeBytes) {
+    Iterator<Key> it = unused.iterator();
+    while (this.sizeBytes > sizeBytes && it.hasNext()) {
+      Entry entry = entries.remove(it.next());
+      it.remove();
+      this.sizeBytes -= entry.sizeBytes;
+    }
+  }
+
+  private static boolean canReuse(Bitmap bitmap, int width, int height, Bitmap.Config config, long neededBytes) {
+    if (!bitmap.isMutable() || bitmap.isRecycled()) {
+      return false;
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      return neededBytes <= bitmap.getAllocationByteCount();
+    }
+    // Before KitKat, a bitmap can only be reused for an image of exactly the same size.
+    return bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config;
+  }
+
+  private static int bytesPerPixel(Bitmap.Config config) {
+    switch (config) {
+      case ALPHA_8:
+        return 1;
+      case RGB_565:
+      case ARGB_4444:
+        return 2;
+      case ARGB_8888:
+      default:
+        return 4;
+    }
+  }
+
+  private static long sizeOf(Bitmap bitmap) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      return bitmap.getAllocationByteCount();
+    }
+    return bitmap.getByteCount();
+  }
+
+  /**
+   * An image asset of a composition decoded at 1/sampleSize of its full size.
+   */
+  public static class Key {
+    final WeakReference<LottieComposition> composition;
+    @Nullable final String imagesFolder;
+    final String id;
+    final int sampleSize;
+    private final int hashCode;
+
+    public Key(LottieComposition composition, @Nullable String imagesFolder, String id, int sampleSize) {
+      this.composition = new WeakReference<>(composition);
+      this.imagesFolder = imagesFolder;
+      this.id = id;
+      this.sampleSize = sampleSize;
+      // The hash code must not change once the composition is collected.
+      int result = System.identityHashCode(composition);
+      result = 31 * result + (imagesFolder == null ? 0 : imagesFolder.hashCode());
+      result = 31 * result + id.hashCode();
+      result = 31 * result + sampleSize;
+      hashCode = result;
+    }
+
+    public int getSampleSize() {
+      return sampleSize;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      LottieComposition composition = this.composition.get();
+      return composition != null && composition == key.composition.get() && sampleSize == key.sampleSize && id.equals(key.id) &&
+          (imagesFolder == null ? key.imagesFolder == null : imagesFolder.equals(key.imagesFolder));
+    }
+
+    @Override public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static class Entry {
+    final Key key;
+    final Bitmap bitmap;
+    final long sizeBytes;
+    int refCount = 1;
+    boolean reusable = true;
+
+    Entry(Key key, Bitmap bitmap) {
+      this.key = key;
+      this.bitmap = bitmap;
+      this.sizeBytes = sizeOf(bitmap);
+    }
+  }
+}
@@ -2,22 +2,31 @@ package com.airbnb.lottie.manager;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.Nullable;
 import android.text.TextUtils;
-import android.util.Base64;
 import android.util.Log;
 import android.view.View;
 
 import com.airbnb.lottie.ImageAssetDelegate;
+import com.airbnb.lottie.ImageLoadingPolicy;
 import com.airbnb.lottie.L;
+import com.airbnb.lottie.LottieComposition;
 import com.airbnb.lottie.LottieImageAsset;
+import com.airbnb.lottie.LottieTask;
+import com.airbnb.lottie.LottieTaskPriority;
+import com.airbnb.lottie.utils.BitmapDecoder;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
 
 public class ImageAssetManager {
   private static final Object bitmapHashLock = new Object();
@@ -25,10 +34,22 @@ public class ImageAssetManager {
   private final Context context;
   private String imagesFolder;
   @Nullable private ImageAssetDelegate delegate;
+  @Nullable private final LottieComposition composition;
   private final Map<String, LottieImageAsset> imageAssets;
+  /** The bitmaps that this drawable holds in the {@link BitmapPool}. */
+  private final Map<String, PooledBitmap> pooledBitmaps = new HashMap<>();
+  /** The sample size of the images that are being decoded in the background. */
+  private final Map<String, Integer> loadingSampleSizes = new HashMap<>();
+  /** Images that couldn't be decoded in the background. They aren't tried again. */
+  private final Set<String> failedIds = new HashSet<>();
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private ImageLoadingPolicy loadingPolicy = ImageLoadingPolicy.Sync;
+  @Nullable private Listener listener;
+  /** Incremented when the bitmaps are released so that images that were being decoded are dropped. */
+  private int generation;
 
   public ImageAssetManager(Drawable.Callback callback, String imagesFolder,
-      ImageAssetDelegate delegate, Map<String, LottieImageAsset> imageAssets) {
+      ImageAssetDelegate delegate, LottieComposition composition) {
     this.imagesFolder = imagesFolder;
     if (!TextUtils.isEmpty(imagesFolder) &&
         this.imagesFolder.charAt(this.imagesFolder.length() - 1) != '/') {
@@ -38,12 +59,14 @@ public class ImageAssetManager {
     if (!(callback instanceof View)) {
       Log.w(L.TAG, "LottieDrawable must be inside of a view for images to work.");
       this.imageAssets = new HashMap<>();
+      this.composition = null;
       context = null;
       return;
     }
 
     context = ((View) callback).getContext();
-    this.imageAssets = imageAssets;
+    this.composition = composition;
+    this.imageAssets = composition.getImages();
     setDelegate(delegate);
   }
 
@@ -51,22 +74,69 @@ public class ImageAssetManager {
     this.delegate = assetDelegate;
   }
 
+  public void setLoadingPolicy(ImageLoadingPolicy loadingPolicy) {
+    this.loadingPolicy = loadingPolicy;
+  }
+
+  public void setListener(@Nullable Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Starts decoding every image in the background so that it is ready by the time that it is drawn. Does nothing
+   * unless the loading policy is {@link ImageLoadingPolicy#Async}.
+   */
+  public void preload(float scale) {
+    if (loadingPolicy != ImageLoadingPolicy.Async) {
+      return;
+    }
+    for (String id : imageAssets.keySet()) {
+      bitmapForId(id, scale);
+    }
+    notifyIfAllImagesLoaded();
+  }
+
   /**
    * Returns the previously set bitmap or null.
    */
   @Nullable public Bitmap updateBitmap(String id, @Nullable Bitmap bitmap) {
-    if (bitmap == null) {
-      LottieImageAsset asset = imageAssets.get(id);
-      Bitmap ret = asset.getBitmap();
-      asset.setBitmap(null);
-      return ret;
+    LottieImageAsset asset = imageAssets.get(id);
+    Bitmap prevBitmap = asset.getBitmap();
+    PooledBitmap pooledBitmap = pooledBitmaps.remove(id);
+    if (pooledBitmap != null) {
+      if (prevBitmap == null) {
+        prevBitmap = pooledBitmap.bitmap;
+        // The caller may keep drawing it so another image must never be decoded into it.
+        BitmapPool.getInstance().setNotReusable(pooledBitmap.key);
+      }
+      BitmapPool.getInstance().release(pooledBitmap.key);
     }
-    Bitmap prevBitmap = imageAssets.get(id).getBitmap();
     putBitmap(id, bitmap);
     return prevBitmap;
   }
 
+  /**
+   * Like {@link #bitmapForId(String, float)} but for a caller outside of Lottie. The bitmap is never reused for
+   * another image since the caller may hold on to it after it is released.
+   */
   @Nullable public Bitmap bitmapForId(String id) {
+    Bitmap bitmap = bitmapForId(id, 1f);
+    PooledBitmap pooledBitmap = pooledBitmaps.get(id);
+    if (pooledBitmap != null && pooledBitmap.bitmap == bitmap) {
+      BitmapPool.getInstance().setNotReusable(pooledBitmap.key);
+    }
+    return bitmap;
+  }
+
+  /**
+   * Returns a bitmap with enough resolution for the image to be drawn at the given scale of its full size.
+   * Images are decoded at a lower resolution when they are drawn smaller and only decoded again if they
+   * are later drawn larger.
+   *
+   * Decoded images are shared with other drawables that show the same composition through the
+   * {@link BitmapPool}. Bitmaps that were set on the image asset or came from the delegate are used as is.
+   */
+  @Nullable public Bitmap bitmapForId(String id, float scale) {
     LottieImageAsset asset = imageAssets.get(id);
     if (asset == null) {
       return null;
@@ -80,41 +150,174 @@ public class ImageAssetManager {
       bitmap = delegate.fetchBitmap(asset);
       if (bitmap != null) {
         putBitmap(id, bitmap);
+        notifyIfAllImagesLoaded();
       }
       return bitmap;
     }
 
-    String filename = asset.getFileName();
-    BitmapFactory.Options opts = new BitmapFactory.Options();
-    opts.inScaled = true;
-    opts.inDensity = 160;
+    int sampleSize = BitmapDecoder.sampleSizeFor(scale);
+    PooledBitmap pooledBitmap = pooledBitmaps.get(id);
+    if (pooledBitmap != null && pooledBitmap.key.getSampleSize() <= sampleSize) {
+      return pooledBitmap.bitmap;
+    }
 
-    if (filename.startsWith("data:") && filename.indexOf("base64,") > 0) {
-      // Contents look like a base64 data URI, with the format data:image/png;base64,<data>.
-      byte[] data;
-      try {
-        data = Base64.decode(filename.substring(filename.indexOf(',') + 1), Base64.DEFAULT);
-      } catch (IllegalArgumentException e) {
-        Log.w(L.TAG, "data URL did not have correct base64 format.", e);
-        return null;
+    BitmapPool pool = BitmapPool.getInstance();
+    //noinspection ConstantConditions
+    BitmapPool.Key key = new BitmapPool.Key(composition, imagesFolder, id, sampleSize);
+    bitmap = pool.acquire(key);
+    if (bitmap == null && loadingPolicy == ImageLoadingPolicy.Async) {
+      loadInBackground(asset, key);
+      // Keep drawing the lower resolution bitmap until the sharper one is ready.
+      return pooledBitmap == null ? null : pooledBitmap.bitmap;
+    }
+    if (bitmap == null) {
+      bitmap = decode(asset, sampleSize);
+      if (bitmap == null) {
+        // Keep drawing the lower resolution bitmap rather than nothing.
+        return pooledBitmap == null ? null : pooledBitmap.bitmap;
       }
-      bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, opts);
-      return putBitmap(id, bitmap);
+      bitmap = pool.put(key, bitmap);
     }
+    hold(id, key, bitmap);
+    notifyIfAllImagesLoaded();
+    return bitmap;
+  }
 
-    InputStream is;
+  private void hold(String id, BitmapPool.Key key, Bitmap bitmap) {
+    PooledBitmap pooledBitmap = pooledBitmaps.put(id, new PooledBitmap(key, bitmap));
+    if (pooledBitmap != null) {
+      BitmapPool.getInstance().release(pooledBitmap.key);
+    }
+  }
+
+  private void loadInBackground(final LottieImageAsset asset, final BitmapPool.Key key) {
+    final String id = asset.getId();
+    Integer loadingSampleSize = loadingSampleSizes.get(id);
+    if (failedIds.contains(id) || (loadingSampleSize != null && loadingSampleSize <= key.getSampleSize())) {
+      return;
+    }
+    loadingSampleSizes.put(id, key.getSampleSize());
+    final int generation = this.generation;
+    LottieTask.execute(new Runnable() {
+      @Override public void run() {
+        Bitmap bitmap = null;
+        try {
+          bitmap = decode(asset, key.getSampleSize());
+        } catch (RuntimeException e) {
+          Log.w(L.TAG, "Unable to load image " + id + ".", e);
+        }
+        final Bitmap pooledBitmap = bitmap == null ? null : BitmapPool.getInstance().put(key, bitmap);
+        handler.post(new Runnable() {
+          @Override public void run() {
+            onLoaded(generation, id, key, pooledBitmap);
+          }
+        });
+      }
+    }, LottieTaskPriority.Visible);
+  }
+
+  private void onLoaded(int generation, String id, BitmapPool.Key key, @Nullable Bitmap bitmap) {
+    if (generation != this.generation) {
+      if (bitmap != null) {
+        BitmapPool.getInstance().release(key);
+      }
+      return;
+    }
+    Integer loadingSampleSize = loadingSampleSizes.get(id);
+    if (loadingSampleSize != null && loadingSampleSize == key.getSampleSize()) {
+      loadingSampleSizes.remove(id);
+    }
+    PooledBitmap pooledBitmap = pooledBitmaps.get(id);
+    if (bitmap == null) {
+      if (pooledBitmap == null) {
+        failedIds.add(id);
+      }
+    } else if (pooledBitmap != null && pooledBitmap.key.getSampleSize() <= key.getSampleSize()) {
+      // A sharper bitmap was loaded in the meantime.
+      BitmapPool.getInstance().release(key);
+    } else {
+      hold(id, key, bitmap);
+      if (listener != null) {
+        listener.onImageLoaded();
+      }
+    }
+    notifyIfAllImagesLoaded();
+  }
+
+  private void notifyIfAllImagesLoaded() {
+    if (listener == null || !loadingSampleSizes.isEmpty()) {
+      return;
+    }
+    for (LottieImageAsset asset : imageAssets.values()) {
+      String id = asset.getId();
+      if (asset.getBitmap() == null && !pooledBitmaps.containsKey(id) && !failedIds.contains(id)) {
+        return;
+      }
+    }
+    listener.onAllImagesLoaded();
+  }
+
+  /**
+   * Gives the decoded bitmaps back to the {@link BitmapPool}. They are acquired again the next time that they
+   * are drawn.
+   */
+  public void releaseBitmaps() {
+    generation++;
+    loadingSampleSizes.clear();
+    BitmapPool pool = BitmapPool.getInstance();
+    for (PooledBitmap pooledBitmap : pooledBitmaps.values()) {
+      pool.release(pooledBitmap.key);
+    }
+    pooledBitmaps.clear();
+  }
+
+  /**
+   * The sample size that the bitmap for the image was decoded at. Bitmaps that weren't decoded here are 1.
+   */
+  public int sampleSizeForId(String id) {
+    LottieImageAsset asset = imageAssets.get(id);
+    PooledBitmap pooledBitmap = pooledBitmaps.get(id);
+    if (pooledBitmap == null || asset == null || asset.getBitmap() != null) {
+      return 1;
+    }
+    return pooledBitmap.key.getSampleSize();
+  }
+
+  @Nullable private Bitmap decode(LottieImageAsset asset, int sampleSize) {
+    BitmapPool pool = BitmapPool.getInstance();
     try {
-      if (TextUtils.isEmpty(imagesFolder)) {
-        throw new IllegalStateException("You must set an images folder before loading an image." +
-            " Set it with LottieComposition#setImagesFolder or LottieDrawable#setImagesFolder");
+      return decode(asset, sampleSize, pool);
+    } catch (IllegalArgumentException e) {
+      // The image couldn't be decoded into a reused bitmap.
+      return decode(asset, sampleSize, null);
+    }
+  }
+
+  @Nullable private Bitmap decode(LottieImageAsset asset, int sampleSize, @Nullable BitmapPool pool) {
+    InputStream is;
+    if (asset.isEmbedded()) {
+      // The base64 data is decoded as the image is rather than all at once up front.
+      is = asset.openEmbeddedImage();
+    } else {
+      try {
+        if (TextUtils.isEmpty(imagesFolder)) {
+          throw new IllegalStateException("You must set an images folder before loading an image." +
+              " Set it with LottieComposition#setImagesFolder or LottieDrawable#setImagesFolder");
+        }
+        is = context.getAssets().open(imagesFolder + asset.getFileName());
+      } catch (IOException e) {
+        Log.w(L.TAG, "Unable to open asset.", e);
+        return null;
       }
-      is = context.getAssets().open(imagesFolder + filename);
+    }
+    try {
+      return BitmapDecoder.decode(is, sampleSize, pool);
     } catch (IOException e) {
-      Log.w(L.TAG, "Unable to open asset.", e);
+      Log.w(L.TAG, "Unable to decode image.", e);
       return null;
+    } finally {
+      closeQuietly(is);
     }
-    bitmap = BitmapFactory.decodeStream(is, null, opts);
-    return putBitmap(id, bitmap);
   }
 
   public boolean hasSameContext(Context context) {
@@ -127,4 +330,29 @@ public class ImageAssetManager {
       return bitmap;
     }
   }
+
+  /**
+   * Called on the main thread when images are decoded in the background.
+   */
+  public interface Listener {
+    /**
+     * An image is ready to be drawn.
+     */
+    void onImageLoaded();
+
+    /**
+     * Every image has been loaded or failed to load. This may be called more than once.
+     */
+    void onAllImagesLoaded();
+  }
+
+  private static class PooledBitmap {
+    final BitmapPool.Key key;
+    final Bitmap bitmap;
+
+    PooledBitmap(BitmapPool.Key key, Bitmap bitmap) {
+      this.key = key;
+      this.bitmap = bitmap;
+    }
+  }
 }
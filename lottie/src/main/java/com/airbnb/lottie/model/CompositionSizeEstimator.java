@@ -0,0 +1,261 @@
+package com.airbnb.lottie.model;
+
+import android.graphics.Bitmap;
+import android.graphics.PointF;
+import android.os.Build;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieImageAsset;
+import com.airbnb.lottie.animation.keyframe.KeyframeTrack;
+import com.airbnb.lottie.animation.keyframe.PathKeyframe;
+import com.airbnb.lottie.model.animatable.AnimatableColorValue;
+import com.airbnb.lottie.model.animatable.AnimatableFloatValue;
+import com.airbnb.lottie.model.animatable.AnimatableIntegerValue;
+import com.airbnb.lottie.model.animatable.AnimatableSplitDimensionPathValue;
+import com.airbnb.lottie.model.animatable.AnimatableTextProperties;
+import com.airbnb.lottie.model.animatable.AnimatableTransform;
+import com.airbnb.lottie.model.animatable.AnimatableValue;
+import com.airbnb.lottie.model.content.CircleShape;
+import com.airbnb.lottie.model.content.ContentModel;
+import com.airbnb.lottie.model.content.GradientColor;
+import com.airbnb.lottie.model.content.GradientFill;
+import com.airbnb.lottie.model.content.GradientStroke;
+import com.airbnb.lottie.model.content.Mask;
+import com.airbnb.lottie.model.content.PolystarShape;
+import com.airbnb.lottie.model.content.RectangleShape;
+import com.airbnb.lottie.model.content.Repeater;
+import com.airbnb.lottie.model.content.ShapeData;
+import com.airbnb.lottie.model.content.ShapeFill;
+import com.airbnb.lottie.model.content.ShapeGroup;
+import com.airbnb.lottie.model.content.ShapePath;
+import com.airbnb.lottie.model.content.ShapeStroke;
+import com.airbnb.lottie.model.content.ShapeTrimPath;
+import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.value.Keyframe;
+
+import java.util.List;
+
+/**
+ * Roughly estimates how much memory a composition retains. The sizes are approximations of the
+ * shallow size of each object on a 32 bit runtime. They only need to be good enough to weigh
+ * compositions against each other.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class CompositionSizeEstimator {
+  private static final int COMPOSITION_BYTES = 256;
+  private static final int LAYER_BYTES = 200;
+  private static final int CONTENT_BYTES = 48;
+  private static final int ANIMATABLE_BYTES = 32;
+  private static final int TRACK_BYTES = 40;
+  private static final int KEYFRAME_BYTES = 72;
+  private static final int PATH_KEYFRAME_BYTES = 160;
+  private static final int BOXED_BYTES = 16;
+  private static final int POINT_BYTES = 24;
+  private static final int SHAPE_DATA_BYTES = 64;
+  /** A CubicCurveData and its three control points. */
+  private static final int CURVE_BYTES = 24 + 3 * POINT_BYTES;
+  private static final int ARRAY_BYTES = 16;
+  private static final int STRING_BYTES = 40;
+
+  private CompositionSizeEstimator() {
+  }
+
+  public static long estimate(LottieComposition composition) {
+    long size = COMPOSITION_BYTES;
+    size += estimateLayers(composition.getLayers());
+    for (List<Layer> precomp : composition.getLoadedPrecomps()) {
+      size += estimateLayers(precomp);
+    }
+    for (LottieImageAsset image : composition.getImages().values()) {
+      size += LAYER_BYTES + estimateBitmap(image.getBitmap());
+    }
+    for (int i = 0; i < composition.getCharacters().size(); i++) {
+      FontCharacter character = composition.getCharacters().valueAt(i);
+      size += CONTENT_BYTES;
+      for (ShapeGroup shape : character.getShapes()) {
+        size += estimateContent(shape);
+      }
+    }
+    return size;
+  }
+
+  private static long estimateBitmap(@Nullable Bitmap bitmap) {
+    if (bitmap == null) {
+      return 0;
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      return bitmap.getAllocationByteCount();
+    }
+    return bitmap.getByteCount();
+  }
+
+  private static long estimateLayers(List<Layer> layers) {
+    long size = ARRAY_BYTES + 4 * layers.size();
+    for (int i = 0; i < layers.size(); i++) {
+      size += estimateLayer(layers.get(i));
+    }
+    return size;
+  }
+
+  private static long estimateLayer(Layer layer) {
+    long size = LAYER_BYTES + estimateString(layer.getName());
+    for (Mask mask : layer.getMasks()) {
+      size += CONTENT_BYTES + estimate(mask.getMaskPath()) + estimate(mask.getOpacity());
+    }
+    size += estimateTransform(layer.getTransform());
+    size += estimate(layer.getText());
+    AnimatableTextProperties textProperties = layer.getTextProperties();
+    if (textProperties != null) {
+      size += CONTENT_BYTES + estimate(textProperties.color) + estimate(textProperties.stroke) +
+          estimate(textProperties.strokeWidth) + estimate(textProperties.tracking);
+    }
+    size += estimate(layer.getTimeRemapping());
+    size += estimateKeyframes(layer.getInOutKeyframes());
+    List<ContentModel> shapes = layer.getShapes();
+    for (int i = 0; i < shapes.size(); i++) {
+      size += estimateContent(shapes.get(i));
+    }
+    return size;
+  }
+
+  private static long estimateContent(ContentModel model) {
+    long size = CONTENT_BYTES;
+    if (model instanceof ShapeGroup) {
+      List<ContentModel> items = ((ShapeGroup) model).getItems();
+      for (int i = 0; i < items.size(); i++) {
+        size += estimateContent(items.get(i));
+      }
+    } else if (model instanceof ShapeStroke) {
+      ShapeStroke stroke = (ShapeStroke) model;
+      size += estimate(stroke.getColor()) + estimate(stroke.getOpacity()) +
+          estimate(stroke.getWidth()) + estimate(stroke.getDashOffset());
+      for (AnimatableValue<Float, Float> dash : stroke.getLineDashPattern()) {
+        size += estimate(dash);
+      }
+    } else if (model instanceof GradientStroke) {
+      GradientStroke stroke = (GradientStroke) model;
+      size += estimate(stroke.getGradientColor()) + estimate(stroke.getOpacity()) +
+          estimate(stroke.getStartPoint()) + estimate(stroke.getEndPoint()) +
+          estimate(stroke.getWidth()) + estimate(stroke.getDashOffset());
+      for (AnimatableValue<Float, Float> dash : stroke.getLineDashPattern()) {
+        size += estimate(dash);
+      }
+    } else if (model instanceof ShapeFill) {
+      ShapeFill fill = (ShapeFill) model;
+      size += estimate(fill.getColor()) + estimate(fill.getOpacity());
+    } else if (model instanceof GradientFill) {
+      GradientFill fill = (GradientFill) model;
+      size += estimate(fill.getGradientColor()) + estimate(fill.getOpacity()) +
+          estimate(fill.getStartPoint()) + estimate(fill.getEndPoint()) +
+          estimate(fill.getHighlightLength()) + estimate(fill.getHighlightAngle());
+    } else if (model instanceof AnimatableTransform) {
+      size += estimateTransform((AnimatableTransform) model);
+    } else if (model instanceof ShapePath) {
+      size += estimate(((ShapePath) model).getShapePath());
+    } else if (model instanceof CircleShape) {
+      CircleShape circle = (CircleShape) model;
+      size += estimate(circle.getPosition()) + estimate(circle.getSize());
+    } else if (model instanceof RectangleShape) {
+      RectangleShape rectangle = (RectangleShape) model;
+      size += estimate(rectangle.getPosition()) + estimate(rectangle.getSize()) +
+          estimate(rectangle.getCornerRadius());
+    } else if (model instanceof ShapeTrimPath) {
+      ShapeTrimPath trimPath = (ShapeTrimPath) model;
+      size += estimate(trimPath.getStart()) + estimate(trimPath.getEnd()) +
+          estimate(trimPath.getOffset());
+    } else if (model instanceof PolystarShape) {
+      PolystarShape polystar = (PolystarShape) model;
+      size += estimate(polystar.getPoints()) + estimate(polystar.getPosition()) +
+          estimate(polystar.getRotation()) + estimate(polystar.getInnerRadius()) +
+          estimate(polystar.getOuterRadius()) + estimate(polystar.getInnerRoundedness()) +
+          estimate(polystar.getOuterRoundedness());
+    } else if (model instanceof Repeater) {
+      Repeater repeater = (Repeater) model;
+      size += estimate(repeater.getCopies()) + estimate(repeater.getOffset()) +
+          estimateTransform(repeater.getTransform());
+    }
+    return size;
+  }
+
+  private static long estimateTransform(@Nullable AnimatableTransform transform) {
+    if (transform == null) {
+      return 0;
+    }
+    return CONTENT_BYTES + estimate(transform.getAnchorPoint()) +
+        estimate(transform.getPosition()) + estimate(transform.getScale()) +
+        estimate(transform.getRotation()) + estimate(transform.getOpacity()) +
+        estimate(transform.getStartOpacity()) + estimate(transform.getEndOpacity()) +
+        estimate(transform.getSkew()) + estimate(transform.getSkewAngle());
+  }
+
+  private static long estimate(@Nullable AnimatableValue<?, ?> animatable) {
+    if (animatable == null) {
+      return 0;
+    }
+    if (animatable instanceof AnimatableSplitDimensionPathValue) {
+      AnimatableSplitDimensionPathValue split = (AnimatableSplitDimensionPathValue) animatable;
+      return ANIMATABLE_BYTES + estimate(split.getXDimension()) + estimate(split.getYDimension());
+    }
+    if (animatable instanceof AnimatableFloatValue) {
+      return ANIMATABLE_BYTES + estimateTrack(((AnimatableFloatValue) animatable).getTrack());
+    }
+    if (animatable instanceof AnimatableIntegerValue) {
+      return ANIMATABLE_BYTES + estimateTrack(((AnimatableIntegerValue) animatable).getTrack());
+    }
+    if (animatable instanceof AnimatableColorValue) {
+      return ANIMATABLE_BYTES + estimateTrack(((AnimatableColorValue) animatable).getTrack());
+    }
+    return ANIMATABLE_BYTES + estimateKeyframes(animatable.getKeyframes());
+  }
+
+  /**
+   * Start frames, end frames, interpolators and two values per keyframe.
+   */
+  private static long estimateTrack(KeyframeTrack<?> track) {
+    return TRACK_BYTES + 4 * ARRAY_BYTES + 20L * track.size();
+  }
+
+  private static long estimateKeyframes(List<? extends Keyframe<?>> keyframes) {
+    long size = ARRAY_BYTES + 4 * keyframes.size();
+    for (int i = 0; i < keyframes.size(); i++) {
+      Keyframe<?> keyframe = keyframes.get(i);
+      size += keyframe instanceof PathKeyframe ? PATH_KEYFRAME_BYTES : KEYFRAME_BYTES;
+      size += estimateValue(keyframe.startValue);
+      if (keyframe.endValue != keyframe.startValue) {
+        size += estimateValue(keyframe.endValue);
+      }
+      if (keyframe.pathCp1 != null) {
+        size += POINT_BYTES;
+      }
+      if (keyframe.pathCp2 != null) {
+        size += POINT_BYTES;
+      }
+    }
+    return size;
+  }
+
+  private static long estimateValue(@Nullable Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof ShapeData) {
+      return SHAPE_DATA_BYTES + POINT_BYTES +
+          (long) ((ShapeData) value).getCurves().size() * (CURVE_BYTES + 4);
+    } else if (value instanceof GradientColor) {
+      return 2 * ARRAY_BYTES + 8L * ((GradientColor) value).getSize();
+    } else if (value instanceof DocumentData) {
+      DocumentData documentData = (DocumentData) value;
+      return SHAPE_DATA_BYTES + estimateString(documentData.text) +
+          estimateString(documentData.fontName);
+    } else if (value instanceof PointF) {
+      return POINT_BYTES;
+    }
+    // Floats, Integers and ScaleXY.
+    return BOXED_BYTES;
+  }
+
+  private static long estimateString(@Nullable String string) {
+    return string == null ? 0 : STRING_BYTES + 2L * string.length();
+  }
+}
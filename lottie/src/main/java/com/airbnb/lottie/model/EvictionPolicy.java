@@ -0,0 +1,35 @@
+package com.airbnb.lottie.model;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Decides which composition {@link LottieCompositionCache} evicts when it is over budget.
+ * It is only called while holding the cache's lock.
+ */
+interface EvictionPolicy {
+  /**
+   * A cached composition was requested.
+   */
+  void onHit(String key);
+
+  /**
+   * A composition was loaded and is about to be cached.
+   */
+  void onLoad(String key);
+
+  void onInsert(String key);
+
+  void onRemove(String key);
+
+  /**
+   * @return The key of the composition that should be evicted next or null if nothing is cached.
+   */
+  @Nullable String victim();
+
+  /**
+   * @return Whether a newly loaded composition is worth caching if it means evicting the victim.
+   */
+  boolean admit(String candidate, String victim);
+
+  void clear();
+}
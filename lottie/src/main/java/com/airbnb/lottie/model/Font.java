@@ -19,7 +19,7 @@ public class Font {
     this.ascent = ascent;
   }
 
-  @SuppressWarnings("unused") public String getFamily() {
+  public String getFamily() {
     return family;
   }
 
@@ -31,7 +31,7 @@ public class Font {
     return style;
   }
 
-  @SuppressWarnings("unused") float getAscent() {
+  public float getAscent() {
     return ascent;
   }
 }
@@ -40,7 +40,11 @@ public class FontCharacter {
     return shapes;
   }
 
-  double getSize() {
+  public char getCharacter() {
+    return character;
+  }
+
+  public double getSize() {
     return size;
   }
 
@@ -48,10 +52,14 @@ public class FontCharacter {
     return width;
   }
 
-  String getStyle() {
+  public String getStyle() {
     return style;
   }
 
+  public String getFontFamily() {
+    return fontFamily;
+  }
+
   @Override public int hashCode() {
     return hashFor(character, fontFamily, style);
   }
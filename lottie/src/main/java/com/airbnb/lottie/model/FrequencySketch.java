@@ -0,0 +1,60 @@
+package com.airbnb.lottie.model;
+
+import java.util.Arrays;
+
+/**
+ * A count-min sketch that approximates how often each key has been used in a fixed amount of
+ * memory. Counts are halved periodically so that keys that were popular a long time ago age out.
+ */
+class FrequencySketch {
+  private static final int WIDTH = 256;
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int SAMPLE_SIZE = 10 * WIDTH;
+  private static final int[] SEEDS = {0x97cb3127, 0xb492b66f, 0x9ae16a3b, 0x7a646e4d};
+
+  private final byte[] table = new byte[WIDTH * DEPTH];
+  private int additions;
+
+  int frequency(String key) {
+    int hash = key.hashCode();
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < DEPTH; i++) {
+      frequency = Math.min(frequency, table[indexOf(hash, i)]);
+    }
+    return frequency;
+  }
+
+  void increment(String key) {
+    int hash = key.hashCode();
+    boolean added = false;
+    for (int i = 0; i < DEPTH; i++) {
+      int index = indexOf(hash, i);
+      if (table[index] < MAX_COUNT) {
+        table[index]++;
+        added = true;
+      }
+    }
+    if (added && ++additions >= SAMPLE_SIZE) {
+      reset();
+    }
+  }
+
+  void clear() {
+    Arrays.fill(table, (byte) 0);
+    additions = 0;
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (byte) (table[i] >> 1);
+    }
+    additions /= 2;
+  }
+
+  private static int indexOf(int hash, int row) {
+    int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+    h ^= h >>> 16;
+    return row * WIDTH + (h & (WIDTH - 1));
+  }
+}
@@ -0,0 +1,53 @@
+package com.airbnb.lottie.model;
+
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evicts the composition that was used the fewest times since it was cached. Ties are broken by
+ * evicting the one that was used least recently.
+ */
+class LfuEvictionPolicy implements EvictionPolicy {
+  /** Use counts, ordered from least to most recently used. */
+  private final LinkedHashMap<String, Integer> counts = new LinkedHashMap<>(16, 0.75f, true);
+
+  @Override public void onHit(String key) {
+    Integer count = counts.get(key);
+    if (count != null) {
+      counts.put(key, count + 1);
+    }
+  }
+
+  @Override public void onLoad(String key) {
+  }
+
+  @Override public void onInsert(String key) {
+    counts.put(key, 1);
+  }
+
+  @Override public void onRemove(String key) {
+    counts.remove(key);
+  }
+
+  @Nullable @Override public String victim() {
+    String victim = null;
+    int victimCount = Integer.MAX_VALUE;
+    for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+      if (entry.getValue() < victimCount) {
+        victim = entry.getKey();
+        victimCount = entry.getValue();
+      }
+    }
+    return victim;
+  }
+
+  @Override public boolean admit(String candidate, String victim) {
+    return true;
+  }
+
+  @Override public void clear() {
+    counts.clear();
+  }
+}
@@ -1,12 +1,22 @@
 package com.airbnb.lottie.model;
 
+import android.content.ComponentCallbacks2;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
-import androidx.collection.LruCache;
 
+import com.airbnb.lottie.CacheEvictionPolicy;
+import com.airbnb.lottie.CompositionCacheStats;
 import com.airbnb.lottie.LottieComposition;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps recently loaded compositions in memory. It is bounded both by the number of compositions
+ * and by an estimate of the memory that they retain so that a large image heavy animation takes
+ * up more of the cache than a small spinner.
+ */
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public class LottieCompositionCache {
 
@@ -16,36 +26,165 @@ public class LottieCompositionCache {
     return INSTANCE;
   }
 
-  private final LruCache<String, LottieComposition> cache = new LruCache<>(20);
+  private final Map<String, Entry> entries = new HashMap<>();
+  private EvictionPolicy policy = new LruEvictionPolicy();
+  private int maxSize = 20;
+  private long maxSizeBytes = Runtime.getRuntime().maxMemory() / 8;
+  private long sizeBytes;
+
+  private long hitCount;
+  private long missCount;
+  private long putCount;
+  private long evictionCount;
+  private long rejectionCount;
 
   @VisibleForTesting
   LottieCompositionCache() {
   }
 
   @Nullable
-  public LottieComposition get(@Nullable String cacheKey) {
+  public synchronized LottieComposition get(@Nullable String cacheKey) {
     if (cacheKey == null) {
       return null;
     }
-    return cache.get(cacheKey);
+    Entry entry = entries.get(cacheKey);
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    policy.onHit(cacheKey);
+    return entry.composition;
   }
 
   public void put(@Nullable String cacheKey, LottieComposition composition) {
     if (cacheKey == null) {
       return;
     }
-    cache.put(cacheKey, composition);
+    synchronized (this) {
+      Entry existing = entries.get(cacheKey);
+      if (existing != null && existing.composition == composition) {
+        return;
+      }
+    }
+    // Walking the composition can take a moment so don't hold the lock while doing it.
+    long size = composition.estimateSizeBytes();
+    synchronized (this) {
+      putCount++;
+      remove(cacheKey);
+      policy.onLoad(cacheKey);
+      if (size > maxSizeBytes) {
+        rejectionCount++;
+        return;
+      }
+      if (isFull(size)) {
+        String victim = policy.victim();
+        if (victim != null && !policy.admit(cacheKey, victim)) {
+          rejectionCount++;
+          return;
+        }
+        trimToSize(maxSize - 1, maxSizeBytes - size);
+      }
+      entries.put(cacheKey, new Entry(composition, size));
+      sizeBytes += size;
+      policy.onInsert(cacheKey);
+    }
   }
 
-  public void clear() {
-    cache.evictAll();
+  public synchronized void clear() {
+    entries.clear();
+    policy.clear();
+    sizeBytes = 0;
   }
 
   /**
    * Set the maximum number of compositions to keep cached in memory.
    * This must be > 0.
    */
-  public void resize(int size) {
-    cache.resize(size);
+  public synchronized void resize(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("maxSize <= 0");
+    }
+    maxSize = size;
+    trimToSize(maxSize, maxSizeBytes);
+  }
+
+  /**
+   * Set the maximum estimated memory that cached compositions may retain.
+   * This must be > 0.
+   */
+  public synchronized void resizeBytes(long sizeBytes) {
+    if (sizeBytes <= 0) {
+      throw new IllegalArgumentException("maxSizeBytes <= 0");
+    }
+    maxSizeBytes = sizeBytes;
+    trimToSize(maxSize, maxSizeBytes);
+  }
+
+  public synchronized void setEvictionPolicy(CacheEvictionPolicy evictionPolicy) {
+    switch (evictionPolicy) {
+      case Lfu:
+        policy = new LfuEvictionPolicy();
+        break;
+      case TinyLfu:
+        policy = new TinyLfuEvictionPolicy();
+        break;
+      case Lru:
+      default:
+        policy = new LruEvictionPolicy();
+    }
+    for (String key : entries.keySet()) {
+      policy.onInsert(key);
+    }
+  }
+
+  /**
+   * @see ComponentCallbacks2#onTrimMemory(int)
+   */
+  public synchronized void trimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      trimToSize(0, 0);
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN ||
+        level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      trimToSize(maxSize / 2, maxSizeBytes / 2);
+    }
+  }
+
+  public synchronized CompositionCacheStats getStats() {
+    return new CompositionCacheStats(entries.size(), maxSize, sizeBytes, maxSizeBytes, hitCount,
+        missCount, putCount, evictionCount, rejectionCount);
+  }
+
+  private boolean isFull(long newSizeBytes) {
+    return entries.size() >= maxSize || sizeBytes + newSizeBytes > maxSizeBytes;
+  }
+
+  private void trimToSize(int size, long sizeBytes) {
+    while (entries.size() > size || this.sizeBytes > sizeBytes) {
+      String victim = policy.victim();
+      if (victim == null) {
+        break;
+      }
+      remove(victim);
+      evictionCount++;
+    }
+  }
+
+  private void remove(String cacheKey) {
+    Entry entry = entries.remove(cacheKey);
+    if (entry != null) {
+      sizeBytes -= entry.sizeBytes;
+      policy.onRemove(cacheKey);
+    }
+  }
+
+  private static class Entry {
+    final LottieComposition composition;
+    final long sizeBytes;
+
+    Entry(LottieComposition composition, long sizeBytes) {
+      this.composition = composition;
+      this.sizeBytes = sizeBytes;
+    }
   }
 }
@@ -0,0 +1,256 @@
+package com.airbnb.lottie.model;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.airbnb.lottie.BuildConfig;
+import com.airbnb.lottie.L;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.parser.BinaryCompositionParser;
+import com.airbnb.lottie.parser.BinaryCompositionWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
+/**
+ * Stores parsed compositions on disk in the binary format so that loading the same animation after
+ * a restart skips json parsing. Entries are keyed by a hash of the source json and the library
+ * version so an edited animation or a library update never loads a stale entry.
+ *
+ * The least recently used entries are deleted once the cache grows past its maximum size. Each
+ * entry is written to a temporary file and renamed into place so a crash mid write never leaves
+ * a partial entry behind.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class LottieCompositionDiskCache {
+  private static final String DIRECTORY = "lottie_compositions";
+  private static final String EXTENSION = ".lottie";
+  private static final String TEMP_EXTENSION = ".temp";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  @Nullable private static LottieCompositionDiskCache instance;
+
+  public static synchronized LottieCompositionDiskCache getInstance(Context context) {
+    if (instance == null) {
+      instance = new LottieCompositionDiskCache(
+          new File(context.getApplicationContext().getCacheDir(), DIRECTORY), BuildConfig.VERSION_NAME);
+    }
+    return instance;
+  }
+
+  private final File directory;
+  private final String suffix;
+  /**
+   * File sizes by key ordered from least to most recently used. It is loaded from disk the first
+   * time that it is needed so that lookups never have to stat the cache directory.
+   */
+  @Nullable private LinkedHashMap<String, Long> index;
+  private long sizeBytes;
+  private long maxSizeBytes = 10 * 1024 * 1024;
+
+  @VisibleForTesting
+  LottieCompositionDiskCache(File directory, String version) {
+    this.directory = directory;
+    this.suffix = "_" + version.replaceAll("\\W+", "") + EXTENSION;
+  }
+
+  /**
+   * Returns the key for json with the given content. The buffer's position is left unchanged.
+   */
+  public static String keyFor(ByteBuffer json) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Android device is required to support SHA-1.
+      throw new IllegalStateException(e);
+    }
+    digest.update(json.duplicate());
+    byte[] hash = digest.digest();
+    char[] hex = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+      hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+    }
+    return new String(hex);
+  }
+
+  /**
+   * Returns the cached composition or null if there is no entry for the key or it can't be read.
+   */
+  @Nullable
+  @WorkerThread
+  public LottieComposition get(String key) {
+    File file;
+    synchronized (this) {
+      // get rather than containsKey so that the entry is marked as recently used.
+      if (getIndex().get(key) == null) {
+        return null;
+      }
+      file = fileForKey(key);
+      //noinspection ResultOfMethodCallIgnored
+      file.setLastModified(System.currentTimeMillis());
+    }
+
+    try {
+      return BinaryCompositionParser.parse(map(file));
+    } catch (IOException | RuntimeException e) {
+      // A truncated or corrupt file may fail anywhere in the parser. Drop it so that the json is
+      // parsed and cached again rather than failing every time.
+      L.warn("Unable to load cached composition " + file.getName() + ". " + e.getMessage());
+      synchronized (this) {
+        remove(key);
+      }
+      return null;
+    }
+  }
+
+  @WorkerThread
+  public void put(String key, LottieComposition composition) {
+    File file = fileForKey(key);
+    // Every writer gets its own temp file so concurrent writes of the same key can't interleave.
+    File tempFile = new File(directory, file.getName() + "." + Thread.currentThread().getId() + TEMP_EXTENSION);
+    try {
+      //noinspection ResultOfMethodCallIgnored
+      directory.mkdirs();
+      FileOutputStream output = new FileOutputStream(tempFile);
+      try {
+        BufferedOutputStream bufferedOutput = new BufferedOutputStream(output);
+        BinaryCompositionWriter.write(composition, bufferedOutput);
+        bufferedOutput.flush();
+        output.getFD().sync();
+      } finally {
+        closeQuietly(output);
+      }
+    } catch (IOException e) {
+      L.warn("Unable to write composition to the disk cache. " + e.getMessage());
+      //noinspection ResultOfMethodCallIgnored
+      tempFile.delete();
+      return;
+    }
+
+    synchronized (this) {
+      if (!tempFile.renameTo(file)) {
+        //noinspection ResultOfMethodCallIgnored
+        tempFile.delete();
+        return;
+      }
+      LinkedHashMap<String, Long> index = getIndex();
+      Long previousSize = index.put(key, file.length());
+      if (previousSize != null) {
+        sizeBytes -= previousSize;
+      }
+      sizeBytes += file.length();
+      trimToSize(maxSizeBytes);
+    }
+  }
+
+  /**
+   * Set the maximum size of the files in the cache. This must be > 0.
+   */
+  public synchronized void resize(long maxSizeBytes) {
+    if (maxSizeBytes <= 0) {
+      throw new IllegalArgumentException("maxSizeBytes <= 0");
+    }
+    this.maxSizeBytes = maxSizeBytes;
+    if (index != null) {
+      trimToSize(maxSizeBytes);
+    }
+  }
+
+  public synchronized void clear() {
+    getIndex();
+    trimToSize(0);
+  }
+
+  @VisibleForTesting
+  synchronized long getSizeBytes() {
+    getIndex();
+    return sizeBytes;
+  }
+
+  private LinkedHashMap<String, Long> getIndex() {
+    if (index != null) {
+      return index;
+    }
+    index = new LinkedHashMap<>(16, 0.75f, true);
+    sizeBytes = 0;
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return index;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override public int compare(File a, File b) {
+        long aModified = a.lastModified();
+        long bModified = b.lastModified();
+        return aModified < bModified ? -1 : (aModified == bModified ? 0 : 1);
+      }
+    });
+    for (File file : files) {
+      String name = file.getName();
+      if (name.endsWith(suffix)) {
+        long length = file.length();
+        index.put(name.substring(0, name.length() - suffix.length()), length);
+        sizeBytes += length;
+      } else {
+        // Entries from another library version or temp files left behind by a crash.
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+      }
+    }
+    trimToSize(maxSizeBytes);
+    return index;
+  }
+
+  private void trimToSize(long maxSizeBytes) {
+    //noinspection ConstantConditions
+    Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> entry = iterator.next();
+      iterator.remove();
+      sizeBytes -= entry.getValue();
+      //noinspection ResultOfMethodCallIgnored
+      fileForKey(entry.getKey()).delete();
+    }
+  }
+
+  private void remove(String key) {
+    Long size = getIndex().remove(key);
+    if (size != null) {
+      sizeBytes -= size;
+      //noinspection ResultOfMethodCallIgnored
+      fileForKey(key).delete();
+    }
+  }
+
+  private File fileForKey(String key) {
+    return new File(directory, key + suffix);
+  }
+
+  private static ByteBuffer map(File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      closeQuietly(randomAccessFile);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.airbnb.lottie.model;
+
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Evicts the composition that was used least recently.
+ */
+class LruEvictionPolicy implements EvictionPolicy {
+  /** Ordered from least to most recently used. */
+  private final LinkedHashSet<String> keys = new LinkedHashSet<>();
+
+  @Override public void onHit(String key) {
+    if (keys.remove(key)) {
+      keys.add(key);
+    }
+  }
+
+  @Override public void onLoad(String key) {
+  }
+
+  @Override public void onInsert(String key) {
+    keys.remove(key);
+    keys.add(key);
+  }
+
+  @Override public void onRemove(String key) {
+    keys.remove(key);
+  }
+
+  @Nullable @Override public String victim() {
+    Iterator<String> it = keys.iterator();
+    return it.hasNext() ? it.next() : null;
+  }
+
+  @Override public boolean admit(String candidate, String victim) {
+    return true;
+  }
+
+  @Override public void clear() {
+    keys.clear();
+  }
+}
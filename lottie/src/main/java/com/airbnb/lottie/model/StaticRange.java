@@ -0,0 +1,24 @@
+package com.airbnb.lottie.model;
+
+/**
+ * Frames of a composition during which nothing that is drawn changes. Every frame from
+ * {@link #startFrame} to {@link #endFrame} draws the same.
+ */
+public class StaticRange {
+
+  public final float startFrame;
+  public final float endFrame;
+
+  public StaticRange(float startFrame, float endFrame) {
+    this.startFrame = startFrame;
+    this.endFrame = endFrame;
+  }
+
+  public boolean containsFrame(float frame) {
+    return frame >= startFrame && frame <= endFrame;
+  }
+
+  @Override public String toString() {
+    return "StaticRange{startFrame=" + startFrame + ", endFrame=" + endFrame + '}';
+  }
+}
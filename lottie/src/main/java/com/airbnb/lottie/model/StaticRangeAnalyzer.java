@@ -0,0 +1,464 @@
+package com.airbnb.lottie.model;
+
+import android.view.animation.Interpolator;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.animation.keyframe.KeyframeTrack;
+import com.airbnb.lottie.model.animatable.AnimatableColorValue;
+import com.airbnb.lottie.model.animatable.AnimatableFloatValue;
+import com.airbnb.lottie.model.animatable.AnimatableIntegerValue;
+import com.airbnb.lottie.model.animatable.AnimatableSplitDimensionPathValue;
+import com.airbnb.lottie.model.animatable.AnimatableTextProperties;
+import com.airbnb.lottie.model.animatable.AnimatableTransform;
+import com.airbnb.lottie.model.animatable.AnimatableValue;
+import com.airbnb.lottie.model.content.CircleShape;
+import com.airbnb.lottie.model.content.ContentModel;
+import com.airbnb.lottie.model.content.GradientFill;
+import com.airbnb.lottie.model.content.GradientStroke;
+import com.airbnb.lottie.model.content.Mask;
+import com.airbnb.lottie.model.content.PolystarShape;
+import com.airbnb.lottie.model.content.RectangleShape;
+import com.airbnb.lottie.model.content.Repeater;
+import com.airbnb.lottie.model.content.ShapeFill;
+import com.airbnb.lottie.model.content.ShapeGroup;
+import com.airbnb.lottie.model.content.ShapePath;
+import com.airbnb.lottie.model.content.ShapeStroke;
+import com.airbnb.lottie.model.content.ShapeTrimPath;
+import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.utils.HoldInterpolator;
+import com.airbnb.lottie.value.Keyframe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the frames of a composition during which no animated property of any layer changes.
+ * Keyframes are mapped to the frames of the composition through the time stretch and start frame
+ * of the precomps and mattes that they are in. Values may jump where keyframes start and end and
+ * change continuously during keyframes that aren't static or held. The static ranges are what is
+ * left between them.
+ *
+ * Anything that can't be followed, like the layers of a lazy precomp that haven't been parsed, is
+ * treated as changing on every frame that it is visible.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class StaticRangeAnalyzer {
+  /**
+   * Ranges start this many frames after and end this many frames before a frame at which something
+   * changes. This leaves room for rounding in the progress that layers compute for each other.
+   */
+  private static final float MARGIN_FRAMES = 0.01f;
+
+  private final LottieComposition composition;
+  /** Frames at which a value may jump. */
+  private float[] changeFrames = new float[16];
+  private int changeFrameCount;
+  /** Pairs of start and end frames between which a value changes continuously. */
+  private float[] animatedFrames = new float[16];
+  private int animatedFrameCount;
+
+  private StaticRangeAnalyzer(LottieComposition composition) {
+    this.composition = composition;
+  }
+
+  public static List<StaticRange> analyze(LottieComposition composition) {
+    StaticRangeAnalyzer analyzer = new StaticRangeAnalyzer(composition);
+    analyzer.analyzeLayers(composition.getLayers(), new Timing(composition.getStartFrame(), 1f, 0f,
+        composition.getStartFrame(), composition.getEndFrame()));
+    return analyzer.buildRanges();
+  }
+
+  private void analyzeLayers(List<Layer> layers, Timing timing) {
+    Set<Long> parentIds = new HashSet<>();
+    for (int i = 0; i < layers.size(); i++) {
+      parentIds.add(layers.get(i).getParentId());
+    }
+    // Mattes are paired with the layers that they matte the same way that CompositionLayer does.
+    Layer mattedLayer = null;
+    for (int i = layers.size() - 1; i >= 0; i--) {
+      Layer layer = layers.get(i);
+      if (layer.getLayerType() == Layer.LayerType.Unknown) {
+        continue;
+      }
+      if (mattedLayer != null) {
+        // A matte gets the time stretched progress of its layer multiplied by its own time stretch.
+        analyzeLayer(layer, timing.stretch(timeStretchOf(mattedLayer) / timeStretchOf(layer), 0f),
+            parentIds.contains(layer.getId()));
+        mattedLayer = null;
+      } else {
+        analyzeLayer(layer, timing, parentIds.contains(layer.getId()));
+        if (layer.getMatteType() == Layer.MatteType.Add || layer.getMatteType() == Layer.MatteType.Invert) {
+          mattedLayer = layer;
+        }
+      }
+    }
+  }
+
+  private void analyzeLayer(Layer layer, Timing timing, boolean isParent) {
+    if (isParent) {
+      // A layer's transform moves its children even while the layer itself isn't visible.
+      analyzeTransform(layer.getTransform(), timing);
+    }
+
+    float timeStretch = timeStretchOf(layer);
+    Timing contentTiming = timing.stretch(timeStretch, 0f);
+    List<Keyframe<Float>> inOutKeyframes = layer.getInOutKeyframes();
+    analyzeKeyframes(inOutKeyframes, contentTiming);
+    Timing visibleTiming = timing;
+    if (!inOutKeyframes.isEmpty()) {
+      visibleTiming = timing.clip(Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY);
+      for (int i = 0; i < inOutKeyframes.size(); i++) {
+        Keyframe<Float> keyframe = inOutKeyframes.get(i);
+        if (keyframe.startValue != null && keyframe.startValue == 1f) {
+          float start = contentTiming.toCompositionFrame(keyframe.startFrame);
+          float end = contentTiming.toCompositionFrame(
+              keyframe.endFrame == null ? composition.getEndFrame() : keyframe.endFrame);
+          visibleTiming = timing.clip(Math.min(start, end), Math.max(start, end));
+        }
+      }
+    }
+    if (visibleTiming.isEmpty()) {
+      return;
+    }
+    if (!isParent) {
+      analyzeTransform(layer.getTransform(), visibleTiming);
+    }
+
+    for (Mask mask : layer.getMasks()) {
+      analyze(mask.getMaskPath(), visibleTiming);
+      analyze(mask.getOpacity(), visibleTiming);
+    }
+    Timing visibleContentTiming = visibleTiming.stretch(timeStretch, 0f);
+    analyze(layer.getText(), visibleContentTiming);
+    AnimatableTextProperties textProperties = layer.getTextProperties();
+    if (textProperties != null) {
+      analyze(textProperties.color, visibleContentTiming);
+      analyze(textProperties.stroke, visibleContentTiming);
+      analyze(textProperties.strokeWidth, visibleContentTiming);
+      analyze(textProperties.tracking, visibleContentTiming);
+    }
+    List<ContentModel> shapes = layer.getShapes();
+    for (int i = 0; i < shapes.size(); i++) {
+      analyzeContent(shapes.get(i), visibleContentTiming);
+    }
+
+    if (layer.getLayerType() != Layer.LayerType.PreComp) {
+      return;
+    }
+    AnimatableFloatValue timeRemapping = layer.getTimeRemapping();
+    String refId = layer.getRefId();
+    if (timeRemapping != null) {
+      // The layers of the precomp are drawn at the remapped time so they only change when it does.
+      analyze(timeRemapping, visibleContentTiming);
+    } else if (refId != null && composition.isLazyPrecomp(refId)) {
+      // Analyzing the layers would parse them before they are needed.
+      addAnimated(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, visibleTiming);
+    } else if (refId != null) {
+      List<Layer> layers = composition.getPrecomps(refId);
+      if (layers != null) {
+        analyzeLayers(layers, visibleTiming.stretch(timeStretch, layer.getStartFrame()));
+      }
+    }
+  }
+
+  private void analyzeContent(ContentModel model, Timing timing) {
+    if (model instanceof ShapeGroup) {
+      List<ContentModel> items = ((ShapeGroup) model).getItems();
+      for (int i = 0; i < items.size(); i++) {
+        analyzeContent(items.get(i), timing);
+      }
+    } else if (model instanceof ShapeStroke) {
+      ShapeStroke stroke = (ShapeStroke) model;
+      analyze(stroke.getColor(), timing);
+      analyze(stroke.getOpacity(), timing);
+      analyze(stroke.getWidth(), timing);
+      analyze(stroke.getDashOffset(), timing);
+      for (AnimatableValue<Float, Float> dash : stroke.getLineDashPattern()) {
+        analyze(dash, timing);
+      }
+    } else if (model instanceof GradientStroke) {
+      GradientStroke stroke = (GradientStroke) model;
+      analyze(stroke.getGradientColor(), timing);
+      analyze(stroke.getOpacity(), timing);
+      analyze(stroke.getStartPoint(), timing);
+      analyze(stroke.getEndPoint(), timing);
+      analyze(stroke.getWidth(), timing);
+      analyze(stroke.getDashOffset(), timing);
+      for (AnimatableValue<Float, Float> dash : stroke.getLineDashPattern()) {
+        analyze(dash, timing);
+      }
+    } else if (model instanceof ShapeFill) {
+      ShapeFill fill = (ShapeFill) model;
+      analyze(fill.getColor(), timing);
+      analyze(fill.getOpacity(), timing);
+    } else if (model instanceof GradientFill) {
+      GradientFill fill = (GradientFill) model;
+      analyze(fill.getGradientColor(), timing);
+      analyze(fill.getOpacity(), timing);
+      analyze(fill.getStartPoint(), timing);
+      analyze(fill.getEndPoint(), timing);
+      analyze(fill.getHighlightLength(), timing);
+      analyze(fill.getHighlightAngle(), timing);
+    } else if (model instanceof AnimatableTransform) {
+      analyzeTransform((AnimatableTransform) model, timing);
+    } else if (model instanceof ShapePath) {
+      analyze(((ShapePath) model).getShapePath(), timing);
+    } else if (model instanceof CircleShape) {
+      CircleShape circle = (CircleShape) model;
+      analyze(circle.getPosition(), timing);
+      analyze(circle.getSize(), timing);
+    } else if (model instanceof RectangleShape) {
+      RectangleShape rectangle = (RectangleShape) model;
+      analyze(rectangle.getPosition(), timing);
+      analyze(rectangle.getSize(), timing);
+      analyze(rectangle.getCornerRadius(), timing);
+    } else if (model instanceof ShapeTrimPath) {
+      ShapeTrimPath trimPath = (ShapeTrimPath) model;
+      analyze(trimPath.getStart(), timing);
+      analyze(trimPath.getEnd(), timing);
+      analyze(trimPath.getOffset(), timing);
+    } else if (model instanceof PolystarShape) {
+      PolystarShape polystar = (PolystarShape) model;
+      analyze(polystar.getPoints(), timing);
+      analyze(polystar.getPosition(), timing);
+      analyze(polystar.getRotation(), timing);
+      analyze(polystar.getInnerRadius(), timing);
+      analyze(polystar.getOuterRadius(), timing);
+      analyze(polystar.getInnerRoundedness(), timing);
+      analyze(polystar.getOuterRoundedness(), timing);
+    } else if (model instanceof Repeater) {
+      Repeater repeater = (Repeater) model;
+      analyze(repeater.getCopies(), timing);
+      analyze(repeater.getOffset(), timing);
+      analyzeTransform(repeater.getTransform(), timing);
+    }
+  }
+
+  private void analyzeTransform(@Nullable AnimatableTransform transform, Timing timing) {
+    if (transform == null) {
+      return;
+    }
+    analyze(transform.getAnchorPoint(), timing);
+    analyze(transform.getPosition(), timing);
+    analyze(transform.getScale(), timing);
+    analyze(transform.getRotation(), timing);
+    analyze(transform.getOpacity(), timing);
+    analyze(transform.getStartOpacity(), timing);
+    analyze(transform.getEndOpacity(), timing);
+    analyze(transform.getSkew(), timing);
+    analyze(transform.getSkewAngle(), timing);
+  }
+
+  private void analyze(@Nullable AnimatableValue<?, ?> animatable, Timing timing) {
+    if (animatable == null || animatable.isStatic()) {
+      return;
+    }
+    if (animatable instanceof AnimatableSplitDimensionPathValue) {
+      AnimatableSplitDimensionPathValue split = (AnimatableSplitDimensionPathValue) animatable;
+      analyze(split.getXDimension(), timing);
+      analyze(split.getYDimension(), timing);
+    } else if (animatable instanceof AnimatableFloatValue) {
+      analyzeTrack(((AnimatableFloatValue) animatable).getTrack(), timing);
+    } else if (animatable instanceof AnimatableIntegerValue) {
+      analyzeTrack(((AnimatableIntegerValue) animatable).getTrack(), timing);
+    } else if (animatable instanceof AnimatableColorValue) {
+      analyzeTrack(((AnimatableColorValue) animatable).getTrack(), timing);
+    } else {
+      analyzeKeyframes(animatable.getKeyframes(), timing);
+    }
+  }
+
+  private void analyzeTrack(KeyframeTrack<?> track, Timing timing) {
+    for (int i = 0; i < track.size(); i++) {
+      if (i < track.size() - 1 && track.getEndFrame(i) != track.getStartFrame(i + 1)) {
+        // Keyframes that overlap or leave gaps are looked up in ways that aren't followed here.
+        addAnimated(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, timing);
+        return;
+      }
+      addKeyframe(track.getStartFrame(i), track.getEndFrame(i), track.isStatic(i), timing);
+    }
+  }
+
+  private void analyzeKeyframes(List<? extends Keyframe<?>> keyframes, Timing timing) {
+    for (int i = 0; i < keyframes.size(); i++) {
+      Keyframe<?> keyframe = keyframes.get(i);
+      Float endFrame = keyframe.endFrame;
+      if (i < keyframes.size() - 1 && (endFrame == null || endFrame != keyframes.get(i + 1).startFrame)) {
+        addAnimated(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, timing);
+        return;
+      }
+      Interpolator interpolator = keyframe.interpolator;
+      addKeyframe(keyframe.startFrame, endFrame == null ? composition.getEndFrame() : endFrame,
+          interpolator == null || interpolator == HoldInterpolator.INSTANCE, timing);
+    }
+  }
+
+  private void addKeyframe(float startFrame, float endFrame, boolean isStatic, Timing timing) {
+    // Keyframes of values that never change start at Float.MIN_VALUE and end at Float.MAX_VALUE.
+    float start = timing.toCompositionFrame(startFrame == Float.MIN_VALUE ? Float.NEGATIVE_INFINITY : startFrame);
+    float end = timing.toCompositionFrame(endFrame == Float.MAX_VALUE ? Float.POSITIVE_INFINITY : endFrame);
+    if (start > end) {
+      float swap = start;
+      start = end;
+      end = swap;
+    }
+    addChange(start, timing);
+    addChange(end, timing);
+    if (!isStatic) {
+      addAnimated(start, end, timing);
+    }
+  }
+
+  private void addChange(float frame, Timing timing) {
+    // Nothing is drawn before the first frame so a change at it can't be seen.
+    if (frame < timing.clipStart || frame > timing.clipEnd ||
+        frame <= composition.getStartFrame() || frame > composition.getEndFrame()) {
+      return;
+    }
+    if (changeFrameCount == changeFrames.length) {
+      changeFrames = Arrays.copyOf(changeFrames, 2 * changeFrameCount);
+    }
+    changeFrames[changeFrameCount++] = frame;
+  }
+
+  private void addAnimated(float startFrame, float endFrame, Timing timing) {
+    startFrame = Math.max(startFrame, Math.max(timing.clipStart, composition.getStartFrame()));
+    endFrame = Math.min(endFrame, Math.min(timing.clipEnd, composition.getEndFrame()));
+    if (startFrame >= endFrame) {
+      return;
+    }
+    if (animatedFrameCount == animatedFrames.length) {
+      animatedFrames = Arrays.copyOf(animatedFrames, 2 * animatedFrameCount);
+    }
+    animatedFrames[animatedFrameCount++] = startFrame;
+    animatedFrames[animatedFrameCount++] = endFrame;
+  }
+
+  private List<StaticRange> buildRanges() {
+    float startFrame = composition.getStartFrame();
+    float endFrame = composition.getEndFrame();
+    List<StaticRange> ranges = new ArrayList<>();
+    if (startFrame >= endFrame) {
+      return ranges;
+    }
+
+    // The frames that split the composition into segments in which nothing jumps.
+    Arrays.sort(changeFrames, 0, changeFrameCount);
+    float[] bounds = new float[changeFrameCount + 2];
+    int boundCount = 0;
+    bounds[boundCount++] = startFrame;
+    for (int i = 0; i < changeFrameCount; i++) {
+      if (changeFrames[i] != bounds[boundCount - 1]) {
+        bounds[boundCount++] = changeFrames[i];
+      }
+    }
+    boolean changesAtEnd = bounds[boundCount - 1] == endFrame;
+    if (!changesAtEnd) {
+      bounds[boundCount++] = endFrame;
+    }
+    int segmentCount = boundCount - 1;
+
+    // Counts the animated frames that cover each segment with +1 at the first segment that they
+    // cover and -1 after the last one.
+    int[] animatedDeltas = new int[segmentCount + 1];
+    for (int i = 0; i < animatedFrameCount; i += 2) {
+      int first = Math.min(lastBoundAtOrBefore(bounds, boundCount, animatedFrames[i]), segmentCount - 1);
+      int last = Math.min(lastBoundBefore(bounds, boundCount, animatedFrames[i + 1]), segmentCount - 1);
+      animatedDeltas[first]++;
+      animatedDeltas[last + 1]--;
+    }
+
+    int animated = 0;
+    for (int i = 0; i < segmentCount; i++) {
+      animated += animatedDeltas[i];
+      if (animated > 0) {
+        continue;
+      }
+      float start = i == 0 ? bounds[i] : bounds[i] + MARGIN_FRAMES;
+      float end = i == segmentCount - 1 && !changesAtEnd ? bounds[i + 1] : bounds[i + 1] - MARGIN_FRAMES;
+      if (start < end) {
+        ranges.add(new StaticRange(start, end));
+      }
+    }
+    return ranges;
+  }
+
+  private static int lastBoundAtOrBefore(float[] bounds, int boundCount, float frame) {
+    int low = 0;
+    int high = boundCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (bounds[mid] <= frame) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return Math.max(high, 0);
+  }
+
+  private static int lastBoundBefore(float[] bounds, int boundCount, float frame) {
+    int low = 0;
+    int high = boundCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (bounds[mid] < frame) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return Math.max(high, 0);
+  }
+
+  private static float timeStretchOf(Layer layer) {
+    // Layers ignore a time stretch of 0.
+    return layer.getTimeStretch() == 0 ? 1f : layer.getTimeStretch();
+  }
+
+  /**
+   * Maps the frames at which a layer's properties are evaluated to the frames of the composition
+   * and limits them to the composition frames in which the layer can be drawn.
+   */
+  private static final class Timing {
+    private final float compositionStartFrame;
+    private final float scale;
+    private final float offset;
+    private final float clipStart;
+    private final float clipEnd;
+
+    Timing(float compositionStartFrame, float scale, float offset, float clipStart, float clipEnd) {
+      this.compositionStartFrame = compositionStartFrame;
+      this.scale = scale;
+      this.offset = offset;
+      this.clipStart = clipStart;
+      this.clipEnd = clipEnd;
+    }
+
+    float toCompositionFrame(float frame) {
+      return compositionStartFrame + scale * (frame - compositionStartFrame) + offset;
+    }
+
+    /**
+     * The timing of properties that see a frame of this timing as frame / timeStretch - startFrame
+     * when frames are counted from the start of the composition.
+     */
+    Timing stretch(float timeStretch, float startFrame) {
+      return new Timing(compositionStartFrame, scale * timeStretch, offset + scale * timeStretch * startFrame,
+          clipStart, clipEnd);
+    }
+
+    Timing clip(float start, float end) {
+      return new Timing(compositionStartFrame, scale, offset, Math.max(clipStart, start), Math.min(clipEnd, end));
+    }
+
+    boolean isEmpty() {
+      return clipStart > clipEnd;
+    }
+  }
+}
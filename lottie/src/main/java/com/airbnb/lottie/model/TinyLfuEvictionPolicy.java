@@ -0,0 +1,44 @@
+package com.airbnb.lottie.model;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Evicts the least recently used composition but only caches a newly loaded composition if it
+ * has been used at least as often as the one it would replace. Usage is tracked for every key,
+ * including ones that aren't cached, so an animation that is only shown once can't push out one
+ * that is shown all the time.
+ */
+class TinyLfuEvictionPolicy implements EvictionPolicy {
+  private final LruEvictionPolicy lru = new LruEvictionPolicy();
+  private final FrequencySketch sketch = new FrequencySketch();
+
+  @Override public void onHit(String key) {
+    sketch.increment(key);
+    lru.onHit(key);
+  }
+
+  @Override public void onLoad(String key) {
+    sketch.increment(key);
+  }
+
+  @Override public void onInsert(String key) {
+    lru.onInsert(key);
+  }
+
+  @Override public void onRemove(String key) {
+    lru.onRemove(key);
+  }
+
+  @Nullable @Override public String victim() {
+    return lru.victim();
+  }
+
+  @Override public boolean admit(String candidate, String victim) {
+    return sketch.frequency(candidate) >= sketch.frequency(victim);
+  }
+
+  @Override public void clear() {
+    lru.clear();
+    sketch.clear();
+  }
+}
@@ -1,17 +1,22 @@
 package com.airbnb.lottie.model.animatable;
 
+import com.airbnb.lottie.animation.keyframe.IntegerKeyframeTrack;
 import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
 import com.airbnb.lottie.animation.keyframe.ColorKeyframeAnimation;
 
 import java.util.List;
 
-public class AnimatableColorValue extends BaseAnimatableValue<Integer, Integer> {
+public class AnimatableColorValue extends BaseAnimatableTrackValue<Integer, IntegerKeyframeTrack> {
   public AnimatableColorValue(List<Keyframe<Integer>> keyframes) {
-    super(keyframes);
+    super(IntegerKeyframeTrack.fromKeyframes(keyframes));
+  }
+
+  public AnimatableColorValue(IntegerKeyframeTrack track) {
+    super(track);
   }
 
   @Override public BaseKeyframeAnimation<Integer, Integer> createAnimation() {
-    return new ColorKeyframeAnimation(keyframes);
+    return new ColorKeyframeAnimation(track);
   }
 }
@@ -1,22 +1,34 @@
 package com.airbnb.lottie.model.animatable;
 
+import com.airbnb.lottie.animation.keyframe.FloatKeyframeTrack;
 import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
 import com.airbnb.lottie.animation.keyframe.FloatKeyframeAnimation;
 
 import java.util.List;
 
-public class AnimatableFloatValue extends BaseAnimatableValue<Float, Float> {
+public class AnimatableFloatValue extends BaseAnimatableTrackValue<Float, FloatKeyframeTrack> {
 
   AnimatableFloatValue() {
-    super(0f);
+    super(FloatKeyframeTrack.forValue(0f));
   }
 
   public AnimatableFloatValue(List<Keyframe<Float>> keyframes) {
-    super(keyframes);
+    super(FloatKeyframeTrack.fromKeyframes(keyframes));
+  }
+
+  public AnimatableFloatValue(FloatKeyframeTrack track) {
+    super(track);
+  }
+
+  /**
+   * Whether the value is always the given value.
+   */
+  boolean isStaticValue(float value) {
+    return isStatic() && !track.isEmpty() && track.hasStartValue(0) && track.getStartFloat(0) == value;
   }
 
   @Override public BaseKeyframeAnimation<Float, Float> createAnimation() {
-    return new FloatKeyframeAnimation(keyframes);
+    return new FloatKeyframeAnimation(track);
   }
 }
@@ -1,22 +1,27 @@
 package com.airbnb.lottie.model.animatable;
 
+import com.airbnb.lottie.animation.keyframe.IntegerKeyframeTrack;
 import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
 import com.airbnb.lottie.animation.keyframe.IntegerKeyframeAnimation;
 
 import java.util.List;
 
-public class AnimatableIntegerValue extends BaseAnimatableValue<Integer, Integer> {
+public class AnimatableIntegerValue extends BaseAnimatableTrackValue<Integer, IntegerKeyframeTrack> {
 
   public AnimatableIntegerValue() {
-    super(100);
+    super(IntegerKeyframeTrack.forValue(100));
   }
 
   public AnimatableIntegerValue(List<Keyframe<Integer>> keyframes) {
-    super(keyframes);
+    super(IntegerKeyframeTrack.fromKeyframes(keyframes));
+  }
+
+  public AnimatableIntegerValue(IntegerKeyframeTrack track) {
+    super(track);
   }
 
   @Override public BaseKeyframeAnimation<Integer, Integer> createAnimation() {
-    return new IntegerKeyframeAnimation(keyframes);
+    return new IntegerKeyframeAnimation(track);
   }
 }
@@ -1,6 +1,7 @@
 package com.airbnb.lottie.model.animatable;
 
 import android.graphics.PointF;
+import androidx.annotation.RestrictTo;
 
 import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
 import com.airbnb.lottie.animation.keyframe.SplitDimensionPathKeyframeAnimation;
@@ -20,6 +21,16 @@ public class AnimatableSplitDimensionPathValue implements AnimatableValue<PointF
     this.animatableYDimension = animatableYDimension;
   }
 
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public AnimatableFloatValue getXDimension() {
+    return animatableXDimension;
+  }
+
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public AnimatableFloatValue getYDimension() {
+    return animatableYDimension;
+  }
+
   @Override
   public List<Keyframe<PointF>> getKeyframes() {
     throw new UnsupportedOperationException("Cannot call getKeyframes on AnimatableSplitDimensionPathValue.");
@@ -58,9 +58,9 @@ public class AnimatableTransform implements ModifierContent, ContentModel {
             !(position instanceof AnimatableSplitDimensionPathValue) &&
             position.isStatic() && position.getKeyframes().get(0).startValue.equals(0f, 0f) &&
             scale.isStatic() && scale.getKeyframes().get(0).startValue.equals(1f, 1f) &&
-            (rotation.isStatic() && rotation.getKeyframes().get(0).startValue == 0f || rotation.keyframes.isEmpty()) &&
-            (skew == null || (skew.isStatic() && skew.getKeyframes().get(0).startValue == 0f)) &&
-            (skewAngle == null || (skewAngle.isStatic() && skewAngle.getKeyframes().get(0).startValue == 0f));
+            (rotation.isStaticValue(0f) || rotation.track.isEmpty()) &&
+            (skew == null || skew.isStaticValue(0f)) &&
+            (skewAngle == null || skewAngle.isStaticValue(0f));
   }
 
   public AnimatablePathValue getAnchorPoint() {
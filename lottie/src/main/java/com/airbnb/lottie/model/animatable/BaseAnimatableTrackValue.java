@@ -0,0 +1,43 @@
+package com.airbnb.lottie.model.animatable;
+
+import com.airbnb.lottie.animation.keyframe.KeyframeTrack;
+import com.airbnb.lottie.value.Keyframe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An animatable primitive value whose keyframes are packed into a {@link KeyframeTrack}.
+ */
+abstract class BaseAnimatableTrackValue<V, T extends KeyframeTrack<V>> implements AnimatableValue<V, V> {
+  final T track;
+
+  BaseAnimatableTrackValue(T track) {
+    this.track = track;
+  }
+
+  public T getTrack() {
+    return track;
+  }
+
+  /**
+   * Creates the keyframes of the track. Changes to the list don't change the value.
+   */
+  @SuppressWarnings("unchecked")
+  @Override public List<Keyframe<V>> getKeyframes() {
+    return (List<Keyframe<V>>) track.getKeyframes();
+  }
+
+  @Override
+  public boolean isStatic() {
+    return track.isEmpty() || (track.size() == 1 && track.isStatic(0));
+  }
+
+  @Override public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    if (!track.isEmpty()) {
+      sb.append("values=").append(Arrays.toString(getKeyframes().toArray()));
+    }
+    return sb.toString();
+  }
+}
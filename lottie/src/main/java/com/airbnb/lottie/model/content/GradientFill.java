@@ -2,6 +2,7 @@ package com.airbnb.lottie.model.content;
 
 import android.graphics.Path;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 
 import com.airbnb.lottie.LottieDrawable;
 import com.airbnb.lottie.animation.content.Content;
@@ -70,11 +71,13 @@ public class GradientFill implements ContentModel {
     return endPoint;
   }
 
-  @Nullable AnimatableFloatValue getHighlightLength() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public AnimatableFloatValue getHighlightLength() {
     return highlightLength;
   }
 
-  @Nullable AnimatableFloatValue getHighlightAngle() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public AnimatableFloatValue getHighlightAngle() {
     return highlightAngle;
   }
 
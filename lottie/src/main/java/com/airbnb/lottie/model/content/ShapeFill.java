@@ -2,6 +2,7 @@ package com.airbnb.lottie.model.content;
 
 import android.graphics.Path;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 
 import com.airbnb.lottie.LottieDrawable;
 import com.airbnb.lottie.animation.content.Content;
@@ -40,6 +41,11 @@ public class ShapeFill implements ContentModel {
     return opacity;
   }
 
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public boolean isFillEnabled() {
+    return fillEnabled;
+  }
+
   public Path.FillType getFillType() {
     return fillType;
   }
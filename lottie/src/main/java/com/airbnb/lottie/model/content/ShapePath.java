@@ -1,5 +1,7 @@
 package com.airbnb.lottie.model.content;
 
+import androidx.annotation.RestrictTo;
+
 import com.airbnb.lottie.LottieDrawable;
 import com.airbnb.lottie.animation.content.Content;
 import com.airbnb.lottie.animation.content.ShapeContent;
@@ -23,6 +25,11 @@ public class ShapePath implements ContentModel {
     return name;
   }
 
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getIndex() {
+    return index;
+  }
+
   public AnimatableShapeValue getShapePath() {
     return shapePath;
   }
@@ -43,6 +43,9 @@ public abstract class BaseLayer
       case Shape:
         return new ShapeLayer(drawable, layerModel);
       case PreComp:
+        if (composition.isLazyPrecomp(layerModel.getRefId())) {
+          return new CompositionLayer(drawable, layerModel, composition);
+        }
         return new CompositionLayer(drawable, layerModel,
             composition.getPrecomps(layerModel.getRefId()), composition);
       case Solid:
@@ -424,6 +427,10 @@ public abstract class BaseLayer
     return mask != null && !mask.getMaskAnimations().isEmpty();
   }
 
+  boolean isVisible() {
+    return visible && !layerModel.isHidden();
+  }
+
   private void setVisible(boolean visible) {
     if (visible != this.visible) {
       this.visible = visible;
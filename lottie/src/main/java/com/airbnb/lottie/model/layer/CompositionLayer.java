@@ -28,9 +28,29 @@ public class CompositionLayer extends BaseLayer {
 
   @Nullable private Boolean hasMatte;
   @Nullable private Boolean hasMasks;
+  /** Only set until the layers of a lazy precomp have been built. */
+  @Nullable private LottieComposition lazyComposition;
 
   public CompositionLayer(LottieDrawable lottieDrawable, Layer layerModel, List<Layer> layerModels,
       LottieComposition composition) {
+    this(lottieDrawable, layerModel);
+    buildLayers(layerModels, composition);
+  }
+
+  /**
+   * Creates a layer for a lazy precomp. Its layers won't be parsed or built until it is first
+   * visible.
+   */
+  CompositionLayer(LottieDrawable lottieDrawable, Layer layerModel, LottieComposition composition) {
+    this(lottieDrawable, layerModel);
+    lazyComposition = composition;
+    // The first frame may be drawn without progress ever being set.
+    if (isVisible()) {
+      buildLayersIfNeeded();
+    }
+  }
+
+  private CompositionLayer(LottieDrawable lottieDrawable, Layer layerModel) {
     super(lottieDrawable, layerModel);
 
     AnimatableFloatValue timeRemapping = layerModel.getTimeRemapping();
@@ -42,7 +62,22 @@ public class CompositionLayer extends BaseLayer {
     } else {
       this.timeRemapping = null;
     }
+  }
+
+  private void buildLayersIfNeeded() {
+    if (lazyComposition != null) {
+      List<Layer> layerModels = lazyComposition.getPrecomps(layerModel.getRefId());
+      if (layerModels == null) {
+        // Parsing was interrupted. Try again the next time that the layers are needed.
+        return;
+      }
+      LottieComposition composition = lazyComposition;
+      lazyComposition = null;
+      buildLayers(layerModels, composition);
+    }
+  }
 
+  private void buildLayers(List<Layer> layerModels, LottieComposition composition) {
     LongSparseArray<BaseLayer> layerMap =
         new LongSparseArray<>(composition.getLayers().size());
 
@@ -115,6 +150,12 @@ public class CompositionLayer extends BaseLayer {
 
   @Override public void setProgress(@FloatRange(from = 0f, to = 1f) float progress) {
     super.setProgress(progress);
+    if (lazyComposition != null) {
+      if (!isVisible()) {
+        return;
+      }
+      buildLayersIfNeeded();
+    }
     if (timeRemapping != null) {
       float duration = lottieDrawable.getComposition().getDuration();
       long remappedTime = (long) (timeRemapping.getValue() * 1000);
@@ -131,6 +172,10 @@ public class CompositionLayer extends BaseLayer {
   }
 
   public boolean hasMasks() {
+    if (lazyComposition != null) {
+      // Nothing can be known about the layers of a lazy precomp until they are built.
+      return false;
+    }
     if (hasMasks == null) {
       for (int i = layers.size() - 1; i >= 0; i--) {
         BaseLayer layer = layers.get(i);
@@ -150,6 +195,9 @@ public class CompositionLayer extends BaseLayer {
   }
 
   public boolean hasMatte() {
+    if (lazyComposition != null) {
+      return hasMatteOnThisLayer();
+    }
     if (hasMatte == null) {
       if (hasMatteOnThisLayer()) {
         hasMatte = true;
@@ -170,6 +218,8 @@ public class CompositionLayer extends BaseLayer {
   @Override
   protected void resolveChildKeyPath(KeyPath keyPath, int depth, List<KeyPath> accumulator,
       KeyPath currentPartialKeyPath) {
+    // The layers have to exist for value callbacks to be added to them.
+    buildLayersIfNeeded();
     for (int i = 0; i < layers.size(); i++) {
       layers.get(i).resolveKeyPath(keyPath, depth, accumulator, currentPartialKeyPath);
     }
@@ -11,6 +11,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.airbnb.lottie.LottieDrawable;
+import com.airbnb.lottie.LottieImageAsset;
 import com.airbnb.lottie.LottieProperty;
 import com.airbnb.lottie.animation.LPaint;
 import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
@@ -30,11 +31,14 @@ public class ImageLayer extends BaseLayer {
   }
 
   @Override public void drawLayer(@NonNull Canvas canvas, Matrix parentMatrix, int parentAlpha) {
-    Bitmap bitmap = getBitmap();
+    float density = Utils.dpScale();
+    // The scale comes from the drawable rather than the canvas matrix which is deprecated and doesn't include the
+    // view's transforms on hardware canvases. Scaling that is done outside of the drawable, such as by a scale
+    // type or a view's scaleX and scaleY, isn't taken into account so setScale should be used to draw larger.
+    Bitmap bitmap = getBitmap(Utils.getScale(parentMatrix) * lottieDrawable.getExtraScale() * density);
     if (bitmap == null || bitmap.isRecycled()) {
       return;
     }
-    float density = Utils.dpScale();
 
     paint.setAlpha(parentAlpha);
     if (colorFilterAnimation != null) {
@@ -43,24 +47,41 @@ public class ImageLayer extends BaseLayer {
     canvas.save();
     canvas.concat(parentMatrix);
     src.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
-    dst.set(0, 0, (int) (bitmap.getWidth() * density), (int) (bitmap.getHeight() * density));
+    setImageBounds(dst, bitmap);
+    dst.right = (int) (dst.right * density);
+    dst.bottom = (int) (dst.bottom * density);
     canvas.drawBitmap(bitmap, src, dst , paint);
     canvas.restore();
   }
 
   @Override public void getBounds(RectF outBounds, Matrix parentMatrix, boolean applyParents) {
     super.getBounds(outBounds, parentMatrix, applyParents);
-    Bitmap bitmap = getBitmap();
+    Bitmap bitmap = getBitmap(lottieDrawable.getScale() * Utils.dpScale());
     if (bitmap != null) {
-      outBounds.set(0, 0, bitmap.getWidth() * Utils.dpScale(), bitmap.getHeight() * Utils.dpScale());
+      setImageBounds(dst, bitmap);
+      outBounds.set(0, 0, dst.right * Utils.dpScale(), dst.bottom * Utils.dpScale());
       boundsMatrix.mapRect(outBounds);
     }
   }
 
   @Nullable
-  private Bitmap getBitmap() {
+  private Bitmap getBitmap(float scale) {
+    String refId = layerModel.getRefId();
+    return lottieDrawable.getImageAsset(refId, scale);
+  }
+
+  /**
+   * A downsampled bitmap is still drawn at the size of the full image.
+   */
+  private void setImageBounds(Rect outBounds, Bitmap bitmap) {
     String refId = layerModel.getRefId();
-    return lottieDrawable.getImageAsset(refId);
+    int sampleSize = lottieDrawable.getImageAssetSampleSize(refId);
+    LottieImageAsset asset = lottieDrawable.getComposition().getImages().get(refId);
+    if (sampleSize > 1 && asset != null && asset.getWidth() > 0 && asset.getHeight() > 0) {
+      outBounds.set(0, 0, asset.getWidth(), asset.getHeight());
+    } else {
+      outBounds.set(0, 0, bitmap.getWidth() * sampleSize, bitmap.getHeight() * sampleSize);
+    }
   }
 
   @SuppressWarnings("SingleStatementInBlock")
@@ -1,6 +1,7 @@
 package com.airbnb.lottie.model.layer;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 
 import com.airbnb.lottie.LottieComposition;
 import com.airbnb.lottie.value.Keyframe;
@@ -91,15 +92,22 @@ public class Layer {
     return composition;
   }
 
-  float getTimeStretch() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public float getTimeStretch() {
     return timeStretch;
   }
 
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public float getStartFrame() {
+    return startFrame;
+  }
+
   float getStartProgress() {
     return startFrame / composition.getDurationFrames();
   }
 
-  List<Keyframe<Float>> getInOutKeyframes() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public List<Keyframe<Float>> getInOutKeyframes() {
     return inOutKeyframes;
   }
 
@@ -107,23 +115,28 @@ public class Layer {
     return layerId;
   }
 
-  String getName() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public String getName() {
     return layerName;
   }
 
-  @Nullable String getRefId() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public String getRefId() {
     return refId;
   }
 
-  int getPreCompWidth() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getPreCompWidth() {
     return preCompWidth;
   }
 
-  int getPreCompHeight() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getPreCompHeight() {
     return preCompHeight;
   }
 
-  List<Mask> getMasks() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public List<Mask> getMasks() {
     return masks;
   }
 
@@ -131,43 +144,53 @@ public class Layer {
     return layerType;
   }
 
-  MatteType getMatteType() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public MatteType getMatteType() {
     return matteType;
   }
 
-  long getParentId() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public long getParentId() {
     return parentId;
   }
 
-  List<ContentModel> getShapes() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public List<ContentModel> getShapes() {
     return shapes;
   }
 
-  AnimatableTransform getTransform() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public AnimatableTransform getTransform() {
     return transform;
   }
 
-  int getSolidColor() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getSolidColor() {
     return solidColor;
   }
 
-  int getSolidHeight() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getSolidHeight() {
     return solidHeight;
   }
 
-  int getSolidWidth() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public int getSolidWidth() {
     return solidWidth;
   }
 
-  @Nullable AnimatableTextFrame getText() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public AnimatableTextFrame getText() {
     return text;
   }
 
-  @Nullable AnimatableTextProperties getTextProperties() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public AnimatableTextProperties getTextProperties() {
     return textProperties;
   }
 
-  @Nullable AnimatableFloatValue getTimeRemapping() {
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  @Nullable public AnimatableFloatValue getTimeRemapping() {
     return timeRemapping;
   }
 
@@ -0,0 +1,178 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The http caching headers of a response that is stored in the {@link NetworkCache}. They decide
+ * whether the cached file can be used as is, used while it is revalidated in the background, or
+ * must be revalidated first.
+ *
+ * A response without a max-age is served from disk right away and revalidated in the background
+ * every time that it is loaded if it has an ETag or Last-Modified header. It is never revalidated
+ * otherwise. Only no-cache makes a load wait for the revalidation without a max-age.
+ */
+class CacheMetadata {
+  private static final long FOREVER = -1;
+
+  @Nullable final String etag;
+  @Nullable final String lastModified;
+  final long fetchedAtMs;
+  /** How long the response is fresh for or {@link #FOREVER}. */
+  final long maxAgeSeconds;
+  /** How long the response may be used after it is stale while it is revalidated or {@link #FOREVER}. */
+  final long staleWhileRevalidateSeconds;
+  final boolean noStore;
+
+  @VisibleForTesting
+  CacheMetadata(@Nullable String etag, @Nullable String lastModified, long fetchedAtMs, long maxAgeSeconds,
+      long staleWhileRevalidateSeconds, boolean noStore) {
+    this.etag = etag;
+    this.lastModified = lastModified;
+    this.fetchedAtMs = fetchedAtMs;
+    this.maxAgeSeconds = maxAgeSeconds;
+    this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+    this.noStore = noStore;
+  }
+
+  static CacheMetadata fromResult(LottieFetchResult result, long nowMs) {
+    return fromHeaders(result.header("Cache-Control"), result.header("ETag"), result.header("Last-Modified"), nowMs);
+  }
+
+  @VisibleForTesting
+  static CacheMetadata fromHeaders(@Nullable String cacheControl, @Nullable String etag,
+      @Nullable String lastModified, long nowMs) {
+    long maxAgeSeconds = etag == null && lastModified == null ? FOREVER : 0;
+    long staleWhileRevalidateSeconds = 0;
+    boolean hasMaxAge = false;
+    boolean hasStaleWhileRevalidate = false;
+    boolean noStore = false;
+    boolean noCache = false;
+    if (cacheControl != null) {
+      for (String directive : cacheControl.toLowerCase(Locale.US).split(",")) {
+        directive = directive.trim();
+        if (directive.equals("no-store")) {
+          noStore = true;
+        } else if (directive.equals("no-cache")) {
+          noCache = true;
+        } else if (directive.startsWith("max-age=")) {
+          maxAgeSeconds = parseSeconds(directive.substring("max-age=".length()), maxAgeSeconds);
+          hasMaxAge = true;
+        } else if (directive.startsWith("stale-while-revalidate=")) {
+          staleWhileRevalidateSeconds =
+              parseSeconds(directive.substring("stale-while-revalidate=".length()), staleWhileRevalidateSeconds);
+          hasStaleWhileRevalidate = true;
+        }
+      }
+    }
+    if (noCache) {
+      // no-cache wins over a max-age in the same header.
+      maxAgeSeconds = 0;
+    } else if (!hasMaxAge && !hasStaleWhileRevalidate && maxAgeSeconds != FOREVER) {
+      // Most servers and CDNs send a validator without any freshness. Waiting for a round trip on every load
+      // would make the file on disk useless, especially on a bad network, so it is served while it is revalidated.
+      staleWhileRevalidateSeconds = FOREVER;
+    }
+    return new CacheMetadata(etag, lastModified, nowMs, maxAgeSeconds, staleWhileRevalidateSeconds, noStore);
+  }
+
+  /**
+   * The metadata after a 304 response. Headers that the 304 doesn't repeat are kept.
+   */
+  CacheMetadata revalidated(LottieFetchResult result, long nowMs) {
+    String etag = result.header("ETag");
+    String lastModified = result.header("Last-Modified");
+    String cacheControl = result.header("Cache-Control");
+    CacheMetadata updated = fromHeaders(cacheControl, etag == null ? this.etag : etag,
+        lastModified == null ? this.lastModified : lastModified, nowMs);
+    if (cacheControl != null) {
+      return updated;
+    }
+    return new CacheMetadata(updated.etag, updated.lastModified, nowMs, maxAgeSeconds, staleWhileRevalidateSeconds,
+        noStore);
+  }
+
+  boolean isFresh(long nowMs) {
+    return maxAgeSeconds == FOREVER || nowMs < fetchedAtMs + maxAgeSeconds * 1000;
+  }
+
+  /**
+   * Whether the stale response may still be used while it is revalidated in the background.
+   */
+  boolean isUsableWhileRevalidating(long nowMs) {
+    return isFresh(nowMs) || staleWhileRevalidateSeconds == FOREVER ||
+        nowMs < fetchedAtMs + (maxAgeSeconds + staleWhileRevalidateSeconds) * 1000;
+  }
+
+  void addConditionalHeaders(Map<String, String> headers) {
+    if (etag != null) {
+      headers.put("If-None-Match", etag);
+    }
+    if (lastModified != null) {
+      headers.put("If-Modified-Since", lastModified);
+    }
+  }
+
+  /**
+   * Writes the metadata as space separated fields of a journal line. Headers are url encoded so they
+   * never contain a space and missing headers are written as empty fields.
+   */
+  void appendTo(StringBuilder line) {
+    line.append(' ').append(fetchedAtMs)
+        .append(' ').append(maxAgeSeconds)
+        .append(' ').append(staleWhileRevalidateSeconds)
+        .append(' ').append(encode(etag))
+        .append(' ').append(encode(lastModified));
+  }
+
+  /**
+   * Reads metadata that was written with {@link #appendTo(StringBuilder)} from the fields of a journal line.
+   *
+   * @throws IllegalArgumentException if the fields are invalid.
+   */
+  static CacheMetadata parse(String[] fields, int offset) {
+    if (fields.length != offset + 5) {
+      throw new IllegalArgumentException("Expected " + (offset + 5) + " fields but found " + fields.length);
+    }
+    return new CacheMetadata(decode(fields[offset + 3]), decode(fields[offset + 4]), Long.parseLong(fields[offset]),
+        Long.parseLong(fields[offset + 1]), Long.parseLong(fields[offset + 2]), false);
+  }
+
+  private static String encode(@Nullable String value) {
+    if (value == null) {
+      return "";
+    }
+    try {
+      return URLEncoder.encode(value, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      // Every Java platform is required to support UTF-8.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Nullable
+  private static String decode(String value) {
+    if (value.isEmpty()) {
+      return null;
+    }
+    try {
+      return URLDecoder.decode(value, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static long parseSeconds(String value, long defaultValue) {
+    try {
+      return Math.max(0, Long.parseLong(value.trim().replace("\"", "")));
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.airbnb.lottie.L;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
+/**
+ * A response made by {@link DefaultLottieNetworkFetcher}.
+ */
+public class DefaultLottieFetchResult implements LottieFetchResult {
+  private final HttpURLConnection connection;
+  @Nullable private InputStream body;
+
+  DefaultLottieFetchResult(HttpURLConnection connection) {
+    this.connection = connection;
+  }
+
+  @Override public int responseCode() {
+    try {
+      return connection.getResponseCode();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  @NonNull
+  @Override
+  public InputStream bodyByteStream() throws IOException {
+    if (body != null) {
+      return body;
+    }
+    InputStream stream = connection.getInputStream();
+    String encoding = connection.getContentEncoding();
+    if (encoding != null) {
+      encoding = encoding.toLowerCase(Locale.US);
+      if (encoding.equals("gzip")) {
+        stream = new GZIPInputStream(stream);
+      } else if (encoding.equals("deflate")) {
+        stream = new InflaterInputStream(stream);
+      }
+    }
+    body = stream;
+    return stream;
+  }
+
+  @Nullable
+  @Override
+  public String contentType() {
+    return connection.getContentType();
+  }
+
+  @Nullable
+  @Override
+  public String header(@NonNull String name) {
+    return connection.getHeaderField(name);
+  }
+
+  @Nullable
+  @Override
+  public String error() {
+    InputStream errorStream = connection.getErrorStream();
+    if (errorStream == null) {
+      return null;
+    }
+    try {
+      BufferedReader r = new BufferedReader(new InputStreamReader(errorStream));
+      StringBuilder error = new StringBuilder();
+      String line;
+      while ((line = r.readLine()) != null) {
+        error.append(line).append('\n');
+      }
+      return error.toString();
+    } catch (IOException e) {
+      L.warn("Unable to read the error response. " + e.getMessage());
+      return null;
+    } finally {
+      closeQuietly(errorStream);
+    }
+  }
+
+  /**
+   * Closes the body rather than disconnecting so that the connection can be reused.
+   */
+  @Override public void close() {
+    if (body != null) {
+      closeQuietly(body);
+      return;
+    }
+    try {
+      closeQuietly(responseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream());
+    } catch (IOException e) {
+      connection.disconnect();
+    }
+  }
+}
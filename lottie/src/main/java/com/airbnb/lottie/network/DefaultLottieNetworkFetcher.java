@@ -0,0 +1,133 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.airbnb.lottie.L;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
+/**
+ * The {@link LottieNetworkFetcher} that is used unless another one is set. It uses {@link HttpURLConnection} which
+ * keeps connections alive and reuses them for later requests to the same host once a response has been read.
+ *
+ * Responses are requested with gzip or deflate compression. Requests that fail to connect, time out, or get a
+ * 408, 429, or 5xx response are retried with exponential backoff.
+ *
+ * Configure it before it is passed to
+ * {@link com.airbnb.lottie.LottieCompositionFactory#setNetworkFetcher(LottieNetworkFetcher)}.
+ */
+public class DefaultLottieNetworkFetcher implements LottieNetworkFetcher {
+  private int connectTimeoutMillis = 10_000;
+  private int readTimeoutMillis = 10_000;
+  private int maxRetries = 2;
+  private long initialBackoffMillis = 500;
+  private final Map<String, String> headers = new LinkedHashMap<>();
+
+  /**
+   * Defaults to 10 seconds.
+   */
+  public DefaultLottieNetworkFetcher setConnectTimeoutMillis(int connectTimeoutMillis) {
+    this.connectTimeoutMillis = connectTimeoutMillis;
+    return this;
+  }
+
+  /**
+   * The longest time to wait for data once connected. Defaults to 10 seconds.
+   */
+  public DefaultLottieNetworkFetcher setReadTimeoutMillis(int readTimeoutMillis) {
+    this.readTimeoutMillis = readTimeoutMillis;
+    return this;
+  }
+
+  /**
+   * How many times a failed request is retried. Defaults to 2.
+   */
+  public DefaultLottieNetworkFetcher setMaxRetries(int maxRetries) {
+    if (maxRetries < 0) {
+      throw new IllegalArgumentException("maxRetries < 0");
+    }
+    this.maxRetries = maxRetries;
+    return this;
+  }
+
+  /**
+   * How long to wait before the first retry. The wait doubles with every retry after that. Defaults to 500ms.
+   */
+  public DefaultLottieNetworkFetcher setInitialBackoffMillis(long initialBackoffMillis) {
+    this.initialBackoffMillis = initialBackoffMillis;
+    return this;
+  }
+
+  /**
+   * Adds a header, such as Authorization, to every request.
+   */
+  public DefaultLottieNetworkFetcher addHeader(String name, String value) {
+    headers.put(name, value);
+    return this;
+  }
+
+  @WorkerThread
+  @NonNull
+  @Override
+  public LottieFetchResult fetchSync(@NonNull String url, @NonNull Map<String, String> headers) throws IOException {
+    for (int attempt = 0; ; attempt++) {
+      if (attempt > 0) {
+        backOff(attempt);
+      }
+      DefaultLottieFetchResult result;
+      try {
+        result = new DefaultLottieFetchResult(connect(url, headers));
+      } catch (IOException e) {
+        if (attempt >= maxRetries || Thread.currentThread().isInterrupted()) {
+          throw e;
+        }
+        L.debug("Unable to fetch " + url + ". Retrying. " + e.getMessage());
+        continue;
+      }
+      if (attempt >= maxRetries || !isRetryable(result.responseCode())) {
+        return result;
+      }
+      L.debug("Fetching " + url + " failed with " + result.responseCode() + ". Retrying.");
+      closeQuietly(result);
+    }
+  }
+
+  private HttpURLConnection connect(String url, Map<String, String> headers) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    connection.setRequestMethod("GET");
+    connection.setConnectTimeout(connectTimeoutMillis);
+    connection.setReadTimeout(readTimeoutMillis);
+    connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+    for (Map.Entry<String, String> header : this.headers.entrySet()) {
+      connection.setRequestProperty(header.getKey(), header.getValue());
+    }
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      connection.setRequestProperty(header.getKey(), header.getValue());
+    }
+    connection.connect();
+    // Reads the status line so that connection failures are thrown here where they can be retried.
+    connection.getResponseCode();
+    return connection;
+  }
+
+  private void backOff(int attempt) throws InterruptedIOException {
+    try {
+      Thread.sleep(initialBackoffMillis << Math.min(attempt - 1, 16));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry.");
+    }
+  }
+
+  private static boolean isRetryable(int responseCode) {
+    return responseCode == 408 || responseCode == 429 || responseCode >= 500;
+  }
+}
@@ -0,0 +1,41 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The response to a request made by a {@link LottieNetworkFetcher}. Closing it should release the connection so
+ * that it can be reused.
+ */
+public interface LottieFetchResult extends Closeable {
+  /**
+   * The http status code such as 200 or 304.
+   */
+  int responseCode();
+
+  /**
+   * The body of a successful response. It must already be decompressed.
+   */
+  @NonNull
+  InputStream bodyByteStream() throws IOException;
+
+  @Nullable
+  String contentType();
+
+  /**
+   * Returns the value of a response header or null if the response doesn't have it. Lottie uses this to read the
+   * Cache-Control, ETag, and Last-Modified headers.
+   */
+  @Nullable
+  String header(@NonNull String name);
+
+  /**
+   * A description of why the request failed, such as the body of an error response.
+   */
+  @Nullable
+  String error();
+}
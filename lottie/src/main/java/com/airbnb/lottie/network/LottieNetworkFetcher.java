@@ -0,0 +1,29 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Downloads animations for {@link com.airbnb.lottie.LottieCompositionFactory#fromUrl(android.content.Context, String)}.
+ * Implement this to load animations with your own http stack, for example to share its connection pool or to
+ * authenticate requests, and set it with
+ * {@link com.airbnb.lottie.LottieCompositionFactory#setNetworkFetcher(LottieNetworkFetcher)}.
+ *
+ * Lottie caches the responses itself so implementations shouldn't cache them too.
+ *
+ * @see DefaultLottieNetworkFetcher
+ */
+public interface LottieNetworkFetcher {
+  /**
+   * Makes a GET request to the url. The request must follow redirects. The response is read on the calling
+   * thread and is closed once it has been read.
+   *
+   * @param headers Headers that must be sent with the request, such as the ones that revalidate a cached animation.
+   */
+  @WorkerThread
+  @NonNull
+  LottieFetchResult fetchSync(@NonNull String url, @NonNull Map<String, String> headers) throws IOException;
+}
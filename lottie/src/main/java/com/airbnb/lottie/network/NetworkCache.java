@@ -8,126 +8,100 @@ import androidx.core.util.Pair;
 import com.airbnb.lottie.L;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 
 /**
- * Helper class to save and restore animations fetched from an URL to the app disk cache.
+ * Helper class to save and restore animations fetched from an URL to the {@link NetworkDiskCache}.
  */
 class NetworkCache {
-  private final Context appContext;
+  private final NetworkDiskCache diskCache;
   private final String url;
+  private final String key;
+  @Nullable private File tempFile;
 
   NetworkCache(Context appContext, String url) {
-    this.appContext = appContext.getApplicationContext();
+    diskCache = NetworkDiskCache.getInstance(appContext);
     this.url = url;
+    key = NetworkDiskCache.keyFor(url);
   }
 
   /**
-   * If the animation doesn't exist in the cache, null will be returned.
-   *
-   * Once the animation is successfully parsed, {@link #renameTempFile(FileExtension)} must be
-   * called to move the file from a temporary location to its permanent cache location so it can
-   * be used in the future.
+   * If the animation doesn't exist in the cache, null will be returned. Otherwise, the cached file
+   * is returned so json can be memory mapped rather than streamed.
    */
   @Nullable
   @WorkerThread
-  Pair<FileExtension, InputStream> fetch() {
-    File cachedFile = null;
-    try {
-      cachedFile = getCachedFile(url);
-    } catch (FileNotFoundException e) {
+  Pair<FileExtension, File> fetch() {
+    NetworkDiskCache.Entry entry = diskCache.get(key);
+    if (entry == null) {
       return null;
     }
-    if (cachedFile == null) {
-      return null;
-    }
-
-    FileInputStream inputStream;
-    try {
-      inputStream = new FileInputStream(cachedFile);
-    } catch (FileNotFoundException e) {
-      return null;
-    }
-
-    FileExtension extension;
-    if (cachedFile.getAbsolutePath().endsWith(".zip")) {
-      extension = FileExtension.Zip;
-    } else {
-      extension = FileExtension.Json;
-    }
-
+    File cachedFile = diskCache.fileFor(key, entry.extension);
     L.debug("Cache hit for " + url + " at " + cachedFile.getAbsolutePath());
-    return new Pair<>(extension, (InputStream) inputStream);
+    return new Pair<>(entry.extension, cachedFile);
   }
 
   /**
-   * Writes an InputStream from a network response to a temporary file. If the file successfully parses
-   * to an composition, {@link #renameTempFile(FileExtension)} should be called to move the file
-   * to its final location for future cache hits.
+   * Returns the caching headers that were stored with the cached file or null if it isn't cached.
    */
-  File writeTempCacheFile(InputStream stream, FileExtension extension) throws IOException {
-    String fileName = filenameForUrl(url, extension, true);
-    File file = new File(appContext.getCacheDir(), fileName);
-    try {
-      OutputStream output = new FileOutputStream(file);
-      //noinspection TryFinallyCanBeTryWithResources
-      try {
-        byte[] buffer = new byte[1024];
-        int read;
+  @Nullable
+  @WorkerThread
+  CacheMetadata fetchMetadata() {
+    return diskCache.getMetadata(key);
+  }
 
-        while ((read = stream.read(buffer)) != -1) {
-          output.write(buffer, 0, read);
+  /**
+   * Returns a stream that copies everything that is read from a network response to a temporary
+   * file. The response can be parsed while it downloads. If it successfully parses to a composition
+   * and the copy is complete, {@link #commitTempFile(FileExtension, CacheMetadata)} should be called
+   * to add the file to the cache. Otherwise {@link #deleteTempFile()} should be called.
+   */
+  @WorkerThread
+  TeeInputStream teeToTempCacheFile(InputStream stream) throws IOException {
+    tempFile = diskCache.newTempFile(key);
+    return new TeeInputStream(stream, new FileOutputStream(tempFile) {
+      @Override public void close() throws IOException {
+        try {
+          // The file must be on disk before it is renamed into place.
+          getFD().sync();
+        } finally {
+          super.close();
         }
-
-        output.flush();
-      } finally {
-        output.close();
       }
-    } finally {
-      stream.close();
+    });
+  }
+
+  @WorkerThread
+  void commitTempFile(FileExtension extension, CacheMetadata metadata) {
+    if (tempFile == null) {
+      return;
     }
-    return file;
+    diskCache.commit(key, extension, tempFile, metadata);
+    tempFile = null;
   }
 
-  /**
-   * If the file created by {@link #writeTempCacheFile(InputStream, FileExtension)} was successfully parsed,
-   * this should be called to remove the temporary part of its name which will allow it to be a cache hit in the future.
-   */
-  void renameTempFile(FileExtension extension) {
-    String fileName = filenameForUrl(url, extension, true);
-    File file = new File(appContext.getCacheDir(), fileName);
-    String newFileName = file.getAbsolutePath().replace(".temp", "");
-    File newFile = new File(newFileName);
-    boolean renamed = file.renameTo(newFile);
-    L.debug("Copying temp file to real file (" + newFile + ")");
-    if (!renamed) {
-      L.warn( "Unable to rename cache file " + file.getAbsolutePath() + " to " + newFile.getAbsolutePath() + ".");
+  void deleteTempFile() {
+    if (tempFile != null && !tempFile.delete()) {
+      L.warn("Unable to delete temp cache file " + tempFile.getAbsolutePath() + ".");
     }
+    tempFile = null;
   }
 
   /**
-   * Returns the cache file for the given url if it exists. Checks for both json and zip.
-   * Returns null if neither exist.
+   * Stores new caching headers for the cached file after it was revalidated.
    */
-  @Nullable
-  private File getCachedFile(String url) throws FileNotFoundException {
-    File jsonFile = new File(appContext.getCacheDir(), filenameForUrl(url, FileExtension.Json, false));
-    if (jsonFile.exists()) {
-      return jsonFile;
-    }
-    File zipFile = new File(appContext.getCacheDir(), filenameForUrl(url, FileExtension.Zip, false));
-    if (zipFile.exists()) {
-      return zipFile;
-    }
-    return null;
+  @WorkerThread
+  void writeMetadata(CacheMetadata metadata) {
+    diskCache.updateMetadata(key, metadata);
   }
 
-  private static String filenameForUrl(String url, FileExtension extension, boolean isTemp) {
-    return "lottie_cache_" + url.replaceAll("\\W+", "") + (isTemp ? extension.tempExtension(): extension.extension);
+  /**
+   * Removes the cached file, such as when it can't be parsed.
+   */
+  @WorkerThread
+  void remove() {
+    diskCache.remove(key);
   }
 }
@@ -0,0 +1,469 @@
+package com.airbnb.lottie.network;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.airbnb.lottie.L;
+import com.airbnb.lottie.model.LottieCompositionDiskCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
+/**
+ * Stores the animations that were downloaded by {@link NetworkFetcher}. Files are named after a hash
+ * of their url so that two urls can never share a file.
+ *
+ * Every entry is kept in an in memory index that is loaded from a journal the first time that it is
+ * needed so lookups never touch the file system. The journal is an append only log of the entries
+ * that were written, read, and removed. It is compacted once most of its lines are redundant.
+ *
+ * The least recently used entries are deleted once the cache grows past its maximum size. Entries
+ * are written to a temporary file, synced, and renamed into place before they are added to the
+ * journal so a crash never leaves a partial entry behind. Files that aren't in the journal are
+ * deleted when it is loaded.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class NetworkDiskCache {
+  private static final String DIRECTORY = "lottie_network_cache";
+  private static final String JOURNAL_FILE = "journal";
+  private static final String JOURNAL_TEMP_FILE = "journal.temp";
+  private static final String MAGIC = "lottie.network.journal";
+  private static final String VERSION = "1";
+  private static final String PUT = "PUT";
+  private static final String READ = "READ";
+  private static final String REMOVE = "REMOVE";
+  private static final String TEMP_EXTENSION = ".temp";
+  /** Files that were cached directly in the cache directory before there was a journal. */
+  private static final String LEGACY_PREFIX = "lottie_cache_";
+  private static final int COMPACT_THRESHOLD = 2000;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Nullable private static NetworkDiskCache instance;
+
+  public static synchronized NetworkDiskCache getInstance(Context context) {
+    if (instance == null) {
+      File cacheDir = context.getApplicationContext().getCacheDir();
+      instance = new NetworkDiskCache(new File(cacheDir, DIRECTORY), cacheDir);
+    }
+    return instance;
+  }
+
+  static class Entry {
+    final FileExtension extension;
+    final long sizeBytes;
+    final CacheMetadata metadata;
+
+    Entry(FileExtension extension, long sizeBytes, CacheMetadata metadata) {
+      this.extension = extension;
+      this.sizeBytes = sizeBytes;
+      this.metadata = metadata;
+    }
+  }
+
+  private final File directory;
+  @Nullable private final File legacyDirectory;
+  /**
+   * Entries by key ordered from least to most recently used. It is loaded from the journal the first
+   * time that it is needed.
+   */
+  @Nullable private LinkedHashMap<String, Entry> index;
+  @Nullable private Writer journalWriter;
+  private int redundantOpCount;
+  private long sizeBytes;
+  private long maxSizeBytes = 20 * 1024 * 1024;
+
+  @VisibleForTesting
+  NetworkDiskCache(File directory, @Nullable File legacyDirectory) {
+    this.directory = directory;
+    this.legacyDirectory = legacyDirectory;
+  }
+
+  static String keyFor(String url) {
+    return LottieCompositionDiskCache.keyFor(ByteBuffer.wrap(url.getBytes(UTF_8)));
+  }
+
+  /**
+   * Returns the entry for the key and marks it as recently used or null if there is none.
+   */
+  @Nullable
+  @WorkerThread
+  synchronized Entry get(String key) {
+    Entry entry = getIndex().get(key);
+    if (entry != null) {
+      // Reads aren't flushed. Losing some on a crash only makes the eviction order slightly less accurate.
+      appendToJournal(READ + ' ' + key, false);
+      redundantOpCount++;
+    }
+    return entry;
+  }
+
+  /**
+   * Like {@link #get(String)} but it isn't written to the journal.
+   */
+  @Nullable
+  @WorkerThread
+  synchronized CacheMetadata getMetadata(String key) {
+    Entry entry = getIndex().get(key);
+    return entry == null ? null : entry.metadata;
+  }
+
+  /**
+   * Returns which of the keys have an entry, looking all of them up at once. It never touches the file system so it
+   * returns null if the index hasn't been loaded yet.
+   */
+  @Nullable
+  synchronized Set<String> getCachedKeysIfLoaded(Collection<String> keys) {
+    if (index == null) {
+      return null;
+    }
+    Set<String> cachedKeys = new HashSet<>();
+    for (String key : keys) {
+      // containsKey rather than get so that probing doesn't count as a use.
+      if (index.containsKey(key)) {
+        cachedKeys.add(key);
+      }
+    }
+    return cachedKeys;
+  }
+
+  File fileFor(String key, FileExtension extension) {
+    return new File(directory, key + extension.extension);
+  }
+
+  /**
+   * Returns a new file to download an entry to before it is committed. Every caller gets its own file so
+   * concurrent downloads of the same url can't interleave.
+   */
+  @WorkerThread
+  synchronized File newTempFile(String key) {
+    // Loading the index deletes stray files so it has to happen before the download starts.
+    getIndex();
+    //noinspection ResultOfMethodCallIgnored
+    directory.mkdirs();
+    return new File(directory, key + "." + Thread.currentThread().getId() + TEMP_EXTENSION);
+  }
+
+  /**
+   * Moves a file returned by {@link #newTempFile(String)} into place as the entry for the key. The temp
+   * file should already be synced to disk.
+   */
+  @WorkerThread
+  synchronized void commit(String key, FileExtension extension, File tempFile, CacheMetadata metadata) {
+    LinkedHashMap<String, Entry> index = getIndex();
+    File file = fileFor(key, extension);
+    if (!tempFile.renameTo(file)) {
+      L.warn("Unable to rename cache file " + tempFile.getAbsolutePath() + " to " + file.getAbsolutePath() + ".");
+      //noinspection ResultOfMethodCallIgnored
+      tempFile.delete();
+      return;
+    }
+    Entry entry = new Entry(extension, file.length(), metadata);
+    Entry previous = index.put(key, entry);
+    if (previous != null) {
+      sizeBytes -= previous.sizeBytes;
+      redundantOpCount++;
+      if (previous.extension != extension) {
+        //noinspection ResultOfMethodCallIgnored
+        fileFor(key, previous.extension).delete();
+      }
+    }
+    sizeBytes += entry.sizeBytes;
+    appendToJournal(putLine(key, entry), true);
+    trimToSize(maxSizeBytes);
+    compactJournalIfNeeded();
+  }
+
+  @WorkerThread
+  synchronized void updateMetadata(String key, CacheMetadata metadata) {
+    LinkedHashMap<String, Entry> index = getIndex();
+    Entry previous = index.get(key);
+    if (previous == null) {
+      return;
+    }
+    Entry entry = new Entry(previous.extension, previous.sizeBytes, metadata);
+    index.put(key, entry);
+    redundantOpCount++;
+    appendToJournal(putLine(key, entry), true);
+    compactJournalIfNeeded();
+  }
+
+  @WorkerThread
+  synchronized void remove(String key) {
+    Entry entry = getIndex().remove(key);
+    if (entry == null) {
+      return;
+    }
+    removeEntry(key, entry);
+    flushJournal();
+    compactJournalIfNeeded();
+  }
+
+  /**
+   * Set the maximum size of the files in the cache. This must be > 0.
+   */
+  @WorkerThread
+  public synchronized void resize(long maxSizeBytes) {
+    if (maxSizeBytes <= 0) {
+      throw new IllegalArgumentException("maxSizeBytes <= 0");
+    }
+    this.maxSizeBytes = maxSizeBytes;
+    if (index != null) {
+      trimToSize(maxSizeBytes);
+      compactJournalIfNeeded();
+    }
+  }
+
+  @WorkerThread
+  public synchronized void clear() {
+    getIndex();
+    trimToSize(0);
+    rebuildJournal();
+  }
+
+  @VisibleForTesting
+  synchronized long getSizeBytes() {
+    getIndex();
+    return sizeBytes;
+  }
+
+  private LinkedHashMap<String, Entry> getIndex() {
+    if (index != null) {
+      return index;
+    }
+    index = new LinkedHashMap<>(16, 0.75f, true);
+    sizeBytes = 0;
+    deleteLegacyFiles();
+    readJournal(index);
+
+    // Delete files that a crash left behind and forget entries whose file was deleted by someone else.
+    Set<String> expectedFileNames = new HashSet<>();
+    for (Map.Entry<String, Entry> entry : index.entrySet()) {
+      expectedFileNames.add(entry.getKey() + entry.getValue().extension.extension);
+    }
+    Set<String> fileNames = new HashSet<>();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (expectedFileNames.contains(name)) {
+          fileNames.add(name);
+        } else if (!name.equals(JOURNAL_FILE)) {
+          //noinspection ResultOfMethodCallIgnored
+          file.delete();
+        }
+      }
+    }
+    Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Entry> entry = iterator.next();
+      if (fileNames.contains(entry.getKey() + entry.getValue().extension.extension)) {
+        sizeBytes += entry.getValue().sizeBytes;
+      } else {
+        iterator.remove();
+      }
+    }
+
+    trimToSize(maxSizeBytes);
+    rebuildJournal();
+    return index;
+  }
+
+  /**
+   * Lines that can't be read, such as a line that was being written when the app crashed, are skipped.
+   */
+  private void readJournal(LinkedHashMap<String, Entry> index) {
+    File journal = new File(directory, JOURNAL_FILE);
+    if (!journal.exists()) {
+      return;
+    }
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), UTF_8));
+      if (!MAGIC.equals(reader.readLine()) || !VERSION.equals(reader.readLine())) {
+        L.warn("Ignoring network cache journal with an unknown format.");
+        return;
+      }
+      String line;
+      while ((line = reader.readLine()) != null) {
+        try {
+          readJournalLine(index, line);
+        } catch (IllegalArgumentException e) {
+          L.warn("Skipping invalid network cache journal line. " + e.getMessage());
+        }
+      }
+    } catch (IOException e) {
+      L.warn("Unable to read the network cache journal. " + e.getMessage());
+    } finally {
+      closeQuietly(reader);
+    }
+  }
+
+  private static void readJournalLine(LinkedHashMap<String, Entry> index, String line) {
+    String[] fields = line.split(" ", -1);
+    if (fields.length < 2) {
+      throw new IllegalArgumentException("Too few fields.");
+    }
+    String key = fields[1];
+    switch (fields[0]) {
+      case PUT:
+        if (fields.length < 4) {
+          throw new IllegalArgumentException("Too few fields.");
+        }
+        index.put(key, new Entry(FileExtension.valueOf(fields[2]), Long.parseLong(fields[3]),
+            CacheMetadata.parse(fields, 4)));
+        break;
+      case READ:
+        index.get(key);
+        break;
+      case REMOVE:
+        index.remove(key);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation " + fields[0]);
+    }
+  }
+
+  private void rebuildJournal() {
+    closeQuietly(journalWriter);
+    journalWriter = null;
+    //noinspection ConstantConditions
+    Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+    File tempJournal = new File(directory, JOURNAL_TEMP_FILE);
+    try {
+      //noinspection ResultOfMethodCallIgnored
+      directory.mkdirs();
+      FileOutputStream output = new FileOutputStream(tempJournal);
+      try {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+        writer.write(MAGIC + '\n' + VERSION + '\n');
+        while (iterator.hasNext()) {
+          Map.Entry<String, Entry> entry = iterator.next();
+          writer.write(putLine(entry.getKey(), entry.getValue()) + '\n');
+        }
+        writer.flush();
+        output.getFD().sync();
+      } finally {
+        closeQuietly(output);
+      }
+      File journal = new File(directory, JOURNAL_FILE);
+      if (!tempJournal.renameTo(journal)) {
+        throw new IOException("Unable to rename " + tempJournal.getAbsolutePath() + ".");
+      }
+      journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journal, true), UTF_8));
+      redundantOpCount = 0;
+    } catch (IOException e) {
+      // The cache keeps working from memory. The journal is rebuilt the next time the app starts.
+      L.warn("Unable to write the network cache journal. " + e.getMessage());
+      //noinspection ResultOfMethodCallIgnored
+      tempJournal.delete();
+    }
+  }
+
+  private void compactJournalIfNeeded() {
+    //noinspection ConstantConditions
+    if (redundantOpCount >= COMPACT_THRESHOLD && redundantOpCount >= index.size()) {
+      rebuildJournal();
+    }
+  }
+
+  private void appendToJournal(String line, boolean flush) {
+    if (journalWriter == null) {
+      return;
+    }
+    try {
+      journalWriter.write(line + '\n');
+      if (flush) {
+        journalWriter.flush();
+      }
+    } catch (IOException e) {
+      L.warn("Unable to write to the network cache journal. " + e.getMessage());
+      closeQuietly(journalWriter);
+      journalWriter = null;
+    }
+  }
+
+  private void flushJournal() {
+    if (journalWriter == null) {
+      return;
+    }
+    try {
+      journalWriter.flush();
+    } catch (IOException e) {
+      L.warn("Unable to write to the network cache journal. " + e.getMessage());
+      closeQuietly(journalWriter);
+      journalWriter = null;
+    }
+  }
+
+  private void trimToSize(long maxSizeBytes) {
+    //noinspection ConstantConditions
+    Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+    boolean removed = false;
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      Map.Entry<String, Entry> entry = iterator.next();
+      iterator.remove();
+      removeEntry(entry.getKey(), entry.getValue());
+      removed = true;
+    }
+    if (removed) {
+      flushJournal();
+    }
+  }
+
+  /**
+   * The entry must already have been removed from the index.
+   */
+  private void removeEntry(String key, Entry entry) {
+    sizeBytes -= entry.sizeBytes;
+    // If the app crashes before the removal is flushed, the entry is dropped when the journal is loaded
+    // because its file is gone.
+    appendToJournal(REMOVE + ' ' + key, false);
+    redundantOpCount += 2;
+    //noinspection ResultOfMethodCallIgnored
+    fileFor(key, entry.extension).delete();
+  }
+
+  private void deleteLegacyFiles() {
+    if (legacyDirectory == null) {
+      return;
+    }
+    File[] files = legacyDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      if (file.getName().startsWith(LEGACY_PREFIX)) {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+      }
+    }
+  }
+
+  private static String putLine(String key, Entry entry) {
+    StringBuilder line = new StringBuilder(PUT).append(' ').append(key)
+        .append(' ').append(entry.extension.name())
+        .append(' ').append(entry.sizeBytes);
+    entry.metadata.appendTo(line);
+    return line.toString();
+  }
+}
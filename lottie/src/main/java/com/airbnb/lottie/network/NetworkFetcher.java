@@ -2,6 +2,7 @@ package com.airbnb.lottie.network;
 
 import android.content.Context;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 import androidx.annotation.WorkerThread;
 import androidx.core.util.Pair;
 
@@ -9,43 +10,132 @@ import com.airbnb.lottie.L;
 import com.airbnb.lottie.LottieComposition;
 import com.airbnb.lottie.LottieCompositionFactory;
 import com.airbnb.lottie.LottieResult;
+import com.airbnb.lottie.LottieTask;
+import com.airbnb.lottie.model.LottieCompositionCache;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipInputStream;
 
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
 public class NetworkFetcher {
 
+  /** Urls that are being revalidated in the background so that each is only revalidated once at a time. */
+  private static final Set<String> revalidatingUrls =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  private static volatile LottieNetworkFetcher defaultFetcher = new DefaultLottieNetworkFetcher();
+
   private final Context appContext;
   private final String url;
+  private final String cacheKey;
+  private final LottieNetworkFetcher fetcher;
 
   private final NetworkCache networkCache;
 
   public static LottieResult<LottieComposition> fetchSync(Context context, String url) {
-    return new NetworkFetcher(context, url).fetchSync();
+    return new NetworkFetcher(context, url, defaultFetcher).fetchSync();
+  }
+
+  /**
+   * Returns which of the urls are in the network cache. The cache is checked for all of them at once and only if it
+   * has already been loaded from disk so this is safe to call on the main thread. Otherwise it returns an empty set.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static Set<String> getCachedUrlsIfLoaded(Context context, Collection<String> urls) {
+    Map<String, String> urlsByKey = new HashMap<>();
+    for (String url : urls) {
+      urlsByKey.put(NetworkDiskCache.keyFor(url), url);
+    }
+    Set<String> cachedKeys = NetworkDiskCache.getInstance(context).getCachedKeysIfLoaded(urlsByKey.keySet());
+    Set<String> cachedUrls = new HashSet<>();
+    if (cachedKeys != null) {
+      for (String key : cachedKeys) {
+        cachedUrls.add(urlsByKey.get(key));
+      }
+    }
+    return cachedUrls;
+  }
+
+  /**
+   * The fetcher that {@link #fetchSync(Context, String)} downloads animations with.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static void setDefaultFetcher(LottieNetworkFetcher fetcher) {
+    defaultFetcher = fetcher;
   }
 
-  private NetworkFetcher(Context context, String url) {
+  private NetworkFetcher(Context context, String url, LottieNetworkFetcher fetcher) {
     appContext = context.getApplicationContext();
     this.url = url;
+    this.fetcher = fetcher;
+    cacheKey = cacheKeyForUrl(url);
     networkCache = new NetworkCache(appContext, url);
   }
 
+  /**
+   * The key that compositions fetched from the url are stored under in the in memory cache.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static String cacheKeyForUrl(String url) {
+    return "url_" + url;
+  }
+
   @WorkerThread
   public LottieResult<LottieComposition> fetchSync() {
-    LottieComposition result = fetchFromCache();
-    if (result != null) {
-      return new LottieResult<>(result);
+    CacheMetadata metadata = networkCache.fetchMetadata();
+    long now = System.currentTimeMillis();
+    if (metadata == null || metadata.isUsableWhileRevalidating(now)) {
+      LottieComposition result = fetchFromCache();
+      if (result != null) {
+        if (metadata != null && !metadata.isFresh(now)) {
+          revalidateInBackground(metadata);
+        }
+        return new LottieResult<>(result);
+      }
+      L.debug("Animation for " + url + " not found in cache. Fetching from network.");
+      return fetchFromNetwork(null);
     }
 
-    L.debug("Animation for " + url + " not found in cache. Fetching from network.");
-    return fetchFromNetwork();
+    L.debug("Cached animation for " + url + " is stale. Revalidating.");
+    LottieResult<LottieComposition> result = fetchFromNetwork(metadata);
+    if (result.getValue() == null) {
+      // A stale animation is better than none if the server can't be reached.
+      LottieComposition staleResult = fetchFromCache();
+      if (staleResult != null) {
+        return new LottieResult<>(staleResult);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Serves the stale animation right away and refreshes the cache for the next load.
+   */
+  private void revalidateInBackground(final CacheMetadata metadata) {
+    if (!revalidatingUrls.add(url)) {
+      return;
+    }
+    L.debug("Cached animation for " + url + " is stale. Revalidating in the background.");
+    LottieTask.EXECUTOR.execute(new Runnable() {
+      @Override public void run() {
+        try {
+          fetchFromNetwork(metadata);
+        } finally {
+          revalidatingUrls.remove(url);
+        }
+      }
+    });
   }
 
   /**
@@ -54,77 +144,119 @@ public class NetworkFetcher {
   @Nullable
   @WorkerThread
   private LottieComposition fetchFromCache() {
-    Pair<FileExtension, InputStream> cacheResult = networkCache.fetch();
+    // The animation may have already been loaded from the file.
+    LottieComposition composition = LottieCompositionCache.getInstance().get(cacheKey);
+    if (composition != null) {
+      return composition;
+    }
+    Pair<FileExtension, File> cacheResult = networkCache.fetch();
     if (cacheResult == null) {
       return null;
     }
 
     FileExtension extension = cacheResult.first;
-    InputStream inputStream = cacheResult.second;
+    File file = cacheResult.second;
     LottieResult<LottieComposition> result;
     if (extension == FileExtension.Zip) {
-      result = LottieCompositionFactory.fromZipStreamSync(new ZipInputStream(inputStream), url);
+      result = LottieCompositionFactory.fromZipFileSync(file, cacheKey);
     } else {
-      result = LottieCompositionFactory.fromJsonInputStreamSync(inputStream, url);
+      result = LottieCompositionFactory.fromJsonFileSync(appContext, file, cacheKey);
     }
     if (result.getValue() != null) {
       return result.getValue();
     }
+    if (!(result.getException() instanceof InterruptedIOException)) {
+      // The file was deleted by someone else or is corrupt.
+      networkCache.remove();
+    }
     return null;
   }
 
+  /**
+   * @param metadata The caching headers of the cached file if it should be revalidated rather than downloaded again.
+   */
   @WorkerThread
-  private LottieResult<LottieComposition> fetchFromNetwork() {
+  private LottieResult<LottieComposition> fetchFromNetwork(@Nullable CacheMetadata metadata) {
     try {
-      return fetchFromNetworkInternal();
+      return fetchFromNetworkInternal(metadata);
     } catch (IOException e) {
       return new LottieResult<>(e);
     }
   }
 
   @WorkerThread
-  private LottieResult fetchFromNetworkInternal() throws IOException {
+  private LottieResult<LottieComposition> fetchFromNetworkInternal(@Nullable CacheMetadata metadata) throws IOException {
     L.debug( "Fetching " + url);
-    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    Map<String, String> headers = new HashMap<>();
+    if (metadata != null) {
+      metadata.addConditionalHeaders(headers);
+    }
+    LottieFetchResult fetchResult = fetcher.fetchSync(url, headers);
+    try {
+      return onResponse(fetchResult, metadata);
+    } finally {
+      closeQuietly(fetchResult);
+    }
+  }
 
-    connection.setRequestMethod("GET");
-    connection.connect();
+  @WorkerThread
+  private LottieResult<LottieComposition> onResponse(LottieFetchResult fetchResult, @Nullable CacheMetadata metadata)
+      throws IOException {
+    int responseCode = fetchResult.responseCode();
+    if (metadata != null && responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+      return onNotModified(fetchResult, metadata);
+    }
 
-    if (connection.getErrorStream() != null || connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-      BufferedReader r = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-      StringBuilder error = new StringBuilder();
-      String line;
-      while ((line = r.readLine()) != null) {
-        error.append(line).append('\n');
-      }
+    if (responseCode != HttpURLConnection.HTTP_OK) {
+      String error = fetchResult.error();
       return new LottieResult<>(new IllegalArgumentException("Unable to fetch " + url + ". Failed with " +
-          connection.getResponseCode() + "\n" + error));
+          responseCode + "\n" + (error == null ? "" : error)));
     }
 
-    File file;
+    // The response is parsed as it downloads rather than after it has been written to the cache.
     FileExtension extension;
+    TeeInputStream stream;
     LottieResult<LottieComposition> result;
-    switch (connection.getContentType()) {
-      case "application/zip":
-        L.debug("Handling zip response.");
-        extension = FileExtension.Zip;
-        file = networkCache.writeTempCacheFile(connection.getInputStream(), extension);
-        result = LottieCompositionFactory.fromZipStreamSync(new ZipInputStream(new FileInputStream(file)), url);
-        break;
-      case "application/json":
-      default:
-        L.debug("Received json response.");
-        extension = FileExtension.Json;
-        file = networkCache.writeTempCacheFile(connection.getInputStream(), extension);
-        result = LottieCompositionFactory.fromJsonInputStreamSync(new FileInputStream(new File(file.getAbsolutePath())), url);
-        break;
+    String contentType = fetchResult.contentType();
+    if (contentType != null && contentType.startsWith("application/zip")) {
+      L.debug("Handling zip response.");
+      extension = FileExtension.Zip;
+      stream = networkCache.teeToTempCacheFile(fetchResult.bodyByteStream());
+      result = LottieCompositionFactory.fromZipStreamSync(new ZipInputStream(stream), cacheKey);
+    } else {
+      L.debug("Received json response.");
+      extension = FileExtension.Json;
+      stream = networkCache.teeToTempCacheFile(fetchResult.bodyByteStream());
+      result = LottieCompositionFactory.fromJsonInputStreamSync(appContext, stream, cacheKey);
     }
+    // Parsing closes the stream which copies anything the parser didn't read to the file.
+    closeQuietly(stream);
 
-    if (result.getValue() != null) {
-      networkCache.renameTempFile(extension);
+    CacheMetadata newMetadata = CacheMetadata.fromResult(fetchResult, System.currentTimeMillis());
+    if (result.getValue() != null && stream.isCopyComplete() && !newMetadata.noStore) {
+      networkCache.commitTempFile(extension, newMetadata);
+    } else {
+      networkCache.deleteTempFile();
     }
 
     L.debug("Completed fetch from network. Success: " + (result.getValue() != null));
     return result;
   }
+
+  /**
+   * The cached file is still current. The composition that was already parsed from it is reused if it is still in
+   * memory.
+   */
+  private LottieResult<LottieComposition> onNotModified(LottieFetchResult fetchResult, CacheMetadata metadata)
+      throws IOException {
+    L.debug("Cached animation for " + url + " is still current.");
+    networkCache.writeMetadata(metadata.revalidated(fetchResult, System.currentTimeMillis()));
+    closeQuietly(fetchResult);
+    LottieComposition composition = fetchFromCache();
+    if (composition == null) {
+      // The cached file is gone or corrupt.
+      return fetchFromNetworkInternal(null);
+    }
+    return new LottieResult<>(composition);
+  }
 }
@@ -0,0 +1,122 @@
+package com.airbnb.lottie.network;
+
+import com.airbnb.lottie.L;
+import com.airbnb.lottie.utils.Utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static com.airbnb.lottie.utils.Utils.closeQuietly;
+
+/**
+ * Copies every byte that is read from a stream to an output stream. This lets a network response
+ * be parsed while it is being written to the cache rather than after.
+ *
+ * A failure to write to the output never fails a read. The copy is just marked as incomplete.
+ */
+class TeeInputStream extends FilterInputStream {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final OutputStream output;
+  private boolean reachedEnd;
+  private boolean copyFailed;
+  private boolean closed;
+
+  TeeInputStream(InputStream input, OutputStream output) {
+    super(input);
+    this.output = output;
+  }
+
+  @Override public int read() throws IOException {
+    int b = super.read();
+    if (b == -1) {
+      reachedEnd = true;
+    } else if (!copyFailed) {
+      try {
+        output.write(b);
+      } catch (IOException e) {
+        onCopyFailed(e);
+      }
+    }
+    return b;
+  }
+
+  @Override public int read(byte[] buffer, int offset, int length) throws IOException {
+    int read = super.read(buffer, offset, length);
+    if (read == -1) {
+      reachedEnd = true;
+    } else if (read > 0 && !copyFailed) {
+      try {
+        output.write(buffer, offset, read);
+      } catch (IOException e) {
+        onCopyFailed(e);
+      }
+    }
+    return read;
+  }
+
+  @Override public long skip(long n) throws IOException {
+    // Skipped bytes still have to end up in the copy.
+    byte[] buffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+    long skipped = 0;
+    while (skipped < n) {
+      int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+      if (read == -1) {
+        break;
+      }
+      skipped += read;
+    }
+    return skipped;
+  }
+
+  @Override public boolean markSupported() {
+    return false;
+  }
+
+  @Override public synchronized void mark(int readLimit) {
+  }
+
+  @Override public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  /**
+   * Copies whatever the reader didn't consume, such as trailing whitespace after the json, to the
+   * output and then closes both streams. Draining also lets the connection be reused.
+   */
+  @Override public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      while (!reachedEnd && !copyFailed) {
+        Utils.throwIfInterrupted();
+        read(buffer, 0, buffer.length);
+      }
+      if (!copyFailed) {
+        output.flush();
+      }
+    } catch (IOException e) {
+      copyFailed = true;
+    } finally {
+      closeQuietly(output);
+      closeQuietly(in);
+    }
+  }
+
+  /**
+   * Whether the output has a complete copy of the stream. Only valid once the stream is closed.
+   */
+  boolean isCopyComplete() {
+    return closed && reachedEnd && !copyFailed;
+  }
+
+  private void onCopyFailed(IOException e) {
+    L.warn("Unable to write to the cache. " + e.getMessage());
+    copyFailed = true;
+  }
+}
@@ -17,6 +17,7 @@ import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.value.ScaleXY;
 
 import java.io.IOException;
+import java.util.List;
 
 public class AnimatableTransformParser {
 
@@ -72,10 +73,16 @@ public class AnimatableTransformParser {
            * which doesn't parse to a real keyframe.
            */
           rotation = AnimatableValueParser.parseFloat(reader, composition, false);
-          if (rotation.getKeyframes().isEmpty()) {
-            rotation.getKeyframes().add(new Keyframe(composition, 0f, 0f, null, 0f, composition.getEndFrame()));
-          } else if (rotation.getKeyframes().get(0).startValue == null) {
-            rotation.getKeyframes().set(0, new Keyframe(composition, 0f, 0f, null, 0f, composition.getEndFrame()));
+          if (rotation.getTrack().isEmpty() || !rotation.getTrack().hasStartValue(0)) {
+            List<Keyframe<Float>> keyframes = rotation.getKeyframes();
+            Keyframe<Float> keyframe =
+                new Keyframe<>(composition, 0f, 0f, null, 0f, composition.getEndFrame());
+            if (keyframes.isEmpty()) {
+              keyframes.add(keyframe);
+            } else {
+              keyframes.set(0, keyframe);
+            }
+            rotation = new AnimatableFloatValue(keyframes);
           }
           break;
         case "o":
@@ -29,13 +29,14 @@ public class AnimatableValueParser {
 
   public static AnimatableFloatValue parseFloat(
       JsonReader reader, LottieComposition composition, boolean isDp) throws IOException {
-    return new AnimatableFloatValue(
-        parse(reader, isDp ? Utils.dpScale() : 1f, composition, FloatParser.INSTANCE));
+    return new AnimatableFloatValue(KeyframesParser.parseTrack(reader, composition,
+        isDp ? Utils.dpScale() : 1f, FloatParser.INSTANCE, KeyframeTrackBuilder.floats()));
   }
 
   static AnimatableIntegerValue parseInteger(
       JsonReader reader, LottieComposition composition) throws IOException {
-    return new AnimatableIntegerValue(parse(reader, composition, IntegerParser.INSTANCE));
+    return new AnimatableIntegerValue(KeyframesParser.parseTrack(reader, composition, 1,
+        IntegerParser.INSTANCE, KeyframeTrackBuilder.integers()));
   }
 
   static AnimatablePointValue parsePoint(
@@ -62,7 +63,8 @@ public class AnimatableValueParser {
 
   static AnimatableColorValue parseColor(
       JsonReader reader, LottieComposition composition) throws IOException {
-    return new AnimatableColorValue(parse(reader, composition, ColorParser.INSTANCE));
+    return new AnimatableColorValue(KeyframesParser.parseTrack(reader, composition, 1,
+        ColorParser.INSTANCE, KeyframeTrackBuilder.integers()));
   }
 
   static AnimatableGradientColorValue parseGradientColor(
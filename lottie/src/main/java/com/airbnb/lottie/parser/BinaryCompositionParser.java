@@ -0,0 +1,795 @@
+package com.airbnb.lottie.parser;
+
+import android.graphics.Path;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import androidx.annotation.Nullable;
+import androidx.collection.LongSparseArray;
+import androidx.collection.SparseArrayCompat;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieImageAsset;
+import com.airbnb.lottie.animation.keyframe.KeyframeTrack;
+import com.airbnb.lottie.animation.keyframe.PathKeyframe;
+import com.airbnb.lottie.model.CubicCurveData;
+import com.airbnb.lottie.model.DocumentData;
+import com.airbnb.lottie.model.Font;
+import com.airbnb.lottie.model.FontCharacter;
+import com.airbnb.lottie.model.Marker;
+import com.airbnb.lottie.model.animatable.AnimatableColorValue;
+import com.airbnb.lottie.model.animatable.AnimatableFloatValue;
+import com.airbnb.lottie.model.animatable.AnimatableGradientColorValue;
+import com.airbnb.lottie.model.animatable.AnimatableIntegerValue;
+import com.airbnb.lottie.model.animatable.AnimatablePathValue;
+import com.airbnb.lottie.model.animatable.AnimatablePointValue;
+import com.airbnb.lottie.model.animatable.AnimatableScaleValue;
+import com.airbnb.lottie.model.animatable.AnimatableShapeValue;
+import com.airbnb.lottie.model.animatable.AnimatableSplitDimensionPathValue;
+import com.airbnb.lottie.model.animatable.AnimatableTextFrame;
+import com.airbnb.lottie.model.animatable.AnimatableTextProperties;
+import com.airbnb.lottie.model.animatable.AnimatableTransform;
+import com.airbnb.lottie.model.animatable.AnimatableValue;
+import com.airbnb.lottie.model.content.CircleShape;
+import com.airbnb.lottie.model.content.ContentModel;
+import com.airbnb.lottie.model.content.GradientColor;
+import com.airbnb.lottie.model.content.GradientFill;
+import com.airbnb.lottie.model.content.GradientStroke;
+import com.airbnb.lottie.model.content.GradientType;
+import com.airbnb.lottie.model.content.Mask;
+import com.airbnb.lottie.model.content.MergePaths;
+import com.airbnb.lottie.model.content.PolystarShape;
+import com.airbnb.lottie.model.content.RectangleShape;
+import com.airbnb.lottie.model.content.Repeater;
+import com.airbnb.lottie.model.content.ShapeData;
+import com.airbnb.lottie.model.content.ShapeFill;
+import com.airbnb.lottie.model.content.ShapeGroup;
+import com.airbnb.lottie.model.content.ShapePath;
+import com.airbnb.lottie.model.content.ShapeStroke;
+import com.airbnb.lottie.model.content.ShapeTrimPath;
+import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.utils.CubicBezierInterpolator;
+import com.airbnb.lottie.utils.HoldInterpolator;
+import com.airbnb.lottie.utils.Utils;
+import com.airbnb.lottie.value.Keyframe;
+import com.airbnb.lottie.value.ScaleXY;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a composition written by {@link BinaryCompositionWriter}.
+ *
+ * The format is a versioned, big endian dump of the parsed model. Values that the json parser
+ * scales by the screen density are stored in pixels along with the density they were written at
+ * so they can be rescaled if the file is read on a different device.
+ */
+public class BinaryCompositionParser {
+  static final int MAGIC = 0x4C4F5442;
+  /**
+   * Increment this whenever the format changes. Older files will fail to load and should be
+   * regenerated from json.
+   */
+  static final int VERSION = 2;
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static final int CONTENT_GROUP = 1;
+  static final int CONTENT_STROKE = 2;
+  static final int CONTENT_GRADIENT_STROKE = 3;
+  static final int CONTENT_FILL = 4;
+  static final int CONTENT_GRADIENT_FILL = 5;
+  static final int CONTENT_TRANSFORM = 6;
+  static final int CONTENT_SHAPE_PATH = 7;
+  static final int CONTENT_ELLIPSE = 8;
+  static final int CONTENT_RECTANGLE = 9;
+  static final int CONTENT_TRIM_PATH = 10;
+  static final int CONTENT_POLYSTAR = 11;
+  static final int CONTENT_MERGE_PATHS = 12;
+  static final int CONTENT_REPEATER = 13;
+
+  static final int POSITION_NONE = 0;
+  static final int POSITION_PATH = 1;
+  static final int POSITION_SPLIT = 2;
+
+  static final int INTERPOLATOR_NONE = 0;
+  static final int INTERPOLATOR_LINEAR = 1;
+  static final int INTERPOLATOR_CUBIC = 2;
+  static final int INTERPOLATOR_HOLD = 3;
+
+  /** Created with the {@link Keyframe#Keyframe(Object)} constructor. */
+  static final int KEYFRAME_STATIC = 1;
+  static final int KEYFRAME_PATH = 1 << 1;
+  static final int KEYFRAME_START_VALUE = 1 << 2;
+  static final int KEYFRAME_END_VALUE = 1 << 3;
+  static final int KEYFRAME_END_VALUE_IS_START_VALUE = 1 << 4;
+  static final int KEYFRAME_END_FRAME = 1 << 5;
+  static final int KEYFRAME_PATH_CP1 = 1 << 6;
+  static final int KEYFRAME_PATH_CP2 = 1 << 7;
+
+  private static final Interpolator LINEAR_INTERPOLATOR = new LinearInterpolator();
+
+  private final ByteBuffer buffer;
+  private final LottieComposition composition = new LottieComposition();
+  /** Factor to convert dp values from the density they were written at to this device. */
+  private float dpScale;
+
+  private BinaryCompositionParser(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  public static LottieComposition parse(ByteBuffer buffer) throws IOException {
+    try {
+      return new BinaryCompositionParser(buffer).parseComposition();
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Binary composition is truncated.", e);
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("Binary composition is corrupt.", e);
+    }
+  }
+
+  private LottieComposition parseComposition() throws IOException {
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a binary Lottie composition.");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary composition version " + version + ".");
+    }
+    dpScale = Utils.dpScale() / buffer.getFloat();
+
+    int width = scaleDp(buffer.getInt());
+    int height = scaleDp(buffer.getInt());
+    float startFrame = buffer.getFloat();
+    float endFrame = buffer.getFloat();
+    float frameRate = buffer.getFloat();
+    composition.setHasDashPattern(buffer.get() != 0);
+    composition.incrementMatteOrMaskCount(buffer.getInt());
+
+    int warningCount = readCount(buffer, 4);
+    for (int i = 0; i < warningCount; i++) {
+      composition.addWarning(readString());
+    }
+
+    int imageCount = readCount(buffer, 1);
+    Map<String, LottieImageAsset> images = new HashMap<>();
+    for (int i = 0; i < imageCount; i++) {
+      String id = readString();
+      String embeddedImagePrefix = readEmbeddedImagePrefix();
+      ByteBuffer embeddedImage = null;
+      String fileName = null;
+      if (embeddedImagePrefix == null) {
+        fileName = readString();
+      } else {
+        embeddedImage = readEmbeddedImage(embeddedImagePrefix);
+      }
+      String dirName = readString();
+      int imageWidth = buffer.getInt();
+      int imageHeight = buffer.getInt();
+      if (embeddedImage == null) {
+        images.put(id, new LottieImageAsset(imageWidth, imageHeight, id, fileName, dirName));
+      } else {
+        //noinspection ConstantConditions
+        images.put(id, new LottieImageAsset(imageWidth, imageHeight, id, embeddedImagePrefix, embeddedImage, dirName));
+      }
+    }
+
+    int precompCount = readCount(buffer, 1);
+    Map<String, List<Layer>> precomps = new HashMap<>();
+    for (int i = 0; i < precompCount; i++) {
+      String id = readString();
+      precomps.put(id, readLayers());
+    }
+
+    int fontCount = readCount(buffer, 1);
+    Map<String, Font> fonts = new HashMap<>();
+    for (int i = 0; i < fontCount; i++) {
+      Font font = new Font(readString(), readString(), readString(), buffer.getFloat());
+      fonts.put(font.getName(), font);
+    }
+
+    int characterCount = readCount(buffer, 1);
+    SparseArrayCompat<FontCharacter> characters = new SparseArrayCompat<>(characterCount);
+    for (int i = 0; i < characterCount; i++) {
+      char character = buffer.getChar();
+      double size = buffer.getDouble();
+      double characterWidth = buffer.getDouble();
+      String style = readString();
+      String fontFamily = readString();
+      int shapeCount = readCount(buffer, 1);
+      List<ShapeGroup> shapes = new ArrayList<>(shapeCount);
+      for (int j = 0; j < shapeCount; j++) {
+        shapes.add(readShapeGroup());
+      }
+      FontCharacter fontCharacter =
+          new FontCharacter(shapes, character, size, characterWidth, style, fontFamily);
+      characters.put(fontCharacter.hashCode(), fontCharacter);
+    }
+
+    int markerCount = readCount(buffer, 1);
+    List<Marker> markers = new ArrayList<>(markerCount);
+    for (int i = 0; i < markerCount; i++) {
+      markers.add(new Marker(readString(), buffer.getFloat(), buffer.getFloat()));
+    }
+
+    List<Layer> layers = readLayers();
+    LongSparseArray<Layer> layerMap = new LongSparseArray<>();
+    for (int i = 0; i < layers.size(); i++) {
+      Layer layer = layers.get(i);
+      layerMap.put(layer.getId(), layer);
+    }
+
+    composition.init(new Rect(0, 0, width, height), startFrame, endFrame, frameRate, layers,
+        layerMap, precomps, images, characters, fonts, markers);
+    return composition;
+  }
+
+  private List<Layer> readLayers() throws IOException {
+    int count = readCount(buffer, 1);
+    List<Layer> layers = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Utils.throwIfInterrupted();
+      layers.add(readLayer());
+    }
+    return layers;
+  }
+
+  private Layer readLayer() throws IOException {
+    String name = readString();
+    long id = buffer.getLong();
+    Layer.LayerType layerType = readEnum(Layer.LayerType.values());
+    long parentId = buffer.getLong();
+    String refId = readString();
+    int solidWidth = scaleDp(buffer.getInt());
+    int solidHeight = scaleDp(buffer.getInt());
+    int solidColor = buffer.getInt();
+    float timeStretch = buffer.getFloat();
+    float startFrame = buffer.getFloat();
+    int preCompWidth = scaleDp(buffer.getInt());
+    int preCompHeight = scaleDp(buffer.getInt());
+    Layer.MatteType matteType = readEnum(Layer.MatteType.values());
+    boolean hidden = buffer.get() != 0;
+
+    int maskCount = readCount(buffer, 1);
+    List<Mask> masks = new ArrayList<>(maskCount);
+    for (int i = 0; i < maskCount; i++) {
+      Mask.MaskMode maskMode = readEnum(Mask.MaskMode.values());
+      AnimatableShapeValue maskPath = readShapeValue();
+      AnimatableIntegerValue opacity = readIntegerValue();
+      masks.add(new Mask(maskMode, maskPath, opacity));
+    }
+
+    AnimatableTransform transform = readTransform();
+    AnimatableTextFrame text = null;
+    if (buffer.get() != 0) {
+      text = new AnimatableTextFrame(readKeyframes(DOCUMENT_DATA, 1f));
+    }
+    AnimatableTextProperties textProperties = null;
+    if (buffer.get() != 0) {
+      textProperties = new AnimatableTextProperties(
+          readColorValue(), readColorValue(), readFloatValue(true), readFloatValue(true));
+    }
+    AnimatableFloatValue timeRemapping = readFloatValue(false);
+    List<Keyframe<Float>> inOutKeyframes = readKeyframes(FLOAT, 1f);
+
+    int shapeCount = readCount(buffer, 1);
+    List<ContentModel> shapes = new ArrayList<>(shapeCount);
+    for (int i = 0; i < shapeCount; i++) {
+      shapes.add(readContentModel());
+    }
+
+    return new Layer(shapes, composition, name, id, layerType, parentId, refId, masks, transform,
+        solidWidth, solidHeight, solidColor, timeStretch, startFrame, preCompWidth, preCompHeight,
+        text, textProperties, inOutKeyframes, matteType, timeRemapping, hidden);
+  }
+
+  private ContentModel readContentModel() throws IOException {
+    int type = buffer.get();
+    switch (type) {
+      case CONTENT_GROUP:
+        return readShapeGroup();
+      case CONTENT_STROKE: {
+        String name = readString();
+        AnimatableColorValue color = readColorValue();
+        AnimatableIntegerValue opacity = readIntegerValue();
+        AnimatableFloatValue width = readFloatValue(true);
+        ShapeStroke.LineCapType capType = readEnum(ShapeStroke.LineCapType.values());
+        ShapeStroke.LineJoinType joinType = readEnum(ShapeStroke.LineJoinType.values());
+        float miterLimit = buffer.getFloat();
+        List<AnimatableFloatValue> lineDashPattern = readDashPattern();
+        AnimatableFloatValue offset = readFloatValue(true);
+        boolean hidden = buffer.get() != 0;
+        return new ShapeStroke(name, offset, lineDashPattern, color, opacity, width, capType,
+            joinType, miterLimit, hidden);
+      }
+      case CONTENT_GRADIENT_STROKE: {
+        String name = readString();
+        GradientType gradientType = readEnum(GradientType.values());
+        AnimatableGradientColorValue gradientColor = readGradientColorValue();
+        AnimatableIntegerValue opacity = readIntegerValue();
+        AnimatablePointValue startPoint = readPointValue();
+        AnimatablePointValue endPoint = readPointValue();
+        AnimatableFloatValue width = readFloatValue(true);
+        ShapeStroke.LineCapType capType = readEnum(ShapeStroke.LineCapType.values());
+        ShapeStroke.LineJoinType joinType = readEnum(ShapeStroke.LineJoinType.values());
+        float miterLimit = buffer.getFloat();
+        List<AnimatableFloatValue> lineDashPattern = readDashPattern();
+        AnimatableFloatValue dashOffset = readFloatValue(true);
+        boolean hidden = buffer.get() != 0;
+        return new GradientStroke(name, gradientType, gradientColor, opacity, startPoint,
+            endPoint, width, capType, joinType, miterLimit, lineDashPattern, dashOffset, hidden);
+      }
+      case CONTENT_FILL: {
+        String name = readString();
+        boolean fillEnabled = buffer.get() != 0;
+        Path.FillType fillType = readEnum(Path.FillType.values());
+        AnimatableColorValue color = readColorValue();
+        AnimatableIntegerValue opacity = readIntegerValue();
+        boolean hidden = buffer.get() != 0;
+        return new ShapeFill(name, fillEnabled, fillType, color, opacity, hidden);
+      }
+      case CONTENT_GRADIENT_FILL: {
+        String name = readString();
+        GradientType gradientType = readEnum(GradientType.values());
+        Path.FillType fillType = readEnum(Path.FillType.values());
+        AnimatableGradientColorValue gradientColor = readGradientColorValue();
+        AnimatableIntegerValue opacity = readIntegerValue();
+        AnimatablePointValue startPoint = readPointValue();
+        AnimatablePointValue endPoint = readPointValue();
+        AnimatableFloatValue highlightLength = readFloatValue(false);
+        AnimatableFloatValue highlightAngle = readFloatValue(false);
+        boolean hidden = buffer.get() != 0;
+        return new GradientFill(name, gradientType, fillType, gradientColor, opacity,
+            startPoint, endPoint, highlightLength, highlightAngle, hidden);
+      }
+      case CONTENT_TRANSFORM:
+        return readTransform();
+      case CONTENT_SHAPE_PATH: {
+        String name = readString();
+        int index = buffer.getInt();
+        AnimatableShapeValue shapePath = readShapeValue();
+        boolean hidden = buffer.get() != 0;
+        return new ShapePath(name, index, shapePath, hidden);
+      }
+      case CONTENT_ELLIPSE: {
+        String name = readString();
+        AnimatableValue<PointF, PointF> position = readPosition();
+        AnimatablePointValue size = readPointValue();
+        boolean reversed = buffer.get() != 0;
+        boolean hidden = buffer.get() != 0;
+        return new CircleShape(name, position, size, reversed, hidden);
+      }
+      case CONTENT_RECTANGLE: {
+        String name = readString();
+        AnimatableValue<PointF, PointF> position = readPosition();
+        AnimatablePointValue size = readPointValue();
+        AnimatableFloatValue cornerRadius = readFloatValue(true);
+        boolean hidden = buffer.get() != 0;
+        return new RectangleShape(name, position, size, cornerRadius, hidden);
+      }
+      case CONTENT_TRIM_PATH: {
+        String name = readString();
+        ShapeTrimPath.Type trimType = readEnum(ShapeTrimPath.Type.values());
+        AnimatableFloatValue start = readFloatValue(false);
+        AnimatableFloatValue end = readFloatValue(false);
+        AnimatableFloatValue offset = readFloatValue(false);
+        boolean hidden = buffer.get() != 0;
+        return new ShapeTrimPath(name, trimType, start, end, offset, hidden);
+      }
+      case CONTENT_POLYSTAR: {
+        String name = readString();
+        PolystarShape.Type starType = readEnum(PolystarShape.Type.values());
+        AnimatableFloatValue points = readFloatValue(false);
+        AnimatableValue<PointF, PointF> position = readPosition();
+        AnimatableFloatValue rotation = readFloatValue(false);
+        AnimatableFloatValue innerRadius = readFloatValue(true);
+        AnimatableFloatValue outerRadius = readFloatValue(true);
+        AnimatableFloatValue innerRoundedness = readFloatValue(false);
+        AnimatableFloatValue outerRoundedness = readFloatValue(false);
+        boolean hidden = buffer.get() != 0;
+        return new PolystarShape(name, starType, points, position, rotation, innerRadius,
+            outerRadius, innerRoundedness, outerRoundedness, hidden);
+      }
+      case CONTENT_MERGE_PATHS: {
+        String name = readString();
+        MergePaths.MergePathsMode mode = readEnum(MergePaths.MergePathsMode.values());
+        boolean hidden = buffer.get() != 0;
+        return new MergePaths(name, mode, hidden);
+      }
+      case CONTENT_REPEATER: {
+        String name = readString();
+        AnimatableFloatValue copies = readFloatValue(false);
+        AnimatableFloatValue offset = readFloatValue(false);
+        AnimatableTransform transform = readTransform();
+        boolean hidden = buffer.get() != 0;
+        return new Repeater(name, copies, offset, transform, hidden);
+      }
+      default:
+        throw new IOException("Unknown content type " + type + ".");
+    }
+  }
+
+  private ShapeGroup readShapeGroup() throws IOException {
+    String name = readString();
+    boolean hidden = buffer.get() != 0;
+    int count = readCount(buffer, 1);
+    List<ContentModel> items = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      items.add(readContentModel());
+    }
+    return new ShapeGroup(name, items, hidden);
+  }
+
+  private List<AnimatableFloatValue> readDashPattern() throws IOException {
+    int count = readCount(buffer, 1);
+    List<AnimatableFloatValue> lineDashPattern = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      lineDashPattern.add(readFloatValue(true));
+    }
+    return lineDashPattern;
+  }
+
+  @Nullable private AnimatableTransform readTransform() throws IOException {
+    if (buffer.get() == 0) {
+      return null;
+    }
+    AnimatablePathValue anchorPoint = (AnimatablePathValue) readPosition();
+    AnimatableValue<PointF, PointF> position = readPosition();
+    AnimatableScaleValue scale = null;
+    if (buffer.get() != 0) {
+      scale = new AnimatableScaleValue(readKeyframes(SCALE_XY, 1f));
+    }
+    AnimatableFloatValue rotation = readFloatValue(false);
+    AnimatableIntegerValue opacity = readIntegerValue();
+    AnimatableFloatValue startOpacity = readFloatValue(false);
+    AnimatableFloatValue endOpacity = readFloatValue(false);
+    AnimatableFloatValue skew = readFloatValue(false);
+    AnimatableFloatValue skewAngle = readFloatValue(false);
+    return new AnimatableTransform(anchorPoint, position, scale, rotation, opacity, startOpacity,
+        endOpacity, skew, skewAngle);
+  }
+
+  @Nullable private AnimatableValue<PointF, PointF> readPosition() throws IOException {
+    int type = buffer.get();
+    switch (type) {
+      case POSITION_NONE:
+        return null;
+      case POSITION_PATH:
+        return new AnimatablePathValue(readKeyframes(POINT, dpScale));
+      case POSITION_SPLIT:
+        return new AnimatableSplitDimensionPathValue(readFloatValue(true), readFloatValue(true));
+      default:
+        throw new IOException("Unknown position type " + type + ".");
+    }
+  }
+
+  @Nullable private AnimatableFloatValue readFloatValue(boolean isDp) throws IOException {
+    if (buffer.get() == 0) {
+      return null;
+    }
+    return new AnimatableFloatValue(readTrack(FLOAT, isDp ? dpScale : 1f, KeyframeTrackBuilder.floats()));
+  }
+
+  @Nullable private AnimatableIntegerValue readIntegerValue() throws IOException {
+    if (buffer.get() == 0) {
+      return null;
+    }
+    return new AnimatableIntegerValue(readTrack(INTEGER, 1f, KeyframeTrackBuilder.integers()));
+  }
+
+  @Nullable private AnimatableColorValue readColorValue() throws IOException {
+    if (buffer.get() == 0) {
+      return null;
+    }
+    return new AnimatableColorValue(readTrack(INTEGER, 1f, KeyframeTrackBuilder.integers()));
+  }
+
+  @Nullable private AnimatablePointValue readPointValue() throws IOException {
+    if (buffer.get() == 0) {
+      return null;
+    }
+    return new AnimatablePointValue(readKeyframes(POINT, dpScale));
+  }
+
+  @Nullable private AnimatableShapeValue readShapeValue() throws IOException {
+    if (buffer.get() == 0) {
+      return null;
+    }
+    return new AnimatableShapeValue(readKeyframes(SHAPE_DATA, dpScale));
+  }
+
+  @Nullable private AnimatableGradientColorValue readGradientColorValue() throws IOException {
+    if (buffer.get() == 0) {
+      return null;
+    }
+    return new AnimatableGradientColorValue(readKeyframes(GRADIENT_COLOR, 1f));
+  }
+
+  private <T> List<Keyframe<T>> readKeyframes(ValueReader<T> valueReader, float scale)
+      throws IOException {
+    int count = readCount(buffer, 1);
+    List<Keyframe<T>> keyframes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      keyframes.add(readKeyframe(valueReader, scale));
+    }
+    return keyframes;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Keyframe<T> readKeyframe(ValueReader<T> valueReader, float scale)
+      throws IOException {
+    int flags = buffer.getShort();
+    float startFrame = buffer.getFloat();
+    Float endFrame = null;
+    if ((flags & KEYFRAME_END_FRAME) != 0) {
+      endFrame = buffer.getFloat();
+    }
+    Interpolator interpolator = readInterpolator();
+    T startValue = null;
+    if ((flags & KEYFRAME_START_VALUE) != 0) {
+      startValue = valueReader.read(buffer, scale);
+    }
+    T endValue = null;
+    if ((flags & KEYFRAME_END_VALUE) != 0) {
+      endValue = valueReader.read(buffer, scale);
+    } else if ((flags & KEYFRAME_END_VALUE_IS_START_VALUE) != 0) {
+      endValue = startValue;
+    }
+
+    Keyframe<T> keyframe;
+    if ((flags & KEYFRAME_STATIC) != 0) {
+      keyframe = new Keyframe<>(startValue);
+      keyframe.endValue = endValue;
+      keyframe.endFrame = endFrame;
+    } else {
+      keyframe =
+          new Keyframe<>(composition, startValue, endValue, interpolator, startFrame, endFrame);
+    }
+    if ((flags & KEYFRAME_PATH_CP1) != 0) {
+      keyframe.pathCp1 = readPoint(buffer, scale);
+    }
+    if ((flags & KEYFRAME_PATH_CP2) != 0) {
+      keyframe.pathCp2 = readPoint(buffer, scale);
+    }
+    if ((flags & KEYFRAME_PATH) != 0) {
+      keyframe = (Keyframe<T>) new PathKeyframe(composition, (Keyframe<PointF>) keyframe);
+    }
+    return keyframe;
+  }
+
+  /**
+   * Reads keyframes that were written the same way as {@link #readKeyframes(ValueReader, float)} straight into a
+   * packed track.
+   */
+  private <T, R extends KeyframeTrack<T>> R readTrack(ValueReader<T> valueReader, float scale,
+      KeyframeTrackBuilder<T, R> track) throws IOException {
+    int count = readCount(buffer, 1);
+    for (int i = 0; i < count; i++) {
+      int flags = buffer.getShort();
+      float startFrame = buffer.getFloat();
+      float endFrame = Float.NaN;
+      if ((flags & KEYFRAME_END_FRAME) != 0) {
+        endFrame = buffer.getFloat();
+      }
+      Interpolator interpolator = readInterpolator();
+      T startValue = null;
+      if ((flags & KEYFRAME_START_VALUE) != 0) {
+        startValue = valueReader.read(buffer, scale);
+      }
+      T endValue = null;
+      if ((flags & KEYFRAME_END_VALUE) != 0) {
+        endValue = valueReader.read(buffer, scale);
+      } else if ((flags & KEYFRAME_END_VALUE_IS_START_VALUE) != 0) {
+        endValue = startValue;
+      }
+      // Primitive values don't use path control points.
+      if ((flags & KEYFRAME_PATH_CP1) != 0) {
+        readPoint(buffer, scale);
+      }
+      if ((flags & KEYFRAME_PATH_CP2) != 0) {
+        readPoint(buffer, scale);
+      }
+      if ((flags & KEYFRAME_STATIC) != 0) {
+        track.addStatic(startValue, endFrame, endValue);
+      } else {
+        track.add(startFrame, endFrame, interpolator, startValue, endValue);
+      }
+    }
+    return track.build(composition);
+  }
+
+  @Nullable private Interpolator readInterpolator() throws IOException {
+    int type = buffer.get();
+    switch (type) {
+      case INTERPOLATOR_NONE:
+        return null;
+      case INTERPOLATOR_LINEAR:
+        return LINEAR_INTERPOLATOR;
+      case INTERPOLATOR_CUBIC:
+        return CubicBezierInterpolator.obtain(
+            buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+      case INTERPOLATOR_HOLD:
+        return HoldInterpolator.INSTANCE;
+      default:
+        throw new IOException("Unknown interpolator type " + type + ".");
+    }
+  }
+
+  @Nullable private <E extends Enum<E>> E readEnum(E[] values) {
+    int ordinal = buffer.get();
+    return ordinal < 0 ? null : values[ordinal];
+  }
+
+  private int scaleDp(int value) {
+    return dpScale == 1f ? value : (int) (value * dpScale);
+  }
+
+  @Nullable private String readString() throws IOException {
+    return readString(buffer);
+  }
+
+  /**
+   * If the next string is a base64 data uri, returns its start up to the comma without reading it. Returns null
+   * otherwise.
+   */
+  @Nullable private String readEmbeddedImagePrefix() {
+    int position = buffer.position();
+    int length = buffer.getInt(position);
+    // The media type and parameters before the data are short.
+    int peekLength = Math.min(length, 256);
+    if (peekLength < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[peekLength];
+    for (int i = 0; i < peekLength; i++) {
+      bytes[i] = buffer.get(position + 4 + i);
+    }
+    String start = new String(bytes, UTF_8);
+    int dataStart = LottieImageAsset.embeddedImageStart(start);
+    return dataStart < 0 ? null : start.substring(0, dataStart);
+  }
+
+  /**
+   * Reads the base64 data of a data uri. A direct buffer, such as a memory mapped file, is sliced rather than
+   * copied so that the data stays out of the heap until the image is decoded.
+   */
+  private ByteBuffer readEmbeddedImage(String embeddedImagePrefix) throws IOException {
+    int prefixLength = embeddedImagePrefix.getBytes(UTF_8).length;
+    int length = readCount(buffer, 1) - prefixLength;
+    if (length < 0) {
+      throw new IOException("Binary composition is corrupt. The embedded image is shorter than its prefix.");
+    }
+    buffer.position(buffer.position() + prefixLength);
+    ByteBuffer data;
+    if (buffer.isDirect()) {
+      data = buffer.slice();
+      data.limit(length);
+      buffer.position(buffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      data = ByteBuffer.wrap(bytes);
+    }
+    return data;
+  }
+
+  @Nullable private static String readString(ByteBuffer buffer) throws IOException {
+    int length = buffer.getInt();
+    if (length == -1) {
+      return null;
+    }
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Binary composition is corrupt. Invalid string length " + length + ".");
+    }
+    String string;
+    if (buffer.hasArray()) {
+      string = new String(
+          buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+      buffer.position(buffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      string = new String(bytes, UTF_8);
+    }
+    return string;
+  }
+
+  private static PointF readPoint(ByteBuffer buffer, float scale) {
+    return new PointF(buffer.getFloat() * scale, buffer.getFloat() * scale);
+  }
+
+  /**
+   * Reads the number of items that follow. Each of them takes up at least minItemBytes so a count that the rest of
+   * the buffer can't hold means that the file is corrupt. It is rejected before anything is allocated for it.
+   */
+  private static int readCount(ByteBuffer buffer, int minItemBytes) throws IOException {
+    int count = buffer.getInt();
+    if (count < 0 || (long) count * minItemBytes > buffer.remaining()) {
+      throw new IOException("Binary composition is corrupt. Invalid count " + count + ".");
+    }
+    return count;
+  }
+
+  private interface ValueReader<T> {
+    T read(ByteBuffer buffer, float scale) throws IOException;
+  }
+
+  private static final ValueReader<Float> FLOAT = new ValueReader<Float>() {
+    @Override public Float read(ByteBuffer buffer, float scale) {
+      return buffer.getFloat() * scale;
+    }
+  };
+
+  private static final ValueReader<Integer> INTEGER = new ValueReader<Integer>() {
+    @Override public Integer read(ByteBuffer buffer, float scale) {
+      return buffer.getInt();
+    }
+  };
+
+  private static final ValueReader<PointF> POINT = new ValueReader<PointF>() {
+    @Override public PointF read(ByteBuffer buffer, float scale) {
+      return readPoint(buffer, scale);
+    }
+  };
+
+  private static final ValueReader<ScaleXY> SCALE_XY = new ValueReader<ScaleXY>() {
+    @Override public ScaleXY read(ByteBuffer buffer, float scale) {
+      return new ScaleXY(buffer.getFloat(), buffer.getFloat());
+    }
+  };
+
+  private static final ValueReader<ShapeData> SHAPE_DATA = new ValueReader<ShapeData>() {
+    @Override public ShapeData read(ByteBuffer buffer, float scale) throws IOException {
+      PointF initialPoint = readPoint(buffer, scale);
+      boolean closed = buffer.get() != 0;
+      // Each curve is three points.
+      int count = readCount(buffer, 24);
+      List<CubicCurveData> curves = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        curves.add(new CubicCurveData(
+            readPoint(buffer, scale), readPoint(buffer, scale), readPoint(buffer, scale)));
+      }
+      return new ShapeData(initialPoint, closed, curves);
+    }
+  };
+
+  private static final ValueReader<GradientColor> GRADIENT_COLOR =
+      new ValueReader<GradientColor>() {
+        @Override public GradientColor read(ByteBuffer buffer, float scale) throws IOException {
+          // Each stop is a position and a color.
+          int size = readCount(buffer, 8);
+          float[] positions = new float[size];
+          int[] colors = new int[size];
+          for (int i = 0; i < size; i++) {
+            positions[i] = buffer.getFloat();
+            colors[i] = buffer.getInt();
+          }
+          return new GradientColor(positions, colors);
+        }
+      };
+
+  private static final ValueReader<DocumentData> DOCUMENT_DATA = new ValueReader<DocumentData>() {
+    @Override public DocumentData read(ByteBuffer buffer, float scale) throws IOException {
+      String text = readString(buffer);
+      String fontName = readString(buffer);
+      double size = buffer.getDouble();
+      int justification = buffer.get();
+      int tracking = buffer.getInt();
+      double lineHeight = buffer.getDouble();
+      double baselineShift = buffer.getDouble();
+      int color = buffer.getInt();
+      int strokeColor = buffer.getInt();
+      double strokeWidth = buffer.getDouble();
+      boolean strokeOverFill = buffer.get() != 0;
+      return new DocumentData(text, fontName, size,
+          justification < 0 ? null : DocumentData.Justification.values()[justification],
+          tracking, lineHeight, baselineShift, color, strokeColor, strokeWidth, strokeOverFill);
+    }
+  };
+}
@@ -0,0 +1,580 @@
+package com.airbnb.lottie.parser;
+
+import android.graphics.PointF;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieImageAsset;
+import com.airbnb.lottie.animation.keyframe.PathKeyframe;
+import com.airbnb.lottie.model.CubicCurveData;
+import com.airbnb.lottie.model.DocumentData;
+import com.airbnb.lottie.model.Font;
+import com.airbnb.lottie.model.FontCharacter;
+import com.airbnb.lottie.model.Marker;
+import com.airbnb.lottie.model.animatable.AnimatablePathValue;
+import com.airbnb.lottie.model.animatable.AnimatableSplitDimensionPathValue;
+import com.airbnb.lottie.model.animatable.AnimatableTextProperties;
+import com.airbnb.lottie.model.animatable.AnimatableTransform;
+import com.airbnb.lottie.model.animatable.AnimatableValue;
+import com.airbnb.lottie.model.content.CircleShape;
+import com.airbnb.lottie.model.content.ContentModel;
+import com.airbnb.lottie.model.content.GradientColor;
+import com.airbnb.lottie.model.content.GradientFill;
+import com.airbnb.lottie.model.content.GradientStroke;
+import com.airbnb.lottie.model.content.Mask;
+import com.airbnb.lottie.model.content.MergePaths;
+import com.airbnb.lottie.model.content.PolystarShape;
+import com.airbnb.lottie.model.content.RectangleShape;
+import com.airbnb.lottie.model.content.Repeater;
+import com.airbnb.lottie.model.content.ShapeData;
+import com.airbnb.lottie.model.content.ShapeFill;
+import com.airbnb.lottie.model.content.ShapeGroup;
+import com.airbnb.lottie.model.content.ShapePath;
+import com.airbnb.lottie.model.content.ShapeStroke;
+import com.airbnb.lottie.model.content.ShapeTrimPath;
+import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.utils.CubicBezierInterpolator;
+import com.airbnb.lottie.utils.HoldInterpolator;
+import com.airbnb.lottie.utils.Utils;
+import com.airbnb.lottie.value.Keyframe;
+import com.airbnb.lottie.value.ScaleXY;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.airbnb.lottie.parser.BinaryCompositionParser.*;
+
+/**
+ * Writes a parsed {@link LottieComposition} in the format read by {@link BinaryCompositionParser}.
+ *
+ * Images are written by reference only. Bitmaps set on a {@link LottieImageAsset} are not part of
+ * the format.
+ */
+public class BinaryCompositionWriter {
+
+  private final DataOutputStream out;
+
+  private BinaryCompositionWriter(OutputStream out) {
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+  }
+
+  /**
+   * Writes the composition to the stream and flushes it. The stream is not closed.
+   */
+  public static void write(LottieComposition composition, OutputStream out) throws IOException {
+    BinaryCompositionWriter writer = new BinaryCompositionWriter(out);
+    writer.writeComposition(composition);
+    writer.out.flush();
+  }
+
+  private void writeComposition(LottieComposition composition) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeFloat(Utils.dpScale());
+
+    out.writeInt(composition.getBounds().width());
+    out.writeInt(composition.getBounds().height());
+    out.writeFloat(composition.getStartFrame());
+    out.writeFloat(composition.getEndFrame());
+    out.writeFloat(composition.getFrameRate());
+    out.writeBoolean(composition.hasDashPattern());
+    out.writeInt(composition.getMaskAndMatteCount());
+
+    // Warnings are stored in a set so they are sorted to keep the output deterministic.
+    List<String> warnings = composition.getWarnings();
+    Collections.sort(warnings);
+    out.writeInt(warnings.size());
+    for (String warning : warnings) {
+      writeString(out, warning);
+    }
+
+    Map<String, LottieImageAsset> images = composition.getImages();
+    out.writeInt(images.size());
+    for (LottieImageAsset image : images.values()) {
+      writeString(out, image.getId());
+      writeImageFileName(out, image);
+      writeString(out, image.getDirName());
+      out.writeInt(image.getWidth());
+      out.writeInt(image.getHeight());
+    }
+
+    Map<String, List<Layer>> precomps = composition.getPrecomps();
+    out.writeInt(precomps.size());
+    for (Map.Entry<String, List<Layer>> entry : precomps.entrySet()) {
+      writeString(out, entry.getKey());
+      writeLayers(entry.getValue());
+    }
+
+    Map<String, Font> fonts = composition.getFonts();
+    out.writeInt(fonts.size());
+    for (Font font : fonts.values()) {
+      writeString(out, font.getFamily());
+      writeString(out, font.getName());
+      writeString(out, font.getStyle());
+      out.writeFloat(font.getAscent());
+    }
+
+    SparseArrayCompat<FontCharacter> characters = composition.getCharacters();
+    out.writeInt(characters.size());
+    for (int i = 0; i < characters.size(); i++) {
+      FontCharacter character = characters.valueAt(i);
+      out.writeChar(character.getCharacter());
+      out.writeDouble(character.getSize());
+      out.writeDouble(character.getWidth());
+      writeString(out, character.getStyle());
+      writeString(out, character.getFontFamily());
+      List<ShapeGroup> shapes = character.getShapes();
+      out.writeInt(shapes.size());
+      for (ShapeGroup shape : shapes) {
+        writeShapeGroup(shape);
+      }
+    }
+
+    List<Marker> markers = composition.getMarkers();
+    out.writeInt(markers.size());
+    for (Marker marker : markers) {
+      writeString(out, marker.name);
+      out.writeFloat(marker.startFrame);
+      out.writeFloat(marker.durationFrames);
+    }
+
+    writeLayers(composition.getLayers());
+  }
+
+  private void writeLayers(List<Layer> layers) throws IOException {
+    out.writeInt(layers.size());
+    for (Layer layer : layers) {
+      writeLayer(layer);
+    }
+  }
+
+  private void writeLayer(Layer layer) throws IOException {
+    writeString(out, layer.getName());
+    out.writeLong(layer.getId());
+    writeEnum(layer.getLayerType());
+    out.writeLong(layer.getParentId());
+    writeString(out, layer.getRefId());
+    out.writeInt(layer.getSolidWidth());
+    out.writeInt(layer.getSolidHeight());
+    out.writeInt(layer.getSolidColor());
+    out.writeFloat(layer.getTimeStretch());
+    out.writeFloat(layer.getStartFrame());
+    out.writeInt(layer.getPreCompWidth());
+    out.writeInt(layer.getPreCompHeight());
+    writeEnum(layer.getMatteType());
+    out.writeBoolean(layer.isHidden());
+
+    List<Mask> masks = layer.getMasks();
+    out.writeInt(masks.size());
+    for (Mask mask : masks) {
+      writeEnum(mask.getMaskMode());
+      writeAnimatable(mask.getMaskPath(), SHAPE_DATA);
+      writeAnimatable(mask.getOpacity(), INTEGER);
+    }
+
+    writeTransform(layer.getTransform());
+    writeAnimatable(layer.getText(), DOCUMENT_DATA);
+    AnimatableTextProperties textProperties = layer.getTextProperties();
+    out.writeBoolean(textProperties != null);
+    if (textProperties != null) {
+      writeAnimatable(textProperties.color, INTEGER);
+      writeAnimatable(textProperties.stroke, INTEGER);
+      writeAnimatable(textProperties.strokeWidth, FLOAT);
+      writeAnimatable(textProperties.tracking, FLOAT);
+    }
+    writeAnimatable(layer.getTimeRemapping(), FLOAT);
+    writeKeyframes(layer.getInOutKeyframes(), FLOAT);
+
+    List<ContentModel> shapes = layer.getShapes();
+    out.writeInt(shapes.size());
+    for (ContentModel shape : shapes) {
+      writeContentModel(shape);
+    }
+  }
+
+  private void writeContentModel(ContentModel model) throws IOException {
+    if (model instanceof ShapeGroup) {
+      out.writeByte(CONTENT_GROUP);
+      writeShapeGroup((ShapeGroup) model);
+    } else if (model instanceof ShapeStroke) {
+      ShapeStroke stroke = (ShapeStroke) model;
+      out.writeByte(CONTENT_STROKE);
+      writeString(out, stroke.getName());
+      writeAnimatable(stroke.getColor(), INTEGER);
+      writeAnimatable(stroke.getOpacity(), INTEGER);
+      writeAnimatable(stroke.getWidth(), FLOAT);
+      writeEnum(stroke.getCapType());
+      writeEnum(stroke.getJoinType());
+      out.writeFloat(stroke.getMiterLimit());
+      writeDashPattern(stroke.getLineDashPattern());
+      writeAnimatable(stroke.getDashOffset(), FLOAT);
+      out.writeBoolean(stroke.isHidden());
+    } else if (model instanceof GradientStroke) {
+      GradientStroke stroke = (GradientStroke) model;
+      out.writeByte(CONTENT_GRADIENT_STROKE);
+      writeString(out, stroke.getName());
+      writeEnum(stroke.getGradientType());
+      writeAnimatable(stroke.getGradientColor(), GRADIENT_COLOR);
+      writeAnimatable(stroke.getOpacity(), INTEGER);
+      writeAnimatable(stroke.getStartPoint(), POINT);
+      writeAnimatable(stroke.getEndPoint(), POINT);
+      writeAnimatable(stroke.getWidth(), FLOAT);
+      writeEnum(stroke.getCapType());
+      writeEnum(stroke.getJoinType());
+      out.writeFloat(stroke.getMiterLimit());
+      writeDashPattern(stroke.getLineDashPattern());
+      writeAnimatable(stroke.getDashOffset(), FLOAT);
+      out.writeBoolean(stroke.isHidden());
+    } else if (model instanceof ShapeFill) {
+      ShapeFill fill = (ShapeFill) model;
+      out.writeByte(CONTENT_FILL);
+      writeString(out, fill.getName());
+      out.writeBoolean(fill.isFillEnabled());
+      writeEnum(fill.getFillType());
+      writeAnimatable(fill.getColor(), INTEGER);
+      writeAnimatable(fill.getOpacity(), INTEGER);
+      out.writeBoolean(fill.isHidden());
+    } else if (model instanceof GradientFill) {
+      GradientFill fill = (GradientFill) model;
+      out.writeByte(CONTENT_GRADIENT_FILL);
+      writeString(out, fill.getName());
+      writeEnum(fill.getGradientType());
+      writeEnum(fill.getFillType());
+      writeAnimatable(fill.getGradientColor(), GRADIENT_COLOR);
+      writeAnimatable(fill.getOpacity(), INTEGER);
+      writeAnimatable(fill.getStartPoint(), POINT);
+      writeAnimatable(fill.getEndPoint(), POINT);
+      writeAnimatable(fill.getHighlightLength(), FLOAT);
+      writeAnimatable(fill.getHighlightAngle(), FLOAT);
+      out.writeBoolean(fill.isHidden());
+    } else if (model instanceof AnimatableTransform) {
+      out.writeByte(CONTENT_TRANSFORM);
+      writeTransform((AnimatableTransform) model);
+    } else if (model instanceof ShapePath) {
+      ShapePath path = (ShapePath) model;
+      out.writeByte(CONTENT_SHAPE_PATH);
+      writeString(out, path.getName());
+      out.writeInt(path.getIndex());
+      writeAnimatable(path.getShapePath(), SHAPE_DATA);
+      out.writeBoolean(path.isHidden());
+    } else if (model instanceof CircleShape) {
+      CircleShape circle = (CircleShape) model;
+      out.writeByte(CONTENT_ELLIPSE);
+      writeString(out, circle.getName());
+      writePosition(circle.getPosition());
+      writeAnimatable(circle.getSize(), POINT);
+      out.writeBoolean(circle.isReversed());
+      out.writeBoolean(circle.isHidden());
+    } else if (model instanceof RectangleShape) {
+      RectangleShape rectangle = (RectangleShape) model;
+      out.writeByte(CONTENT_RECTANGLE);
+      writeString(out, rectangle.getName());
+      writePosition(rectangle.getPosition());
+      writeAnimatable(rectangle.getSize(), POINT);
+      writeAnimatable(rectangle.getCornerRadius(), FLOAT);
+      out.writeBoolean(rectangle.isHidden());
+    } else if (model instanceof ShapeTrimPath) {
+      ShapeTrimPath trimPath = (ShapeTrimPath) model;
+      out.writeByte(CONTENT_TRIM_PATH);
+      writeString(out, trimPath.getName());
+      writeEnum(trimPath.getType());
+      writeAnimatable(trimPath.getStart(), FLOAT);
+      writeAnimatable(trimPath.getEnd(), FLOAT);
+      writeAnimatable(trimPath.getOffset(), FLOAT);
+      out.writeBoolean(trimPath.isHidden());
+    } else if (model instanceof PolystarShape) {
+      PolystarShape polystar = (PolystarShape) model;
+      out.writeByte(CONTENT_POLYSTAR);
+      writeString(out, polystar.getName());
+      writeEnum(polystar.getType());
+      writeAnimatable(polystar.getPoints(), FLOAT);
+      writePosition(polystar.getPosition());
+      writeAnimatable(polystar.getRotation(), FLOAT);
+      writeAnimatable(polystar.getInnerRadius(), FLOAT);
+      writeAnimatable(polystar.getOuterRadius(), FLOAT);
+      writeAnimatable(polystar.getInnerRoundedness(), FLOAT);
+      writeAnimatable(polystar.getOuterRoundedness(), FLOAT);
+      out.writeBoolean(polystar.isHidden());
+    } else if (model instanceof MergePaths) {
+      MergePaths mergePaths = (MergePaths) model;
+      out.writeByte(CONTENT_MERGE_PATHS);
+      writeString(out, mergePaths.getName());
+      writeEnum(mergePaths.getMode());
+      out.writeBoolean(mergePaths.isHidden());
+    } else if (model instanceof Repeater) {
+      Repeater repeater = (Repeater) model;
+      out.writeByte(CONTENT_REPEATER);
+      writeString(out, repeater.getName());
+      writeAnimatable(repeater.getCopies(), FLOAT);
+      writeAnimatable(repeater.getOffset(), FLOAT);
+      writeTransform(repeater.getTransform());
+      out.writeBoolean(repeater.isHidden());
+    } else {
+      throw new IllegalArgumentException("Unable to write content " + model);
+    }
+  }
+
+  private void writeShapeGroup(ShapeGroup group) throws IOException {
+    writeString(out, group.getName());
+    out.writeBoolean(group.isHidden());
+    List<ContentModel> items = group.getItems();
+    out.writeInt(items.size());
+    for (ContentModel item : items) {
+      writeContentModel(item);
+    }
+  }
+
+  private void writeDashPattern(List<? extends AnimatableValue<Float, Float>> lineDashPattern)
+      throws IOException {
+    out.writeInt(lineDashPattern.size());
+    for (AnimatableValue<Float, Float> dash : lineDashPattern) {
+      writeAnimatable(dash, FLOAT);
+    }
+  }
+
+  private void writeTransform(@Nullable AnimatableTransform transform) throws IOException {
+    out.writeBoolean(transform != null);
+    if (transform == null) {
+      return;
+    }
+    writePosition(transform.getAnchorPoint());
+    writePosition(transform.getPosition());
+    writeAnimatable(transform.getScale(), SCALE_XY);
+    writeAnimatable(transform.getRotation(), FLOAT);
+    writeAnimatable(transform.getOpacity(), INTEGER);
+    writeAnimatable(transform.getStartOpacity(), FLOAT);
+    writeAnimatable(transform.getEndOpacity(), FLOAT);
+    writeAnimatable(transform.getSkew(), FLOAT);
+    writeAnimatable(transform.getSkewAngle(), FLOAT);
+  }
+
+  private void writePosition(@Nullable AnimatableValue<PointF, PointF> position)
+      throws IOException {
+    if (position == null) {
+      out.writeByte(POSITION_NONE);
+    } else if (position instanceof AnimatableSplitDimensionPathValue) {
+      AnimatableSplitDimensionPathValue splitPosition = (AnimatableSplitDimensionPathValue) position;
+      out.writeByte(POSITION_SPLIT);
+      writeAnimatable(splitPosition.getXDimension(), FLOAT);
+      writeAnimatable(splitPosition.getYDimension(), FLOAT);
+    } else if (position instanceof AnimatablePathValue) {
+      out.writeByte(POSITION_PATH);
+      writeKeyframes(position.getKeyframes(), POINT);
+    } else {
+      throw new IllegalArgumentException("Unable to write position " + position);
+    }
+  }
+
+  private <T> void writeAnimatable(@Nullable AnimatableValue<T, ?> animatable,
+      ValueWriter<T> valueWriter) throws IOException {
+    out.writeBoolean(animatable != null);
+    if (animatable != null) {
+      writeKeyframes(animatable.getKeyframes(), valueWriter);
+    }
+  }
+
+  private <T> void writeKeyframes(List<Keyframe<T>> keyframes, ValueWriter<T> valueWriter)
+      throws IOException {
+    out.writeInt(keyframes.size());
+    for (int i = 0; i < keyframes.size(); i++) {
+      writeKeyframe(keyframes.get(i), valueWriter);
+    }
+  }
+
+  private <T> void writeKeyframe(Keyframe<T> keyframe, ValueWriter<T> valueWriter)
+      throws IOException {
+    boolean isPathKeyframe = keyframe instanceof PathKeyframe;
+    int flags = 0;
+    // Some keyframes are created without an interpolator but with real frames so the static
+    // constructor can only be identified by its start frame.
+    if (keyframe.isStatic() && !isPathKeyframe && keyframe.startFrame == Float.MIN_VALUE) {
+      flags |= KEYFRAME_STATIC;
+    }
+    if (isPathKeyframe) {
+      flags |= KEYFRAME_PATH;
+    }
+    if (keyframe.startValue != null) {
+      flags |= KEYFRAME_START_VALUE;
+    }
+    if (keyframe.endValue != null) {
+      flags |= keyframe.endValue == keyframe.startValue ?
+          KEYFRAME_END_VALUE_IS_START_VALUE : KEYFRAME_END_VALUE;
+    }
+    if (keyframe.endFrame != null) {
+      flags |= KEYFRAME_END_FRAME;
+    }
+    if (keyframe.pathCp1 != null) {
+      flags |= KEYFRAME_PATH_CP1;
+    }
+    if (keyframe.pathCp2 != null) {
+      flags |= KEYFRAME_PATH_CP2;
+    }
+    out.writeShort(flags);
+    out.writeFloat(keyframe.startFrame);
+    if (keyframe.endFrame != null) {
+      out.writeFloat(keyframe.endFrame);
+    }
+    writeInterpolator(keyframe.interpolator);
+    if (keyframe.startValue != null) {
+      valueWriter.write(out, keyframe.startValue);
+    }
+    if ((flags & KEYFRAME_END_VALUE) != 0) {
+      valueWriter.write(out, keyframe.endValue);
+    }
+    if (keyframe.pathCp1 != null) {
+      writePoint(out, keyframe.pathCp1);
+    }
+    if (keyframe.pathCp2 != null) {
+      writePoint(out, keyframe.pathCp2);
+    }
+  }
+
+  private void writeInterpolator(@Nullable Interpolator interpolator) throws IOException {
+    if (interpolator == null) {
+      out.writeByte(INTERPOLATOR_NONE);
+    } else if (interpolator instanceof LinearInterpolator) {
+      out.writeByte(INTERPOLATOR_LINEAR);
+    } else if (interpolator == HoldInterpolator.INSTANCE) {
+      out.writeByte(INTERPOLATOR_HOLD);
+    } else if (interpolator instanceof CubicBezierInterpolator) {
+      CubicBezierInterpolator bezier = (CubicBezierInterpolator) interpolator;
+      out.writeByte(INTERPOLATOR_CUBIC);
+      out.writeFloat(bezier.getX1());
+      out.writeFloat(bezier.getY1());
+      out.writeFloat(bezier.getX2());
+      out.writeFloat(bezier.getY2());
+    } else {
+      throw new IllegalArgumentException("Unable to write interpolator " + interpolator);
+    }
+  }
+
+  private void writeEnum(@Nullable Enum<?> value) throws IOException {
+    out.writeByte(value == null ? -1 : value.ordinal());
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String string)
+      throws IOException {
+    if (string == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = string.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Writes the file name like {@link #writeString(DataOutputStream, String)} but without building the data uri of
+   * an embedded image as a string.
+   */
+  private static void writeImageFileName(DataOutputStream out, LottieImageAsset image) throws IOException {
+    ByteBuffer embeddedImage = image.getEmbeddedImage();
+    if (embeddedImage == null) {
+      writeString(out, image.getFileName());
+      return;
+    }
+    //noinspection ConstantConditions
+    byte[] prefix = image.getEmbeddedImagePrefix().getBytes(UTF_8);
+    out.writeInt(prefix.length + embeddedImage.remaining());
+    out.write(prefix);
+    if (embeddedImage.hasArray()) {
+      out.write(embeddedImage.array(), embeddedImage.arrayOffset() + embeddedImage.position(),
+          embeddedImage.remaining());
+    } else {
+      byte[] chunk = new byte[Math.min(8192, embeddedImage.remaining())];
+      while (embeddedImage.hasRemaining()) {
+        int length = Math.min(chunk.length, embeddedImage.remaining());
+        embeddedImage.get(chunk, 0, length);
+        out.write(chunk, 0, length);
+      }
+    }
+  }
+
+  private static void writePoint(DataOutputStream out, PointF point) throws IOException {
+    out.writeFloat(point.x);
+    out.writeFloat(point.y);
+  }
+
+  private interface ValueWriter<T> {
+    void write(DataOutputStream out, T value) throws IOException;
+  }
+
+  private static final ValueWriter<Float> FLOAT = new ValueWriter<Float>() {
+    @Override public void write(DataOutputStream out, Float value) throws IOException {
+      out.writeFloat(value);
+    }
+  };
+
+  private static final ValueWriter<Integer> INTEGER = new ValueWriter<Integer>() {
+    @Override public void write(DataOutputStream out, Integer value) throws IOException {
+      out.writeInt(value);
+    }
+  };
+
+  private static final ValueWriter<PointF> POINT = new ValueWriter<PointF>() {
+    @Override public void write(DataOutputStream out, PointF value) throws IOException {
+      writePoint(out, value);
+    }
+  };
+
+  private static final ValueWriter<ScaleXY> SCALE_XY = new ValueWriter<ScaleXY>() {
+    @Override public void write(DataOutputStream out, ScaleXY value) throws IOException {
+      out.writeFloat(value.getScaleX());
+      out.writeFloat(value.getScaleY());
+    }
+  };
+
+  private static final ValueWriter<ShapeData> SHAPE_DATA = new ValueWriter<ShapeData>() {
+    @Override public void write(DataOutputStream out, ShapeData value) throws IOException {
+      writePoint(out, value.getInitialPoint());
+      out.writeBoolean(value.isClosed());
+      List<CubicCurveData> curves = value.getCurves();
+      out.writeInt(curves.size());
+      for (int i = 0; i < curves.size(); i++) {
+        CubicCurveData curve = curves.get(i);
+        writePoint(out, curve.getControlPoint1());
+        writePoint(out, curve.getControlPoint2());
+        writePoint(out, curve.getVertex());
+      }
+    }
+  };
+
+  private static final ValueWriter<GradientColor> GRADIENT_COLOR =
+      new ValueWriter<GradientColor>() {
+        @Override public void write(DataOutputStream out, GradientColor value)
+            throws IOException {
+          float[] positions = value.getPositions();
+          int[] colors = value.getColors();
+          out.writeInt(colors.length);
+          for (int i = 0; i < colors.length; i++) {
+            out.writeFloat(positions[i]);
+            out.writeInt(colors[i]);
+          }
+        }
+      };
+
+  private static final ValueWriter<DocumentData> DOCUMENT_DATA = new ValueWriter<DocumentData>() {
+    @Override public void write(DataOutputStream out, DocumentData value) throws IOException {
+      writeString(out, value.text);
+      writeString(out, value.fontName);
+      out.writeDouble(value.size);
+      out.writeByte(value.justification == null ? -1 : value.justification.ordinal());
+      out.writeInt(value.tracking);
+      out.writeDouble(value.lineHeight);
+      out.writeDouble(value.baselineShift);
+      out.writeInt(value.color);
+      out.writeInt(value.strokeColor);
+      out.writeDouble(value.strokeWidth);
+      out.writeBoolean(value.strokeOverFill);
+    }
+  };
+}
@@ -0,0 +1,58 @@
+package com.airbnb.lottie.parser;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the bytes of a ByteBuffer without copying them to the heap first.
+ */
+public class ByteBufferInputStream extends InputStream {
+  private final ByteBuffer buffer;
+  private int mark;
+
+  /**
+   * The stream reads from the buffer's position to its limit and moves its position as it does.
+   */
+  public ByteBufferInputStream(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.mark = buffer.position();
+  }
+
+  @Override public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override public int read(byte[] bytes, int offset, int length) {
+    if (length == 0) {
+      return 0;
+    }
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+    int read = Math.min(length, buffer.remaining());
+    buffer.get(bytes, offset, read);
+    return read;
+  }
+
+  @Override public long skip(long n) {
+    int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override public int available() {
+    return buffer.remaining();
+  }
+
+  @Override public boolean markSupported() {
+    return true;
+  }
+
+  @Override public synchronized void mark(int readLimit) {
+    mark = buffer.position();
+  }
+
+  @Override public synchronized void reset() {
+    buffer.position(mark);
+  }
+}
@@ -0,0 +1,53 @@
+package com.airbnb.lottie.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes UTF-8 text directly out of a ByteBuffer. Used with a memory mapped file, this lets the
+ * json parser read a file without copying it through an InputStream and its intermediate buffers.
+ */
+public class ByteBufferReader extends Reader {
+  private final ByteBuffer buffer;
+  private final CharsetDecoder decoder = BinaryCompositionParser.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private boolean flushed;
+
+  public ByteBufferReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+    // Skip the byte order mark. JsonReader would otherwise fail on it.
+    if (buffer.remaining() >= 3 && (buffer.get(buffer.position()) & 0xFF) == 0xEF &&
+        (buffer.get(buffer.position() + 1) & 0xFF) == 0xBB &&
+        (buffer.get(buffer.position() + 2) & 0xFF) == 0xBF) {
+      buffer.position(buffer.position() + 3);
+    }
+  }
+
+  @Override public int read(char[] chars, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    CharBuffer out = CharBuffer.wrap(chars, offset, length);
+    if (buffer.hasRemaining()) {
+      CoderResult result = decoder.decode(buffer, out, true);
+      if (result.isError()) {
+        result.throwException();
+      }
+    }
+    if (!buffer.hasRemaining() && !flushed) {
+      flushed = decoder.flush(out).isUnderflow();
+    }
+    int read = out.position() - offset;
+    return read == 0 && flushed ? -1 : read;
+  }
+
+  @Override public void close() {
+    // The buffer is owned by the caller. A mapped buffer is released when it is collected.
+  }
+}
@@ -2,54 +2,26 @@ package com.airbnb.lottie.parser;
 
 import android.graphics.PointF;
 import androidx.annotation.Nullable;
-import androidx.collection.SparseArrayCompat;
-import androidx.core.view.animation.PathInterpolatorCompat;
 import android.util.JsonReader;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 
 import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.utils.CubicBezierInterpolator;
+import com.airbnb.lottie.utils.HoldInterpolator;
 import com.airbnb.lottie.value.Keyframe;
 import com.airbnb.lottie.utils.MiscUtils;
-import com.airbnb.lottie.utils.Utils;
 
 import java.io.IOException;
-import java.lang.ref.WeakReference;
 
 class KeyframeParser {
   /**
    * Some animations get exported with insane cp values in the tens of thousands.
-   * PathInterpolator fails to create the interpolator in those cases and hangs.
-   * Clamping the cp helps prevent that.
+   * PathInterpolator used to fail to create the interpolator in those cases and hang.
+   * The cp are still clamped so those animations keep easing the way they always have.
    */
   private static final float MAX_CP_VALUE = 100;
   private static final Interpolator LINEAR_INTERPOLATOR = new LinearInterpolator();
-  private static SparseArrayCompat<WeakReference<Interpolator>> pathInterpolatorCache;
-
-  // https://github.com/airbnb/lottie-android/issues/464
-  private static SparseArrayCompat<WeakReference<Interpolator>> pathInterpolatorCache() {
-    if (pathInterpolatorCache == null) {
-      pathInterpolatorCache = new SparseArrayCompat<>();
-    }
-    return pathInterpolatorCache;
-  }
-
-  @Nullable
-  private static WeakReference<Interpolator> getInterpolator(int hash) {
-    // This must be synchronized because get and put isn't thread safe because
-    // SparseArrayCompat has to create new sized arrays sometimes.
-    synchronized (KeyframeParser.class) {
-      return pathInterpolatorCache().get(hash);
-    }
-  }
-
-  private static void putInterpolator(int hash, WeakReference<Interpolator> interpolator) {
-    // This must be synchronized because get and put isn't thread safe because
-    // SparseArrayCompat has to create new sized arrays sometimes.
-    synchronized (KeyframeParser.class) {
-      pathInterpolatorCache.put(hash, interpolator);
-    }
-  }
 
   static <T> Keyframe<T> parse(JsonReader reader, LottieComposition composition,
       float scale, ValueParser<T> valueParser, boolean animated) throws IOException {
@@ -114,33 +86,9 @@ class KeyframeParser {
 
     if (hold) {
       endValue = startValue;
-      // TODO: create a HoldInterpolator so progress changes don't invalidate.
-      interpolator = LINEAR_INTERPOLATOR;
-    } else if (cp1 != null && cp2 != null) {
-      cp1.x = MiscUtils.clamp(cp1.x, -scale, scale);
-      cp1.y = MiscUtils.clamp(cp1.y, -MAX_CP_VALUE, MAX_CP_VALUE);
-      cp2.x = MiscUtils.clamp(cp2.x, -scale, scale);
-      cp2.y = MiscUtils.clamp(cp2.y, -MAX_CP_VALUE, MAX_CP_VALUE);
-      int hash = Utils.hashFor(cp1.x, cp1.y, cp2.x, cp2.y);
-      WeakReference<Interpolator> interpolatorRef = getInterpolator(hash);
-      if (interpolatorRef != null) {
-        interpolator = interpolatorRef.get();
-      }
-      if (interpolatorRef == null || interpolator == null) {
-        interpolator = PathInterpolatorCompat.create(
-            cp1.x / scale, cp1.y / scale, cp2.x / scale, cp2.y / scale);
-        try {
-          putInterpolator(hash, new WeakReference<>(interpolator));
-        } catch (ArrayIndexOutOfBoundsException e) {
-          // It is not clear why but SparseArrayCompat sometimes fails with this:
-          //     https://github.com/airbnb/lottie-android/issues/452
-          // Because this is not a critical operation, we can safely just ignore it.
-          // I was unable to repro this to attempt a proper fix.
-        }
-      }
-
+      interpolator = HoldInterpolator.INSTANCE;
     } else {
-      interpolator = LINEAR_INTERPOLATOR;
+      interpolator = interpolatorFor(cp1, cp2, scale);
     }
 
     Keyframe<T> keyframe =
@@ -150,6 +98,71 @@ class KeyframeParser {
     return keyframe;
   }
 
+  /**
+   * Parses a keyframe of a primitive property into its track without creating a {@link Keyframe}.
+   */
+  static <T> void parse(JsonReader reader, float scale, ValueParser<T> valueParser, boolean animated,
+      KeyframeTrackBuilder<T, ?> track) throws IOException {
+    if (!animated) {
+      track.addStatic(valueParser.parse(reader, scale));
+      return;
+    }
+
+    PointF cp1 = null;
+    PointF cp2 = null;
+    float startFrame = 0;
+    T startValue = null;
+    T endValue = null;
+    boolean hold = false;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "t":
+          startFrame = (float) reader.nextDouble();
+          break;
+        case "s":
+          startValue = valueParser.parse(reader, scale);
+          break;
+        case "e":
+          endValue = valueParser.parse(reader, scale);
+          break;
+        case "o":
+          cp1 = JsonUtils.jsonToPoint(reader, scale);
+          break;
+        case "i":
+          cp2 = JsonUtils.jsonToPoint(reader, scale);
+          break;
+        case "h":
+          hold = reader.nextInt() == 1;
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    Interpolator interpolator;
+    if (hold) {
+      endValue = startValue;
+      interpolator = HoldInterpolator.INSTANCE;
+    } else {
+      interpolator = interpolatorFor(cp1, cp2, scale);
+    }
+    track.add(startFrame, Float.NaN, interpolator, startValue, endValue);
+  }
+
+  private static Interpolator interpolatorFor(@Nullable PointF cp1, @Nullable PointF cp2, float scale) {
+    if (cp1 == null || cp2 == null) {
+      return LINEAR_INTERPOLATOR;
+    }
+    cp1.x = MiscUtils.clamp(cp1.x, -scale, scale);
+    cp1.y = MiscUtils.clamp(cp1.y, -MAX_CP_VALUE, MAX_CP_VALUE);
+    cp2.x = MiscUtils.clamp(cp2.x, -scale, scale);
+    cp2.y = MiscUtils.clamp(cp2.y, -MAX_CP_VALUE, MAX_CP_VALUE);
+    return CubicBezierInterpolator.obtain(cp1.x / scale, cp1.y / scale, cp2.x / scale, cp2.y / scale);
+  }
+
   private static <T> Keyframe<T> parseStaticValue(JsonReader reader,
       float scale, ValueParser<T> valueParser) throws IOException {
     T value = valueParser.parse(reader, scale);
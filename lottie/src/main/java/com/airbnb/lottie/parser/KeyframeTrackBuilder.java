@@ -0,0 +1,170 @@
+package com.airbnb.lottie.parser;
+
+import android.view.animation.Interpolator;
+
+import androidx.annotation.Nullable;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.animation.keyframe.FloatKeyframeTrack;
+import com.airbnb.lottie.animation.keyframe.IntegerKeyframeTrack;
+import com.airbnb.lottie.animation.keyframe.KeyframeTrack;
+
+import java.util.Arrays;
+
+/**
+ * Collects parsed keyframes of a primitive property straight into the arrays of its track.
+ */
+abstract class KeyframeTrackBuilder<T, R extends KeyframeTrack<T>> {
+  int size;
+  private float[] startFrames = new float[4];
+  private float[] endFrames = new float[4];
+  private Interpolator[] interpolators = new Interpolator[4];
+  @Nullable private byte[] missingValues;
+  private boolean isStatic;
+
+  static KeyframeTrackBuilder<Float, FloatKeyframeTrack> floats() {
+    return new KeyframeTrackBuilder<Float, FloatKeyframeTrack>() {
+      private float[] values = new float[8];
+
+      @Override void setValue(int index, Float value) {
+        values[index] = value;
+      }
+
+      @Override void copyValue(int from, int to) {
+        values[to] = values[from];
+      }
+
+      @Override void grow(int capacity) {
+        values = Arrays.copyOf(values, 2 * capacity);
+      }
+
+      @Override FloatKeyframeTrack build(@Nullable LottieComposition composition, float[] startFrames,
+          float[] endFrames, Interpolator[] interpolators, @Nullable byte[] missingValues) {
+        return new FloatKeyframeTrack(composition, startFrames, endFrames, interpolators,
+            Arrays.copyOf(values, 2 * size), missingValues);
+      }
+    };
+  }
+
+  static KeyframeTrackBuilder<Integer, IntegerKeyframeTrack> integers() {
+    return new KeyframeTrackBuilder<Integer, IntegerKeyframeTrack>() {
+      private int[] values = new int[8];
+
+      @Override void setValue(int index, Integer value) {
+        values[index] = value;
+      }
+
+      @Override void copyValue(int from, int to) {
+        values[to] = values[from];
+      }
+
+      @Override void grow(int capacity) {
+        values = Arrays.copyOf(values, 2 * capacity);
+      }
+
+      @Override IntegerKeyframeTrack build(@Nullable LottieComposition composition, float[] startFrames,
+          float[] endFrames, Interpolator[] interpolators, @Nullable byte[] missingValues) {
+        return new IntegerKeyframeTrack(composition, startFrames, endFrames, interpolators,
+            Arrays.copyOf(values, 2 * size), missingValues);
+      }
+    };
+  }
+
+  /** The value at 2i is the start value of keyframe i and the value at 2i + 1 is its end value. */
+  abstract void setValue(int index, T value);
+
+  abstract void copyValue(int from, int to);
+
+  /** Makes room for the values of this many keyframes. */
+  abstract void grow(int capacity);
+
+  abstract R build(@Nullable LottieComposition composition, float[] startFrames, float[] endFrames,
+      Interpolator[] interpolators, @Nullable byte[] missingValues);
+
+  /**
+   * Adds a value that doesn't change for the whole composition.
+   */
+  void addStatic(@Nullable T value) {
+    addStatic(value, Float.MAX_VALUE, value);
+  }
+
+  void addStatic(@Nullable T startValue, float endFrame, @Nullable T endValue) {
+    isStatic = true;
+    add(Float.MIN_VALUE, endFrame, null, startValue, endValue);
+  }
+
+  /**
+   * @param endFrame {@link Float#NaN} if the keyframe doesn't have an end frame.
+   */
+  void add(float startFrame, float endFrame, @Nullable Interpolator interpolator, @Nullable T startValue,
+      @Nullable T endValue) {
+    if (size == startFrames.length) {
+      int capacity = 2 * size;
+      startFrames = Arrays.copyOf(startFrames, capacity);
+      endFrames = Arrays.copyOf(endFrames, capacity);
+      interpolators = Arrays.copyOf(interpolators, capacity);
+      if (missingValues != null) {
+        missingValues = Arrays.copyOf(missingValues, capacity);
+      }
+      grow(capacity);
+    }
+    startFrames[size] = startFrame;
+    endFrames[size] = endFrame;
+    interpolators[size] = interpolator;
+    if (startValue == null) {
+      setMissing(size, KeyframeTrack.MISSING_START_VALUE);
+    } else {
+      setValue(2 * size, startValue);
+    }
+    if (endValue == null) {
+      setMissing(size, KeyframeTrack.MISSING_END_VALUE);
+    } else {
+      setValue(2 * size + 1, endValue);
+    }
+    size++;
+  }
+
+  /**
+   * The same as {@link KeyframesParser#setEndFrames(java.util.List)} for the keyframes that have been added.
+   */
+  void setEndFrames() {
+    for (int i = 0; i < size - 1; i++) {
+      endFrames[i] = startFrames[i + 1];
+      if (isMissing(i, KeyframeTrack.MISSING_END_VALUE) && !isMissing(i + 1, KeyframeTrack.MISSING_START_VALUE)) {
+        copyValue(2 * (i + 1), 2 * i + 1);
+        //noinspection ConstantConditions
+        missingValues[i] &= ~KeyframeTrack.MISSING_END_VALUE;
+      }
+    }
+    if (size > 1 && (isMissing(size - 1, KeyframeTrack.MISSING_START_VALUE) ||
+        isMissing(size - 1, KeyframeTrack.MISSING_END_VALUE))) {
+      // The only purpose the last keyframe has is to provide the end frame of the previous keyframe.
+      size--;
+    }
+  }
+
+  R build(LottieComposition composition) {
+    byte[] missingValues = null;
+    if (this.missingValues != null) {
+      for (int i = 0; i < size; i++) {
+        if (this.missingValues[i] != 0) {
+          missingValues = Arrays.copyOf(this.missingValues, size);
+          break;
+        }
+      }
+    }
+    return build(isStatic ? null : composition, Arrays.copyOf(startFrames, size), Arrays.copyOf(endFrames, size),
+        Arrays.copyOf(interpolators, size), missingValues);
+  }
+
+  private boolean isMissing(int index, int flag) {
+    return missingValues != null && (missingValues[index] & flag) != 0;
+  }
+
+  private void setMissing(int index, int flag) {
+    if (missingValues == null) {
+      missingValues = new byte[startFrames.length];
+    }
+    missingValues[index] |= flag;
+  }
+}
@@ -4,6 +4,7 @@ import android.util.JsonReader;
 import android.util.JsonToken;
 
 import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.animation.keyframe.KeyframeTrack;
 import com.airbnb.lottie.animation.keyframe.PathKeyframe;
 import com.airbnb.lottie.value.Keyframe;
 
@@ -55,6 +56,46 @@ class KeyframesParser {
     return keyframes;
   }
 
+  /**
+   * Parses the keyframes of a float, integer or color property straight into a packed track.
+   */
+  static <T, R extends KeyframeTrack<T>> R parseTrack(JsonReader reader, LottieComposition composition,
+      float scale, ValueParser<T> valueParser, KeyframeTrackBuilder<T, R> track) throws IOException {
+    if (reader.peek() == JsonToken.STRING) {
+      composition.addWarning("Lottie doesn't support expressions.");
+      return track.build(composition);
+    }
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "k":
+          if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+
+            if (reader.peek() == JsonToken.NUMBER) {
+              // For properties in which the static value is an array of numbers.
+              KeyframeParser.parse(reader, scale, valueParser, false, track);
+            } else {
+              while (reader.hasNext()) {
+                KeyframeParser.parse(reader, scale, valueParser, true, track);
+              }
+            }
+            reader.endArray();
+          } else {
+            KeyframeParser.parse(reader, scale, valueParser, false, track);
+          }
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    track.setEndFrames();
+    return track.build(composition);
+  }
+
   /**
    * The json doesn't include end frames. The data can be taken from the start frame of the next
    * keyframe though.
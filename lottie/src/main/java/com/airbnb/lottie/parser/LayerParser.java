@@ -113,6 +113,8 @@ public class LayerParser {
         case "shapes":
           reader.beginArray();
           while (reader.hasNext()) {
+            // Shape layers can be large enough that it is worth stopping part way through one.
+            Utils.throwIfInterrupted();
             ContentModel shape = ContentModelParser.parse(reader, composition);
             if (shape != null) {
               shapes.add(shape);
@@ -0,0 +1,59 @@
+package com.airbnb.lottie.parser;
+
+import androidx.annotation.Nullable;
+import android.util.JsonReader;
+
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.model.layer.Layer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A precomp whose layers are left as raw json until they are needed for the first time.
+ */
+public class LazyPrecomp {
+  @Nullable private ByteBuffer json;
+  @Nullable private List<Layer> layers;
+
+  LazyPrecomp(ByteBuffer json) {
+    this.json = json;
+  }
+
+  /**
+   * Returns the layers if they have already been parsed.
+   */
+  @Nullable
+  public synchronized List<Layer> getLoadedLayers() {
+    return layers;
+  }
+
+  /**
+   * Parses the layers if they haven't been already. Returns null if the current thread was
+   * interrupted while they were being parsed. They will be parsed again the next time that they
+   * are needed.
+   */
+  @Nullable
+  public synchronized List<Layer> getLayers(LottieComposition composition) {
+    if (layers == null) {
+      //noinspection ConstantConditions
+      JsonReader reader = new JsonReader(new ByteBufferReader(json.duplicate()));
+      try {
+        layers = LottieCompositionParser.parsePrecompLayers(reader, composition);
+      } catch (InterruptedIOException e) {
+        // Keep the json so that the next call can try again.
+        return null;
+      } catch (IOException | RuntimeException e) {
+        // The precomp is parsed while it is drawn so a malformed one must not crash the app.
+        composition.addWarning("Unable to parse precomp. " + e.getMessage());
+        layers = Collections.emptyList();
+      }
+      // The layers will never be parsed again so the json can be released.
+      json = null;
+    }
+    return layers;
+  }
+}
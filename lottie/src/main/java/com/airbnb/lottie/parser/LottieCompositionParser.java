@@ -1,6 +1,9 @@
 package com.airbnb.lottie.parser;
 
 import android.graphics.Rect;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 import androidx.collection.LongSparseArray;
 import androidx.collection.SparseArrayCompat;
 import android.util.JsonReader;
@@ -15,16 +18,121 @@ import com.airbnb.lottie.model.layer.Layer;
 import com.airbnb.lottie.utils.Utils;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LottieCompositionParser {
+  private static final byte[] ASSETS_KEY = {'a', 's', 's', 'e', 't', 's'};
+
+  private static volatile boolean parallelParsingEnabled = false;
+  private static volatile boolean lazyPrecompsEnabled = false;
+  @Nullable private static ExecutorService parseExecutor;
 
   private LottieCompositionParser() {}
 
+  /**
+   * When enabled, json that is entirely in memory will have each of its assets parsed on a
+   * background thread pool while the rest of the composition is parsed on the calling thread.
+   * This is most effective for animations that are made up of many large precomps.
+   */
+  public static void setParallelParsingEnabled(boolean enabled) {
+    parallelParsingEnabled = enabled;
+  }
+
+  public static boolean isParallelParsingEnabled() {
+    return parallelParsingEnabled;
+  }
+
+  /**
+   * When enabled, json that is entirely in memory will only record where each precomp is and
+   * skip over its layers. They will be parsed the first time they are needed.
+   */
+  public static void setLazyPrecompsEnabled(boolean enabled) {
+    lazyPrecompsEnabled = enabled;
+  }
+
+  public static boolean isLazyPrecompsEnabled() {
+    return lazyPrecompsEnabled;
+  }
+
   public static LottieComposition parse(JsonReader reader) throws IOException {
+    return parse(reader, new LottieComposition(), null);
+  }
+
+  /**
+   * Parses UTF-8 json that is entirely in memory such as a memory mapped file.
+   *
+   * @see #setParallelParsingEnabled(boolean)
+   * @see #setLazyPrecompsEnabled(boolean)
+   */
+  public static LottieComposition parse(ByteBuffer json) throws IOException {
+    final boolean lazy = lazyPrecompsEnabled;
+    if (!parallelParsingEnabled && !lazy) {
+      return parse(new JsonReader(new ByteBufferReader(json)));
+    }
+    int[] assetRanges = findAssetRanges(json);
+    if (assetRanges == null || (!lazy && assetRanges.length < 4)) {
+      // There is nothing to gain from parallelizing a single asset.
+      return parse(new JsonReader(new ByteBufferReader(json)));
+    }
+
+    final LottieComposition composition = new LottieComposition();
+    List<Future<Assets>> assets = new ArrayList<>(assetRanges.length / 2);
+    // Skipping over the layers of a lazy precomp is cheap enough to do on this thread.
+    ExecutorService executor = lazy ? null : parseExecutor();
+    for (int i = 0; i < assetRanges.length; i += 2) {
+      final ByteBuffer asset = json.duplicate();
+      asset.limit(assetRanges[i + 1]);
+      asset.position(assetRanges[i]);
+      Callable<Assets> parseAsset = new Callable<Assets>() {
+        @Override public Assets call() throws IOException {
+          Assets parsedAsset = new Assets();
+          ByteBuffer lazyJson = lazy ? asset.duplicate() : null;
+          parseAsset(new JsonReader(new ByteBufferReader(asset)), composition, parsedAsset,
+              lazyJson);
+          return parsedAsset;
+        }
+      };
+      if (executor == null) {
+        FutureTask<Assets> task = new FutureTask<>(parseAsset);
+        task.run();
+        assets.add(task);
+      } else {
+        assets.add(executor.submit(parseAsset));
+      }
+    }
+
+    try {
+      return parse(new JsonReader(new ByteBufferReader(json)), composition, assets);
+    } finally {
+      // Only has an effect if parsing failed.
+      for (int i = 0; i < assets.size(); i++) {
+        assets.get(i).cancel(true);
+      }
+    }
+  }
+
+  /**
+   * @param parsedAssets If not null, the assets array will be skipped and these will be used
+   *                     instead.
+   */
+  private static LottieComposition parse(JsonReader reader, LottieComposition composition,
+      @Nullable List<Future<Assets>> parsedAssets) throws IOException {
     float scale = Utils.dpScale();
     float startFrame = 0f;
     float endFrame = 0f;
@@ -33,16 +141,14 @@ public class LottieCompositionParser {
     final List<Layer> layers = new ArrayList<>();
     int width = 0;
     int height = 0;
-    Map<String, List<Layer>> precomps = new HashMap<>();
-    Map<String, LottieImageAsset> images = new HashMap<>();
+    Assets assets = new Assets();
     Map<String, Font> fonts = new HashMap<>();
     List<Marker> markers = new ArrayList<>();
     SparseArrayCompat<FontCharacter> characters = new SparseArrayCompat<>();
 
-    LottieComposition composition = new LottieComposition();
-
     reader.beginObject();
     while (reader.hasNext()) {
+      Utils.throwIfInterrupted();
       switch (reader.nextName()) {
         case "w":
           width = reader.nextInt();
@@ -74,7 +180,11 @@ public class LottieCompositionParser {
           parseLayers(reader, composition, layers, layerMap);
           break;
         case "assets":
-          parseAssets(reader, composition, precomps, images);
+          if (parsedAssets == null) {
+            parseAssets(reader, composition, assets);
+          } else {
+            reader.skipValue();
+          }
           break;
         case "fonts":
           parseFonts(reader, fonts);
@@ -91,12 +201,31 @@ public class LottieCompositionParser {
     }
     reader.endObject();
 
+    if (parsedAssets != null) {
+      for (int i = 0; i < parsedAssets.size(); i++) {
+        Assets parsedAsset = getParsedAsset(parsedAssets.get(i));
+        // Put entries one at a time. putAll would presize the map and change its iteration order.
+        for (Map.Entry<String, List<Layer>> entry : parsedAsset.precomps.entrySet()) {
+          assets.precomps.put(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, LottieImageAsset> entry : parsedAsset.images.entrySet()) {
+          assets.images.put(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, LazyPrecomp> entry : parsedAsset.lazyPrecomps.entrySet()) {
+          assets.lazyPrecomps.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+
     int scaledWidth = (int) (width * scale);
     int scaledHeight = (int) (height * scale);
     Rect bounds = new Rect(0, 0, scaledWidth, scaledHeight);
 
-    composition.init(bounds, startFrame, endFrame, frameRate, layers, layerMap, precomps,
-        images, characters, fonts, markers);
+    composition.init(bounds, startFrame, endFrame, frameRate, layers, layerMap, assets.precomps,
+        assets.images, characters, fonts, markers);
+    if (!assets.lazyPrecomps.isEmpty()) {
+      composition.setLazyPrecomps(assets.lazyPrecomps);
+    }
 
     return composition;
   }
@@ -106,6 +235,7 @@ public class LottieCompositionParser {
     int imageCount = 0;
     reader.beginArray();
     while (reader.hasNext()) {
+      Utils.throwIfInterrupted();
       Layer layer = LayerParser.parse(reader, composition);
       if (layer.getLayerType() == Layer.LayerType.Image) {
         imageCount++;
@@ -123,61 +253,262 @@ public class LottieCompositionParser {
   }
 
   private static void parseAssets(JsonReader reader, LottieComposition composition,
-      Map<String, List<Layer>> precomps, Map<String, LottieImageAsset> images) throws IOException {
+      Assets assets) throws IOException {
     reader.beginArray();
     while (reader.hasNext()) {
-      String id = null;
-      // For precomps
-      List<Layer> layers = new ArrayList<>();
-      LongSparseArray<Layer> layerMap = new LongSparseArray<>();
-      // For images
-      int width = 0;
-      int height = 0;
-      String imageFileName = null;
-      String relativeFolder = null;
-      reader.beginObject();
-      while (reader.hasNext()) {
-        switch (reader.nextName()) {
-          case "id":
-            id = reader.nextString();
-            break;
-          case "layers":
-            reader.beginArray();
-            while (reader.hasNext()) {
-              Layer layer = LayerParser.parse(reader, composition);
-              layerMap.put(layer.getId(), layer);
-              layers.add(layer);
-            }
-            reader.endArray();
-            break;
-          case "w":
-            width = reader.nextInt();
-            break;
-          case "h":
-            height = reader.nextInt();
-            break;
-          case "p":
-            imageFileName = reader.nextString();
-            break;
-          case "u":
-            relativeFolder = reader.nextString();
-            break;
-          default:
+      Utils.throwIfInterrupted();
+      parseAsset(reader, composition, assets, null);
+    }
+    reader.endArray();
+  }
+
+  /**
+   * @param lazyJson If not null, the layers of a precomp will be skipped and parsed from this
+   *                 json when they are first needed.
+   */
+  private static void parseAsset(JsonReader reader, LottieComposition composition,
+      Assets assets, @Nullable ByteBuffer lazyJson) throws IOException {
+    String id = null;
+    // For precomps
+    List<Layer> layers = new ArrayList<>();
+    LongSparseArray<Layer> layerMap = new LongSparseArray<>();
+    // For images
+    int width = 0;
+    int height = 0;
+    String imageFileName = null;
+    String relativeFolder = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "id":
+          id = reader.nextString();
+          break;
+        case "layers":
+          if (lazyJson == null) {
+            parsePrecompLayers(reader, composition, layers, layerMap);
+          } else {
             reader.skipValue();
-        }
+          }
+          break;
+        case "w":
+          width = reader.nextInt();
+          break;
+        case "h":
+          height = reader.nextInt();
+          break;
+        case "p":
+          imageFileName = reader.nextString();
+          break;
+        case "u":
+          relativeFolder = reader.nextString();
+          break;
+        default:
+          reader.skipValue();
       }
-      reader.endObject();
-      if (imageFileName != null) {
-        LottieImageAsset image =
-            new LottieImageAsset(width, height, id, imageFileName, relativeFolder);
-        images.put(image.getId(), image);
-      } else {
-        precomps.put(id, layers);
+    }
+    reader.endObject();
+    if (imageFileName != null) {
+      LottieImageAsset image =
+          new LottieImageAsset(width, height, id, imageFileName, relativeFolder);
+      assets.images.put(image.getId(), image);
+    } else if (lazyJson != null) {
+      assets.lazyPrecomps.put(id, new LazyPrecomp(lazyJson));
+    } else {
+      assets.precomps.put(id, layers);
+    }
+  }
+
+  /**
+   * Parses the layers of a single precomp asset and ignores everything else.
+   */
+  static List<Layer> parsePrecompLayers(JsonReader reader, LottieComposition composition)
+      throws IOException {
+    List<Layer> layers = new ArrayList<>();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "layers":
+          parsePrecompLayers(reader, composition, layers, new LongSparseArray<Layer>());
+          break;
+        default:
+          reader.skipValue();
       }
     }
+    reader.endObject();
+    return layers;
+  }
+
+  private static void parsePrecompLayers(JsonReader reader, LottieComposition composition,
+      List<Layer> layers, LongSparseArray<Layer> layerMap) throws IOException {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      Utils.throwIfInterrupted();
+      Layer layer = LayerParser.parse(reader, composition);
+      layerMap.put(layer.getId(), layer);
+      layers.add(layer);
+    }
     reader.endArray();
   }
 
+  private static Assets getParsedAsset(Future<Assets> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while parsing assets.");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Unable to parse asset.", cause);
+    }
+  }
+
+  /**
+   * Scans the raw json for the top level assets array without tokenizing it.
+   *
+   * @return Pairs of [start, end) byte offsets for each object in the assets array or null if
+   *         there isn't one.
+   */
+  @Nullable static int[] findAssetRanges(ByteBuffer json) {
+    int limit = json.limit();
+    int depth = 0;
+    boolean inString = false;
+    int stringStart = -1;
+    int i = json.position();
+    while (i < limit) {
+      byte b = json.get(i);
+      if (inString) {
+        if (b == '\\') {
+          i++;
+        } else if (b == '"') {
+          inString = false;
+          if (depth == 1 && isAssetsKey(json, stringStart, i, limit)) {
+            return findArrayObjectRanges(json, i + 1, limit);
+          }
+        }
+      } else if (b == '"') {
+        inString = true;
+        stringStart = i + 1;
+      } else if (b == '{' || b == '[') {
+        depth++;
+      } else if (b == '}' || b == ']') {
+        depth--;
+      }
+      i++;
+    }
+    return null;
+  }
+
+  private static boolean isAssetsKey(ByteBuffer json, int start, int end, int limit) {
+    if (end - start != ASSETS_KEY.length) {
+      return false;
+    }
+    for (int i = 0; i < ASSETS_KEY.length; i++) {
+      if (json.get(start + i) != ASSETS_KEY[i]) {
+        return false;
+      }
+    }
+    // Values are followed by a comma or closing brace. Only keys are followed by a colon.
+    int i = end + 1;
+    while (i < limit && isWhitespace(json.get(i))) {
+      i++;
+    }
+    return i < limit && json.get(i) == ':';
+  }
+
+  @Nullable private static int[] findArrayObjectRanges(ByteBuffer json, int start, int limit) {
+    int i = start;
+    while (i < limit && (isWhitespace(json.get(i)) || json.get(i) == ':')) {
+      i++;
+    }
+    if (i >= limit || json.get(i) != '[') {
+      return null;
+    }
+    i++;
+
+    int[] ranges = new int[16];
+    int count = 0;
+    int depth = 0;
+    int objectStart = -1;
+    boolean inString = false;
+    while (i < limit) {
+      byte b = json.get(i);
+      if (inString) {
+        if (b == '\\') {
+          i++;
+        } else if (b == '"') {
+          inString = false;
+        }
+      } else if (b == '"') {
+        inString = true;
+      } else if (b == '{' || b == '[') {
+        if (depth == 0) {
+          objectStart = i;
+        }
+        depth++;
+      } else if (b == '}' || b == ']') {
+        if (depth == 0) {
+          // The end of the assets array.
+          int[] result = new int[count];
+          System.arraycopy(ranges, 0, result, 0, count);
+          return result;
+        }
+        depth--;
+        if (depth == 0) {
+          if (count == ranges.length) {
+            int[] newRanges = new int[ranges.length * 2];
+            System.arraycopy(ranges, 0, newRanges, 0, count);
+            ranges = newRanges;
+          }
+          ranges[count++] = objectStart;
+          ranges[count++] = i + 1;
+        }
+      }
+      i++;
+    }
+    // The array was never closed. Let the json parser report the error.
+    return null;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  /**
+   * The pool that assets are parsed on in parallel. Zip images are decoded on it too. It is separate from the
+   * {@link com.airbnb.lottie.LottieTask#EXECUTOR} so that a load never waits for work that is queued behind itself.
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static synchronized ExecutorService parseExecutor() {
+    if (parseExecutor == null) {
+      int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override public Thread newThread(@NonNull Runnable runnable) {
+              Thread thread = new Thread(runnable, "LottieParser-" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      executor.allowCoreThreadTimeOut(true);
+      parseExecutor = executor;
+    }
+    return parseExecutor;
+  }
+
+  private static class Assets {
+    final Map<String, List<Layer>> precomps = new HashMap<>();
+    final Map<String, LottieImageAsset> images = new HashMap<>();
+    // Kept in the order of the json so that loading them all builds the same map as precomps.
+    final Map<String, LazyPrecomp> lazyPrecomps = new LinkedHashMap<>();
+  }
+
   private static void parseFonts(JsonReader reader, Map<String, Font> fonts) throws IOException {
     reader.beginObject();
     while (reader.hasNext()) {
@@ -0,0 +1,152 @@
+package com.airbnb.lottie.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.airbnb.lottie.manager.BitmapPool;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes image assets at the lowest resolution that still looks right at the size they are drawn at.
+ * Images without transparency are decoded as {@link Bitmap.Config#RGB_565} which halves their memory.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class BitmapDecoder {
+  /**
+   * How far into a png to look for a transparency chunk. It comes after the header and palette and before the
+   * image data so this is plenty for any real image.
+   */
+  private static final int HEADER_LIMIT = 16 * 1024;
+  /** How far into an image to read its size. Jpegs can have large metadata before their size. */
+  private static final int BOUNDS_LIMIT = 256 * 1024;
+  private static final long PNG_SIGNATURE = 0x89504E470D0A1A0AL;
+  private static final int PNG_IHDR = 0x49484452;
+  private static final int PNG_TRNS = 0x74524E53;
+  private static final int PNG_IDAT = 0x49444154;
+
+  private BitmapDecoder() {
+  }
+
+  /**
+   * The largest power of two sample size that still has at least one bitmap pixel per drawn pixel.
+   *
+   * @param scale how many pixels each pixel of the full size image covers when it is drawn.
+   */
+  public static int sampleSizeFor(float scale) {
+    int sampleSize = 1;
+    while (scale * sampleSize * 2 <= 1f && sampleSize < 64) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+
+  /**
+   * Decodes an image at 1/sampleSize of its full size. The stream is not closed.
+   */
+  @Nullable
+  public static Bitmap decode(InputStream stream, int sampleSize) throws IOException {
+    return decode(stream, sampleSize, null);
+  }
+
+  /**
+   * Decodes an image at 1/sampleSize of its full size into a bitmap from the pool that isn't in use if there is
+   * one that fits. The stream is not closed.
+   *
+   * @throws IllegalArgumentException if the image couldn't be decoded into the reused bitmap. The stream has
+   *                                  been read by then so decode it again from a new stream without a pool.
+   */
+  @Nullable
+  public static Bitmap decode(InputStream stream, int sampleSize, @Nullable BitmapPool pool) throws IOException {
+    if (!stream.markSupported()) {
+      stream = new BufferedInputStream(stream);
+    }
+    BitmapFactory.Options opts = new BitmapFactory.Options();
+    opts.inScaled = true;
+    opts.inDensity = 160;
+    opts.inSampleSize = sampleSize;
+    opts.inPreferredConfig = isOpaque(stream) ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+    if (pool != null) {
+      // Only mutable bitmaps can be decoded into later.
+      opts.inMutable = true;
+      opts.inBitmap = reusableBitmap(stream, opts, pool);
+    }
+    return BitmapFactory.decodeStream(stream, null, opts);
+  }
+
+  @Nullable
+  private static Bitmap reusableBitmap(InputStream stream, BitmapFactory.Options opts, BitmapPool pool)
+      throws IOException {
+    // Before KitKat, only images that aren't sampled can be decoded into an existing bitmap.
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT && opts.inSampleSize > 1) {
+      return null;
+    }
+    opts.inJustDecodeBounds = true;
+    stream.mark(BOUNDS_LIMIT);
+    BitmapFactory.decodeStream(stream, null, opts);
+    stream.reset();
+    opts.inJustDecodeBounds = false;
+    if (opts.outWidth <= 0 || opts.outHeight <= 0) {
+      return null;
+    }
+    int width = (opts.outWidth + opts.inSampleSize - 1) / opts.inSampleSize;
+    int height = (opts.outHeight + opts.inSampleSize - 1) / opts.inSampleSize;
+    return pool.getReusable(width, height, opts.inPreferredConfig);
+  }
+
+  /**
+   * Whether the image is a jpeg or a png without an alpha channel or transparent color. The stream is reset to
+   * where it was.
+   */
+  private static boolean isOpaque(InputStream stream) throws IOException {
+    stream.mark(HEADER_LIMIT);
+    try {
+      DataInputStream data = new DataInputStream(stream);
+      long signature = data.readLong();
+      if (signature >>> 48 == 0xFFD8) {
+        // Jpegs can't be transparent.
+        return true;
+      }
+      if (signature != PNG_SIGNATURE) {
+        return false;
+      }
+      boolean opaque = false;
+      int read = 8;
+      while (read + 8 <= HEADER_LIMIT) {
+        int length = data.readInt();
+        int type = data.readInt();
+        read += 8;
+        if (type == PNG_IHDR && length >= 10) {
+          data.skipBytes(9);
+          int colorType = data.readUnsignedByte();
+          // Grayscale, truecolor, and palette images only have transparency if they have a tRNS chunk.
+          opaque = colorType == 0 || colorType == 2 || colorType == 3;
+          data.skipBytes(length - 10);
+        } else if (type == PNG_TRNS) {
+          return false;
+        } else if (type == PNG_IDAT) {
+          return opaque;
+        } else if (read + length + 4 > HEADER_LIMIT) {
+          return false;
+        } else {
+          data.skipBytes(length);
+        }
+        // Skip the crc.
+        data.skipBytes(4);
+        read += length + 4;
+      }
+      return false;
+    } catch (IOException e) {
+      return false;
+    } finally {
+      stream.reset();
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package com.airbnb.lottie.utils;
+
+import android.view.animation.Interpolator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cubic bezier easing from (0, 0) to (1, 1) that retains its control points so keyframes can be
+ * written back out without losing their easing.
+ *
+ * The curve is solved directly instead of being approximated with a path. A table of samples gives a first guess
+ * for the curve parameter at an input, which is refined with Newton-Raphson iterations or with bisection where
+ * the curve is too flat for them to converge. Nothing is allocated per call.
+ */
+public class CubicBezierInterpolator implements Interpolator {
+  private static final int NEWTON_ITERATIONS = 4;
+  private static final float NEWTON_MIN_SLOPE = 0.001f;
+  private static final float BISECTION_PRECISION = 0.0000001f;
+  private static final int BISECTION_MAX_ITERATIONS = 10;
+  private static final int SAMPLE_COUNT = 11;
+  private static final float SAMPLE_STEP = 1f / (SAMPLE_COUNT - 1);
+
+  /**
+   * Interned interpolators in an open addressed table whose size is a power of two. Lookups and inserts never
+   * lock. An interpolator that is added while the table grows may be left out of the larger table which only
+   * means that a later lookup creates an equal one.
+   */
+  private static final AtomicReference<AtomicReferenceArray<CubicBezierInterpolator>> interned =
+      new AtomicReference<>(new AtomicReferenceArray<CubicBezierInterpolator>(64));
+  private static final AtomicInteger internedCount = new AtomicInteger();
+
+  private final float x1;
+  private final float y1;
+  private final float x2;
+  private final float y2;
+  private final boolean isLinear;
+  // The polynomial coefficients of x(t) = ((ax * t + bx) * t + cx) * t and the same for y.
+  private final float ax;
+  private final float bx;
+  private final float cx;
+  private final float ay;
+  private final float by;
+  private final float cy;
+  /** x at evenly spaced values of t. */
+  private final float[] samples = new float[SAMPLE_COUNT];
+
+  /**
+   * Returns an interpolator with these control points. Interpolators are shared by every keyframe with the same
+   * easing.
+   */
+  public static CubicBezierInterpolator obtain(float x1, float y1, float x2, float y2) {
+    int hash = hashFor(x1, y1, x2, y2);
+    while (true) {
+      AtomicReferenceArray<CubicBezierInterpolator> table = interned.get();
+      int mask = table.length() - 1;
+      int index = hash & mask;
+      for (int probes = 0; probes <= mask; probes++) {
+        CubicBezierInterpolator interpolator = table.get(index);
+        if (interpolator == null) {
+          interpolator = new CubicBezierInterpolator(x1, y1, x2, y2);
+          if (table.compareAndSet(index, null, interpolator)) {
+            if (2 * internedCount.incrementAndGet() > table.length()) {
+              grow(table);
+            }
+            return interpolator;
+          }
+          // Another thread added one first.
+          interpolator = table.get(index);
+        }
+        if (interpolator.isFor(x1, y1, x2, y2)) {
+          return interpolator;
+        }
+        index = (index + 1) & mask;
+      }
+      grow(table);
+    }
+  }
+
+  public CubicBezierInterpolator(float x1, float y1, float x2, float y2) {
+    this.x1 = x1;
+    this.y1 = y1;
+    this.x2 = x2;
+    this.y2 = y2;
+    isLinear = x1 == y1 && x2 == y2;
+    cx = 3f * x1;
+    bx = 3f * (x2 - x1) - cx;
+    ax = 1f - cx - bx;
+    cy = 3f * y1;
+    by = 3f * (y2 - y1) - cy;
+    ay = 1f - cy - by;
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      samples[i] = x(i * SAMPLE_STEP);
+    }
+  }
+
+  public float getX1() {
+    return x1;
+  }
+
+  public float getY1() {
+    return y1;
+  }
+
+  public float getX2() {
+    return x2;
+  }
+
+  public float getY2() {
+    return y2;
+  }
+
+  public boolean hasControlPoints(float x1, float y1, float x2, float y2) {
+    return this.x1 == x1 && this.y1 == y1 && this.x2 == x2 && this.y2 == y2;
+  }
+
+  @Override public float getInterpolation(float input) {
+    if (input <= 0f) {
+      return 0f;
+    }
+    if (input >= 1f) {
+      return 1f;
+    }
+    if (isLinear) {
+      return input;
+    }
+    return y(tForX(input));
+  }
+
+  private float tForX(float x) {
+    int sample = 1;
+    while (sample < SAMPLE_COUNT - 1 && samples[sample] <= x) {
+      sample++;
+    }
+    sample--;
+    float intervalStart = sample * SAMPLE_STEP;
+    float sampleDelta = samples[sample + 1] - samples[sample];
+    float guess = intervalStart;
+    if (sampleDelta != 0f) {
+      guess += (x - samples[sample]) / sampleDelta * SAMPLE_STEP;
+    }
+
+    float slope = slopeX(guess);
+    if (slope >= NEWTON_MIN_SLOPE) {
+      for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+        slope = slopeX(guess);
+        if (slope == 0f) {
+          break;
+        }
+        guess -= (x(guess) - x) / slope;
+      }
+      return guess;
+    } else if (slope == 0f) {
+      return guess;
+    }
+
+    float low = intervalStart;
+    float high = intervalStart + SAMPLE_STEP;
+    float t = guess;
+    for (int i = 0; i < BISECTION_MAX_ITERATIONS; i++) {
+      t = low + (high - low) / 2f;
+      float error = x(t) - x;
+      if (Math.abs(error) <= BISECTION_PRECISION) {
+        break;
+      }
+      if (error > 0f) {
+        high = t;
+      } else {
+        low = t;
+      }
+    }
+    return t;
+  }
+
+  private float x(float t) {
+    return ((ax * t + bx) * t + cx) * t;
+  }
+
+  private float y(float t) {
+    return ((ay * t + by) * t + cy) * t;
+  }
+
+  private float slopeX(float t) {
+    return (3f * ax * t + 2f * bx) * t + cx;
+  }
+
+  /**
+   * Like {@link #hasControlPoints(float, float, float, float)} but NaN matches itself so it is only interned once.
+   */
+  private boolean isFor(float x1, float y1, float x2, float y2) {
+    return Float.floatToIntBits(this.x1) == Float.floatToIntBits(x1) &&
+        Float.floatToIntBits(this.y1) == Float.floatToIntBits(y1) &&
+        Float.floatToIntBits(this.x2) == Float.floatToIntBits(x2) &&
+        Float.floatToIntBits(this.y2) == Float.floatToIntBits(y2);
+  }
+
+  private static int hashFor(float x1, float y1, float x2, float y2) {
+    int hash = Float.floatToIntBits(x1);
+    hash = 31 * hash + Float.floatToIntBits(y1);
+    hash = 31 * hash + Float.floatToIntBits(x2);
+    hash = 31 * hash + Float.floatToIntBits(y2);
+    // Spread the high bits into the low bits that index the table.
+    return hash ^ (hash >>> 16);
+  }
+
+  private static void grow(AtomicReferenceArray<CubicBezierInterpolator> table) {
+    AtomicReferenceArray<CubicBezierInterpolator> larger = new AtomicReferenceArray<>(2 * table.length());
+    int mask = larger.length() - 1;
+    int count = 0;
+    for (int i = 0; i < table.length(); i++) {
+      CubicBezierInterpolator interpolator = table.get(i);
+      if (interpolator == null) {
+        continue;
+      }
+      int index = hashFor(interpolator.x1, interpolator.y1, interpolator.x2, interpolator.y2) & mask;
+      while (larger.get(index) != null) {
+        index = (index + 1) & mask;
+      }
+      larger.set(index, interpolator);
+      count++;
+    }
+    if (interned.compareAndSet(table, larger)) {
+      internedCount.set(count);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.airbnb.lottie.utils;
+
+import android.view.animation.Interpolator;
+
+/**
+ * The easing of a hold keyframe. Its value stays at the start value until the next keyframe so animations treat
+ * it like a static keyframe and don't redraw while it is held.
+ */
+public final class HoldInterpolator implements Interpolator {
+  public static final HoldInterpolator INSTANCE = new HoldInterpolator();
+
+  private HoldInterpolator() {
+  }
+
+  @Override public float getInterpolation(float input) {
+    return 0f;
+  }
+}
@@ -19,6 +19,7 @@ import com.airbnb.lottie.animation.content.TrimPathContent;
 import com.airbnb.lottie.animation.keyframe.FloatKeyframeAnimation;
 
 import java.io.Closeable;
+import java.io.InterruptedIOException;
 
 public final class Utils {
   public static final int SECOND_IN_NANOS = 1000000000;
@@ -59,6 +60,16 @@ public final class Utils {
     }
   }
 
+  /**
+   * Loading checks this between layers, assets, and zip entries. A task that is cancelled has its
+   * thread interrupted, so this lets it stop promptly instead of loading the rest of the animation.
+   */
+  public static void throwIfInterrupted() throws InterruptedIOException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new InterruptedIOException("Loading the composition was cancelled.");
+    }
+  }
+
   public static float getScale(Matrix matrix) {
     points[0] = 0;
     points[1] = 0;
@@ -0,0 +1,240 @@
+package com.airbnb.lottie;
+
+import com.airbnb.lottie.model.LottieCompositionCache;
+import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.parser.BinaryCompositionWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryCompositionTest extends BaseTest {
+    private static final File SAMPLE_ASSETS = new File("../LottieSample/src/main/assets");
+
+    @Before
+    public void setup() {
+        LottieCompositionCache.getInstance().clear();
+    }
+
+    @Test
+    public void testRoundTripSampleAnimations() throws Exception {
+        List<File> files = new ArrayList<>();
+        findJsonFiles(SAMPLE_ASSETS, files);
+        assertTrue("No sample animations found in " + SAMPLE_ASSETS.getAbsolutePath(), !files.isEmpty());
+
+        for (File file : files) {
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            LottieResult<LottieComposition> jsonResult =
+                    LottieCompositionFactory.convertJsonToBinarySync(new FileInputStream(file), binary);
+            assertNull(file.getName(), jsonResult.getException());
+
+            LottieResult<LottieComposition> binaryResult =
+                    LottieCompositionFactory.fromBinaryStreamSync(new ByteArrayInputStream(binary.toByteArray()), null);
+            assertNull(file.getName(), binaryResult.getException());
+            assertCompositionsEqual(file.getName(), jsonResult.getValue(), binaryResult.getValue());
+
+            // Writing the loaded composition must produce exactly the same bytes.
+            ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+            BinaryCompositionWriter.write(binaryResult.getValue(), rewritten);
+            assertArrayEquals(file.getName(), binary.toByteArray(), rewritten.toByteArray());
+        }
+    }
+
+    @Test
+    public void testParallelParsingMatchesSerialParsing() throws Exception {
+        List<File> files = new ArrayList<>();
+        findJsonFiles(SAMPLE_ASSETS, files);
+        for (File file : files) {
+            ByteArrayOutputStream serial = new ByteArrayOutputStream();
+            BinaryCompositionWriter.write(LottieCompositionFactory.fromJsonFileSync(file, null).getValue(), serial);
+
+            LottieCompositionFactory.setParallelParsingEnabled(true);
+            LottieResult<LottieComposition> result;
+            try {
+                result = LottieCompositionFactory.fromJsonFileSync(file, null);
+            } finally {
+                LottieCompositionFactory.setParallelParsingEnabled(false);
+            }
+            assertNull(file.getName(), result.getException());
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            BinaryCompositionWriter.write(result.getValue(), parallel);
+            assertArrayEquals(file.getName(), serial.toByteArray(), parallel.toByteArray());
+        }
+    }
+
+    @Test
+    public void testLazyPrecompsMatchEagerParsing() throws Exception {
+        List<File> files = new ArrayList<>();
+        findJsonFiles(SAMPLE_ASSETS, files);
+        for (File file : files) {
+            LottieComposition eager = LottieCompositionFactory.fromJsonFileSync(file, null).getValue();
+
+            LottieCompositionFactory.setLazyPrecompsEnabled(true);
+            LottieResult<LottieComposition> result;
+            try {
+                result = LottieCompositionFactory.fromJsonFileSync(file, null);
+            } finally {
+                LottieCompositionFactory.setLazyPrecompsEnabled(false);
+            }
+            assertNull(file.getName(), result.getException());
+            LottieComposition lazy = result.getValue();
+            // Load every precomp so that their masks and mattes are counted.
+            Map<String, List<Layer>> lazyPrecomps = lazy.getPrecomps();
+            assertCompositionsEqual(file.getName(), eager, lazy);
+            for (Map.Entry<String, List<Layer>> entry : eager.getPrecomps().entrySet()) {
+                List<Layer> expectedLayers = entry.getValue();
+                List<Layer> actualLayers = lazyPrecomps.get(entry.getKey());
+                assertEquals(file.getName(), expectedLayers.size(), actualLayers.size());
+                for (int i = 0; i < expectedLayers.size(); i++) {
+                    assertEquals(file.getName(), expectedLayers.get(i).getName(), actualLayers.get(i).getName());
+                    assertEquals(file.getName(), expectedLayers.get(i).getShapes().size(), actualLayers.get(i).getShapes().size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLoadBinaryFile() throws Exception {
+        File binaryFile = File.createTempFile("lottie", ".bin");
+        try {
+            LottieResult<LottieComposition> jsonResult = LottieCompositionFactory.convertJsonToBinarySync(
+                    new FileInputStream(new File(SAMPLE_ASSETS, "LottieLogo1.json")), new FileOutputStream(binaryFile));
+            assertNull(jsonResult.getException());
+
+            LottieResult<LottieComposition> result = LottieCompositionFactory.fromBinaryFileSync(binaryFile);
+            assertNull(result.getException());
+            assertCompositionsEqual("LottieLogo1.json", jsonResult.getValue(), result.getValue());
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            binaryFile.delete();
+        }
+    }
+
+    @Test
+    public void testLoadMissingBinaryFile() {
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromBinaryFileSync(new File("not_a_file.bin"));
+        assertTrue(result.getException() instanceof FileNotFoundException);
+    }
+
+    @Test
+    public void testLoadJsonAsBinary() {
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromBinaryStreamSync(
+                new ByteArrayInputStream("{\"v\":\"4.11.1\"}".getBytes()), "json");
+        assertNotNull(result.getException());
+        assertNull(result.getValue());
+    }
+
+    @Test
+    public void testLoadTruncatedBinary() throws Exception {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        LottieCompositionFactory.convertJsonToBinarySync(new FileInputStream(new File(SAMPLE_ASSETS, "HamburgerArrow.json")), binary);
+        byte[] bytes = binary.toByteArray();
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromBinaryStreamSync(new ByteArrayInputStream(truncated), null);
+        assertNotNull(result.getException());
+    }
+
+    @Test
+    public void testLoadBinaryWithCorruptCount() throws Exception {
+        String json = "{\"v\":\"4.11.1\",\"fr\":60,\"ip\":0,\"op\":180,\"w\":300,\"h\":300,\"assets\":[],\"layers\":[]}";
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        LottieCompositionFactory.convertJsonToBinarySync(new ByteArrayInputStream(json.getBytes("UTF-8")), binary);
+        // The header, warnings, images, precomps and fonts come before the font character count.
+        int characterCountOffset = 53;
+        ByteBuffer bytes = ByteBuffer.wrap(binary.toByteArray());
+        assertEquals(0, bytes.getInt(characterCountOffset));
+
+        for (int count : new int[] { -2, Integer.MAX_VALUE }) {
+            bytes.putInt(characterCountOffset, count);
+            LottieResult<LottieComposition> result =
+                    LottieCompositionFactory.fromBinaryStreamSync(new ByteArrayInputStream(bytes.array()), null);
+            assertTrue(result.getException() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testEmbeddedImageRoundTrip() throws Exception {
+        String dataUri = "data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+        String json = "{\"v\":\"4.11.1\",\"fr\":60,\"ip\":0,\"op\":180,\"w\":300,\"h\":300,\"assets\":[{\"id\":\"image_0\"," +
+                "\"w\":1,\"h\":1,\"u\":\"\",\"p\":\"" + dataUri + "\"}],\"layers\":[]}";
+        File file = File.createTempFile("embedded", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        LottieCompositionFactory.convertJsonToBinarySync(new ByteArrayInputStream(json.getBytes("UTF-8")), out);
+        out.close();
+
+        // The file is memory mapped so the image data is read straight out of the mapping.
+        LottieComposition composition = LottieCompositionFactory.fromBinaryFileSync(file).getValue();
+        LottieImageAsset image = composition.getImages().get("image_0");
+        assertTrue(image.isEmbedded());
+        assertTrue(image.getEmbeddedImage().isDirect());
+        assertEquals(dataUri, image.getFileName());
+
+        ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+        BinaryCompositionWriter.write(composition, rewritten);
+        FileInputStream original = new FileInputStream(file);
+        byte[] originalBytes = new byte[(int) file.length()];
+        assertEquals(originalBytes.length, original.read(originalBytes));
+        original.close();
+        assertArrayEquals(originalBytes, rewritten.toByteArray());
+        file.delete();
+    }
+
+    private static void assertCompositionsEqual(String name, LottieComposition expected, LottieComposition actual) {
+        assertEquals(name, expected.getBounds(), actual.getBounds());
+        assertEquals(name, expected.getStartFrame(), actual.getStartFrame());
+        assertEquals(name, expected.getEndFrame(), actual.getEndFrame());
+        assertEquals(name, expected.getFrameRate(), actual.getFrameRate());
+        assertEquals(name, expected.hasDashPattern(), actual.hasDashPattern());
+        assertEquals(name, expected.getMaskAndMatteCount(), actual.getMaskAndMatteCount());
+        assertEquals(name, expected.getImages().keySet(), actual.getImages().keySet());
+        assertEquals(name, expected.getPrecomps().keySet(), actual.getPrecomps().keySet());
+        assertEquals(name, expected.getFonts().keySet(), actual.getFonts().keySet());
+        assertEquals(name, expected.getCharacters().size(), actual.getCharacters().size());
+        assertEquals(name, expected.getMarkers().size(), actual.getMarkers().size());
+        assertEquals(name, expected.getLayers().size(), actual.getLayers().size());
+        for (int i = 0; i < expected.getLayers().size(); i++) {
+            Layer expectedLayer = expected.getLayers().get(i);
+            Layer actualLayer = actual.getLayers().get(i);
+            assertEquals(name, expectedLayer.getName(), actualLayer.getName());
+            assertEquals(name, expectedLayer.getId(), actualLayer.getId());
+            assertEquals(name, expectedLayer.getLayerType(), actualLayer.getLayerType());
+            assertEquals(name, expectedLayer.getShapes().size(), actualLayer.getShapes().size());
+            assertEquals(name,
+                    expected.getLayers().indexOf(expected.layerModelForId(expectedLayer.getId())),
+                    actual.getLayers().indexOf(actual.layerModelForId(actualLayer.getId())));
+        }
+    }
+
+    private static void findJsonFiles(File dir, List<File> out) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                findJsonFiles(file, out);
+            } else if (file.getName().endsWith(".json")) {
+                out.add(file);
+            }
+        }
+    }
+}
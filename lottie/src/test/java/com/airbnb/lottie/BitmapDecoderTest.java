@@ -0,0 +1,84 @@
+package com.airbnb.lottie;
+
+import android.graphics.Bitmap;
+
+import com.airbnb.lottie.utils.BitmapDecoder;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+
+public class BitmapDecoderTest extends BaseTest {
+
+  @Test
+  public void testSampleSize() {
+    assertEquals(1, BitmapDecoder.sampleSizeFor(2f));
+    assertEquals(1, BitmapDecoder.sampleSizeFor(1f));
+    assertEquals(1, BitmapDecoder.sampleSizeFor(0.6f));
+    assertEquals(2, BitmapDecoder.sampleSizeFor(0.5f));
+    assertEquals(2, BitmapDecoder.sampleSizeFor(0.3f));
+    assertEquals(4, BitmapDecoder.sampleSizeFor(0.25f));
+    assertEquals(64, BitmapDecoder.sampleSizeFor(0f));
+  }
+
+  @Test
+  public void testOpaquePngIsRgb565() throws IOException {
+    assertEquals(Bitmap.Config.RGB_565, decode(png(2, false)).getConfig());
+  }
+
+  @Test
+  public void testPngWithAlphaIsArgb8888() throws IOException {
+    assertEquals(Bitmap.Config.ARGB_8888, decode(png(6, false)).getConfig());
+  }
+
+  @Test
+  public void testPngWithTransparentColorIsArgb8888() throws IOException {
+    assertEquals(Bitmap.Config.ARGB_8888, decode(png(2, true)).getConfig());
+  }
+
+  @Test
+  public void testJpegIsRgb565() throws IOException {
+    ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+    assertEquals(Bitmap.Config.RGB_565, decode(jpeg.toByteArray()).getConfig());
+  }
+
+  private static Bitmap decode(byte[] image) throws IOException {
+    return BitmapDecoder.decode(new ByteArrayInputStream(image), 1);
+  }
+
+  /**
+   * The chunks that the decoder looks at. The image data and checksums are not valid.
+   */
+  private static byte[] png(int colorType, boolean transparentColor) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeLong(0x89504E470D0A1A0AL);
+    out.writeInt(13);
+    out.writeBytes("IHDR");
+    out.writeInt(10);
+    out.writeInt(10);
+    out.writeByte(8);
+    out.writeByte(colorType);
+    out.write(new byte[3]);
+    out.writeInt(0);
+    if (transparentColor) {
+      out.writeInt(6);
+      out.writeBytes("tRNS");
+      out.write(new byte[6]);
+      out.writeInt(0);
+    }
+    out.writeInt(0);
+    out.writeBytes("IDAT");
+    out.writeInt(0);
+    return bytes.toByteArray();
+  }
+}
@@ -2,14 +2,35 @@ package com.airbnb.lottie;
 
 import android.util.JsonReader;
 
+import androidx.annotation.NonNull;
+
 import com.airbnb.lottie.model.LottieCompositionCache;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.robolectric.RuntimeEnvironment;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
@@ -26,6 +47,9 @@ public class LottieCompositionFactoryTest extends BaseTest {
             "\"c\":{\"a\":0,\"k\":[0.928262987324,0,0,1],\"ix\":4},\"o\":{\"a\":0,\"k\":100,\"ix\":5},\"r\":1,\"nm\":\"Fill 1\",\"mn\":\"ADBE Vector " +
             "Graphic - Fill\",\"hd\":false}],\"ip\":0,\"op\":180,\"st\":0,\"bm\":0}]}";
 
+    private static final String IMAGE_JSON = "{\"v\":\"4.11.1\",\"fr\":60,\"ip\":0,\"op\":180,\"w\":300,\"h\":300,\"nm\":\"Comp 1\"," +
+            "\"ddd\":0,\"assets\":[{\"id\":\"image_0\",\"w\":10,\"h\":10,\"u\":\"images/\",\"p\":\"img_0.png\"}],\"layers\":[]}";
+
     private static final String NOT_JSON = "not json";
 
     @Before
@@ -64,6 +88,34 @@ public class LottieCompositionFactoryTest extends BaseTest {
         assertNull(result.getValue());
     }
 
+    @Test
+    public void testLoadJsonFile() throws IOException {
+        File file = File.createTempFile("lottie", ".json");
+        try {
+            // Include a byte order mark and a multi-byte character in the layer name.
+            FileOutputStream out = new FileOutputStream(file);
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            out.write(JSON.replace("Shape Layer 1", "Shape Layer \u00e9").getBytes("UTF-8"));
+            out.close();
+
+            LottieResult<LottieComposition> result = LottieCompositionFactory.fromFileSync(file);
+            assertNull(result.getException());
+            assertNotNull(result.getValue());
+            assertEquals("Shape Layer \u00e9", result.getValue().getLayers().get(0).getName());
+            assertEquals(result.getValue(), LottieCompositionCache.getInstance().get("file_" + file.getAbsolutePath()));
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLoadMissingFile() {
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromFileSync(new File("not_a_file.json"));
+        assertEquals(FileNotFoundException.class, result.getException().getClass());
+        assertNull(result.getValue());
+    }
+
     @Test
     public void testLoadInvalidAssetName() {
         LottieResult<LottieComposition> result = LottieCompositionFactory.fromAssetSync(RuntimeEnvironment.application, "square2.json");
@@ -109,6 +161,166 @@ public class LottieCompositionFactoryTest extends BaseTest {
         assertTrue(task1 == task2);
     }
 
+    @Test
+    public void testCachedCompositionReturnsCompletedTask() {
+        LottieComposition composition = LottieCompositionFactory.fromJsonStringSync(JSON, "cached").getValue();
+        Executor executor = LottieTask.EXECUTOR;
+        LottieTask.EXECUTOR = new Executor() {
+            @Override public void execute(@NonNull Runnable command) {
+                throw new AssertionError("A cached composition should not be loaded on the executor.");
+            }
+        };
+        try {
+            final List<LottieComposition> results = new ArrayList<>();
+            LottieCompositionFactory.fromJsonString(JSON, "cached").addListener(new LottieListener<LottieComposition>() {
+                @Override public void onResult(LottieComposition result) {
+                    results.add(result);
+                }
+            });
+            assertEquals(Collections.singletonList(composition), results);
+        } finally {
+            LottieTask.EXECUTOR = executor;
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsShareTask() throws InterruptedException {
+        final List<Runnable> queued = Collections.synchronizedList(new ArrayList<Runnable>());
+        Executor executor = LottieTask.EXECUTOR;
+        LottieTask.EXECUTOR = new Executor() {
+            @Override public void execute(@NonNull Runnable command) {
+                queued.add(command);
+            }
+        };
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final Set<LottieTask<LottieComposition>> tasks =
+                    Collections.newSetFromMap(new ConcurrentHashMap<LottieTask<LottieComposition>, Boolean>());
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        tasks.add(LottieCompositionFactory.fromJsonString(JSON, "concurrent"));
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(1, tasks.size());
+            assertEquals(1, queued.size());
+        } finally {
+            LottieTask.EXECUTOR = executor;
+            for (Runnable runnable : queued) {
+                runnable.run();
+            }
+        }
+    }
+
+    @Test
+    public void testInterruptedThreadStopsParsing() {
+        Thread.currentThread().interrupt();
+        LottieResult<LottieComposition> result;
+        try {
+            result = LottieCompositionFactory.fromJsonStringSync(JSON, null);
+        } finally {
+            Thread.interrupted();
+        }
+        assertNull(result.getValue());
+        assertTrue(result.getException() instanceof InterruptedIOException);
+    }
+
+    @Test
+    public void testRemovingListenersClosesStream() throws InterruptedException {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        InputStream stream = new InputStream() {
+            @Override public int read() throws IOException {
+                reading.countDown();
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                throw new IOException("Stream closed.");
+            }
+
+            @Override public void close() {
+                closed.countDown();
+            }
+        };
+        LottieListener<LottieComposition> listener = new LottieListener<LottieComposition>() {
+            @Override public void onResult(LottieComposition result) {
+            }
+        };
+        LottieListener<Throwable> failureListener = new LottieListener<Throwable>() {
+            @Override public void onResult(Throwable result) {
+            }
+        };
+        LottieTask<LottieComposition> task = LottieCompositionFactory.fromJsonInputStream(stream, null)
+                .addListener(listener)
+                .addFailureListener(failureListener);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        task.removeListener(listener);
+        task.removeFailureListener(failureListener);
+        assertEquals(0, closed.getCount());
+    }
+
+    @Test
+    public void testWarmUpCompletesAfterOtherCallerRemovesListeners() throws InterruptedException {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final InputStream json = new ByteArrayInputStream(JSON.getBytes());
+        InputStream stream = new InputStream() {
+            @Override public int read() throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return json.read();
+            }
+        };
+        LottieListener<LottieComposition> listener = new LottieListener<LottieComposition>() {
+            @Override public void onResult(LottieComposition result) {
+            }
+        };
+        LottieListener<Throwable> failureListener = new LottieListener<Throwable>() {
+            @Override public void onResult(Throwable result) {
+            }
+        };
+        // Warm the cache without observing the task.
+        LottieTask<LottieComposition> warmUpTask = LottieCompositionFactory.fromJsonInputStream(stream, "warmUp");
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        LottieTask<LottieComposition> task = LottieCompositionFactory.fromJsonInputStream(
+                new ByteArrayInputStream(JSON.getBytes()), "warmUp")
+                .addListener(listener)
+                .addFailureListener(failureListener);
+        assertTrue(task == warmUpTask);
+        task.removeListener(listener);
+        task.removeFailureListener(failureListener);
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (task.getResult() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(task.getResult());
+        assertNotNull(task.getResult().getValue());
+        assertNotNull(LottieCompositionCache.getInstance().get("warmUp"));
+    }
+
     @Test
     public void testZeroCacheWorks() {
         JsonReader reader = new JsonReader(new StringReader(JSON));
@@ -119,6 +331,63 @@ public class LottieCompositionFactoryTest extends BaseTest {
         assertFalse(taskFoo1 == taskFoo2);
     }
 
+    @Test
+    public void testZipFileDecodesReferencedImages() throws IOException {
+        File file = File.createTempFile("lottie", ".zip");
+        FileOutputStream out = new FileOutputStream(file);
+        writeZipWithImages(out, false);
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromZipFileSync(file, "zipFile");
+        assertNotNull(result.getValue());
+        LottieImageAsset asset = result.getValue().getImages().get("image_0");
+        assertNotNull(asset.getBitmap());
+        assertEquals(result.getValue(), LottieCompositionCache.getInstance().get("zipFile"));
+        file.delete();
+    }
+
+    @Test
+    public void testZipStreamWithImagesBeforeJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeZipWithImages(out, true);
+        ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromZipStreamSync(zipStream, null);
+        assertNotNull(result.getValue());
+        assertNotNull(result.getValue().getImages().get("image_0").getBitmap());
+    }
+
+    @Test
+    public void testZipFileWithMissingImageFails() throws IOException {
+        File file = File.createTempFile("lottie", ".zip");
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+        zip.putNextEntry(new ZipEntry("animation.json"));
+        zip.write(IMAGE_JSON.getBytes("UTF-8"));
+        zip.putNextEntry(new ZipEntry("images/unused.png"));
+        zip.write(new byte[] { 1, 2, 3 });
+        zip.close();
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromZipFileSync(file, null);
+        assertNull(result.getValue());
+        assertTrue(result.getException() instanceof IllegalStateException);
+        file.delete();
+    }
+
+    private static void writeZipWithImages(OutputStream out, boolean imagesFirst) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        if (!imagesFirst) {
+            zip.putNextEntry(new ZipEntry("animation.json"));
+            zip.write(IMAGE_JSON.getBytes("UTF-8"));
+        }
+        zip.putNextEntry(new ZipEntry("__MACOSX/images/img_0.png"));
+        zip.write(new byte[] { 1, 2, 3 });
+        zip.putNextEntry(new ZipEntry("images/unused.png"));
+        zip.write(new byte[] { 1, 2, 3 });
+        zip.putNextEntry(new ZipEntry("images/img_0.png"));
+        zip.write(new byte[] { 1, 2, 3 });
+        if (imagesFirst) {
+            zip.putNextEntry(new ZipEntry("animation.json"));
+            zip.write(IMAGE_JSON.getBytes("UTF-8"));
+        }
+        zip.close();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testCannotSetCacheSizeToZero() {
         LottieCompositionFactory.setMaxCacheSize(0);
@@ -1,6 +1,9 @@
 package com.airbnb.lottie;
 
+import android.graphics.Canvas;
 import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import androidx.annotation.NonNull;
 import androidx.collection.LongSparseArray;
 import androidx.collection.SparseArrayCompat;
 import com.airbnb.lottie.model.Font;
@@ -9,11 +12,16 @@ import com.airbnb.lottie.model.Marker;
 import com.airbnb.lottie.model.layer.Layer;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
 
 public class LottieDrawableTest extends BaseTest {
 
@@ -63,4 +71,205 @@ public class LottieDrawableTest extends BaseTest {
     assertEquals(121f, drawable.getMinFrame());
     assertEquals(182.99f, drawable.getMaxFrame());
   }
+
+  @Test
+  public void testLazyPrecompIsLoadedWhenVisible() {
+    String transform = "{\"o\":{\"k\":100},\"r\":{\"k\":0},\"p\":{\"k\":[0,0,0]},\"a\":{\"k\":[0,0,0]},\"s\":{\"k\":[100,100,100]}}";
+    String nullLayer = "{\"ty\":3,\"ind\":1,\"ks\":" + transform + ",\"ip\":0,\"op\":100,\"st\":0,\"tt\":1}";
+    String json = "{\"v\":\"5.1.0\",\"fr\":10,\"ip\":0,\"op\":100,\"w\":100,\"h\":100,\"assets\":[" +
+        "{\"id\":\"comp_0\",\"layers\":[" + nullLayer + "]},{\"id\":\"comp_1\",\"layers\":[" + nullLayer + "]}]," +
+        "\"layers\":[{\"ty\":0,\"refId\":\"comp_0\",\"ind\":1,\"ks\":" + transform + ",\"w\":100,\"h\":100,\"ip\":0,\"op\":10,\"st\":0}," +
+        "{\"ty\":0,\"refId\":\"comp_1\",\"ind\":2,\"ks\":" + transform + ",\"w\":100,\"h\":100,\"ip\":50,\"op\":60,\"st\":0}]}";
+    LottieCompositionFactory.setLazyPrecompsEnabled(true);
+    LottieComposition composition;
+    try {
+      composition = LottieCompositionFactory.fromJsonInputStreamSync(
+          new ByteArrayInputStream(json.getBytes()), null).getValue();
+    } finally {
+      LottieCompositionFactory.setLazyPrecompsEnabled(false);
+    }
+    // Each precomp has a matte which is only counted once it is parsed.
+    assertEquals(0, composition.getMaskAndMatteCount());
+
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    assertEquals(1, composition.getMaskAndMatteCount());
+
+    drawable.setProgress(0.3f);
+    assertEquals(1, composition.getMaskAndMatteCount());
+
+    drawable.setProgress(0.55f);
+    assertEquals(2, composition.getMaskAndMatteCount());
+  }
+
+  @Test
+  public void testInterruptedLazyPrecompIsParsedAgain() {
+    String transform = "{\"o\":{\"k\":100},\"r\":{\"k\":0},\"p\":{\"k\":[0,0,0]},\"a\":{\"k\":[0,0,0]},\"s\":{\"k\":[100,100,100]}}";
+    String nullLayer = "{\"ty\":3,\"ind\":1,\"ks\":" + transform + ",\"ip\":0,\"op\":100,\"st\":0,\"tt\":1}";
+    String json = "{\"v\":\"5.1.0\",\"fr\":10,\"ip\":0,\"op\":100,\"w\":100,\"h\":100,\"assets\":[" +
+        "{\"id\":\"comp_0\",\"layers\":[" + nullLayer + "]}]," +
+        "\"layers\":[{\"ty\":0,\"refId\":\"comp_0\",\"ind\":1,\"ks\":" + transform + ",\"w\":100,\"h\":100,\"ip\":50,\"op\":60,\"st\":0}]}";
+    LottieCompositionFactory.setLazyPrecompsEnabled(true);
+    LottieComposition composition;
+    try {
+      composition = LottieCompositionFactory.fromJsonInputStreamSync(
+          new ByteArrayInputStream(json.getBytes()), null).getValue();
+    } finally {
+      LottieCompositionFactory.setLazyPrecompsEnabled(false);
+    }
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+
+    Thread.currentThread().interrupt();
+    try {
+      drawable.setProgress(0.55f);
+      assertTrue(Thread.currentThread().isInterrupted());
+      assertEquals(0, composition.getMaskAndMatteCount());
+    } finally {
+      //noinspection ResultOfMethodCallIgnored
+      Thread.interrupted();
+    }
+
+    drawable.setProgress(0.56f);
+    assertEquals(1, composition.getMaskAndMatteCount());
+  }
+
+  @Test
+  public void testMalformedLazyPrecompIsAWarning() {
+    String transform = "{\"o\":{\"k\":100},\"r\":{\"k\":0},\"p\":{\"k\":[0,0,0]},\"a\":{\"k\":[0,0,0]},\"s\":{\"k\":[100,100,100]}}";
+    String malformedLayer = "{\"ty\":3,\"ind\":\"one\",\"ks\":" + transform + ",\"ip\":0,\"op\":100,\"st\":0}";
+    String json = "{\"v\":\"5.1.0\",\"fr\":10,\"ip\":0,\"op\":100,\"w\":100,\"h\":100,\"assets\":[" +
+        "{\"id\":\"comp_0\",\"layers\":[" + malformedLayer + "]}]," +
+        "\"layers\":[{\"ty\":0,\"refId\":\"comp_0\",\"ind\":1,\"ks\":" + transform + ",\"w\":100,\"h\":100,\"ip\":0,\"op\":100,\"st\":0}]}";
+    LottieCompositionFactory.setLazyPrecompsEnabled(true);
+    LottieComposition composition;
+    try {
+      composition = LottieCompositionFactory.fromJsonInputStreamSync(
+          new ByteArrayInputStream(json.getBytes()), null).getValue();
+    } finally {
+      LottieCompositionFactory.setLazyPrecompsEnabled(false);
+    }
+    assertTrue(composition.getWarnings().isEmpty());
+
+    LottieDrawable drawable = new LottieDrawable();
+    drawable.setComposition(composition);
+    drawable.draw(new Canvas());
+    assertEquals(1, composition.getWarnings().size());
+    assertTrue(composition.getPrecomps().get("comp_0").isEmpty());
+  }
+
+  @Test
+  public void testImagesReadyWithoutImages() {
+    LottieComposition composition = createComposition(0, 100);
+    LottieDrawable drawable = new LottieDrawable();
+    final List<LottieComposition> ready = new ArrayList<>();
+    drawable.addImagesReadyListener(new LottieListener<LottieComposition>() {
+      @Override public void onResult(LottieComposition result) {
+        ready.add(result);
+      }
+    });
+    drawable.setComposition(composition);
+    assertEquals(1, ready.size());
+    assertEquals(composition, ready.get(0));
+  }
+
+  @Test
+  public void testFramesInStaticRangeDontInvalidate() {
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = queueingExecutor(queued);
+    try {
+      LottieDrawable drawable = new LottieDrawable();
+      final int[] invalidations = new int[1];
+      Drawable.Callback callback = countingCallback(invalidations);
+      drawable.setCallback(callback);
+      drawable.setComposition(hiddenAnimationComposition());
+      assertEquals(1, queued.size());
+      queued.remove(0).run();
+      Canvas canvas = new Canvas();
+      drawable.setFrame(10);
+      drawable.draw(canvas);
+
+      int invalidationsBefore = invalidations[0];
+      drawable.setFrame(20);
+      drawable.draw(canvas);
+      drawable.setFrame(30);
+      drawable.draw(canvas);
+      assertEquals(invalidationsBefore, invalidations[0]);
+      drawable.setFrame(55);
+      assertEquals(invalidationsBefore + 1, invalidations[0]);
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+  }
+
+  @Test
+  public void testStaticRangesAreAnalyzedInBackground() {
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = queueingExecutor(queued);
+    try {
+      LottieComposition composition = hiddenAnimationComposition();
+      LottieDrawable drawable = new LottieDrawable();
+      final int[] invalidations = new int[1];
+      Drawable.Callback callback = countingCallback(invalidations);
+      drawable.setCallback(callback);
+      drawable.setComposition(composition);
+      Canvas canvas = new Canvas();
+      drawable.setFrame(10);
+      drawable.draw(canvas);
+
+      // Every frame is drawn until the analysis is done.
+      int invalidationsBefore = invalidations[0];
+      drawable.setFrame(20);
+      drawable.draw(canvas);
+      assertEquals(invalidationsBefore + 1, invalidations[0]);
+      assertNull(composition.getStaticRangeAt(20));
+
+      assertEquals(1, queued.size());
+      queued.remove(0).run();
+      assertNotNull(composition.getStaticRangeAt(20));
+      drawable.setFrame(21);
+      drawable.draw(canvas);
+      invalidationsBefore = invalidations[0];
+      drawable.setFrame(30);
+      drawable.draw(canvas);
+      assertEquals(invalidationsBefore, invalidations[0]);
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+  }
+
+  /**
+   * The opacity animates before the layer is visible so it can't be seen.
+   */
+  private static LottieComposition hiddenAnimationComposition() {
+    String opacity = "{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[100]},{\"t\":40,\"s\":[100]}]}";
+    String transform = "{\"o\":" + opacity + ",\"r\":{\"k\":0},\"p\":{\"k\":[0,0,0]},\"a\":{\"k\":[0,0,0]},\"s\":{\"k\":[100,100,100]}}";
+    String json = "{\"v\":\"5.1.0\",\"fr\":10,\"ip\":0,\"op\":100,\"w\":100,\"h\":100,\"assets\":[]," +
+        "\"layers\":[{\"ty\":3,\"ind\":1,\"ks\":" + transform + ",\"ip\":50,\"op\":60,\"st\":0}]}";
+    return LottieCompositionFactory.fromJsonStringSync(json, null).getValue();
+  }
+
+  private static Drawable.Callback countingCallback(final int[] invalidations) {
+    return new Drawable.Callback() {
+      @Override public void invalidateDrawable(Drawable who) {
+        invalidations[0]++;
+      }
+
+      @Override public void scheduleDrawable(Drawable who, Runnable what, long when) {
+      }
+
+      @Override public void unscheduleDrawable(Drawable who, Runnable what) {
+      }
+    };
+  }
+
+  private static Executor queueingExecutor(final List<Runnable> queued) {
+    return new Executor() {
+      @Override public void execute(@NonNull Runnable command) {
+        queued.add(command);
+      }
+    };
+  }
 }
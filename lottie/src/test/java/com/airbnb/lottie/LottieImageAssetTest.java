@@ -0,0 +1,50 @@
+package com.airbnb.lottie;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LottieImageAssetTest extends BaseTest {
+
+  @Test
+  public void testFile() {
+    LottieImageAsset asset = new LottieImageAsset(10, 10, "image_0", "img_0.png", "images/");
+    assertFalse(asset.isEmbedded());
+    assertEquals("img_0.png", asset.getFileName());
+    assertNull(asset.openEmbeddedImage());
+  }
+
+  @Test
+  public void testEmbeddedImageIsDecodedAsItIsRead() throws IOException {
+    String dataUri = "data:image/png;base64,AAECAwQFBgcICQ==";
+    LottieImageAsset asset = new LottieImageAsset(10, 10, "image_0", dataUri, "");
+    assertTrue(asset.isEmbedded());
+    assertEquals("data:image/png;base64,", asset.getEmbeddedImagePrefix());
+    assertEquals(dataUri, asset.getFileName());
+
+    // The stream can be opened more than once.
+    for (int i = 0; i < 2; i++) {
+      InputStream stream = asset.openEmbeddedImage();
+      ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+      int b;
+      while ((b = stream.read()) != -1) {
+        decoded.write(b);
+      }
+      assertArrayEquals(new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, decoded.toByteArray());
+    }
+  }
+
+  @Test
+  public void testDataUriWithoutBase64IsAFileName() {
+    LottieImageAsset asset = new LottieImageAsset(10, 10, "image_0", "data:image/svg+xml,<svg/>", "");
+    assertFalse(asset.isEmbedded());
+  }
+}
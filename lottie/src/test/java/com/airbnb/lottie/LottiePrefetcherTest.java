@@ -0,0 +1,106 @@
+package com.airbnb.lottie;
+
+import androidx.annotation.NonNull;
+
+import com.airbnb.lottie.model.LottieCompositionCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class LottiePrefetcherTest extends BaseTest {
+
+  private final List<Runnable> queued = new ArrayList<>();
+  private Executor executor;
+  private PrefetchResult result;
+
+  @Before
+  public void setup() {
+    LottieCompositionCache.getInstance().clear();
+    executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = new Executor() {
+      @Override public void execute(@NonNull Runnable command) {
+        queued.add(command);
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    LottieTask.EXECUTOR = executor;
+  }
+
+  @Test
+  public void testLoadsByPriority() {
+    new LottiePrefetcher(RuntimeEnvironment.application)
+        .addAsset("prefetch_missing_low.json", 1)
+        .addAsset("prefetch_missing_high.json", 3)
+        .addAsset("prefetch_missing_mid.json", 2)
+        .start(new LottieListener<PrefetchResult>() {
+          @Override public void onResult(PrefetchResult result) {
+            LottiePrefetcherTest.this.result = result;
+          }
+        });
+
+    // Only one load at a time by default.
+    for (int i = 0; i < 3; i++) {
+      assertEquals(1, queued.size());
+      queued.remove(0).run();
+    }
+    assertNotNull(result);
+    assertEquals(Arrays.asList("asset_prefetch_missing_high.json", "asset_prefetch_missing_mid.json",
+        "asset_prefetch_missing_low.json"), result.getFailed());
+  }
+
+  @Test
+  public void testAlreadyCached() {
+    LottieCompositionCache.getInstance().put("asset_prefetch_cached.json", mock(LottieComposition.class));
+    new LottiePrefetcher(RuntimeEnvironment.application)
+        .addAsset("prefetch_cached.json", 1)
+        .start(new LottieListener<PrefetchResult>() {
+          @Override public void onResult(PrefetchResult result) {
+            LottiePrefetcherTest.this.result = result;
+          }
+        });
+
+    assertEquals(0, queued.size());
+    assertNotNull(result);
+    assertEquals(Collections.singletonList("asset_prefetch_cached.json"), result.getAlreadyCached());
+  }
+
+  @Test
+  public void testNetworkBudgetAndCancel() {
+    LottiePrefetcher prefetcher = new LottiePrefetcher(RuntimeEnvironment.application)
+        .setMaxConcurrentLoads(2)
+        .setMaxNetworkRequests(1)
+        .addUrl("https://example.com/prefetch1.json", 2)
+        .addUrl("https://example.com/prefetch2.json", 1);
+    prefetcher.start(new LottieListener<PrefetchResult>() {
+      @Override public void onResult(PrefetchResult result) {
+        LottiePrefetcherTest.this.result = result;
+      }
+    });
+    assertEquals(1, queued.size());
+    assertNull(result);
+
+    prefetcher.cancel();
+    assertNotNull(result);
+    assertEquals(Arrays.asList("url_https://example.com/prefetch2.json", "url_https://example.com/prefetch1.json"),
+        result.getSkipped());
+    // The fetch was cancelled so running it is a no-op.
+    queued.remove(0).run();
+    assertEquals(0, result.getWarmed().size());
+  }
+}
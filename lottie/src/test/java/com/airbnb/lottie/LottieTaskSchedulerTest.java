@@ -0,0 +1,105 @@
+package com.airbnb.lottie;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LottieTaskSchedulerTest extends BaseTest {
+
+  private LottieTaskScheduler scheduler;
+  private CountDownLatch blocker;
+  private CountDownLatch finished;
+  private List<String> order;
+
+  @Before
+  public void setup() throws InterruptedException {
+    scheduler = new LottieTaskScheduler(1);
+    blocker = new CountDownLatch(1);
+    order = Collections.synchronizedList(new ArrayList<String>());
+    // Occupy the only thread so that everything after this is queued.
+    final CountDownLatch started = new CountDownLatch(1);
+    scheduler.execute(new Runnable() {
+      @Override public void run() {
+        started.countDown();
+        try {
+          blocker.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }, LottieTaskPriority.Visible);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+  }
+
+  @After
+  public void tearDown() {
+    blocker.countDown();
+  }
+
+  @Test
+  public void testVisibleTasksRunFirst() throws InterruptedException {
+    finished = new CountDownLatch(4);
+    scheduler.execute(record("prefetch1"), LottieTaskPriority.Prefetch);
+    scheduler.execute(record("visible1"), LottieTaskPriority.Visible);
+    scheduler.execute(record("prefetch2"));
+    scheduler.execute(record("visible2"), LottieTaskPriority.Visible);
+
+    TaskSchedulerStats stats = scheduler.getStats();
+    assertEquals(2, stats.getQueueSize(LottieTaskPriority.Visible));
+    assertEquals(2, stats.getQueueSize(LottieTaskPriority.Prefetch));
+    assertEquals(1, stats.getActiveCount());
+
+    blocker.countDown();
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("visible1", "visible2", "prefetch1", "prefetch2"), order);
+  }
+
+  @Test
+  public void testRaisePriority() throws InterruptedException {
+    finished = new CountDownLatch(3);
+    Runnable prefetch = record("prefetch");
+    scheduler.execute(record("visible1"), LottieTaskPriority.Visible);
+    scheduler.execute(prefetch, LottieTaskPriority.Prefetch);
+    scheduler.execute(record("visible2"), LottieTaskPriority.Visible);
+    scheduler.setPriority(prefetch, LottieTaskPriority.Visible);
+
+    blocker.countDown();
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    // It keeps its place in line.
+    assertEquals(Arrays.asList("visible1", "prefetch", "visible2"), order);
+  }
+
+  @Test
+  public void testCancelRemovesQueuedTask() throws InterruptedException {
+    finished = new CountDownLatch(1);
+    Runnable cancelled = record("cancelled");
+    scheduler.execute(cancelled, LottieTaskPriority.Visible);
+    scheduler.execute(record("visible"), LottieTaskPriority.Visible);
+    scheduler.cancel(cancelled);
+    assertEquals(1, scheduler.getStats().getQueueSize());
+
+    blocker.countDown();
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals(Collections.singletonList("visible"), order);
+    assertEquals(1, scheduler.getStats().getCancelledCount());
+  }
+
+  private Runnable record(final String name) {
+    return new Runnable() {
+      @Override public void run() {
+        order.add(name);
+        finished.countDown();
+      }
+    };
+  }
+}
@@ -7,8 +7,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class LottieTaskTest extends BaseTest {
@@ -92,4 +97,58 @@ public class LottieTaskTest extends BaseTest {
     verify(successListener, times(1)).onResult(5);
     verifyZeroInteractions(failureListener);
   }
+
+  @Test
+  public void testRemovingEveryListenerInterruptsTask() throws InterruptedException {
+    LottieTaskScheduler scheduler = new LottieTaskScheduler(1);
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = scheduler;
+    try {
+      final CountDownLatch started = new CountDownLatch(1);
+      final CountDownLatch interrupted = new CountDownLatch(1);
+      LottieTask<Integer> task = new LottieTask<>(new Callable<LottieResult<Integer>>() {
+        @Override public LottieResult<Integer> call() {
+          started.countDown();
+          try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+          } catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+          return new LottieResult<>(5);
+        }
+      })
+          .addListener(successListener)
+          .addFailureListener(failureListener);
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      task.removeListener(successListener);
+      assertEquals(1, interrupted.getCount());
+      task.removeFailureListener(failureListener);
+      assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+      assertEquals(1, scheduler.getStats().getCancelledCount());
+      verifyZeroInteractions(successListener);
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+  }
+
+  @Test
+  public void testTaskWithoutListenersIsNotCancelled() throws InterruptedException {
+    LottieTaskScheduler scheduler = new LottieTaskScheduler(1);
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = scheduler;
+    try {
+      final CountDownLatch completed = new CountDownLatch(1);
+      new LottieTask<>(new Callable<LottieResult<Integer>>() {
+        @Override public LottieResult<Integer> call() {
+          completed.countDown();
+          return new LottieResult<>(5);
+        }
+      }).removeListener(successListener);
+      assertTrue(completed.await(5, TimeUnit.SECONDS));
+      assertEquals(0, scheduler.getStats().getCancelledCount());
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+  }
 }
@@ -0,0 +1,110 @@
+package com.airbnb.lottie.animation.keyframe;
+
+import android.graphics.Rect;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import androidx.collection.LongSparseArray;
+import androidx.collection.SparseArrayCompat;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieImageAsset;
+import com.airbnb.lottie.model.Font;
+import com.airbnb.lottie.model.FontCharacter;
+import com.airbnb.lottie.model.Marker;
+import com.airbnb.lottie.model.layer.Layer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeyframeLookupTest extends BaseTest {
+
+  private LottieComposition composition;
+
+  @Before
+  public void setup() {
+    composition = new LottieComposition();
+    composition.init(new Rect(), 0, 1000, 30, new ArrayList<Layer>(),
+        new LongSparseArray<Layer>(0), new HashMap<String, List<Layer>>(0),
+        new HashMap<String, LottieImageAsset>(0), new SparseArrayCompat<FontCharacter>(0),
+        new HashMap<String, Font>(0), new ArrayList<Marker>());
+  }
+
+  @Test
+  public void testPlayback() {
+    FloatKeyframeTrack track = track(new float[]{100, 200, 300, 400, 500}, new float[]{200, 300, 400, 500, Float.NaN});
+    int index = -1;
+    for (int frame = 0; frame <= 1000; frame++) {
+      index = assertIndex(track, frame / 1000f, index);
+    }
+    for (int frame = 1000; frame >= 0; frame--) {
+      index = assertIndex(track, frame / 1000f, index);
+    }
+  }
+
+  @Test
+  public void testSeeking() {
+    FloatKeyframeTrack track = contiguousTrack(300);
+    Random random = new Random(42);
+    int index = -1;
+    for (int i = 0; i < 1000; i++) {
+      index = assertIndex(track, random.nextFloat(), index);
+    }
+  }
+
+  @Test
+  public void testGapsAndUnsortedKeyframes() {
+    FloatKeyframeTrack gaps = track(new float[]{100, 300, 600}, new float[]{200, 400, 700});
+    FloatKeyframeTrack unsorted = track(new float[]{400, 100, 600}, new float[]{600, 400, 700});
+    int gapsIndex = -1;
+    int unsortedIndex = -1;
+    for (int frame = 0; frame <= 1000; frame += 10) {
+      gapsIndex = assertIndex(gaps, frame / 1000f, gapsIndex);
+      unsortedIndex = assertIndex(unsorted, frame / 1000f, unsortedIndex);
+    }
+  }
+
+  private FloatKeyframeTrack contiguousTrack(int size) {
+    float[] startFrames = new float[size];
+    float[] endFrames = new float[size];
+    for (int i = 0; i < size; i++) {
+      startFrames[i] = i * 1000f / size;
+      endFrames[i] = (i + 1) * 1000f / size;
+    }
+    return track(startFrames, endFrames);
+  }
+
+  private FloatKeyframeTrack track(float[] startFrames, float[] endFrames) {
+    Interpolator[] interpolators = new Interpolator[startFrames.length];
+    for (int i = 0; i < interpolators.length; i++) {
+      interpolators[i] = new LinearInterpolator();
+    }
+    return new FloatKeyframeTrack(composition, startFrames, endFrames, interpolators,
+        new float[2 * startFrames.length], null);
+  }
+
+  /**
+   * Checks the lookup against a backwards scan of every keyframe.
+   */
+  private static int assertIndex(KeyframeTrack<?> track, float progress, int hint) {
+    int expected = track.size() - 1;
+    if (progress < track.getStartProgress(expected)) {
+      for (; expected > 0; expected--) {
+        if (track.containsProgress(expected, progress)) {
+          break;
+        }
+      }
+    }
+    int index = track.indexOf(progress, hint);
+    assertEquals("progress " + progress, expected, index);
+    return index;
+  }
+}
@@ -0,0 +1,125 @@
+package com.airbnb.lottie.manager;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BitmapPoolTest extends BaseTest {
+
+  private LottieComposition composition;
+  private BitmapPool pool;
+
+  @Before
+  public void setup() {
+    composition = Mockito.mock(LottieComposition.class);
+    pool = new BitmapPool();
+    pool.resizeBytes(250);
+  }
+
+  @Test
+  public void testSharedBitmap() {
+    Bitmap bitmap = bitmap();
+    assertNull(pool.acquire(key("image_0", 1)));
+    assertSame(bitmap, pool.put(key("image_0", 1), bitmap));
+    assertSame(bitmap, pool.acquire(key("image_0", 1)));
+    assertNull(pool.acquire(key("image_0", 2)));
+    assertNull(pool.acquire(new BitmapPool.Key(Mockito.mock(LottieComposition.class), null, "image_0", 1)));
+  }
+
+  @Test
+  public void testPutKeepsExistingBitmap() {
+    Bitmap bitmap = bitmap();
+    pool.put(key("image_0", 1), bitmap);
+    assertSame(bitmap, pool.put(key("image_0", 1), bitmap()));
+    assertEquals(100, pool.getSizeBytes());
+  }
+
+  @Test
+  public void testHeldBitmapsAreNotEvicted() {
+    pool.put(key("image_0", 1), bitmap());
+    pool.put(key("image_1", 1), bitmap());
+    pool.put(key("image_2", 1), bitmap());
+    assertEquals(300, pool.getSizeBytes());
+  }
+
+  @Test
+  public void testReleasedBitmapsAreEvictedWhenFull() {
+    Bitmap bitmap = bitmap();
+    pool.put(key("image_0", 1), bitmap);
+    pool.put(key("image_1", 1), bitmap());
+    pool.release(key("image_0", 1));
+    // Still fits.
+    assertSame(bitmap, pool.acquire(key("image_0", 1)));
+    pool.release(key("image_0", 1));
+    pool.release(key("image_1", 1));
+    pool.put(key("image_2", 1), bitmap());
+    assertNull(pool.acquire(key("image_0", 1)));
+    assertEquals(200, pool.getSizeBytes());
+  }
+
+  @Test
+  public void testBitmapIsReleasedWhenNoOneHoldsIt() {
+    pool.put(key("image_0", 1), bitmap());
+    pool.acquire(key("image_0", 1));
+    pool.release(key("image_0", 1));
+    pool.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+    assertEquals(100, pool.getSizeBytes());
+    pool.release(key("image_0", 1));
+    pool.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+    assertEquals(0, pool.getSizeBytes());
+  }
+
+  @Test
+  public void testReusableOnlyWhenFull() {
+    Bitmap bitmap = bitmap();
+    pool.put(key("image_0", 1), bitmap);
+    pool.release(key("image_0", 1));
+    assertNull(pool.getReusable(5, 5, Bitmap.Config.ARGB_8888));
+
+    pool.put(key("image_1", 1), bitmap());
+    assertNull(pool.getReusable(10, 10, Bitmap.Config.ARGB_8888));
+    assertSame(bitmap, pool.getReusable(5, 5, Bitmap.Config.ARGB_8888));
+    assertNull(pool.acquire(key("image_0", 1)));
+    assertEquals(100, pool.getSizeBytes());
+  }
+
+  @Test
+  public void testBitmapsOfCollectedCompositionsAreRemoved() throws InterruptedException {
+    LottieComposition collected = new LottieComposition();
+    WeakReference<LottieComposition> reference = new WeakReference<>(collected);
+    pool.put(new BitmapPool.Key(collected, null, "image_0", 1), bitmap());
+    pool.release(new BitmapPool.Key(collected, null, "image_0", 1));
+    //noinspection UnusedAssignment
+    collected = null;
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (reference.get() != null) {
+      assertTrue("The composition was never collected", System.currentTimeMillis() < deadline);
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    pool.put(key("image_0", 1), bitmap());
+    assertEquals(100, pool.getSizeBytes());
+  }
+
+  private BitmapPool.Key key(String id, int sampleSize) {
+    return new BitmapPool.Key(composition, "images/", id, sampleSize);
+  }
+
+  private static Bitmap bitmap() {
+    return Bitmap.createBitmap(5, 5, Bitmap.Config.ARGB_8888);
+  }
+}
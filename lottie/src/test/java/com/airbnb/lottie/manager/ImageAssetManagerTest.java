@@ -0,0 +1,199 @@
+package com.airbnb.lottie.manager;
+
+import android.graphics.Bitmap;
+import android.util.Base64;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.ImageLoadingPolicy;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieCompositionFactory;
+import com.airbnb.lottie.LottieTask;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ImageAssetManagerTest extends BaseTest {
+
+  private LottieComposition composition;
+
+  @Before
+  public void setup() throws IOException {
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB), "png", png);
+    String dataUri = "data:image/png;base64," + Base64.encodeToString(png.toByteArray(), Base64.NO_WRAP);
+    String json = "{\"v\":\"4.11.1\",\"fr\":60,\"ip\":0,\"op\":180,\"w\":300,\"h\":300,\"nm\":\"Comp 1\",\"ddd\":0," +
+        "\"assets\":[{\"id\":\"image_0\",\"w\":64,\"h\":64,\"u\":\"\",\"p\":\"" + dataUri + "\"}],\"layers\":[]}";
+    composition = LottieCompositionFactory.fromJsonStringSync(json, null).getValue();
+  }
+
+  @Test
+  public void testDrawablesShareDecodedImages() {
+    ImageAssetManager first = newManager();
+    ImageAssetManager second = newManager();
+    Bitmap bitmap = first.bitmapForId("image_0", 1f);
+    assertNotNull(bitmap);
+    assertSame(bitmap, second.bitmapForId("image_0", 1f));
+    assertNull(composition.getImages().get("image_0").getBitmap());
+  }
+
+  @Test
+  public void testDecodesAgainWhenDrawnLarger() {
+    ImageAssetManager manager = newManager();
+    Bitmap small = manager.bitmapForId("image_0", 0.25f);
+    assertEquals(4, manager.sampleSizeForId("image_0"));
+    assertSame(small, manager.bitmapForId("image_0", 0.1f));
+    assertSame(small, manager.bitmapForId("image_0", 0.2f));
+
+    Bitmap large = manager.bitmapForId("image_0", 1f);
+    assertNotSame(small, large);
+    assertEquals(1, manager.sampleSizeForId("image_0"));
+    assertSame(large, manager.bitmapForId("image_0", 0.25f));
+  }
+
+  @Test
+  public void testReleasedImagesAreAcquiredAgain() {
+    ImageAssetManager manager = newManager();
+    Bitmap bitmap = manager.bitmapForId("image_0", 1f);
+    manager.releaseBitmaps();
+    assertSame(bitmap, manager.bitmapForId("image_0", 1f));
+  }
+
+  @Test
+  public void testBitmapReturnedByUpdateBitmapIsNotReused() {
+    // Only mutable bitmaps can be reused and images aren't decoded into one in these tests.
+    BitmapPool pool = BitmapPool.getInstance();
+    BitmapPool.Key key = new BitmapPool.Key(composition, null, "image_0", 1);
+    Bitmap bitmap = pool.put(key, Bitmap.createBitmap(64, 64, Bitmap.Config.ARGB_8888));
+    ImageAssetManager manager = newManager();
+    assertSame(bitmap, manager.bitmapForId("image_0", 1f));
+    pool.release(key);
+    assertSame(bitmap, manager.updateBitmap("image_0", null));
+
+    // The pool is full so decoding another image would reuse a bitmap that no drawable holds.
+    pool.resizeBytes(pool.getSizeBytes());
+    try {
+      assertNotSame(bitmap, pool.getReusable(64, 64, Bitmap.Config.ARGB_8888));
+    } finally {
+      pool.resizeBytes(Runtime.getRuntime().maxMemory() / 8);
+    }
+  }
+
+  @Test
+  public void testAsyncLoading() {
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = queueingExecutor(queued);
+    try {
+      ImageAssetManager manager = newManager();
+      manager.setLoadingPolicy(ImageLoadingPolicy.Async);
+      int[] calls = new int[2];
+      manager.setListener(countingListener(calls));
+
+      manager.preload(1f);
+      assertNull(manager.bitmapForId("image_0", 1f));
+      assertEquals(1, queued.size());
+      assertEquals(0, calls[1]);
+
+      queued.remove(0).run();
+      ShadowLooper.runUiThreadTasks();
+      assertNotNull(manager.bitmapForId("image_0", 1f));
+      assertEquals(1, calls[0]);
+      assertEquals(1, calls[1]);
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+  }
+
+  @Test
+  public void testAsyncLoadingDrawsPlaceholderUntilSharperImageIsReady() {
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = queueingExecutor(queued);
+    try {
+      ImageAssetManager manager = newManager();
+      manager.setLoadingPolicy(ImageLoadingPolicy.Async);
+      manager.bitmapForId("image_0", 0.25f);
+      queued.remove(0).run();
+      ShadowLooper.runUiThreadTasks();
+      Bitmap small = manager.bitmapForId("image_0", 0.25f);
+      assertNotNull(small);
+
+      assertSame(small, manager.bitmapForId("image_0", 1f));
+      assertEquals(1, queued.size());
+      queued.remove(0).run();
+      ShadowLooper.runUiThreadTasks();
+      assertEquals(1, manager.sampleSizeForId("image_0"));
+      assertNotSame(small, manager.bitmapForId("image_0", 1f));
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+  }
+
+  @Test
+  public void testImagesLoadedAfterReleaseAreDropped() {
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = queueingExecutor(queued);
+    try {
+      ImageAssetManager manager = newManager();
+      manager.setLoadingPolicy(ImageLoadingPolicy.Async);
+      int[] calls = new int[2];
+      manager.setListener(countingListener(calls));
+      manager.preload(1f);
+      manager.releaseBitmaps();
+      queued.remove(0).run();
+      ShadowLooper.runUiThreadTasks();
+      assertEquals(0, calls[0]);
+      assertEquals(0, calls[1]);
+      // The decoded image is still in the pool.
+      assertNotNull(manager.bitmapForId("image_0", 1f));
+      assertEquals(0, queued.size());
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+  }
+
+  private static Executor queueingExecutor(final List<Runnable> queued) {
+    return new Executor() {
+      @Override public void execute(@NonNull Runnable command) {
+        queued.add(command);
+      }
+    };
+  }
+
+  private static ImageAssetManager.Listener countingListener(final int[] calls) {
+    return new ImageAssetManager.Listener() {
+      @Override public void onImageLoaded() {
+        calls[0]++;
+      }
+
+      @Override public void onAllImagesLoaded() {
+        calls[1]++;
+      }
+    };
+  }
+
+  private ImageAssetManager newManager() {
+    return new ImageAssetManager(new View(RuntimeEnvironment.application), null, null, composition);
+  }
+}
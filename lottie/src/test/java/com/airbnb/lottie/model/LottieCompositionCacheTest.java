@@ -1,7 +1,11 @@
 package com.airbnb.lottie.model;
 
+import android.content.ComponentCallbacks2;
+
 import com.airbnb.lottie.BaseTest;
 import com.airbnb.lottie.BuildConfig;
+import com.airbnb.lottie.CacheEvictionPolicy;
+import com.airbnb.lottie.CompositionCacheStats;
 import com.airbnb.lottie.LottieAnimationView;
 import com.airbnb.lottie.LottieComposition;
 
@@ -14,6 +18,7 @@ import org.robolectric.annotation.Config;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class LottieCompositionCacheTest extends BaseTest  {
 
@@ -42,4 +47,106 @@ public class LottieCompositionCacheTest extends BaseTest  {
     cache.put("foo", composition);
     assertEquals(composition, cache.get("foo"));
   }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    cache.resize(2);
+    LottieComposition a = mockComposition(1);
+    cache.put("a", a);
+    cache.put("b", mockComposition(1));
+    cache.get("a");
+    cache.put("c", mockComposition(1));
+    assertSame(a, cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals(1, cache.getStats().getEvictionCount());
+  }
+
+  @Test
+  public void testEvictsBySize() {
+    cache.resizeBytes(100);
+    cache.put("a", mockComposition(40));
+    cache.put("b", mockComposition(40));
+    cache.put("c", mockComposition(40));
+    assertNull(cache.get("a"));
+    CompositionCacheStats stats = cache.getStats();
+    assertEquals(2, stats.getSize());
+    assertEquals(80, stats.getSizeBytes());
+  }
+
+  @Test
+  public void testRejectsCompositionLargerThanCache() {
+    cache.resizeBytes(100);
+    cache.put("a", mockComposition(40));
+    cache.put("b", mockComposition(200));
+    assertNull(cache.get("b"));
+    assertEquals(1, cache.getStats().getRejectionCount());
+    assertEquals(40, cache.getStats().getSizeBytes());
+  }
+
+  @Test
+  public void testLfuEvictsLeastFrequentlyUsed() {
+    cache.setEvictionPolicy(CacheEvictionPolicy.Lfu);
+    cache.resize(2);
+    LottieComposition a = mockComposition(1);
+    cache.put("a", a);
+    cache.put("b", mockComposition(1));
+    cache.get("a");
+    cache.get("a");
+    cache.get("b");
+    cache.put("c", mockComposition(1));
+    assertSame(a, cache.get("a"));
+    assertNull(cache.get("b"));
+  }
+
+  @Test
+  public void testTinyLfuRejectsInfrequentComposition() {
+    cache.setEvictionPolicy(CacheEvictionPolicy.TinyLfu);
+    cache.resize(2);
+    cache.put("a", mockComposition(1));
+    cache.put("b", mockComposition(1));
+    for (int i = 0; i < 3; i++) {
+      cache.get("a");
+      cache.get("b");
+    }
+    cache.put("c", mockComposition(1));
+    assertNull(cache.get("c"));
+    assertEquals(1, cache.getStats().getRejectionCount());
+
+    // Once it has been requested often enough it replaces the least recently used one.
+    for (int i = 0; i < 4; i++) {
+      cache.put("c", mockComposition(1));
+    }
+    assertEquals(2, cache.getStats().getSize());
+    assertEquals(1, cache.getStats().getEvictionCount());
+  }
+
+  @Test
+  public void testStats() {
+    cache.put("a", mockComposition(10));
+    cache.get("a");
+    cache.get("b");
+    CompositionCacheStats stats = cache.getStats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getPutCount());
+    assertEquals(10, stats.getSizeBytes());
+  }
+
+  @Test
+  public void testTrimMemory() {
+    cache.resize(4);
+    for (int i = 0; i < 4; i++) {
+      cache.put("key" + i, mockComposition(1));
+    }
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+    assertEquals(2, cache.getStats().getSize());
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+    assertEquals(0, cache.getStats().getSize());
+  }
+
+  private static LottieComposition mockComposition(long sizeBytes) {
+    LottieComposition composition = Mockito.mock(LottieComposition.class);
+    Mockito.when(composition.estimateSizeBytes()).thenReturn(sizeBytes);
+    return composition;
+  }
 }
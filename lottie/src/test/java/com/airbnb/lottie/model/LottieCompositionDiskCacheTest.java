@@ -0,0 +1,140 @@
+package com.airbnb.lottie.model;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieCompositionFactory;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LottieCompositionDiskCacheTest extends BaseTest {
+  private static final String JSON = "{\"v\":\"4.11.1\",\"fr\":60,\"ip\":0,\"op\":180,\"w\":300,\"h\":300,\"nm\":\"Comp 1\",\"ddd\":0,\"assets\":[]," +
+      "\"layers\":[{\"ddd\":0,\"ind\":1,\"ty\":4,\"nm\":\"Shape Layer 1\",\"sr\":1,\"ks\":{\"o\":{\"a\":0,\"k\":100,\"ix\":11},\"r\":{\"a\":0," +
+      "\"k\":0,\"ix\":10},\"p\":{\"a\":0,\"k\":[150,150,0],\"ix\":2},\"a\":{\"a\":0,\"k\":[0,0,0],\"ix\":1},\"s\":{\"a\":0,\"k\":[100,100,100]," +
+      "\"ix\":6}},\"ao\":0,\"shapes\":[{\"ty\":\"rc\",\"d\":1,\"s\":{\"a\":0,\"k\":[100,100],\"ix\":2},\"p\":{\"a\":0,\"k\":[0,0],\"ix\":3}," +
+      "\"r\":{\"a\":0,\"k\":0,\"ix\":4},\"nm\":\"Rectangle Path 1\",\"mn\":\"ADBE Vector Shape - Rect\",\"hd\":false},{\"ty\":\"fl\"," +
+      "\"c\":{\"a\":0,\"k\":[0.928262987324,0,0,1],\"ix\":4},\"o\":{\"a\":0,\"k\":100,\"ix\":5},\"r\":1,\"nm\":\"Fill 1\",\"mn\":\"ADBE Vector " +
+      "Graphic - Fill\",\"hd\":false}],\"ip\":0,\"op\":180,\"st\":0,\"bm\":0}]}";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File directory;
+  private LottieComposition composition;
+
+  @Before
+  public void setup() {
+    directory = new File(temporaryFolder.getRoot(), "compositions");
+    composition = LottieCompositionFactory.fromJsonStringSync(JSON, null).getValue();
+  }
+
+  @Test
+  public void testKeyDependsOnContent() {
+    ByteBuffer json = ByteBuffer.wrap(JSON.getBytes(Charset.forName("UTF-8")));
+    assertEquals(LottieCompositionDiskCache.keyFor(json), LottieCompositionDiskCache.keyFor(json.duplicate()));
+    assertEquals(0, json.position());
+    ByteBuffer otherJson = ByteBuffer.wrap(JSON.replace("Comp 1", "Comp 2").getBytes(Charset.forName("UTF-8")));
+    assertFalse(LottieCompositionDiskCache.keyFor(json).equals(LottieCompositionDiskCache.keyFor(otherJson)));
+  }
+
+  @Test
+  public void testEntriesSurviveRestart() {
+    new LottieCompositionDiskCache(directory, "1.0").put("key", composition);
+
+    LottieComposition cached = new LottieCompositionDiskCache(directory, "1.0").get("key");
+    assertNotNull(cached);
+    assertEquals(composition.getBounds(), cached.getBounds());
+    assertEquals(composition.getLayers().size(), cached.getLayers().size());
+    assertEquals(composition.getEndFrame(), cached.getEndFrame(), 0f);
+  }
+
+  @Test
+  public void testOtherVersionsAreDeleted() {
+    new LottieCompositionDiskCache(directory, "1.0").put("key", composition);
+
+    LottieCompositionDiskCache cache = new LottieCompositionDiskCache(directory, "2.0");
+    assertNull(cache.get("key"));
+    //noinspection ConstantConditions
+    assertEquals(0, directory.listFiles().length);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    LottieCompositionDiskCache cache = new LottieCompositionDiskCache(directory, "1.0");
+    cache.put("a", composition);
+    long entrySize = cache.getSizeBytes();
+    cache.resize(2 * entrySize);
+    cache.put("b", composition);
+    assertNotNull(cache.get("a"));
+    cache.put("c", composition);
+
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+    assertEquals(2 * entrySize, cache.getSizeBytes());
+    //noinspection ConstantConditions
+    assertEquals(2, directory.listFiles().length);
+  }
+
+  @Test
+  public void testCorruptEntryIsAMiss() throws Exception {
+    new LottieCompositionDiskCache(directory, "1.0").put("key", composition);
+    //noinspection ConstantConditions
+    File file = directory.listFiles()[0];
+    FileOutputStream output = new FileOutputStream(file);
+    output.write(new byte[] { 1, 2, 3 });
+    output.close();
+
+    LottieCompositionDiskCache cache = new LottieCompositionDiskCache(directory, "1.0");
+    assertNull(cache.get("key"));
+    assertFalse(file.exists());
+    assertEquals(0, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testEntriesCorruptedAnywhereAreAMiss() throws Exception {
+    new LottieCompositionDiskCache(directory, "1.0").put("key", composition);
+    //noinspection ConstantConditions
+    File file = directory.listFiles()[0];
+    byte[] bytes = new byte[(int) file.length()];
+    FileInputStream input = new FileInputStream(file);
+    assertEquals(bytes.length, input.read(bytes));
+    input.close();
+
+    for (int i = 0; i < bytes.length; i++) {
+      byte[] corrupt = bytes.clone();
+      corrupt[i] = (byte) ~corrupt[i];
+      FileOutputStream output = new FileOutputStream(file);
+      output.write(corrupt);
+      output.close();
+
+      LottieCompositionDiskCache cache = new LottieCompositionDiskCache(directory, "1.0");
+      // Some bytes, such as frame values, can change without making the file unreadable.
+      if (cache.get("key") == null) {
+        assertFalse(file.exists());
+      }
+    }
+  }
+
+  @Test
+  public void testNoTempFilesAreLeftBehind() {
+    new LottieCompositionDiskCache(directory, "1.0").put("key", composition);
+    //noinspection ConstantConditions
+    for (File file : directory.listFiles()) {
+      assertTrue(file.getName(), file.getName().endsWith(".lottie"));
+    }
+  }
+}
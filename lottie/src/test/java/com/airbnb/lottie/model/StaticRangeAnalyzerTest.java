@@ -0,0 +1,99 @@
+package com.airbnb.lottie.model;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieCompositionFactory;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class StaticRangeAnalyzerTest extends BaseTest {
+
+  private static final String ANIMATED_OPACITY =
+      "{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[100]},{\"t\":10,\"s\":[100],\"h\":1}," +
+          "{\"t\":30,\"s\":[100],\"e\":[0]},{\"t\":40,\"s\":[0]}]}";
+
+  @Test
+  public void testHoldKeyframesAreStatic() {
+    LottieComposition composition = composition(layer(1, ANIMATED_OPACITY, 0, 60, 0));
+    List<StaticRange> ranges = composition.getStaticRanges();
+    assertEquals(3, ranges.size());
+    assertRange(10.01f, 29.99f, ranges.get(0));
+    assertRange(40.01f, 59.99f, ranges.get(1));
+    // The layer is out after frame 60.
+    assertRange(60.01f, 99.99f, ranges.get(2));
+
+    assertNull(composition.getStaticRangeAt(5f));
+    assertSame(ranges.get(0), composition.getStaticRangeAt(20f));
+    assertNull(composition.getStaticRangeAt(30f));
+    assertSame(ranges.get(1), composition.getStaticRangeAt(45f));
+    assertNull(composition.getStaticRangeAt(60f));
+  }
+
+  @Test
+  public void testAnimationsOfHiddenLayersAreIgnored() {
+    LottieComposition composition = composition(layer(1, ANIMATED_OPACITY, 50, 60, 0));
+    List<StaticRange> ranges = composition.getStaticRanges();
+    assertEquals(3, ranges.size());
+    assertRange(0f, 49.99f, ranges.get(0));
+    assertRange(50.01f, 59.99f, ranges.get(1));
+    assertRange(60.01f, 99.99f, ranges.get(2));
+  }
+
+  @Test
+  public void testPrecompTiming() {
+    String animatedOpacity = "{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[100]},{\"t\":10,\"s\":[100]}]}";
+    String json = "{\"v\":\"5.1.0\",\"fr\":10,\"ip\":0,\"op\":100,\"w\":100,\"h\":100,\"assets\":[" +
+        "{\"id\":\"comp_0\",\"layers\":[" + layer(1, animatedOpacity, 0, 100, 0) + "]}]," +
+        "\"layers\":[{\"ty\":0,\"refId\":\"comp_0\",\"ind\":1,\"ks\":" + transform("{\"k\":100}") +
+        ",\"w\":100,\"h\":100,\"ip\":0,\"op\":200,\"st\":20,\"sr\":2}]}";
+    List<StaticRange> ranges = fromJson(json).getStaticRanges();
+    // The precomp is stretched to twice its length and starts at frame 20 of its own time.
+    assertEquals(2, ranges.size());
+    assertRange(0f, 39.99f, ranges.get(0));
+    assertRange(60.01f, 99.99f, ranges.get(1));
+  }
+
+  @Test
+  public void testTimeRemappedPrecompOnlyChangesWithTheRemap() {
+    String animatedOpacity = "{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[100]},{\"t\":100,\"s\":[100]}]}";
+    String timeRemap = "{\"a\":1,\"k\":[{\"t\":20,\"s\":[0],\"e\":[1]},{\"t\":30,\"s\":[1]}]}";
+    String json = "{\"v\":\"5.1.0\",\"fr\":10,\"ip\":0,\"op\":100,\"w\":100,\"h\":100,\"assets\":[" +
+        "{\"id\":\"comp_0\",\"layers\":[" + layer(1, animatedOpacity, 0, 100, 0) + "]}]," +
+        "\"layers\":[{\"ty\":0,\"refId\":\"comp_0\",\"ind\":1,\"ks\":" + transform("{\"k\":100}") +
+        ",\"tm\":" + timeRemap + ",\"w\":100,\"h\":100,\"ip\":0,\"op\":100,\"st\":0}]}";
+    List<StaticRange> ranges = fromJson(json).getStaticRanges();
+    assertEquals(2, ranges.size());
+    assertRange(0f, 19.99f, ranges.get(0));
+    assertRange(30.01f, 99.99f, ranges.get(1));
+  }
+
+  private static void assertRange(float startFrame, float endFrame, StaticRange range) {
+    assertEquals(startFrame, range.startFrame, 0.001f);
+    assertEquals(endFrame, range.endFrame, 0.001f);
+  }
+
+  private static String transform(String opacity) {
+    return "{\"o\":" + opacity + ",\"r\":{\"k\":0},\"p\":{\"k\":[0,0,0]},\"a\":{\"k\":[0,0,0]}," +
+        "\"s\":{\"k\":[100,100,100]}}";
+  }
+
+  private static String layer(int index, String opacity, int inFrame, int outFrame, int startFrame) {
+    return "{\"ty\":3,\"ind\":" + index + ",\"ks\":" + transform(opacity) + ",\"ip\":" + inFrame +
+        ",\"op\":" + outFrame + ",\"st\":" + startFrame + "}";
+  }
+
+  private static LottieComposition composition(String layer) {
+    return fromJson("{\"v\":\"5.1.0\",\"fr\":10,\"ip\":0,\"op\":100,\"w\":100,\"h\":100,\"assets\":[]," +
+        "\"layers\":[" + layer + "]}");
+  }
+
+  private static LottieComposition fromJson(String json) {
+    return LottieCompositionFactory.fromJsonStringSync(json, null).getValue();
+  }
+}
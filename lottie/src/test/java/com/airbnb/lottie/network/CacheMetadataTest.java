@@ -0,0 +1,74 @@
+package com.airbnb.lottie.network;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CacheMetadataTest extends BaseTest {
+
+  @Test
+  public void testMaxAge() {
+    CacheMetadata metadata = CacheMetadata.fromHeaders("public, max-age=60", "\"abc\"", null, 1000);
+    assertTrue(metadata.isFresh(1000 + 59_000));
+    assertFalse(metadata.isFresh(1000 + 60_000));
+    assertFalse(metadata.isUsableWhileRevalidating(1000 + 60_000));
+  }
+
+  @Test
+  public void testStaleWhileRevalidate() {
+    CacheMetadata metadata = CacheMetadata.fromHeaders("max-age=60, stale-while-revalidate=30", null, null, 0);
+    assertFalse(metadata.isFresh(70_000));
+    assertTrue(metadata.isUsableWhileRevalidating(70_000));
+    assertFalse(metadata.isUsableWhileRevalidating(90_000));
+  }
+
+  @Test
+  public void testValidatorWithoutMaxAgeIsAlwaysRevalidated() {
+    CacheMetadata metadata = CacheMetadata.fromHeaders(null, null, "Wed, 21 Oct 2015 07:28:00 GMT", 0);
+    assertFalse(metadata.isFresh(0));
+    assertTrue(metadata.isUsableWhileRevalidating(Long.MAX_VALUE / 2));
+  }
+
+  @Test
+  public void testNoHeadersNeverExpire() {
+    CacheMetadata metadata = CacheMetadata.fromHeaders(null, null, null, 0);
+    assertTrue(metadata.isFresh(Long.MAX_VALUE / 2));
+  }
+
+  @Test
+  public void testNoCacheWinsOverMaxAge() {
+    CacheMetadata metadata = CacheMetadata.fromHeaders("max-age=60, no-cache", "\"abc\"", null, 0);
+    assertFalse(metadata.isFresh(0));
+  }
+
+  @Test
+  public void testNoCacheIsRevalidatedFirst() {
+    CacheMetadata metadata = CacheMetadata.fromHeaders("no-cache", "\"abc\"", null, 0);
+    assertFalse(metadata.isUsableWhileRevalidating(0));
+  }
+
+  @Test
+  public void testNoStore() {
+    assertTrue(CacheMetadata.fromHeaders("no-store", null, null, 0).noStore);
+  }
+
+  @Test
+  public void testRoundTrip() {
+    CacheMetadata metadata =
+        CacheMetadata.fromHeaders("max-age=60, stale-while-revalidate=30", "W/\"a b\"", null, 1234);
+    StringBuilder line = new StringBuilder("PUT");
+    metadata.appendTo(line);
+    CacheMetadata read = CacheMetadata.parse(line.toString().split(" ", -1), 1);
+
+    assertEquals("W/\"a b\"", read.etag);
+    assertNull(read.lastModified);
+    assertEquals(1234, read.fetchedAtMs);
+    assertEquals(60, read.maxAgeSeconds);
+    assertEquals(30, read.staleWhileRevalidateSeconds);
+  }
+}
@@ -0,0 +1,133 @@
+package com.airbnb.lottie.network;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultLottieNetworkFetcherTest extends BaseTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private TestHttpServer server;
+  private DefaultLottieNetworkFetcher fetcher;
+
+  @Before
+  public void setup() throws IOException {
+    server = new TestHttpServer();
+    fetcher = new DefaultLottieNetworkFetcher().setInitialBackoffMillis(1);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  @Test
+  public void testDecodesGzip() throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+    gzip.write("{\"v\":\"5.0.0\"}".getBytes(UTF_8));
+    gzip.close();
+    server.enqueue(new TestHttpServer.Response(200)
+        .header("Content-Encoding", "gzip")
+        .body(compressed.toByteArray()));
+
+    LottieFetchResult result = fetcher.fetchSync(server.url("/a.json"), Collections.<String, String>emptyMap());
+    assertEquals("{\"v\":\"5.0.0\"}", read(result));
+    assertTrue(server.getRequests().get(0).headers.get("accept-encoding").contains("gzip"));
+  }
+
+  @Test
+  public void testSendsHeaders() throws IOException {
+    server.enqueue(new TestHttpServer.Response(200).body("{}"));
+    fetcher.addHeader("Authorization", "Bearer token");
+
+    read(fetcher.fetchSync(server.url("/a.json"), Collections.singletonMap("If-None-Match", "\"abc\"")));
+    TestHttpServer.Request request = server.getRequests().get(0);
+    assertEquals("Bearer token", request.headers.get("authorization"));
+    assertEquals("\"abc\"", request.headers.get("if-none-match"));
+  }
+
+  @Test
+  public void testRetriesServerErrors() throws IOException {
+    server.enqueue(new TestHttpServer.Response(503));
+    server.enqueue(new TestHttpServer.Response(500));
+    server.enqueue(new TestHttpServer.Response(200).body("{}"));
+
+    LottieFetchResult result = fetcher.fetchSync(server.url("/a.json"), Collections.<String, String>emptyMap());
+    assertEquals(200, result.responseCode());
+    assertEquals("{}", read(result));
+    assertEquals(3, server.getRequests().size());
+  }
+
+  @Test
+  public void testGivesUpAfterMaxRetries() throws IOException {
+    server.enqueue(new TestHttpServer.Response(503));
+    server.enqueue(new TestHttpServer.Response(503));
+    fetcher.setMaxRetries(1);
+
+    LottieFetchResult result = fetcher.fetchSync(server.url("/a.json"), Collections.<String, String>emptyMap());
+    assertEquals(503, result.responseCode());
+    result.close();
+    assertEquals(2, server.getRequests().size());
+  }
+
+  @Test
+  public void testDoesNotRetryClientErrors() throws IOException {
+    server.enqueue(new TestHttpServer.Response(404).body("Not found"));
+
+    LottieFetchResult result = fetcher.fetchSync(server.url("/a.json"), Collections.<String, String>emptyMap());
+    assertEquals(404, result.responseCode());
+    assertTrue(result.error().contains("Not found"));
+    result.close();
+    assertEquals(1, server.getRequests().size());
+  }
+
+  @Test
+  public void testRetriesTimeouts() throws IOException {
+    server.enqueue(new TestHttpServer.Response(200).body("{\"slow\":true}").delayMs(1000));
+    server.enqueue(new TestHttpServer.Response(200).body("{}"));
+    fetcher.setReadTimeoutMillis(100);
+
+    LottieFetchResult result = fetcher.fetchSync(server.url("/a.json"), Collections.<String, String>emptyMap());
+    assertEquals("{}", read(result));
+    assertEquals(2, server.getConnectionCount());
+  }
+
+  @Test
+  public void testReusesConnections() throws IOException {
+    server.enqueue(new TestHttpServer.Response(200).body("{}"));
+    server.enqueue(new TestHttpServer.Response(200).body("{}"));
+
+    read(fetcher.fetchSync(server.url("/a.json"), Collections.<String, String>emptyMap()));
+    read(fetcher.fetchSync(server.url("/b.json"), Collections.<String, String>emptyMap()));
+    assertEquals(2, server.getRequests().size());
+    assertEquals(1, server.getConnectionCount());
+  }
+
+  private static String read(LottieFetchResult result) throws IOException {
+    try {
+      InputStream stream = result.bodyByteStream();
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      int read;
+      while ((read = stream.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+      return new String(bytes.toByteArray(), UTF_8);
+    } finally {
+      result.close();
+    }
+  }
+}
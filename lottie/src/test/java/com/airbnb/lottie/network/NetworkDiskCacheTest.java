@@ -0,0 +1,160 @@
+package com.airbnb.lottie.network;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NetworkDiskCacheTest extends BaseTest {
+  private static final CacheMetadata METADATA = CacheMetadata.fromHeaders("max-age=60", "\"abc\"", null, 1000);
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File directory;
+
+  @Before
+  public void setup() {
+    directory = new File(temporaryFolder.getRoot(), "network");
+  }
+
+  @Test
+  public void testKeysDontCollide() {
+    assertFalse(NetworkDiskCache.keyFor("https://a.com/a/b.json").equals(NetworkDiskCache.keyFor("https://a.com/ab.json")));
+  }
+
+  @Test
+  public void testEntriesSurviveRestart() throws IOException {
+    NetworkDiskCache cache = new NetworkDiskCache(directory, null);
+    put(cache, "key", FileExtension.Zip, 100);
+
+    NetworkDiskCache.Entry entry = new NetworkDiskCache(directory, null).get("key");
+    assertNotNull(entry);
+    assertEquals(FileExtension.Zip, entry.extension);
+    assertEquals(100, entry.sizeBytes);
+    assertEquals("\"abc\"", entry.metadata.etag);
+    assertEquals(60, entry.metadata.maxAgeSeconds);
+  }
+
+  @Test
+  public void testUpdatedMetadataSurvivesRestart() throws IOException {
+    NetworkDiskCache cache = new NetworkDiskCache(directory, null);
+    put(cache, "key", FileExtension.Json, 100);
+    cache.updateMetadata("key", CacheMetadata.fromHeaders("max-age=120", "\"def\"", null, 2000));
+
+    CacheMetadata metadata = new NetworkDiskCache(directory, null).getMetadata("key");
+    assertNotNull(metadata);
+    assertEquals("\"def\"", metadata.etag);
+    assertEquals(2000, metadata.fetchedAtMs);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() throws IOException {
+    NetworkDiskCache cache = new NetworkDiskCache(directory, null);
+    cache.resize(200);
+    put(cache, "a", FileExtension.Json, 100);
+    put(cache, "b", FileExtension.Json, 100);
+    assertNotNull(cache.get("a"));
+    put(cache, "c", FileExtension.Json, 100);
+
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+    assertEquals(200, cache.getSizeBytes());
+    assertFalse(cache.fileFor("b", FileExtension.Json).exists());
+
+    // The order is restored from the journal.
+    cache = new NetworkDiskCache(directory, null);
+    cache.resize(200);
+    assertNotNull(cache.get("a"));
+    put(cache, "d", FileExtension.Json, 100);
+    assertNull(cache.get("c"));
+    assertNotNull(cache.get("a"));
+  }
+
+  @Test
+  public void testFilesLeftBehindByACrashAreDeleted() throws IOException {
+    NetworkDiskCache cache = new NetworkDiskCache(directory, null);
+    put(cache, "key", FileExtension.Json, 100);
+    File tempFile = cache.newTempFile("other");
+    write(tempFile, 10);
+    File orphan = new File(directory, "orphan.json");
+    write(orphan, 10);
+
+    cache = new NetworkDiskCache(directory, null);
+    assertNotNull(cache.get("key"));
+    assertFalse(tempFile.exists());
+    assertFalse(orphan.exists());
+    assertEquals(100, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testEntryWithoutAFileIsForgotten() throws IOException {
+    NetworkDiskCache cache = new NetworkDiskCache(directory, null);
+    put(cache, "key", FileExtension.Json, 100);
+    assertTrue(cache.fileFor("key", FileExtension.Json).delete());
+
+    cache = new NetworkDiskCache(directory, null);
+    assertNull(cache.get("key"));
+    assertEquals(0, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testTruncatedJournalLineIsSkipped() throws IOException {
+    NetworkDiskCache cache = new NetworkDiskCache(directory, null);
+    put(cache, "key", FileExtension.Json, 100);
+    FileOutputStream output = new FileOutputStream(new File(directory, "journal"), true);
+    output.write("PUT other Js".getBytes("UTF-8"));
+    output.close();
+
+    cache = new NetworkDiskCache(directory, null);
+    assertNotNull(cache.get("key"));
+    assertNull(cache.get("other"));
+  }
+
+  @Test
+  public void testLegacyFilesAreDeleted() throws IOException {
+    File legacyFile = new File(temporaryFolder.getRoot(), "lottie_cache_httpsacomajson.json");
+    write(legacyFile, 10);
+    File otherFile = new File(temporaryFolder.getRoot(), "other.json");
+    write(otherFile, 10);
+
+    new NetworkDiskCache(directory, temporaryFolder.getRoot()).get("key");
+    assertFalse(legacyFile.exists());
+    assertTrue(otherFile.exists());
+  }
+
+  @Test
+  public void testClear() throws IOException {
+    NetworkDiskCache cache = new NetworkDiskCache(directory, null);
+    put(cache, "key", FileExtension.Json, 100);
+    cache.clear();
+
+    assertNull(new NetworkDiskCache(directory, null).get("key"));
+    assertFalse(cache.fileFor("key", FileExtension.Json).exists());
+  }
+
+  private static void put(NetworkDiskCache cache, String key, FileExtension extension, int sizeBytes)
+      throws IOException {
+    File tempFile = cache.newTempFile(key);
+    write(tempFile, sizeBytes);
+    cache.commit(key, extension, tempFile, METADATA);
+  }
+
+  private static void write(File file, int sizeBytes) throws IOException {
+    FileOutputStream output = new FileOutputStream(file);
+    output.write(new byte[sizeBytes]);
+    output.close();
+  }
+}
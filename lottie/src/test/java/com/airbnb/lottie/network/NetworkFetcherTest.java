@@ -0,0 +1,172 @@
+package com.airbnb.lottie.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieCompositionFactory;
+import com.airbnb.lottie.LottieResult;
+import com.airbnb.lottie.LottieTask;
+import com.airbnb.lottie.model.LottieCompositionCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NetworkFetcherTest extends BaseTest {
+  private static final String JSON = "{\"v\":\"4.11.1\",\"fr\":60,\"ip\":0,\"op\":180,\"w\":300,\"h\":300,\"nm\":\"Comp 1\",\"ddd\":0,\"assets\":[]," +
+      "\"layers\":[{\"ddd\":0,\"ind\":1,\"ty\":4,\"nm\":\"Shape Layer 1\",\"sr\":1,\"ks\":{\"o\":{\"a\":0,\"k\":100,\"ix\":11},\"r\":{\"a\":0," +
+      "\"k\":0,\"ix\":10},\"p\":{\"a\":0,\"k\":[150,150,0],\"ix\":2},\"a\":{\"a\":0,\"k\":[0,0,0],\"ix\":1},\"s\":{\"a\":0,\"k\":[100,100,100]," +
+      "\"ix\":6}},\"ao\":0,\"shapes\":[{\"ty\":\"rc\",\"d\":1,\"s\":{\"a\":0,\"k\":[100,100],\"ix\":2},\"p\":{\"a\":0,\"k\":[0,0],\"ix\":3}," +
+      "\"r\":{\"a\":0,\"k\":0,\"ix\":4},\"nm\":\"Rectangle Path 1\",\"mn\":\"ADBE Vector Shape - Rect\",\"hd\":false},{\"ty\":\"fl\"," +
+      "\"c\":{\"a\":0,\"k\":[0.928262987324,0,0,1],\"ix\":4},\"o\":{\"a\":0,\"k\":100,\"ix\":5},\"r\":1,\"nm\":\"Fill 1\",\"mn\":\"ADBE Vector " +
+      "Graphic - Fill\",\"hd\":false}],\"ip\":0,\"op\":180,\"st\":0,\"bm\":0}]}";
+
+  private TestHttpServer server;
+
+  @Before
+  public void setup() throws IOException {
+    server = new TestHttpServer();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+    LottieCompositionFactory.setNetworkFetcher(null);
+  }
+
+  @Test
+  public void testNotModifiedReusesComposition() {
+    String url = server.url("/revalidate.json");
+    server.enqueue(new TestHttpServer.Response(200)
+        .header("Content-Type", "application/json")
+        .header("ETag", "\"v1\"")
+        .body(JSON));
+    LottieResult<LottieComposition> result = LottieCompositionFactory.fromUrlSync(RuntimeEnvironment.application, url);
+    assertNotNull(result.getValue());
+
+    server.enqueue(new TestHttpServer.Response(304).header("ETag", "\"v1\""));
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = LottieTask.EXECUTOR;
+    LottieTask.EXECUTOR = queueingExecutor(queued);
+    try {
+      // Without a max-age the cached animation is used right away and revalidated in the background.
+      LottieResult<LottieComposition> revalidatedResult =
+          LottieCompositionFactory.fromUrlSync(RuntimeEnvironment.application, url);
+      assertSame(result.getValue(), revalidatedResult.getValue());
+      assertEquals(1, server.getRequests().size());
+      assertEquals(1, queued.size());
+      queued.remove(0).run();
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+    assertEquals(2, server.getRequests().size());
+    assertEquals("\"v1\"", server.getRequests().get(1).headers.get("if-none-match"));
+  }
+
+  @Test
+  public void testFromUrlsDeduplicatesAndBoundsConnections() throws InterruptedException {
+    for (int i = 0; i < 4; i++) {
+      server.enqueue(new TestHttpServer.Response(200)
+          .header("Content-Type", "application/json")
+          .body(JSON)
+          .delayMs(100));
+    }
+    List<String> urls = Arrays.asList(server.url("/batch1.json"), server.url("/batch2.json"),
+        server.url("/batch1.json"), server.url("/batch3.json"), server.url("/batch4.json"));
+    Executor executor = LottieTask.EXECUTOR;
+    final Executor pool = Executors.newFixedThreadPool(4);
+    final AtomicInteger queuedCount = new AtomicInteger();
+    LottieTask.EXECUTOR = new Executor() {
+      @Override public void execute(@NonNull Runnable command) {
+        queuedCount.incrementAndGet();
+        pool.execute(command);
+      }
+    };
+    try {
+      Map<String, LottieTask<LottieComposition>> tasks =
+          LottieCompositionFactory.fromUrls(RuntimeEnvironment.application, urls, 2);
+      assertEquals(Arrays.asList(urls.get(0), urls.get(1), urls.get(3), urls.get(4)),
+          new ArrayList<>(tasks.keySet()));
+      // The other urls aren't queued until one of these is done so they don't take up a thread while waiting.
+      assertEquals(2, queuedCount.get());
+
+      long deadline = System.currentTimeMillis() + 10_000;
+      for (String url : tasks.keySet()) {
+        while (LottieCompositionCache.getInstance().get(NetworkFetcher.cacheKeyForUrl(url)) == null) {
+          assertTrue("Timed out loading " + url, System.currentTimeMillis() < deadline);
+          Thread.sleep(10);
+        }
+      }
+    } finally {
+      LottieTask.EXECUTOR = executor;
+    }
+    assertEquals(4, server.getRequests().size());
+    // Only two animations are downloaded at a time and the connections are reused.
+    assertTrue(server.getConnectionCount() <= 2);
+  }
+
+  @Test
+  public void testCustomFetcher() {
+    LottieCompositionFactory.setNetworkFetcher(new LottieNetworkFetcher() {
+      @NonNull @Override public LottieFetchResult fetchSync(@NonNull String url, @NonNull Map<String, String> headers) {
+        return new LottieFetchResult() {
+          @Override public int responseCode() {
+            return 200;
+          }
+
+          @NonNull @Override public InputStream bodyByteStream() {
+            return new ByteArrayInputStream(JSON.getBytes(Charset.forName("UTF-8")));
+          }
+
+          @Nullable @Override public String contentType() {
+            return "application/json";
+          }
+
+          @Nullable @Override public String header(@NonNull String name) {
+            return null;
+          }
+
+          @Nullable @Override public String error() {
+            return null;
+          }
+
+          @Override public void close() {
+          }
+        };
+      }
+    });
+
+    LottieResult<LottieComposition> result =
+        LottieCompositionFactory.fromUrlSync(RuntimeEnvironment.application, "https://example.com/custom.json");
+    assertNotNull(result.getValue());
+    assertEquals(0, server.getRequests().size());
+  }
+
+  private static Executor queueingExecutor(final List<Runnable> queued) {
+    return new Executor() {
+      @Override public void execute(@NonNull Runnable command) {
+        queued.add(command);
+      }
+    };
+  }
+}
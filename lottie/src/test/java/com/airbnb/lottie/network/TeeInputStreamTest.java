@@ -0,0 +1,61 @@
+package com.airbnb.lottie.network;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TeeInputStreamTest extends BaseTest {
+  private static final byte[] BYTES = "{\"v\":\"5.0.0\"}\n\n".getBytes(Charset.forName("UTF-8"));
+
+  @Test
+  public void testCopiesWhatIsRead() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    TeeInputStream stream = new TeeInputStream(new ByteArrayInputStream(BYTES), output);
+
+    byte[] buffer = new byte[4];
+    assertEquals(4, stream.read(buffer, 0, buffer.length));
+    assertEquals(BYTES[4], stream.read());
+    assertEquals(5, output.size());
+  }
+
+  @Test
+  public void testCloseCopiesTheRest() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    TeeInputStream stream = new TeeInputStream(new ByteArrayInputStream(BYTES), output);
+
+    stream.read(new byte[4], 0, 4);
+    assertFalse(stream.isCopyComplete());
+    stream.close();
+
+    assertTrue(stream.isCopyComplete());
+    assertArrayEquals(BYTES, output.toByteArray());
+  }
+
+  @Test
+  public void testFailedWriteDoesNotFailRead() throws IOException {
+    OutputStream output = new OutputStream() {
+      @Override public void write(int b) throws IOException {
+        throw new IOException("Disk full");
+      }
+    };
+    TeeInputStream stream = new TeeInputStream(new ByteArrayInputStream(BYTES), output);
+
+    byte[] buffer = new byte[BYTES.length];
+    assertEquals(BYTES.length, stream.read(buffer, 0, buffer.length));
+    stream.close();
+
+    assertArrayEquals(BYTES, buffer);
+    assertFalse(stream.isCopyComplete());
+  }
+}
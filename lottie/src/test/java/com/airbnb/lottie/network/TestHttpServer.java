@@ -0,0 +1,192 @@
+package com.airbnb.lottie.network;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal HTTP/1.1 server that runs in the test process. It serves queued responses in order and
+ * records the requests that it received.
+ */
+class TestHttpServer implements Closeable {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static class Response {
+    final int code;
+    final Map<String, String> headers = new LinkedHashMap<>();
+    byte[] body = new byte[0];
+    long delayMs;
+
+    Response(int code) {
+      this.code = code;
+    }
+
+    Response header(String name, String value) {
+      headers.put(name, value);
+      return this;
+    }
+
+    Response body(String body) {
+      return body(body.getBytes(UTF_8));
+    }
+
+    Response body(byte[] body) {
+      this.body = body;
+      return this;
+    }
+
+    /**
+     * Waits before responding to trigger read timeouts.
+     */
+    Response delayMs(long delayMs) {
+      this.delayMs = delayMs;
+      return this;
+    }
+  }
+
+  static class Request {
+    final String path;
+    /** Header names are lower case. */
+    final Map<String, String> headers;
+
+    Request(String path, Map<String, String> headers) {
+      this.path = path;
+      this.headers = headers;
+    }
+  }
+
+  private final ServerSocket serverSocket;
+  private final BlockingQueue<Response> responses = new LinkedBlockingQueue<>();
+  private final List<Request> requests = Collections.synchronizedList(new ArrayList<Request>());
+  private final List<Socket> sockets = Collections.synchronizedList(new ArrayList<Socket>());
+  private final AtomicInteger connectionCount = new AtomicInteger();
+
+  TestHttpServer() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+    Thread acceptThread = new Thread(new Runnable() {
+      @Override public void run() {
+        acceptConnections();
+      }
+    }, "TestHttpServer");
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+  }
+
+  String url(String path) {
+    return "http://127.0.0.1:" + serverSocket.getLocalPort() + path;
+  }
+
+  void enqueue(Response response) {
+    responses.add(response);
+  }
+
+  List<Request> getRequests() {
+    return new ArrayList<>(requests);
+  }
+
+  int getConnectionCount() {
+    return connectionCount.get();
+  }
+
+  @Override public void close() throws IOException {
+    serverSocket.close();
+    synchronized (sockets) {
+      for (Socket socket : sockets) {
+        socket.close();
+      }
+    }
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      final Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException e) {
+        return;
+      }
+      connectionCount.incrementAndGet();
+      sockets.add(socket);
+      Thread thread = new Thread(new Runnable() {
+        @Override public void run() {
+          try {
+            serveConnection(socket);
+          } catch (IOException | InterruptedException ignored) {
+          } finally {
+            try {
+              socket.close();
+            } catch (IOException ignored) {
+            }
+          }
+        }
+      }, "TestHttpServer connection");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  private void serveConnection(Socket socket) throws IOException, InterruptedException {
+    InputStream input = new BufferedInputStream(socket.getInputStream());
+    OutputStream output = socket.getOutputStream();
+    while (true) {
+      String requestLine = readLine(input);
+      if (requestLine == null || requestLine.isEmpty()) {
+        return;
+      }
+      Map<String, String> headers = new LinkedHashMap<>();
+      String line;
+      while ((line = readLine(input)) != null && !line.isEmpty()) {
+        int colon = line.indexOf(':');
+        headers.put(line.substring(0, colon).trim().toLowerCase(Locale.US), line.substring(colon + 1).trim());
+      }
+      requests.add(new Request(requestLine.split(" ")[1], headers));
+
+      Response response = responses.poll(5, TimeUnit.SECONDS);
+      if (response == null) {
+        response = new Response(404).body("No response was enqueued.");
+      }
+      if (response.delayMs > 0) {
+        Thread.sleep(response.delayMs);
+      }
+      StringBuilder head = new StringBuilder("HTTP/1.1 ").append(response.code).append(" Status\r\n");
+      head.append("Content-Length: ").append(response.body.length).append("\r\n");
+      for (Map.Entry<String, String> header : response.headers.entrySet()) {
+        head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+      }
+      head.append("\r\n");
+      output.write(head.toString().getBytes(UTF_8));
+      output.write(response.body);
+      output.flush();
+    }
+  }
+
+  private static String readLine(InputStream input) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = input.read()) != -1) {
+      if (b == '\n') {
+        String value = new String(line.toByteArray(), UTF_8);
+        return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+      }
+      line.write(b);
+    }
+    return null;
+  }
+}
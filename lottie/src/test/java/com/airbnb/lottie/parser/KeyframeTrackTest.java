@@ -0,0 +1,135 @@
+package com.airbnb.lottie.parser;
+
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.util.JsonReader;
+
+import androidx.collection.LongSparseArray;
+import androidx.collection.SparseArrayCompat;
+
+import com.airbnb.lottie.BaseTest;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieImageAsset;
+import com.airbnb.lottie.animation.keyframe.BaseKeyframeAnimation;
+import com.airbnb.lottie.animation.keyframe.ColorKeyframeAnimation;
+import com.airbnb.lottie.animation.keyframe.FloatKeyframeAnimation;
+import com.airbnb.lottie.animation.keyframe.FloatKeyframeTrack;
+import com.airbnb.lottie.model.Font;
+import com.airbnb.lottie.model.FontCharacter;
+import com.airbnb.lottie.model.Marker;
+import com.airbnb.lottie.model.animatable.AnimatableColorValue;
+import com.airbnb.lottie.model.animatable.AnimatableFloatValue;
+import com.airbnb.lottie.model.layer.Layer;
+import com.airbnb.lottie.value.Keyframe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KeyframeTrackTest extends BaseTest {
+
+  private LottieComposition composition;
+
+  @Before
+  public void setup() {
+    composition = new LottieComposition();
+    composition.init(new Rect(), 0, 100, 30, new ArrayList<Layer>(),
+        new LongSparseArray<Layer>(0), new HashMap<String, List<Layer>>(0),
+        new HashMap<String, LottieImageAsset>(0), new SparseArrayCompat<FontCharacter>(0),
+        new HashMap<String, Font>(0), new ArrayList<Marker>());
+  }
+
+  @Test
+  public void testAnimatedFloats() throws IOException {
+    AnimatableFloatValue value = AnimatableValueParser.parseFloat(reader(
+        "{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[10]},{\"t\":50,\"s\":[10],\"h\":1},{\"t\":100}]}"),
+        composition, false);
+    FloatKeyframeTrack track = value.getTrack();
+    assertFalse(value.isStatic());
+    // The last keyframe only provides the end frame of the one before it.
+    assertEquals(2, track.size());
+    assertEquals(50f, track.getEndFrame(0), 0f);
+    assertEquals(100f, track.getEndFrame(1), 0f);
+
+    FloatKeyframeAnimation animation = (FloatKeyframeAnimation) value.createAnimation();
+    animation.setProgress(0.25f);
+    assertEquals(5f, animation.getFloatValue(), 0.001f);
+    animation.setProgress(0.75f);
+    assertEquals(10f, animation.getFloatValue(), 0f);
+    animation.setProgress(0.1f);
+    assertEquals(2f, animation.getValue(), 0.001f);
+
+    List<Keyframe<Float>> keyframes = value.getKeyframes();
+    assertEquals(2, keyframes.size());
+    assertEquals(50f, keyframes.get(0).endFrame, 0f);
+    assertEquals(10f, keyframes.get(0).endValue, 0f);
+    assertSame(keyframes.get(1).startValue, keyframes.get(1).endValue);
+  }
+
+  @Test
+  public void testHoldDoesNotNotify() throws IOException {
+    AnimatableFloatValue value = AnimatableValueParser.parseFloat(reader(
+        "{\"a\":1,\"k\":[{\"t\":0,\"s\":[0],\"e\":[10]},{\"t\":50,\"s\":[10],\"h\":1},{\"t\":100}]}"),
+        composition, false);
+    assertTrue(value.getTrack().isStatic(1));
+    FloatKeyframeAnimation animation = (FloatKeyframeAnimation) value.createAnimation();
+    final int[] notifications = new int[1];
+    animation.addUpdateListener(new BaseKeyframeAnimation.AnimationListener() {
+      @Override public void onValueChanged() {
+        notifications[0]++;
+      }
+    });
+
+    animation.setProgress(0.25f);
+    animation.setProgress(0.4f);
+    assertEquals(2, notifications[0]);
+    // Entering the hold changes the value once.
+    animation.setProgress(0.6f);
+    assertEquals(3, notifications[0]);
+    animation.setProgress(0.7f);
+    animation.setProgress(0.9f);
+    assertEquals(3, notifications[0]);
+    assertEquals(10f, animation.getFloatValue(), 0f);
+    animation.setProgress(0.2f);
+    assertEquals(4, notifications[0]);
+  }
+
+  @Test
+  public void testStaticColor() throws IOException {
+    AnimatableColorValue value = AnimatableValueParser.parseColor(reader("{\"a\":0,\"k\":[1,0,0,1]}"), composition);
+    assertTrue(value.isStatic());
+    assertEquals(1, value.getTrack().size());
+
+    ColorKeyframeAnimation animation = (ColorKeyframeAnimation) value.createAnimation();
+    animation.setProgress(0.5f);
+    assertEquals(Color.RED, animation.getIntValue());
+  }
+
+  @Test
+  public void testMissingValues() throws IOException {
+    AnimatableFloatValue value =
+        AnimatableValueParser.parseFloat(reader("{\"a\":1,\"k\":[{\"t\":0}]}"), composition, false);
+    assertFalse(value.getTrack().hasStartValue(0));
+    try {
+      ((FloatKeyframeAnimation) value.createAnimation()).getFloatValue();
+      fail();
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+  }
+
+  private static JsonReader reader(String json) {
+    return new JsonReader(new StringReader(json));
+  }
+}
@@ -0,0 +1,79 @@
+package com.airbnb.lottie.utils;
+
+import com.airbnb.lottie.BaseTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CubicBezierInterpolatorTest extends BaseTest {
+
+  @Test
+  public void testEase() {
+    CubicBezierInterpolator ease = new CubicBezierInterpolator(0.25f, 0.1f, 0.25f, 1f);
+    assertEquals(0f, ease.getInterpolation(0f), 0f);
+    assertEquals(0.8024034f, ease.getInterpolation(0.5f), 0.0001f);
+    assertEquals(1f, ease.getInterpolation(1f), 0f);
+  }
+
+  @Test
+  public void testMatchesCurve() {
+    float[][] curves = {
+        {0.25f, 0.1f, 0.25f, 1f},
+        {0.42f, 0f, 0.58f, 1f},
+        {0.68f, -0.55f, 0.265f, 1.55f},
+        // Flat at both ends so the solver has to bisect there.
+        {0f, 0.5f, 1f, 0.5f},
+        {0.333f, 0f, 0.667f, 1f},
+    };
+    for (float[] curve : curves) {
+      CubicBezierInterpolator interpolator = new CubicBezierInterpolator(curve[0], curve[1], curve[2], curve[3]);
+      for (int i = 0; i <= 1000; i++) {
+        float x = i / 1000f;
+        assertEquals("x " + x, solve(curve, x), interpolator.getInterpolation(x), 0.0005f);
+      }
+    }
+  }
+
+  @Test
+  public void testObtainInterns() {
+    CubicBezierInterpolator interpolator = CubicBezierInterpolator.obtain(0.1f, 0.2f, 0.3f, 0.4f);
+    assertSame(interpolator, CubicBezierInterpolator.obtain(0.1f, 0.2f, 0.3f, 0.4f));
+    assertNotSame(interpolator, CubicBezierInterpolator.obtain(0.1f, 0.2f, 0.3f, 0.5f));
+
+    // Enough curves for the table to grow.
+    CubicBezierInterpolator[] interpolators = new CubicBezierInterpolator[500];
+    for (int i = 0; i < interpolators.length; i++) {
+      interpolators[i] = CubicBezierInterpolator.obtain(i / 500f, 0f, 1f, 1f);
+    }
+    for (int i = 0; i < interpolators.length; i++) {
+      assertSame(interpolators[i], CubicBezierInterpolator.obtain(i / 500f, 0f, 1f, 1f));
+    }
+    assertSame(interpolator, CubicBezierInterpolator.obtain(0.1f, 0.2f, 0.3f, 0.4f));
+  }
+
+  /**
+   * Solves the curve for y at x by bisecting t in double precision.
+   */
+  private static double solve(float[] curve, double x) {
+    double low = 0;
+    double high = 1;
+    double t = 0.5;
+    for (int i = 0; i < 60; i++) {
+      t = (low + high) / 2;
+      if (bezier(curve[0], curve[2], t) < x) {
+        low = t;
+      } else {
+        high = t;
+      }
+    }
+    return bezier(curve[1], curve[3], t);
+  }
+
+  private static double bezier(double p1, double p2, double t) {
+    double u = 1 - t;
+    return 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t;
+  }
+}